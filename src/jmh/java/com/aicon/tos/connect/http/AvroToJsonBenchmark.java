@@ -0,0 +1,83 @@
+package com.aicon.tos.connect.http;
+
+import com.avlino.aicon.ITVJobResequenceResponse.itv_job_resequence_response_value;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.io.JsonEncoder;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Avro to JSON conversion of {@link JsonParser} with the conversion it replaced: encoding with the Avro
+ * JSON encoder, parsing that with a new ObjectMapper, removing the union wrappers and writing it again.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AvroToJsonBenchmark {
+
+    private itv_job_resequence_response_value record;
+
+    @Setup
+    public void setup() {
+        record = new itv_job_resequence_response_value();
+        record.setAPIIdentifier(12);
+        record.setRequestIdx("REQ-12345");
+        record.setTimestamp(Instant.ofEpochMilli(1730279632849L));
+        record.setErrCode(0);
+        record.setErrMsg("Operation completed successfully");
+    }
+
+    @Benchmark
+    public void encoderAndNewMapper(Blackhole bh) throws Exception {
+        bh.consume(encoderAndNewMapper(record));
+    }
+
+    @Benchmark
+    public void avroJsonWriter(Blackhole bh) {
+        bh.consume(JsonParser.convertAvroToJson(record));
+    }
+
+    private static String encoderAndNewMapper(SpecificRecordBase avroObject) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        SpecificDatumWriter<SpecificRecordBase> writer = new SpecificDatumWriter<>(avroObject.getSchema());
+        JsonEncoder jsonEncoder = EncoderFactory.get().jsonEncoder(avroObject.getSchema(), outputStream);
+        writer.write(avroObject, jsonEncoder);
+        jsonEncoder.flush();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode jsonNode = objectMapper.readTree(outputStream.toString(StandardCharsets.UTF_8));
+        unwrapUnions(jsonNode);
+        return objectMapper.writeValueAsString(jsonNode);
+    }
+
+    private static void unwrapUnions(JsonNode node) {
+        if (node instanceof ObjectNode objectNode) {
+            Iterator<Map.Entry<String, JsonNode>> fields = objectNode.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> entry = fields.next();
+                JsonNode child = entry.getValue();
+                if (child.isObject() && child.size() == 1) {
+                    Map.Entry<String, JsonNode> single = child.fields().next();
+                    objectNode.set(entry.getKey(), "null".equals(single.getKey()) ? null : single.getValue());
+                } else {
+                    unwrapUnions(child);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.aicon.tos.connect.http.transformers;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming {@link SoapCodec} with the DOM based transformation it replaced, for a response with a
+ * custom-response of the size of a large yard query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SoapCodecBenchmark {
+    static final String N4_SCOPE = "PTM/PTM/RTM/YARD";
+
+    @Param({"10", "1000"})
+    int nrMoves;
+
+    private String request;
+    private String soapResponse;
+
+    @Setup
+    public void setup() {
+        StringBuilder moves = new StringBuilder();
+        for (int i = 0; i < nrMoves; i++) {
+            moves.append("<move gkey=\"").append(100000 + i).append("\">")
+                    .append("<position>Y-PTM-01C").append(String.format("%03d", i % 1000)).append("D.2</position>")
+                    .append("<equipment>MSCU").append(1000000 + i).append("</equipment>")
+                    .append("</move>");
+        }
+        String argoResponse = "<argo-response status=\"0\" status-id=\"OK\">" +
+                "<argo:custom-response xmlns:argo=\"http://www.navis.com/argo\">" +
+                "<aicon-yard-response>" + moves + "</aicon-yard-response>" +
+                "</argo:custom-response></argo-response>";
+        soapResponse = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\"><soapenv:Body>" +
+                "<basicInvokeResponse xmlns=\"http://www.navis.com/services/argobasicservice\">" +
+                "<basicInvokeResponse>" + StringEscapeUtils.escapeXml10(argoResponse) + "</basicInvokeResponse>" +
+                "</basicInvokeResponse></soapenv:Body></soapenv:Envelope>";
+        request = "<aicon-yard-request><moves>" + moves + "</moves></aicon-yard-request>";
+    }
+
+    @Benchmark
+    public void concatenateRequest(Blackhole bh) {
+        bh.consume(concatenateEnvelope(request, N4_SCOPE));
+    }
+
+    @Benchmark
+    public void codecEncodeRequest(Blackhole bh) {
+        bh.consume(SoapCodec.encodeRequest(request, N4_SCOPE));
+    }
+
+    @Benchmark
+    public void domTransformResponse(Blackhole bh) throws Exception {
+        bh.consume(domTransformResponse(soapResponse));
+    }
+
+    @Benchmark
+    public void codecDecodeResponse(Blackhole bh) {
+        bh.consume(SoapCodec.decodeResponse(soapResponse));
+    }
+
+    /**
+     * The envelope as it was built before, with a StringBuilder per call, encoded for the HTTP body.
+     */
+    private static byte[] concatenateEnvelope(String request, String n4Scope) {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append("<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" ");
+        stringBuilder.append("xmlns:arg=\"http://www.navis.com/services/argobasicservice\">\n");
+        stringBuilder.append("<soapenv:Header/>\n");
+        stringBuilder.append("<soapenv:Body>\n");
+        stringBuilder.append("<arg:basicInvoke>\n");
+        stringBuilder.append("<arg:scopeCoordinateIds>").append(n4Scope).append("</arg:scopeCoordinateIds>\n");
+        stringBuilder.append("<arg:xmlDoc><![CDATA[\n");
+        stringBuilder.append("<custom class=\"AlenzaYardsightWebserviceListener\" type=\"extension\">");
+        stringBuilder.append(request);
+        stringBuilder.append("</custom>\n");
+        stringBuilder.append("    ]]></arg:xmlDoc>\n");
+        stringBuilder.append("</arg:basicInvoke>\n");
+        stringBuilder.append("</soapenv:Body>\n");
+        stringBuilder.append("</soapenv:Envelope>");
+        return stringBuilder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The response transformation as it was done before: two DOM parses and a Transformer per child node.
+     */
+    private static String domTransformResponse(String soapResponse) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        Document document = builder.parse(new InputSource(new StringReader(soapResponse)));
+        Node bodyNode = document.getElementsByTagNameNS("*", "Body").item(0);
+        Node basicInvokeNode = ((Element) bodyNode).getElementsByTagNameNS("*", "basicInvokeResponse").item(0);
+        String unescapedXml = StringEscapeUtils.unescapeXml(basicInvokeNode.getTextContent());
+        Document unescapedDocument = builder.parse(new InputSource(new StringReader(unescapedXml)));
+        Node customResponseNode = unescapedDocument.getElementsByTagNameNS("http://www.navis.com/argo", "custom-response").item(0);
+
+        StringBuilder resultBuilder = new StringBuilder();
+        for (Node child = customResponseNode.getFirstChild(); child != null; child = child.getNextSibling()) {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            transformer.setOutputProperty(OutputKeys.INDENT, "no");
+            StringWriter writer = new StringWriter();
+            transformer.transform(new DOMSource(child), new StreamResult(writer));
+            resultBuilder.append(writer);
+        }
+        return resultBuilder.toString().trim();
+    }
+}
@@ -0,0 +1,83 @@
+package com.aicon.tos.interceptor;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.aicon.tos.interceptor.SyntheticCdcRecords.INV_WI;
+
+/**
+ * Measures the field access methods of {@link CollectedMessage} used by the scenarios to decide on a message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollectedMessageBenchmark {
+    static final int NR_MESSAGES = 1000;
+
+    private List<CollectedMessage> messages;
+
+    @Setup
+    public void setup() throws IOException {
+        messages = new SyntheticCdcRecords(INV_WI, 42).createWorkInstructionRecords(NR_MESSAGES, 50).stream()
+                .map(rec -> InterceptorCollect.toCollectedMessage(INV_WI, rec))
+                .toList();
+    }
+
+    /**
+     * First call on a message, so the changed fields are determined (a FilteredMessage starts without the cached list).
+     */
+    @Benchmark
+    @OperationsPerInvocation(NR_MESSAGES)
+    public void getChangedFields(Blackhole bh) {
+        for (CollectedMessage message : messages) {
+            bh.consume(new FilteredMessage(message).getChangedFields());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NR_MESSAGES)
+    public void hasAllChanged(Blackhole bh) {
+        for (CollectedMessage message : messages) {
+            bh.consume(message.hasAllChanged("move_stage", "itv_gkey"));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NR_MESSAGES)
+    public void getFieldValueAsString(Blackhole bh) {
+        for (CollectedMessage message : messages) {
+            bh.consume(message.getFieldValueAsString("move_kind"));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NR_MESSAGES)
+    public void getFieldValueAsLong(Blackhole bh) {
+        for (CollectedMessage message : messages) {
+            bh.consume(message.getFieldValueAsLong("work_queue_gkey", null));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NR_MESSAGES)
+    public void getFieldValueAsDouble(Blackhole bh) {
+        for (CollectedMessage message : messages) {
+            bh.consume(message.getFieldValueAsDouble("move_number", 0.0D));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NR_MESSAGES)
+    public void getLongValue(Blackhole bh) {
+        for (CollectedMessage message : messages) {
+            bh.consume(message.getLongValue("work_queue_gkey", -1L));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.aicon.tos.interceptor;
+
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.aicon.tos.interceptor.SyntheticCdcRecords.INV_WI;
+
+/**
+ * Measures the conversion of polled CDC records into {@link CollectedMessage}s, as done by
+ * {@link InterceptorCollect#collectMessages()} for every record on the topic.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InterceptorCollectBenchmark {
+    static final int NR_RECORDS = 1000;
+
+    private List<ConsumerRecord<GenericRecord, GenericRecord>> records;
+
+    @Setup
+    public void setup() throws IOException {
+        records = new SyntheticCdcRecords(INV_WI, 42).createWorkInstructionRecords(NR_RECORDS, 50);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NR_RECORDS)
+    public void toCollectedMessage(Blackhole bh) {
+        for (ConsumerRecord<GenericRecord, GenericRecord> rec : records) {
+            bh.consume(InterceptorCollect.toCollectedMessage(INV_WI, rec));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.aicon.tos.interceptor;
+
+import com.aicon.tos.interceptor.decide.scenarios.Scenario;
+import com.aicon.tos.interceptor.decide.scenarios.n4.VesselDischargeAGVASC;
+import com.aicon.tos.interceptor.decide.scenarios.n4.VesselDischargeRTG;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.aicon.tos.interceptor.SyntheticCdcRecords.INV_WI;
+
+/**
+ * Measures the relevance check of {@link InterceptorFilter} on inv_wi messages against the vessel discharge scenarios.
+ * The scenarios are initialized without connectors, so no Kafka is needed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InterceptorFilterBenchmark {
+    static final int NR_MESSAGES = 1000;
+
+    private List<CollectedMessage> messages;
+    private List<Scenario> scenarios;
+
+    @Setup
+    public void setup() throws IOException {
+        messages = new SyntheticCdcRecords(INV_WI, 42).createWorkInstructionRecords(NR_MESSAGES, 50).stream()
+                .map(rec -> InterceptorCollect.toCollectedMessage(INV_WI, rec))
+                .toList();
+
+        InterceptorEntityConfig entityConfig = new InterceptorEntityConfig(INV_WI, INV_WI, "benchmark",
+                10000, Duration.ofMinutes(30), 0, null, false, false, false);
+        Scenario agvAsc = new VesselDischargeAGVASC() {
+            @Override
+            protected boolean initConnectors() {
+                return false;
+            }
+        };
+        Scenario rtg = new VesselDischargeRTG() {
+            @Override
+            protected boolean initConnectors() {
+                return false;
+            }
+        };
+        agvAsc.init("VesselDischargeAGVASC", entityConfig);
+        rtg.init("VesselDischargeRTG", entityConfig);
+        scenarios = List.of(agvAsc, rtg);
+    }
+
+    @TearDown
+    public void tearDown() {
+        scenarios.forEach(Scenario::stop);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NR_MESSAGES)
+    public void isRelevantForAnyScenario(Blackhole bh) {
+        for (CollectedMessage message : messages) {
+            bh.consume(InterceptorFilter.isRelevantForAnyScenario(scenarios, message));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.aicon.tos.interceptor;
+
+import com.aicon.tos.interceptor.decide.FilteredMessageStore;
+import com.aicon.tos.interceptor.decide.StoredMessageSearcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.aicon.tos.interceptor.SyntheticCdcRecords.INV_WI;
+
+/**
+ * Measures the queries of {@link StoredMessageSearcher} on a filled {@link FilteredMessageStore}, for indexed fields,
+ * not indexed fields (scan) and custom conditions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StoredMessageSearcherBenchmark {
+    static final int NR_WORK_QUEUES = 50;
+
+    @Param({"1000", "10000"})
+    int nrMessages;
+
+    private StoredMessageSearcher searcher;
+    private int next = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        FilteredMessageStore store = new FilteredMessageStore();
+        store.registerEntity(INV_WI, nrMessages, Duration.ofHours(1), InterceptorEntityConfig.DEFAULT_INDEX_FIELDS);
+        new SyntheticCdcRecords(INV_WI, 42).createWorkInstructionRecords(nrMessages, NR_WORK_QUEUES)
+                .forEach(rec -> store.add(new FilteredMessage(InterceptorCollect.toCollectedMessage(INV_WI, rec))));
+        searcher = new StoredMessageSearcher(store);
+    }
+
+    // Spreads the lookups over the work queues.
+    private long nextWorkQueue() {
+        next = (next + 1) % NR_WORK_QUEUES;
+        return next;
+    }
+
+    @Benchmark
+    public List<FilteredMessage> findMessagesByIndexedField() {
+        return searcher.findMessagesByField(INV_WI, "work_queue_gkey", nextWorkQueue());
+    }
+
+    @Benchmark
+    public List<FilteredMessage> findMessagesByIndexedFieldValue() {
+        return searcher.findMessagesByFieldValue(INV_WI, "gkey", 1_000_000L + nextWorkQueue());
+    }
+
+    @Benchmark
+    public List<FilteredMessage> findMessagesByNotIndexedField() {
+        return searcher.findMessagesByField(INV_WI, "move_kind", "DSCH");
+    }
+
+    @Benchmark
+    public List<FilteredMessage> findMessagesByCondition() {
+        long workQueue = nextWorkQueue();
+        return searcher.findMessagesByCondition(INV_WI,
+                msg -> msg.getFieldValueAsLong("work_queue_gkey", -1L) == workQueue
+                        && "FETCH_UNDERWAY".equals(msg.getFieldValueAsString("move_stage")));
+    }
+}
@@ -0,0 +1,188 @@
+package com.aicon.tos.interceptor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.util.Utf8;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static com.aicon.tos.interceptor.InterceptorCollect.ELM_AFTER;
+import static com.aicon.tos.interceptor.InterceptorCollect.ELM_BEFORE;
+
+/**
+ * Generates synthetic CDC records (Debezium envelopes) for the benchmarks, with before/after images following the Value
+ * schema of a topic in src/main/resources/topic_schemas. Only the Value record is taken from the schema file, the Key and
+ * Envelope are rebuilt here, so the generator does not depend on the (connector specific) parts around it.
+ * Values are random but reproducible for the same seed, strings are {@link Utf8} like the Avro deserializer delivers them.
+ */
+final class SyntheticCdcRecords {
+    static final String SCHEMA_DIR = "topic_schemas/";
+    static final String INV_WI = "inv_wi";
+
+    private static final String FLD_GKEY = "gkey";
+    private static final String[] MOVE_KINDS = {"DSCH", "LOAD", "YARD", "RECV", "DLVR"};
+
+    private final String topic;
+    private final Schema valueSchema;
+    private final Schema keySchema;
+    private final Schema envelopeSchema;
+    private final Random random;
+
+    SyntheticCdcRecords(String topic, long seed) throws IOException {
+        this.topic = topic;
+        this.valueSchema = readValueSchema(topic);
+        this.keySchema = SchemaBuilder.record("Key").namespace(valueSchema.getNamespace())
+                .fields().requiredLong(FLD_GKEY).endRecord();
+        this.envelopeSchema = SchemaBuilder.record("Envelope").namespace(valueSchema.getNamespace()).fields()
+                .name(ELM_BEFORE).type().optional().type(valueSchema)
+                .name(ELM_AFTER).type().optional().type(valueSchema)
+                .requiredString("op")
+                .optionalLong("ts_ms")
+                .endRecord();
+        this.random = new Random(seed);
+    }
+
+    Schema getValueSchema() {
+        return valueSchema;
+    }
+
+    /**
+     * @return a new image with a random value for each field of the Value schema.
+     */
+    GenericRecord createImage(long gkey) {
+        GenericRecord image = (GenericRecord) randomValue(valueSchema);
+        image.put(FLD_GKEY, gkey);
+        return image;
+    }
+
+    GenericRecord copyOf(GenericRecord image) {
+        return new GenericData.Record((GenericData.Record) image, true);
+    }
+
+    /**
+     * Wraps the images into a consumer record, a null before image makes it a create, a null after image a delete.
+     */
+    ConsumerRecord<GenericRecord, GenericRecord> createRecord(long offset, GenericRecord before, GenericRecord after) {
+        GenericRecord image = after != null ? after : before;
+        GenericRecord key = new GenericData.Record(keySchema);
+        key.put(FLD_GKEY, image.get(FLD_GKEY));
+
+        GenericRecord envelope = new GenericData.Record(envelopeSchema);
+        envelope.put(ELM_BEFORE, before);
+        envelope.put(ELM_AFTER, after);
+        envelope.put("op", before == null ? "c" : after == null ? "d" : "u");
+        envelope.put("ts_ms", System.currentTimeMillis());
+        return new ConsumerRecord<>(topic, 0, offset, key, envelope);
+    }
+
+    /**
+     * Creates a mix of inv_wi records like seen on the CDC-topic during vessel operations: 10% creates, 10% deletes and
+     * updates moving WI's from PLANNED to FETCH_UNDERWAY/CARRY_READY, changing positions and ITV's on the way.
+     * @param count the nr of records
+     * @param nrWorkQueues the nr of work queues to spread the WI's over
+     */
+    List<ConsumerRecord<GenericRecord, GenericRecord>> createWorkInstructionRecords(int count, int nrWorkQueues) {
+        List<ConsumerRecord<GenericRecord, GenericRecord>> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            GenericRecord before = createImage(1_000_000L + i);
+            double moveNumber = i % 2 == 0 ? 1.0D : 2.0D;
+            before.put("work_queue_gkey", (long) (i % nrWorkQueues));
+            before.put("move_kind", new Utf8(MOVE_KINDS[i % MOVE_KINDS.length]));
+            before.put("move_number", moveNumber);
+            before.put("move_stage", new Utf8("PLANNED"));
+            before.put("twin_with", new Utf8(i % 4 < 2 ? "NEXT" : "NONE"));
+
+            GenericRecord after = copyOf(before);
+            after.put("move_stage", new Utf8(moveNumber == 1.0D ? "FETCH_UNDERWAY" : "CARRY_READY"));
+            if (i % 3 == 0) {
+                after.put("itv_gkey", random.nextLong(1, 500));
+            }
+            if (i % 5 == 0) {
+                after.put("pos_name", new Utf8(String.format("Y-PIERA-%03dA%02d.%d", i % 40, i % 30, i % 5 + 1)));
+            }
+
+            switch (i % 10) {
+                case 0 -> records.add(createRecord(i, null, before));
+                case 9 -> records.add(createRecord(i, before, null));
+                default -> records.add(createRecord(i, before, after));
+            }
+        }
+        return records;
+    }
+
+    private Object randomValue(Schema schema) {
+        return switch (schema.getType()) {
+            case NULL -> null;
+            case BOOLEAN -> random.nextBoolean();
+            case INT -> random.nextInt(100_000);
+            case LONG -> random.nextLong(1, 100_000_000L);
+            case FLOAT -> random.nextFloat();
+            case DOUBLE -> random.nextDouble() * 1000;
+            case STRING -> new Utf8(randomString(4 + random.nextInt(12)));
+            case BYTES -> ByteBuffer.wrap(randomString(8).getBytes());
+            case ENUM -> new GenericData.EnumSymbol(schema, schema.getEnumSymbols().get(random.nextInt(schema.getEnumSymbols().size())));
+            case FIXED -> new GenericData.Fixed(schema, new byte[schema.getFixedSize()]);
+            case ARRAY -> new GenericData.Array<>(0, schema);
+            case MAP -> new HashMap<>();
+            case UNION -> randomUnionValue(schema);
+            case RECORD -> {
+                GenericRecord rec = new GenericData.Record(schema);
+                for (Schema.Field field : schema.getFields()) {
+                    rec.put(field.pos(), randomValue(field.schema()));
+                }
+                yield rec;
+            }
+        };
+    }
+
+    // Nullable fields are filled 80% of the time.
+    private Object randomUnionValue(Schema schema) {
+        List<Schema> types = schema.getTypes().stream().filter(type -> type.getType() != Schema.Type.NULL).toList();
+        if (types.isEmpty() || (types.size() < schema.getTypes().size() && random.nextInt(5) == 0)) {
+            return null;
+        }
+        return randomValue(types.get(random.nextInt(types.size())));
+    }
+
+    private String randomString(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('A' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads the Value record from the before element of the envelope schema of the topic.
+     */
+    private static Schema readValueSchema(String topic) throws IOException {
+        String schemaJsonName = SCHEMA_DIR + topic + ".json";
+        try (InputStream input = SyntheticCdcRecords.class.getClassLoader().getResourceAsStream(schemaJsonName)) {
+            if (input == null) {
+                throw new IOException(schemaJsonName + " not found in resources.");
+            }
+            JsonNode envelope = new ObjectMapper().readTree(input);
+            for (JsonNode field : envelope.get("fields")) {
+                if (ELM_BEFORE.equals(field.get("name").asText())) {
+                    for (JsonNode type : field.get("type")) {
+                        if (type.isObject()) {
+                            return new Schema.Parser().parse(type.toString());
+                        }
+                    }
+                }
+            }
+        }
+        throw new IOException("No Value record found in " + schemaJsonName);
+    }
+}
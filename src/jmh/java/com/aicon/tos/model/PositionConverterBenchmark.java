@@ -0,0 +1,117 @@
+package com.aicon.tos.model;
+
+import com.aicon.TestConstants;
+import com.aicon.tos.shared.config.ConfigGroup;
+import com.aicon.tos.shared.config.ConfigItem;
+import com.aicon.tos.shared.config.ConfigSettings;
+import com.aicon.tos.shared.config.ConfigType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.aicon.tos.model.PositionConverter.*;
+
+/**
+ * Measures the position conversions between TOS and Aicon with a schema and conversion rules like used in the field.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PositionConverterBenchmark {
+    static final int NR_POSITIONS = 1000;
+
+    private static final String[] BLOCKS = {"01A", "01B", "01C", "01D", "01E"};
+    private static final String COLUMNS = "ABCDEFGHJKLM";
+
+    private List<String> tosPositions;
+    private List<Map<String, String>> tosParts;
+    private List<Map<String, String>> aiconParts;
+
+    @Setup
+    public void setup() {
+        ConfigSettings.setConfigFile(TestConstants.TEST_CONFIG_FULL_FILESPEC);
+        getPositionSchema("B3R2C1.T1");
+        ConfigGroup convGrp = new ConfigGroup(ConfigType.ConfigGroup, CFG_GRP_CONVERSIONS);
+        convGrp.addItem(new ConfigItem(KEY_CONV_BLOCK, "01A -> 1101, 01B -> 1102, 01C -> 1103, 01D -> 1104, 01E -> 1105"));
+        convGrp.addItem(new ConfigItem(KEY_CONV_ROW, "-1/2"));
+        convGrp.addItem(new ConfigItem(KEY_CONV_COLUMN, "A->0,B->1,C->2,D->3,E->4,F->5,G->6,H->7,J->8,K->9,L->10,M->11"));
+        convGrp.addItem(new ConfigItem(KEY_CONV_TIER, "-1"));
+        setConversionConfig(convGrp);
+
+        tosPositions = new ArrayList<>(NR_POSITIONS);
+        tosParts = new ArrayList<>(NR_POSITIONS);
+        aiconParts = new ArrayList<>(NR_POSITIONS);
+        for (int i = 0; i < NR_POSITIONS; i++) {
+            String position = String.format("%s%02d%s.%d",
+                    BLOCKS[i % BLOCKS.length], (i % 40) * 2 + 1, COLUMNS.charAt(i % COLUMNS.length()), i % 5 + 1);
+            tosPositions.add(position);
+            tosParts.add(splitPosition(position));
+            aiconParts.add(convertPosPartsToAicon(tosParts.get(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NR_POSITIONS)
+    public void splitPositions(Blackhole bh) {
+        for (String position : tosPositions) {
+            bh.consume(splitPosition(position));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NR_POSITIONS)
+    public void convertToAicon(Blackhole bh) {
+        for (Map<String, String> parts : tosParts) {
+            bh.consume(convertPosPartsToAicon(parts));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NR_POSITIONS)
+    public void convertToTos(Blackhole bh) {
+        for (Map<String, String> parts : aiconParts) {
+            bh.consume(convertPosPartsToTos(parts));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NR_POSITIONS)
+    public void mergePositions(Blackhole bh) {
+        for (Map<String, String> parts : tosParts) {
+            bh.consume(mergePosition(parts, true, false));
+        }
+    }
+
+    /**
+     * The full round trip as done for a decking request: TOS position to Aicon and the answer back to a TOS position.
+     */
+    @Benchmark
+    @OperationsPerInvocation(NR_POSITIONS)
+    public void roundTrip(Blackhole bh) {
+        for (String position : tosPositions) {
+            Map<String, String> aicon = convertPosPartsToAicon(splitPosition(position));
+            bh.consume(mergePosition(convertPosPartsToTos(aicon), false, false));
+        }
+    }
+
+    /**
+     * The same round trip straight on the compiled codec, as done by the decking scenarios.
+     */
+    @Benchmark
+    @OperationsPerInvocation(NR_POSITIONS)
+    public void roundTripCodec(Blackhole bh) {
+        PositionCodec codec = getCodec();
+        for (String position : tosPositions) {
+            Map<String, String> aicon = codec.splitToAicon(position);
+            bh.consume(codec.toTosPosition(aicon.get(POS_PART_BLOCK), aicon.get(POS_PART_ROW),
+                    aicon.get(POS_PART_COLUMN), aicon.get(POS_PART_TIER)));
+        }
+    }
+}
@@ -7,10 +7,17 @@ import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.avlino.common.Constants.UNKNOWN;
 
+/**
+ * Reads the container information of a WI from the move_info collection in Mongo, via the {@link MoveInfoCache}.
+ */
 public class MoveInfo {
     private static final Logger LOG = LoggerFactory.getLogger(MoveInfo.class);
 
@@ -30,27 +37,67 @@ public class MoveInfo {
     public static final String FLD_CTR_VISIT_ID = "containerVisitId";
     public static final String FLD_WI_MOVE_KIND = "wiMoveKind";
 
+    /**
+     * Reads the container info of the WI, from cache or else from Mongo.
+     * @param wiGkey the WI to read for
+     * @param messageMeta when not null, the read is time stamped in it
+     * @return the container info, with UNKNOWN values when not found.
+     */
     static public Map<String, Object> readMoveInfo(long wiGkey, MessageMeta messageMeta) {
-        Map<String, Object> containerInfo = new java.util.HashMap<>();
+        return readMoveInfos(List.of(wiGkey), messageMeta).get(wiGkey);
+    }
 
+    /**
+     * Reads the container info of all the WI's at once (e.g. both WI's of a twin), from cache or else from Mongo in
+     * a single query.
+     * @param wiGkeys the WI's to read for
+     * @param messageMeta when not null, the read is time stamped in it
+     * @return the container info per wi-gkey in the given order, with UNKNOWN values when not found.
+     */
+    static public Map<Long, Map<String, Object>> readMoveInfos(Collection<Long> wiGkeys, MessageMeta messageMeta) {
         if (messageMeta != null) {
             messageMeta.addTimestampWithPrefix(MessageMeta.TS_READ_PREFIX, "mongo." + MONGO_COLLECTION_MOVE_INFO, LOG);
         }
+        Map<Long, Document> documents = MoveInfoCache.getInstance().getAll(wiGkeys);
+
+        Map<Long, Map<String, Object>> containerInfos = new LinkedHashMap<>();
+        for (Long wiGkey : wiGkeys) {
+            Document result = documents.get(wiGkey);
+            if (result == null) {
+                LOG.error("Container info not found for {}, reason: {}", wiGkey, MongoReader.getInstance().getErrorText());
+            } else {
+                LOG.info("Mongo-query ok for wi-gkey {}, found ctr-id {}.", wiGkey, result.getString(MONGO_CONTAINER_ID));
+            }
+            containerInfos.put(wiGkey, toContainerInfo(result));
+        }
+        return containerInfos;
+    }
+
+    /**
+     * Queries Mongo for the move_info documents of all given WI's, used as batch loader of the {@link MoveInfoCache}.
+     * @param wiGkeys the WI's to query for
+     * @return the found documents mapped by wi-gkey.
+     */
+    static Map<Long, Document> queryMoveInfos(Collection<Long> wiGkeys) {
         MongoReader mongo = MongoReader.getInstance();
-        Document query = new Document(MONGO_ID_GKEY, wiGkey);
-        Document result = mongo.readDocument(mongo.getCollection(MONGO_COLLECTION_MOVE_INFO), query);
-        if (result == null) {
-            LOG.error("Container info not found for {}, reason: {}", wiGkey, mongo.getErrorText());
-        } else {
-            LOG.info("Mongo-query ok for wi-gkey {}, found ctr-id {}.", wiGkey, result.getString(MONGO_CONTAINER_ID));
+        Map<Long, Document> found = new HashMap<>();
+        for (Document doc : mongo.readDocuments(mongo.getCollection(MONGO_COLLECTION_MOVE_INFO), MONGO_ID_GKEY, wiGkeys)) {
+            Object wiGkey = doc.get(MONGO_ID_GKEY);
+            if (wiGkey instanceof Number number) {
+                found.put(number.longValue(), doc);
+            }
         }
+        return found;
+    }
+
+    private static Map<String, Object> toContainerInfo(Document result) {
+        Map<String, Object> containerInfo = new HashMap<>();
         containerInfo.put(FLD_CTR_ID        , result == null ? UNKNOWN : result.getString(MONGO_CONTAINER_ID));
         containerInfo.put(FLD_CTR_VISIT_ID  , result == null ? UNKNOWN : String.valueOf(result.getLong(MONGO_ACTIVE_UFV)));
         containerInfo.put(FLD_CTR_ISO_CODE  , result == null ? UNKNOWN : result.getString(MONGO_CONTAINER_ISO_CODE));
         containerInfo.put(FLD_CTR_ISO_GROUP , result == null ? UNKNOWN : result.getString(MONGO_CONTAINER_ISO_GROUP));
         containerInfo.put(FLD_CTR_IS_EMPTY  , result == null ? false   : result.getBoolean(MONGO_IS_EMPTY_CONTAINER));
         containerInfo.put(FLD_WI_MOVE_KIND  , result == null ? UNKNOWN : result.getString(MONGO_MOVE_KIND));
-
         return containerInfo;
     }
 }
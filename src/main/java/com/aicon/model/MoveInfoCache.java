@@ -0,0 +1,279 @@
+package com.aicon.model;
+
+import com.avlino.common.datacache.FixedSizeMap;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Access layer for the move_info documents, keyed by wi_gkey. It reduces the round trips to Mongo in 3 ways:
+ * <ul>
+ *     <li>found documents are kept in a bounded (LRU) cache for a limited time (TTL), not found ones are not cached;</li>
+ *     <li>concurrent lookups are coalesced: while one thread queries Mongo, other threads add their keys to the next
+ *     batch, which is read with a single <code>$in</code> query by the first thread;</li>
+ *     <li>the cache can be pre-warmed asynchronously, e.g. when a WI shows up on the CDC topic before it needs decking.</li>
+ * </ul>
+ */
+public class MoveInfoCache {
+    private static final Logger LOG = LoggerFactory.getLogger(MoveInfoCache.class);
+
+    public static final int DEFAULT_MAX_SIZE            = 10000;
+    public static final Duration DEFAULT_TTL            = Duration.ofMinutes(10);
+    public static final int DEFAULT_MAX_BATCH_SIZE      = 200;
+
+    private static final Object lock = new Object();
+    private static volatile MoveInfoCache instance = null;
+
+    private final Duration ttl;
+    private final int maxBatchSize;
+    private final Function<Collection<Long>, Map<Long, Document>> batchLoader;
+    private final Map<Long, CacheEntry> cache;
+    private final Map<Long, CompletableFuture<Document>> pending = new LinkedHashMap<>();
+    private final Map<Long, CompletableFuture<Document>> loading = new HashMap<>();
+    private final ExecutorService prewarmExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "MoveInfoPrewarm");
+        thread.setDaemon(true);     // best effort only, should not keep the application alive
+        return thread;
+    });
+    private boolean batchRunning = false;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long queries = 0;
+
+    private record CacheEntry(Document document, long expiresAtMs) {
+    }
+
+    /**
+     * @return the singleton instance reading from Mongo via {@link MoveInfo#queryMoveInfos(Collection)}.
+     */
+    public static MoveInfoCache getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    instance = new MoveInfoCache(DEFAULT_MAX_SIZE, DEFAULT_TTL, DEFAULT_MAX_BATCH_SIZE, MoveInfo::queryMoveInfos);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @param maxSize the max nr of documents in the cache, the least recently used are removed first.
+     * @param ttl the max time a document is served from the cache.
+     * @param maxBatchSize the max nr of keys read in 1 query.
+     * @param batchLoader reads the documents for the given keys, returning them mapped by key (missing when not found).
+     */
+    public MoveInfoCache(int maxSize, Duration ttl, int maxBatchSize, Function<Collection<Long>, Map<Long, Document>> batchLoader) {
+        this.cache = new FixedSizeMap<>(maxSize);
+        this.ttl = ttl;
+        this.maxBatchSize = maxBatchSize;
+        this.batchLoader = batchLoader;
+    }
+
+    /**
+     * Returns the document for the wi_gkey, from cache or else read together with the other pending lookups.
+     * @param wiGkey the key to look for
+     * @return the document or null when not found.
+     */
+    public Document get(long wiGkey) {
+        return getAll(List.of(wiGkey)).get(wiGkey);
+    }
+
+    /**
+     * Returns the documents for all given keys, the ones not in cache are read in as few queries as possible.
+     * @param wiGkeys the keys to look for
+     * @return the found documents mapped by wi_gkey, keys not found are missing.
+     */
+    public Map<Long, Document> getAll(Collection<Long> wiGkeys) {
+        Map<Long, Document> result = new HashMap<>();
+        Map<Long, CompletableFuture<Document>> waitFor = new HashMap<>();
+        boolean leader;
+        synchronized (this) {
+            for (Long wiGkey : wiGkeys) {
+                Document doc = getCached(wiGkey);
+                if (doc != null) {
+                    result.put(wiGkey, doc);
+                } else {
+                    waitFor.put(wiGkey, register(wiGkey));
+                }
+            }
+            leader = !waitFor.isEmpty() && !batchRunning;
+            if (leader) {
+                batchRunning = true;
+            }
+        }
+
+        if (leader) {
+            runBatches();
+        }
+        waitFor.forEach((wiGkey, future) -> {
+            Document doc = future.join();
+            if (doc != null) {
+                result.put(wiGkey, doc);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Reads the documents for the keys not in cache yet in the background, without waiting for them.
+     * @param wiGkeys the keys to pre-warm the cache with
+     */
+    public void prewarm(Collection<Long> wiGkeys) {
+        boolean start;
+        synchronized (this) {
+            boolean added = false;
+            for (Long wiGkey : wiGkeys) {
+                if (getCached(wiGkey) == null) {
+                    register(wiGkey);
+                    added = true;
+                }
+            }
+            start = added && !batchRunning;
+            if (start) {
+                batchRunning = true;
+            }
+        }
+        if (start) {
+            try {
+                prewarmExecutor.execute(this::runBatches);
+            } catch (RejectedExecutionException e) {
+                runBatches();
+            }
+        }
+    }
+
+    /**
+     * Puts a document in the cache, e.g. when received from another source.
+     */
+    public synchronized void put(long wiGkey, Document document) {
+        if (document != null) {
+            cache.put(wiGkey, new CacheEntry(document, System.currentTimeMillis() + ttl.toMillis()));
+        }
+    }
+
+    public synchronized void invalidate(long wiGkey) {
+        cache.remove(wiGkey);
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return the nr of queries executed by the batch loader.
+     */
+    public synchronized long getQueryCount() {
+        return queries;
+    }
+
+    public void shutdown() {
+        prewarmExecutor.shutdown();
+    }
+
+    // Must be called holding the lock
+    private Document getCached(Long wiGkey) {
+        CacheEntry entry = cache.get(wiGkey);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expiresAtMs() < System.currentTimeMillis()) {
+            cache.remove(wiGkey);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.document();
+    }
+
+    // Must be called holding the lock, returns the future of the lookup already pending/loading when there is one.
+    private CompletableFuture<Document> register(Long wiGkey) {
+        CompletableFuture<Document> future = loading.get(wiGkey);
+        if (future == null) {
+            future = pending.computeIfAbsent(wiGkey, k -> new CompletableFuture<>());
+        }
+        return future;
+    }
+
+    /**
+     * Reads the pending keys in batches until none are pending anymore, only 1 thread at a time runs this. When the
+     * loader throws an Error, all waiting lookups fail with it, so no caller waits forever.
+     */
+    private void runBatches() {
+        try {
+            readBatches();
+        } catch (Throwable t) {
+            failAll(t);
+            throw t;
+        }
+    }
+
+    private void readBatches() {
+        while (true) {
+            Map<Long, CompletableFuture<Document>> batch = new HashMap<>();
+            synchronized (this) {
+                Iterator<Map.Entry<Long, CompletableFuture<Document>>> it = pending.entrySet().iterator();
+                while (it.hasNext() && batch.size() < maxBatchSize) {
+                    Map.Entry<Long, CompletableFuture<Document>> entry = it.next();
+                    batch.put(entry.getKey(), entry.getValue());
+                    it.remove();
+                }
+                if (batch.isEmpty()) {
+                    batchRunning = false;
+                    return;
+                }
+                loading.putAll(batch);
+                queries++;
+            }
+
+            Map<Long, Document> found = Collections.emptyMap();
+            try {
+                found = batchLoader.apply(batch.keySet());
+                if (found == null) {
+                    found = Collections.emptyMap();
+                }
+            } catch (Exception e) {
+                LOG.error("Reading move info for {} wi-gkeys failed, reason: {}", batch.size(), e.getMessage());
+            }
+
+            synchronized (this) {
+                for (Map.Entry<Long, CompletableFuture<Document>> entry : batch.entrySet()) {
+                    Document doc = found.get(entry.getKey());
+                    put(entry.getKey(), doc);
+                    loading.remove(entry.getKey());
+                    entry.getValue().complete(doc);
+                }
+            }
+            LOG.debug("Read move info for {} wi-gkeys, found {}", batch.size(), found.size());
+        }
+    }
+
+    private synchronized void failAll(Throwable t) {
+        LOG.error("Reading move info failed, failing {} lookups, reason: {}", loading.size() + pending.size(), t.toString());
+        loading.values().forEach(future -> future.completeExceptionally(t));
+        pending.values().forEach(future -> future.completeExceptionally(t));
+        loading.clear();
+        pending.clear();
+        batchRunning = false;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("MoveInfoCache: size=%s, hits=%s, misses=%s, queries=%s, pending=%s",
+                cache.size(), hits, misses, queries, pending.size());
+    }
+}
@@ -36,6 +36,8 @@ public class ConfigDomain {
     public static final String CFG_FLOW_TRANSFORMER_RESPONSE = "transformer.response";
     public static final String CFG_FLOW_TOPIC_RESPONSE_OK = "topic.response.ok";
     public static final String CFG_FLOW_TOPIC_RESPONSE_FAIL = "topic.response.fail";
+    public static final String CFG_FLOW_SESSION_WORKERS = "session.workers";
+    public static final String CFG_FLOW_SESSION_MAX_PENDING = "session.max.pending";
 
     public static final String CFG_CDC_TOPIC_NAME = "topic.name";
     public static final String CFG_CDC_GROUP_ID = "group.id";
@@ -4,15 +4,26 @@ import com.aicon.tos.connect.web.callback.ProgressCallback;
 import com.aicon.tos.shared.ResultEntry;
 import com.aicon.tos.shared.ResultLevel;
 import com.aicon.tos.shared.kafka.DynamicTestKafkaProducer;
+import com.aicon.tos.shared.kafka.DynamicTestKafkaProducer.PreparedMessage;
+import com.aicon.tos.shared.kafka.DynamicTestKafkaProducer.TopicSchemas;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Resends CDC-topic messages to a topic based on the CSV input with the following format:
@@ -23,6 +34,12 @@ import java.util.Map;
  * The row for before and after can be reversed or missing (a single before or after record), all these situations gets
  * detected and reacted upon.
  * Execution is done in its own thread and can be controlled via stop, pause and resume methods.
+ * <p>
+ * Before sending, the whole CSV is compiled into ready to send Avro messages, the schemas of a topic are loaded once.
+ * The messages are sent on a schedule in nanoseconds, so the time needed to send a message does not add up to the
+ * intervals. In {@link IntervalType#AsFastAsPossible} the messages are sent without waiting for the acknowledgements
+ * (at most {@link #MAX_IN_FLIGHT} at a time), so the producers batch them per partition. The achieved rate is reported
+ * together with the rate of the original messages.
  */
 public class CDCReplayer implements Runnable {
 
@@ -31,40 +48,57 @@ public class CDCReplayer implements Runnable {
     public enum IntervalType {
         RealTime,
         Fixed,
-        Stepping;
+        Stepping,
+        AsFastAsPossible;
     }
 
     public static final String ELM_BEFORE = "before";
     public static final String ELM_AFTER = "after";
     public static final String REPORT_IDX = "REPORT_IDX";
+    public static final String REPORT_RATE = "REPORT_RATE";
+    public static final String REPORT_TARGET_RATE = "REPORT_TARGET_RATE";
     public static final int FIXED_ITV_MS = 1000;
     public static final int MAX_RT_MS = 10 * FIXED_ITV_MS;
+    public static final int MAX_IN_FLIGHT = 10_000;
 
     private static final Logger LOG = LoggerFactory.getLogger(CDCReplayer.class);
     private static final String COMMENT_PREFIX = "#";
     private static final String THREAD_PFX = "CDC-replay-";
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long REPORT_ITV_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long SEND_TIMEOUT_S = 30;
 
     private final DynamicTestKafkaProducer dynamicTestKafkaProducer;
     private Thread thread;
     private final Object lock = new Object();
-    private boolean running = true;
-    private boolean paused = false;
+    private volatile boolean running = true;
+    private volatile boolean paused = false;
 
     private int fixedInterval = FIXED_ITV_MS;
     private int maxRtInterval = MAX_RT_MS;
 
     private List<String[]> csv;
     private int messageStartsAt;
-    private int rowIdx = -1;
-    private IntervalType intervalType;
+    private volatile IntervalType intervalType;
     private String topicSuffix;
     private ProgressCallback callback;
     private Map<String, Object> reportMap;
 
+    private long nextSendAt = 0;        // System.nanoTime() the next message is due, 0 before the first message
+    private long prevDtMillis = 0;
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+    private final AtomicLong sentOk = new AtomicLong();
+    private final AtomicLong sentFailed = new AtomicLong();
+    private final AtomicReference<String> lastFailure = new AtomicReference<>();
+
     public CDCReplayer(ProgressCallback callback) {
+        this(callback, new DynamicTestKafkaProducer());
+    }
+
+    CDCReplayer(ProgressCallback callback, DynamicTestKafkaProducer dynamicTestKafkaProducer) {
         this.callback = callback;
-        dynamicTestKafkaProducer = new DynamicTestKafkaProducer();
+        this.dynamicTestKafkaProducer = dynamicTestKafkaProducer;
     }
 
     /**
@@ -81,12 +115,12 @@ public class CDCReplayer implements Runnable {
         if (thread != null) {
             stop();
         }
-        rowIdx = -1;
         this.csv = csv;
         this.messageStartsAt = messageStartsAt;
         this.intervalType = interval;
         this.topicSuffix = topicSuffix;
-        reportMap = new HashMap<>();
+        reportMap = new ConcurrentHashMap<>();
+        running = true;
 
         thread = new Thread(this);
         thread.setName(THREAD_PFX + thread.getName());
@@ -98,9 +132,9 @@ public class CDCReplayer implements Runnable {
      */
     public void stop() {
         LOG.info("Stopping {}...", thread.getName());
+        running = false;
         resume();
         thread.interrupt();
-        running = false;
     }
 
     /**
@@ -157,21 +191,31 @@ public class CDCReplayer implements Runnable {
     @Override
     public void run() {
         LOG.info("Thread {} is running...", thread.getName());
-
-        long prevMillis = 0;
-        long sleepMillis = 0;
         paused = false;
-
-        do {    // running
-            int colIdx = messageStartsAt - 4;       // looking for <result>, topic-name, element, offset, offset-ts
+        nextSendAt = 0;
+        sentOk.set(0);
+        sentFailed.set(0);
+        lastFailure.set("");
+
+        long tCompile = System.nanoTime();
+        List<ReplayStep> steps = compile();
+        double targetRate = originalRate(steps);
+        reportMap.put(REPORT_TARGET_RATE, targetRate);
+        report(ResultLevel.OK, String.format("Compiled %s messages in %s ms", steps.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - tCompile)));
+
+        long tStart = System.nanoTime();
+        long nextReportAt = tStart + REPORT_ITV_NANOS;
+        for (int stepIdx = 0; stepIdx < steps.size() && running; stepIdx++) {
             synchronized (lock) {
                 if (paused) {                       // only pause after the first iteration.
                     try {
                         if (!isStepping()) {
-                            if (callback != null) {callback.reportProgress(ResultLevel.OK, "Paused", reportMap);}
+                            report(ResultLevel.OK, "Paused");
                             LOG.info("Thread {} is paused!", thread.getName());
                         }
                         lock.wait(); // Pause the thread
+                        restartSchedule();
                     } catch (InterruptedException e) {
                         LOG.info("Pause interrupted.");
                         running = false;
@@ -179,90 +223,279 @@ public class CDCReplayer implements Runnable {
                 }
             }
             paused = paused || isStepping();
-            if (running) {
-                try {
-                    CDCRecord rec1, rec2 = null;
-                    // lookup for 2 matching CDC elements
-                    do {
-                        rec1 = new CDCRecord(csv.get(nextRowIndex()));
-                        if (rec1.comment) {
-                            continue;       // skip any header/comment lines
-                        }
-                        if (rowIdx < csv.size() - 1) {      // peek at the next record if it belongs to this one
-                            rec2 = new CDCRecord(csv.get(rowIdx + 1));
-                            if (!rec2.comment && rec1.topicName.equals(rec2.topicName) && rec1.topicOffset == rec2.topicOffset) {
-                                nextRowIndex();     // set rowIdx to the 2nd row for the same topic&offset
-                            } else {
-                                rec2 = null;        // so only 1 row found for this topic&offset
-                            }
-                        }
-                    } while(false);     // always drop out
-
-                    if (intervalType == IntervalType.RealTime) {
-                        if (prevMillis == 0) {
-                            sleepMillis = getFixedInterval();   // first messages in RealTime can be too quick, so wait 1 sec before actual sending first
-                            prevMillis = rec1.dtMillis;
-                        } else {
-                            sleepMillis = rec1.dtMillis - prevMillis;
-                            prevMillis = rec1.dtMillis;
-                        }
-                    } else if (intervalType == IntervalType.Fixed) {
-                        sleepMillis = getFixedInterval();
-                    }
+            if (!running) {
+                break;
+            }
+            ReplayStep step = steps.get(stepIdx);
+            reportMap.put(REPORT_IDX, step.rowIdx());
+            awaitTurn(step);
+            if (!running) {
+                break;
+            }
 
-                    if (sleepMillis > 0) {
-                        try {
-                            long actualSleepMs = Math.min(getMaxRtInterval(), sleepMillis);
-                            LOG.info("Sleeping for {} ms", actualSleepMs);
-                            Thread.sleep(actualSleepMs);
-                        } catch (InterruptedException e) {
-                            LOG.info("Interval sleep interrupted.");
-                        }
-                    }
+            if (step.failure() != null) {
+                sentFailed.incrementAndGet();
+                report(ResultLevel.ERROR, step.failure());
+            } else if (intervalType == IntervalType.AsFastAsPossible) {
+                sendPipelined(step);
+                if (System.nanoTime() >= nextReportAt) {
+                    nextReportAt = System.nanoTime() + REPORT_ITV_NANOS;
+                    reportRate(ResultLevel.OK, String.format("Sent %s of %s messages", stepIdx + 1, steps.size()), tStart, targetRate);
+                }
+            } else {
+                LOG.info("Sending message with offset {} to topic {}{}...", step.topicOffset(), step.topicName(), topicSuffix);
+                ResultEntry result = sendAndWait(step);
+                report(result.getLevel(), result.getMessage());
+            }
+        }
+        awaitPipelined();
 
-                    CDCRecord cdcBefore = null;
-                    CDCRecord cdcAfter = null;
-                    if (rec1.matchElementName(ELM_BEFORE)) {
-                        cdcBefore = rec1;
-                        cdcAfter = rec2;
-                    } else if (rec1.matchElementName(ELM_AFTER)) {
-                        cdcAfter = rec1;
-                        cdcBefore = rec2;
-                    }
+        String summary = String.format("All processed! %s sent, %s failed", sentOk.get(), sentFailed.get());
+        reportRate(null, summary, tStart, targetRate);
+        ResultLevel endLevel = sentFailed.get() == 0 ? ResultLevel.OK : ResultLevel.ERROR;
+        if (callback != null) {callback.onDone(endLevel, rateText(summary, tStart, targetRate));}
+        paused = false;
+        running = false;
 
-                    String[] before = cdcBefore == null || cdcBefore.nodata ? null: cdcBefore.getMessageRecord();
-                    String[] after  = cdcAfter == null  || cdcAfter.nodata  ? null: cdcAfter.getMessageRecord();
-                    LOG.info("Sending message with offset {} to topic {}{}...", rec1.topicOffset, rec1.topicName, topicSuffix);
-                    ResultEntry result = send(rec1.topicName, rec1.topicName + topicSuffix, before, after);
+        LOG.info("Thread {} has stopped!", thread.getName());
+    }
 
-                    String resultText = "Sent message with offset " + rec1.topicOffset;
-                    if (result.getMessage() != null) {
-                        resultText = result.getMessage();
-                    }
-                    if (callback != null) {callback.reportProgress(result.getLevel(), resultText, reportMap);}
-                } catch (IndexOutOfBoundsException e) {
-                    running = false;
-                } catch (Exception e) {
-                    if (callback != null) {callback.reportProgress(ResultLevel.ERROR, e.getMessage(), reportMap);}
-                    LOG.error("Processing failed, reason: {}", e.getMessage());
+    /**
+     * A message compiled from one csv row, or two rows with the before and after image of the same topic offset.
+     * @param rowIdx the index of the (last) row of the message in the csv dataset
+     * @param failure the reason when the row(s) could not be compiled into a message, otherwise null
+     */
+    record ReplayStep(int rowIdx, String topicName, long topicOffset, long dtMillis,
+                      PreparedMessage message, String failure) {
+    }
+
+    /**
+     * Compiles all rows of the csv into messages, the schemas of each topic are loaded once.
+     * @return the messages in order of the rows
+     */
+    List<ReplayStep> compile() {
+        List<ReplayStep> steps = new ArrayList<>();
+        Map<String, TopicSchemas> schemas = new HashMap<>();
+        for (int idx = 0; idx < csv.size() && running; idx++) {
+            CDCRecord rec1;
+            try {
+                rec1 = new CDCRecord(csv.get(idx));
+            } catch (Exception e) {
+                steps.add(new ReplayStep(idx, null, -1, 0, null, "Invalid row, reason: " + e.getMessage()));
+                continue;
+            }
+            if (rec1.comment) {
+                continue;       // skip any header/comment lines
+            }
+            CDCRecord rec2 = null;
+            if (idx < csv.size() - 1) {             // peek at the next record if it belongs to this one
+                CDCRecord next = peekRecord(idx + 1);
+                if (next != null && !next.comment && rec1.topicName.equals(next.topicName) && rec1.topicOffset == next.topicOffset) {
+                    rec2 = next;
+                    idx++;      // the 2nd row for the same topic&offset
                 }
             }
-            running = running && (rowIdx < csv.size() - 1);
-        } while (running);
+            steps.add(compileStep(idx, rec1, rec2, schemas));
+        }
+        return steps;
+    }
 
-        if (callback != null) {callback.onDone(ResultLevel.OK, "All processed!");}
-        paused = false;
+    private CDCRecord peekRecord(int idx) {
+        try {
+            return new CDCRecord(csv.get(idx));
+        } catch (Exception e) {
+            return null;        // will be reported when compiled itself
+        }
+    }
 
-        LOG.info("Thread {} has stopped!", thread.getName());
+    private ReplayStep compileStep(int rowIdx, CDCRecord rec1, CDCRecord rec2, Map<String, TopicSchemas> schemas) {
+        CDCRecord cdcBefore = null;
+        CDCRecord cdcAfter = null;
+        if (rec1.matchElementName(ELM_BEFORE)) {
+            cdcBefore = rec1;
+            cdcAfter = rec2;
+        } else if (rec1.matchElementName(ELM_AFTER)) {
+            cdcAfter = rec1;
+            cdcBefore = rec2;
+        }
+
+        String[] before = cdcBefore == null || cdcBefore.nodata ? null: cdcBefore.getMessageRecord();
+        String[] after  = cdcAfter == null  || cdcAfter.nodata  ? null: cdcAfter.getMessageRecord();
+        try {
+            TopicSchemas topicSchemas = schemas.computeIfAbsent(rec1.topicName, dynamicTestKafkaProducer::loadSchemas);
+            PreparedMessage message = dynamicTestKafkaProducer.prepareMessage(topicSchemas, before, after);
+            return new ReplayStep(rowIdx, rec1.topicName, rec1.topicOffset, rec1.dtMillis, message, null);
+        } catch (Exception e) {
+            return new ReplayStep(rowIdx, rec1.topicName, rec1.topicOffset, rec1.dtMillis, null,
+                    String.format("Message with offset %s not compiled, reason: %s", rec1.topicOffset, e.getMessage()));
+        }
+    }
+
+    /**
+     * @return the rate of the original messages in messages per second, 0 when unknown
+     */
+    static double originalRate(List<ReplayStep> steps) {
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (ReplayStep step : steps) {
+            if (step.topicName() != null) {
+                first = Math.min(first, step.dtMillis());
+                last = Math.max(last, step.dtMillis());
+            }
+        }
+        return last > first ? steps.size() * 1000.0 / (last - first) : 0;
+    }
+
+    /**
+     * Waits until the message is due according to the interval type.
+     */
+    private void awaitTurn(ReplayStep step) {
+        long intervalMillis = switch (intervalType) {
+            // first messages in RealTime can be too quick, so wait the fixed interval before actual sending first
+            case RealTime -> nextSendAt == 0
+                    ? Math.min(getMaxRtInterval(), getFixedInterval())
+                    : Math.max(0, Math.min(getMaxRtInterval(), step.dtMillis() - prevDtMillis));
+            case Fixed -> getFixedInterval();
+            default -> 0;
+        };
+        if (step.topicName() != null) {
+            prevDtMillis = step.dtMillis();
+        }
+
+        long now = System.nanoTime();
+        long maxBehind = TimeUnit.MILLISECONDS.toNanos(getMaxRtInterval());
+        if (nextSendAt == 0 || now - nextSendAt > maxBehind) {
+            nextSendAt = now;       // start the schedule, or restart it instead of catching up with a burst
+        }
+        nextSendAt += TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        if (intervalMillis > 0) {
+            LOG.info("Sleeping for {} ms", TimeUnit.NANOSECONDS.toMillis(nextSendAt - now));
+        }
+        parkUntil(nextSendAt);
+    }
+
+    /**
+     * Restarts the schedule at the current time (after a pause).
+     */
+    private void restartSchedule() {
+        if (nextSendAt != 0) {
+            nextSendAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Parks the thread until the deadline, the last part is spent spinning for a precise wake-up.
+     */
+    private void parkUntil(long deadline) {
+        long remaining;
+        while (running && (remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private String testTopic(ReplayStep step) {
+        return topicSuffix != null ? step.topicName() + topicSuffix : step.topicName();
+    }
+
+    /**
+     * Sends the message and waits for the acknowledgement.
+     */
+    private ResultEntry sendAndWait(ReplayStep step) {
+        long startTs = System.currentTimeMillis();
+        try {
+            dynamicTestKafkaProducer.sendPreparedMessage(testTopic(step), step.message()).get(SEND_TIMEOUT_S, TimeUnit.SECONDS);
+            sentOk.incrementAndGet();
+            return new ResultEntry(ResultLevel.OK, String.format("Sent message with offset %s in %s ms",
+                    step.topicOffset(), System.currentTimeMillis() - startTs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+            return new ResultEntry(ResultLevel.WARN, "Sending interrupted");
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            sentFailed.incrementAndGet();
+            String reason = e instanceof ExecutionException && e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            return new ResultEntry(ResultLevel.ERROR, String.format("Message failed in %s ms, reason: %s",
+                    System.currentTimeMillis() - startTs, reason));
+        }
+    }
+
+    /**
+     * Sends the message without waiting for the acknowledgement, blocks only when {@link #MAX_IN_FLIGHT} messages are
+     * not acknowledged yet.
+     */
+    private void sendPipelined(ReplayStep step) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+            return;
+        }
+        try {
+            dynamicTestKafkaProducer.sendPreparedMessage(testTopic(step), step.message()).whenComplete((metadata, exception) -> {
+                inFlight.release();
+                if (exception == null) {
+                    sentOk.incrementAndGet();
+                } else {
+                    sentFailed.incrementAndGet();
+                    lastFailure.set(exception.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            sentFailed.incrementAndGet();
+            lastFailure.set(e.getMessage());
+        }
+    }
+
+    /**
+     * Waits until all pipelined messages are acknowledged.
+     */
+    private void awaitPipelined() {
+        dynamicTestKafkaProducer.flushAllProducers();
+        try {
+            if (inFlight.tryAcquire(MAX_IN_FLIGHT, SEND_TIMEOUT_S, TimeUnit.SECONDS)) {
+                inFlight.release(MAX_IN_FLIGHT);
+            } else {
+                LOG.warn("{} messages are not acknowledged", MAX_IN_FLIGHT - inFlight.availablePermits());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void report(ResultLevel level, String text) {
+        if (callback != null) {callback.reportProgress(level, text, reportMap);}
+    }
+
+    /**
+     * Reports the achieved rate and the rate of the original messages.
+     * @param level the level to report with, null to only log it
+     */
+    private void reportRate(ResultLevel level, String text, long tStart, double targetRate) {
+        String rateText = rateText(text, tStart, targetRate);
+        LOG.info(rateText);
+        if (level != null) {
+            if (sentFailed.get() > 0) {
+                rateText += String.format(", %s failed, last reason: %s", sentFailed.get(), lastFailure.get());
+            }
+            report(level, rateText);
+        }
     }
 
-    private int nextRowIndex() {
-        if (rowIdx < csv.size() - 1) {
-            reportMap.put(REPORT_IDX, ++rowIdx);
-            return rowIdx;
-        } else {
-            throw new IndexOutOfBoundsException("Reached last record");
+    private String rateText(String text, long tStart, double targetRate) {
+        long sent = sentOk.get() + sentFailed.get();
+        double seconds = (System.nanoTime() - tStart) / 1e9;
+        double rate = seconds > 0 ? sent / seconds : 0;
+        reportMap.put(REPORT_RATE, rate);
+        if (targetRate > 0) {
+            return String.format("%s, %.1f msg/s (original %.1f msg/s, %.1fx)", text, rate, targetRate, rate / targetRate);
         }
+        return String.format("%s, %.1f msg/s", text, rate);
     }
 
     private boolean isStepping() {
@@ -16,40 +16,49 @@ import static com.aicon.tos.shared.config.ConfigUtil.getConfigItem;
 
 public abstract class AbstractSessionController {
 
-    private final ConfigSettings configSettings;
+    /**
+     * The configuration groups read from one version of the config file, replaced as a whole when it is reloaded so
+     * other threads never see groups of different versions.
+     */
+    private record SessionConfiguration(ConfigSettings configSettings, ConfigGroup flowConfigs,
+                                        ConfigGroup connectionsConfig, ConfigGroup generalConfig,
+                                        ConfigGroup canaryCheckConfig, String n4Scope) {
+    }
+
+    private volatile SessionConfiguration configuration;
     protected ConfigGroup kafkaConfig;
-    private ConfigGroup flowConfigs;
     protected ConfigGroup httpConfig;
-    private ConfigGroup generalConfig;
-    private ConfigGroup connectionsConfig;
-    private ConfigGroup canaryCheckConfig;
 
     private final DataStore dataStore = DataStore.getInstance();
     private final FlowManager flowManager;
     private static final Logger LOG = LoggerFactory.getLogger(AbstractSessionController.class);
 
     private final List<FlowSession> activeSessions = new ArrayList<>();
-    private String n4Scope;
     private int requestId = 0;
-    private ConfigGroup tosControlConfig;
 
 
     protected AbstractSessionController(FlowManager flowManager) {
         this.flowManager = flowManager;
-        this.configSettings = this.flowManager.getConfigSettings();
-        getConfiguration();
+        this.configuration = getConfiguration(this.flowManager.getConfigSettings());
     }
 
-    private void getConfiguration() {
+    private static SessionConfiguration getConfiguration(ConfigSettings configSettings) {
+        ConfigGroup tosControlConfig = configSettings.getMainGroup(ConfigType.TosControl);
+        ConfigGroup generalConfig = configSettings.getMainGroup(ConfigType.General).getChildGroup(ConfigType.GeneralItems);
 
-        flowConfigs = configSettings.getMainGroup(ConfigType.Flows);
-        connectionsConfig = configSettings.getMainGroup(ConfigType.Connections);
-
-        tosControlConfig = configSettings.getMainGroup(ConfigType.TosControl);
-        generalConfig = configSettings.getMainGroup(ConfigType.General).getChildGroup(ConfigType.GeneralItems);
-        canaryCheckConfig = tosControlConfig.getChildGroup(ConfigType.CanaryCheck);
+        return new SessionConfiguration(configSettings,
+                configSettings.getMainGroup(ConfigType.Flows),
+                configSettings.getMainGroup(ConfigType.Connections),
+                generalConfig,
+                tosControlConfig.getChildGroup(ConfigType.CanaryCheck),
+                getConfigItem(generalConfig, ConfigDomain.CFG_YARD_SCOPE, String.class, "?"));
+    }
 
-        n4Scope = getConfigItem(generalConfig, ConfigDomain.CFG_YARD_SCOPE, String.class, "?");
+    /**
+     * Reloads the config file and reads the configuration groups again from the reloaded settings.
+     */
+    protected void reloadConfiguration() {
+        configuration = getConfiguration(ConfigSettings.reloadConfigFromFile());
     }
 
     public void sessionEnded(FlowSession session) {
@@ -65,7 +74,7 @@ public abstract class AbstractSessionController {
     }
 
     public String getNewControlRequestId() {
-        String requestIdStr = String.format("%s-%d", flowConfigs.getName(), ++requestId); //TODO Check...
+        String requestIdStr = String.format("%s-%d", configuration.flowConfigs().getName(), ++requestId); //TODO Check...
         LOG.info("New requestId: {}", requestIdStr);
         return requestIdStr;
     }
@@ -79,7 +88,7 @@ public abstract class AbstractSessionController {
     }
 
     public String getN4Scope() {
-        return n4Scope;
+        return configuration.n4Scope();
     }
 
     public int getRequestId() {
@@ -91,19 +100,19 @@ public abstract class AbstractSessionController {
     }
 
     public ConfigGroup getConnectionsConfig() {
-        return connectionsConfig;
+        return configuration.connectionsConfig();
     }
 
     public ConfigGroup getCanaryCheckConfig() {
-        return canaryCheckConfig;
+        return configuration.canaryCheckConfig();
     }
 
     public ConfigGroup getGeneralConfig() {
-        return generalConfig;
+        return configuration.generalConfig();
     }
 
     public ConfigSettings getConfigSettings() {
-        return configSettings;
+        return configuration.configSettings();
     }
 
     public DataStore getDataStore() {
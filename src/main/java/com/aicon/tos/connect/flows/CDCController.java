@@ -7,9 +7,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.SimpleDateFormat;
-import java.time.Instant;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
@@ -26,7 +26,7 @@ import static com.aicon.tos.shared.util.TimeUtils.waitSeconds;
  * Key functionalities include:
  * - Starting CDC sessions for configured topics.
  * - Managing session state and statistics.
- * - Finding the date associated with a specific key in a session's topic.
+ * - Finding (or waiting for) the date associated with a specific key in a session's topic.
  * - Generating reports on session statistics.
  */
 public class CDCController extends AbstractSessionController implements Runnable, StoppableController {
@@ -117,18 +117,29 @@ public class CDCController extends AbstractSessionController implements Runnable
     }
 
     /**
-     * Finds the date associated with the given gKey in a session's topic.
+     * Finds the date associated with the given gKey in a session's topic, waiting for it to arrive when needed.
      *
      * @param cdcConfig the CDCConfig object containing the topic name
      * @param gKey      the key for which the date needs to be fetched
      * @param threshold the max waiting time in milliseconds
-     * @param timeSync  additional synchronization buffer in milliseconds
      * @return the associated date or null if not found within the allowed time
      */
-    public Long findDateForGKey(CDCConfig cdcConfig, String gKey, Long threshold, Long timeSync) {
-        Long date = null;
+    public Long findDateForGKey(CDCConfig cdcConfig, String gKey, Long threshold) {
         LOG.info("---------- findDateForGKey( {}) ----------", gKey);
+        return awaitDateForGKey(cdcConfig, gKey, threshold).join();
+    }
 
+    /**
+     * Waits for the given gKey to arrive in the session's topic, without blocking the calling thread. The future is
+     * completed by the CDC session as soon as it ingests the gKey, so the arrival date is exact to the millisecond
+     * instead of depending on a polling interval.
+     *
+     * @param cdcConfig the CDCConfig object containing the topic name
+     * @param gKey      the key for which the date needs to be fetched
+     * @param threshold the max waiting time in milliseconds
+     * @return the future completing with the associated date, or with null if not found within the allowed time
+     */
+    public CompletableFuture<Long> awaitDateForGKey(CDCConfig cdcConfig, String gKey, Long threshold) {
         CDCSession currentCDCSession = sessions.keySet()
                 .stream()
                 .filter(CDCSession.class::isInstance)
@@ -139,43 +150,21 @@ public class CDCController extends AbstractSessionController implements Runnable
 
         if (currentCDCSession == null) {
             LOG.warn("No active session found for topic: {}", cdcConfig.topicName());
-            return null;
-        }
-
-        long waitingSince = Instant.now().toEpochMilli();
-
-        while (date == null && notWaitedTooLong(waitingSince, threshold)) {
-            LOG.info("Searching in topic {} for key {}, waited={}ms, max wait={}ms",
-                    currentCDCSession.getTopic(),
-                    gKey,
-                    Instant.now().toEpochMilli() - waitingSince,
-                    (threshold + timeSync)
-            );
-
-            date = currentCDCSession.findDateForGKey(gKey);
-
-            if (date == null) {
-                waitSeconds(2, "topic " + currentCDCSession.getTopic());
-            }
+            return CompletableFuture.completedFuture(null);
         }
 
-        if (date == null) {
-            LOG.info("No date found for key {} in topic {}", gKey, currentCDCSession.getTopic());
-        } else {
-            LOG.info("Date {} found for key {} in topic {}", date, gKey, currentCDCSession.getTopic());
-        }
-        return date;
-    }
-
-    /**
-     * Determines if waiting time has exceeded the threshold plus additional timeSync.
-     */
-    private boolean notWaitedTooLong(Long waitingSince, Long threshold) {
-        long now = Instant.now().toEpochMilli();
-        boolean result = now - waitingSince <= threshold;
-        LOG.info("Waited too long? {}, waited for {} msec, max wait = {}",
-                !result, now - waitingSince, threshold);
-        return result;
+        long waitingSince = System.currentTimeMillis();
+        LOG.info("Waiting in topic {} for key {}, max wait={}ms", currentCDCSession.getTopic(), gKey, threshold);
+        return currentCDCSession.awaitDateForGKey(gKey, threshold != null ? threshold : 0L)
+                .whenComplete((date, e) -> {
+                    if (date == null) {
+                        LOG.info("No date found for key {} in topic {}, waited {}ms",
+                                gKey, currentCDCSession.getTopic(), System.currentTimeMillis() - waitingSince);
+                    } else {
+                        LOG.info("Date {} found for key {} in topic {}, waited {}ms",
+                                date, gKey, currentCDCSession.getTopic(), System.currentTimeMillis() - waitingSince);
+                    }
+                });
     }
 
     public void stopController() {
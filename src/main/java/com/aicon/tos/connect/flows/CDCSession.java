@@ -8,6 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 import static com.aicon.tos.shared.util.TimeUtils.waitSeconds;
 
@@ -81,6 +82,13 @@ public class CDCSession extends FlowSession {
         return consumer.findDateForGKey(gKey);
     }
 
+    /**
+     * @return the future completing with the arrival timestamp of the gKey, or with null when not arrived in time.
+     */
+    public CompletableFuture<Long> awaitDateForGKey(String gKey, long timeoutMs) {
+        return consumer.awaitDateForGKey(gKey, timeoutMs);
+    }
+
     public void stopSession() {
         LOG.info("Stopping CDCSession for topic {}.", consumer.getTopic());
         setRunning(false);
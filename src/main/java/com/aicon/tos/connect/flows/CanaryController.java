@@ -5,13 +5,16 @@ import com.aicon.tos.connect.cdc.CDCData;
 import com.aicon.tos.connect.cdc.CDCDataProcessor;
 import com.aicon.tos.connect.http.transformers.RequestResponseTransformer;
 import com.aicon.tos.connect.http.transformers.RequestResponseTransformerFactory;
+import com.aicon.tos.shared.config.ConfigGroup;
 import com.aicon.tos.shared.config.ConfigSettings;
 import com.aicon.tos.shared.config.ConfigType;
 import com.aicon.tos.shared.exceptions.TransformerCreationException;
 import com.aicon.tos.shared.kafka.AiconTosConnectionStatusProducer;
+import com.aicon.tos.shared.util.NamedThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.ArrayDeque;
 import java.util.Deque;
@@ -19,11 +22,16 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import static com.aicon.tos.connect.flows.BaseController.splitReportLinesIfTooLong;
 import static com.aicon.tos.shared.config.ConfigUtil.getConfigItem;
-import static com.aicon.tos.shared.util.TimeUtils.waitMilliSeconds;
 
 /**
  * The CanaryController class manages and monitors the execution of canary sessions, ensuring
@@ -37,6 +45,11 @@ import static com.aicon.tos.shared.util.TimeUtils.waitMilliSeconds;
  * - Reporting on session states and overall activity.
  * - Storing and retrieving configuration and session statistics.
  * <p>
+ * Sessions are run one after the other on a single scheduled worker thread, the next session is scheduled when the
+ * previous one has finished. The configuration derived objects (transformer, CDC processor) are only rebuilt when the
+ * config file has changed since they were built; they are kept in one immutable {@link CanaryConfiguration} that is
+ * replaced as a whole, so the views reading them from other threads never see a half rebuilt configuration.
+ * <p>
  * This setup ensures efficient monitoring and supervises the system's behavior over time through
  * a configurable and extendable architecture.
  */
@@ -46,16 +59,13 @@ public class CanaryController extends AbstractSessionController implements Runna
     private static final int CANARY_INTERVAL_MS = 5000; // Some default if not defined
     private static final int CANARY_CDC_FREQUENCY = 5; // Some default if not defined
 
-    private int canaryIntervalMs = CANARY_INTERVAL_MS;
-    private int canaryCDCFrequency = CANARY_CDC_FREQUENCY;
     private int threadCounter = 0;
 
     private final Map<FlowSession.SessionState, Long> stats;
     private final Map<FlowSession, Thread> sessions;
 
-    private CDCDataProcessor cdcProcessor;
+    private volatile CanaryConfiguration canaryConfig;
     private final FlowSessionManager sessionHistoryManager;
-    private RequestResponseTransformer transformer;
     private final AiconTosConnectionStatusProducer aiconTosConnectionStatusProducer;
 
     private final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MMM-dd hh:mm:ss.SSS");
@@ -63,10 +73,16 @@ public class CanaryController extends AbstractSessionController implements Runna
     private String latestTosCDCData = null;
     private String latestAiconCDCData = null;
 
-    private boolean running = true;
+    private volatile boolean running = true;
     private int cdcCheckCounter = 0;
     private Boolean cdcOk = false;
 
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("CanarySession"));
+    private final AtomicBoolean sessionActive = new AtomicBoolean(false);
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private ConfigFileStamp configStamp;
+
 
     public CanaryController(FlowManager flowManager) {
 
@@ -74,7 +90,8 @@ public class CanaryController extends AbstractSessionController implements Runna
 
         LOG.info("Instantiate Canary Controller for {}", getCanaryCheckConfig().getName());
 
-        getCanaryConfiguration();
+        configStamp = ConfigFileStamp.of(getConfigSettings().getConfigFile());
+        canaryConfig = getCanaryConfiguration();
 
         aiconTosConnectionStatusProducer = new AiconTosConnectionStatusProducer();
         this.sessions = new LinkedHashMap<>();
@@ -85,6 +102,13 @@ public class CanaryController extends AbstractSessionController implements Runna
         sessionHistoryManager = new FlowSessionManager(30);
     }
 
+    /**
+     * The objects derived from one version of the canary configuration.
+     */
+    record CanaryConfiguration(ConfigGroup kafkaConfig, ConfigGroup httpConfig, CDCDataProcessor cdcProcessor,
+                               RequestResponseTransformer transformer, int intervalMs, int cdcFrequency) {
+    }
+
     /**
      * Configures and initializes various components required for the CanaryController.
      * <p>
@@ -101,88 +125,146 @@ public class CanaryController extends AbstractSessionController implements Runna
      * <p>
      * This setup ensures that the CanaryController has access to the required configurations
      * and can perform operations related to canary checks, HTTP interactions, and CDC data processing.
+     *
+     * @return the configuration derived from the current configuration groups.
      */
-    private void getCanaryConfiguration() {
+    private CanaryConfiguration getCanaryConfiguration() {
 
         String kafkaRef = (String) getCanaryCheckConfig().getChildGroup(ConfigType.KafkaRef).getRef();
-        this.kafkaConfig = getConnectionsConfig().getReferencedGroup(kafkaRef, ConfigType.Kafka);
+        ConfigGroup kafkaConfig = getConnectionsConfig().getReferencedGroup(kafkaRef, ConfigType.Kafka);
         String httpRef = (String) getCanaryCheckConfig().getChildGroup(ConfigType.HttpRef).getRef();
-        this.httpConfig = getConnectionsConfig().getReferencedGroup(httpRef, ConfigType.Http);
+        ConfigGroup httpConfig = getConnectionsConfig().getReferencedGroup(httpRef, ConfigType.Http);
 
-        cdcProcessor = new CDCDataProcessor(getCanaryCheckConfig());
-        canaryIntervalMs = getConfigItem(getCanaryCheckConfig(), ConfigDomain.CFG_CANARY_INTERVAL_MS, Integer.class, CANARY_INTERVAL_MS);
-        canaryCDCFrequency = getConfigItem(getCanaryCheckConfig(), ConfigDomain.CFG_CANARY_CDC_FREQUENCY, Integer.class, CANARY_CDC_FREQUENCY);
+        CDCDataProcessor cdcProcessor = new CDCDataProcessor(getCanaryCheckConfig());
+        int canaryIntervalMs = getConfigItem(getCanaryCheckConfig(), ConfigDomain.CFG_CANARY_INTERVAL_MS, Integer.class, CANARY_INTERVAL_MS);
+        int canaryCDCFrequency = getConfigItem(getCanaryCheckConfig(), ConfigDomain.CFG_CANARY_CDC_FREQUENCY, Integer.class, CANARY_CDC_FREQUENCY);
 
+        RequestResponseTransformer transformer = null;
         String transformerClass = httpConfig.getItemValue(ConfigSettings.CFG_HTTP_TRANSFORMER_CLASS);
-        if (transformerClass == null) {
-            transformer = null;
-        } else {
+        if (transformerClass != null) {
             try {
                 transformer = RequestResponseTransformerFactory.getTransformer(transformerClass);
             } catch (TransformerCreationException e) {
                 LOG.error("Failed to create transformer: {}", e.getMessage(), e);
-                // Handle the failure (e.g., fallback to default logic)
+                // keep using the transformer of the previous configuration, if any
+                transformer = canaryConfig != null ? canaryConfig.transformer() : null;
             }
         }
+        return new CanaryConfiguration(kafkaConfig, httpConfig, cdcProcessor, transformer, canaryIntervalMs,
+                canaryCDCFrequency);
     }
 
     /**
      * Executes the primary logic of the CanaryController in a separate thread.
-     * This method is invoked when the thread starts and operates in a continuous loop
-     * while the `running` flag remains true. It performs the following:
-     * <p>
-     * - Logs the start of the CanaryController.
-     * - Refreshes the configuration if necessary by invoking the `getConfig` method.
-     * - Enters a loop where it:
-     * - Executes a canary session via the `runCanarySession` method.
-     * - Puts the thread to sleep using the `sleepThread` method to control execution timing.
      * <p>
-     * The loop runs indefinitely until the `running` flag is set to false.
+     * Schedules the first canary session on the session worker and then waits until the controller is stopped.
+     * Every session schedules its successor after the configured interval, so sessions never overlap and a
+     * changed interval is picked up by the next session.
      */
     @Override
     public void run() {
+        if (!running) {
+            return;
+        }
         LOG.info("Starting CanaryController");
 
-        while (running) {
-            getCanaryConfiguration();
+        scheduleNextSession(0);
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            handleInterruptedException(e);
+        }
+        LOG.info("CanaryController finished running");
+    }
+
+    private void scheduleNextSession(long delayMs) {
+        if (!running) {
+            return;
+        }
+        try {
+            scheduler.schedule(this::runScheduledSession, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOG.debug("CanaryController stopped, no next session scheduled");
+        }
+    }
+
+    private void runScheduledSession() {
+        try {
+            refreshConfigurationIfChanged();
             runCanarySession();
-            waitMilliSeconds(canaryIntervalMs, "canary");
+        } catch (RuntimeException e) {
+            LOG.error("Canary session failed unexpectedly", e);
+        } finally {
+            scheduleNextSession(canaryConfig.intervalMs());
         }
     }
 
     /**
-     * Executes a single instance of a canary session in a separate thread.
-     * <p>
-     * This method performs the following steps:
-     * 1. Initializes a new instance of the CanarySession with the necessary dependencies.
-     * 2. Creates a thread using the CanarySession instance and assigns the thread a name retrieved from the session.
-     * 3. Stores the session-thread pair in the `sessions` map for tracking active sessions.
-     * 4. Starts the thread to execute the canary session logic.
-     * 5. Waits for the execution of the thread to complete using `thread.join()`.
-     * 6. Handles interruptions gracefully by invoking the `handleInterruptedException` method.
+     * Reloads the config file and rebuilds the configuration derived objects when the config file has been changed
+     * since they were built.
+     *
+     * @return true when the configuration has been rebuilt.
+     */
+    boolean refreshConfigurationIfChanged() {
+        ConfigFileStamp currentStamp = ConfigFileStamp.of(getConfigSettings().getConfigFile());
+        if (currentStamp.equals(configStamp)) {
+            return false;
+        }
+        LOG.info("Config file changed, rebuilding canary configuration");
+        configStamp = currentStamp;
+        reloadConfiguration();
+        canaryConfig = getCanaryConfiguration();
+        return true;
+    }
+
+    /**
+     * Executes a single canary session on the session worker of this controller.
      * <p>
-     * The method ensures that individual canary sessions are executed in isolation while maintaining
-     * the ability to track and control their state via the `sessions` map.
+     * A session is only started when no other session is active, the session is tracked in the `sessions` map
+     * while it runs.
      */
-    private void runCanarySession() {
-        CanarySession canarySession = new CanarySession(this, cdcProcessor, aiconTosConnectionStatusProducer,
-                httpConfig, transformer, getN4Scope(), doCDCCheck());
-        Thread thread = new Thread(canarySession, canarySession.getThreadName(threadCounter++));
-        sessions.put(canarySession, thread);
-        thread.start();
+    void runCanarySession() {
+        if (!sessionActive.compareAndSet(false, true)) {
+            LOG.warn("Previous canary session still active, skipping this one");
+            return;
+        }
+        String workerName = Thread.currentThread().getName();
         try {
-            thread.join();
-        } catch (InterruptedException e) {
-            handleInterruptedException(e);
+            CanaryConfiguration config = canaryConfig;
+            CanarySession canarySession = new CanarySession(this, config.cdcProcessor(),
+                    aiconTosConnectionStatusProducer, config.httpConfig(), config.transformer(), getN4Scope(),
+                    doCDCCheck(config.cdcFrequency()));
+            Thread.currentThread().setName(canarySession.getThreadName(threadCounter++));
+            synchronized (this) {
+                sessions.put(canarySession, Thread.currentThread());
+            }
+            canarySession.run();
+            cdcCheckCounter++;
+        } finally {
+            Thread.currentThread().setName(workerName);
+            sessionActive.set(false);
         }
-        cdcCheckCounter++;
+    }
+
+    int getCanaryIntervalMs() {
+        return canaryConfig.intervalMs();
+    }
+
+    @Override
+    public ConfigGroup getKafkaConfig() {
+        return canaryConfig.kafkaConfig();
+    }
+
+    @Override
+    public ConfigGroup getHttpConfig() {
+        return canaryConfig.httpConfig();
     }
 
     public boolean isRunning() {
         return running;
     }
 
-    private boolean doCDCCheck() {
+    private boolean doCDCCheck(int canaryCDCFrequency) {
         if (cdcCheckCounter >= canaryCDCFrequency) {
             cdcCheckCounter = 0;
             LOG.info("Doing CDC check");
@@ -199,6 +281,8 @@ public class CanaryController extends AbstractSessionController implements Runna
     public void stopController() {
         LOG.info("Stopping CanaryController for {}", getCanaryCheckConfig().getName());
         running = false;
+        scheduler.shutdownNow();
+        stopped.countDown();
     }
 
     public String toString() {
@@ -213,13 +297,17 @@ public class CanaryController extends AbstractSessionController implements Runna
 
         Thread.State threadState = Thread.currentThread().getState();
         String endpointInfo = getEndpointInfo();
-        int activeSessions = sessions.size();
+        int activeSessions;
+        synchronized (this) {
+            activeSessions = sessions.size();
+        }
         Long doneSessions = stats.get(FlowSession.SessionState.DONE);
         Long failedSessions = stats.get(FlowSession.SessionState.FAILED);
         String lastSessionMsg = getLastSessionMsg();
+        CanaryConfiguration config = canaryConfig;
 
         return splitReportLinesIfTooLong(String.format(REPORT_TEMPLATE,
-                this.getName(), threadState, endpointInfo, canaryIntervalMs / 1000, canaryCDCFrequency,
+                this.getName(), threadState, endpointInfo, config.intervalMs() / 1000, config.cdcFrequency(),
                 activeSessions, doneSessions, failedSessions, lastSessionMsg));
     }
 
@@ -292,7 +380,7 @@ public class CanaryController extends AbstractSessionController implements Runna
     }
 
     public void setLatestAiconCDCData(List<CDCData> cdcData) {
-        setLatestAiconCDCData(cdcProcessor.convertCDCDataToString(cdcData));
+        setLatestAiconCDCData(canaryConfig.cdcProcessor().convertCDCDataToString(cdcData));
     }
 
     public FlowSessionManager getSessionManager() {
@@ -308,13 +396,25 @@ public class CanaryController extends AbstractSessionController implements Runna
     }
 
     public CDCDataProcessor getCDCDataProcessor() {
-        return this.cdcProcessor;
+        return canaryConfig.cdcProcessor();
     }
 
     protected String getName() {
         return "CanaryController";
     }
 
+    /**
+     * The identity of the config file contents, based on its modification time and size.
+     */
+    record ConfigFileStamp(long lastModified, long length) {
+        static ConfigFileStamp of(File file) {
+            if (file == null || !file.exists()) {
+                return new ConfigFileStamp(0L, -1L);
+            }
+            return new ConfigFileStamp(file.lastModified(), file.length());
+        }
+    }
+
     public Boolean getCdcOk() {
         return this.cdcOk;
     }
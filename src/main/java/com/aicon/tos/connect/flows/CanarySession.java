@@ -5,7 +5,6 @@ import com.aicon.tos.connect.cdc.CDCData;
 import com.aicon.tos.connect.cdc.CDCDataProcessor;
 import com.aicon.tos.connect.http.HttpConnector;
 import com.aicon.tos.connect.http.transformers.RequestResponseTransformer;
-import com.aicon.tos.connect.web.pages.DataStore;
 import com.aicon.tos.shared.config.ConfigGroup;
 import com.aicon.tos.shared.exceptions.DeserializationException;
 import com.aicon.tos.shared.exceptions.SoapResponseTransformationException;
@@ -22,6 +21,11 @@ import org.slf4j.LoggerFactory;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static com.aicon.tos.shared.util.GregorianCalendarUtil.getXMLGregorianCalender;
 import static com.aicon.tos.shared.xml.XmlUtil.deserialize;
@@ -32,10 +36,12 @@ public class CanarySession extends FlowSession {
 
     private static final Logger LOG = LoggerFactory.getLogger(CanarySession.class);
 
+    /** Time on top of the largest threshold before the fan in gives up, the tables time out by themselves before. */
+    static final long DEADLINE_MARGIN_MS = 1000;
+
     private final CDCDataProcessor cdcProcessor;
     private final RequestResponseTransformer transformer;
     private final CDCController cdcController;
-    private final DataStore dataStore = DataStore.getInstance();
     private final String n4Scope;
     private final boolean cdcCheck;
     private final CanaryController canaryController;
@@ -163,18 +169,77 @@ public class CanarySession extends FlowSession {
         }
     }
 
+    /**
+     * Verifies the arrival of the latest TOS CDC records of all tables at the same time, so the verification takes
+     * as long as the slowest table instead of the sum of all tables. Each table waits at most its own threshold.
+     * @return the CDC data per table with the arrival timestamp, null for the tables not arrived in time.
+     */
     private List<CDCData> getAiconCDCData() {
         List<CDCData> rawCDC = cdcProcessor.convertStringToCDCData(canaryController.getLatestTOSCDCData());
         rawCDC = cdcProcessor.removeTooOldData(rawCDC);
-        List<CDCData> result = new ArrayList<>();
+        long startMs = System.currentTimeMillis();
+        long maxThreshold = 0;
+
+        // fan out: wait for all tables at once, each with its own deadline
+        List<CompletableFuture<Long>> arrivals = new ArrayList<>(rawCDC.size());
         for (CDCData entry : rawCDC) {
             CDCConfig config = cdcProcessor.getCdcConfigForTable(entry.getTableName());
-            Long ts = cdcController.findDateForGKey(config, entry.getGkey(), config.threshold(), dataStore.getTimeSync());
-            result.add(new CDCData(entry.getTableName(), entry.getGkey(), ts));
+            arrivals.add(cdcController.awaitDateForGKey(config, entry.getGkey(), config.threshold()));
+            maxThreshold = Math.max(maxThreshold, config.threshold() != null ? config.threshold() : 0L);
+        }
+
+        // fan in: done as soon as the slowest table arrived or passed its deadline
+        List<CDCData> result = collectArrivals(rawCDC, arrivals, maxThreshold + DEADLINE_MARGIN_MS);
+        LOG.info("[Canary] CDC verification of {} tables took {}ms, {}",
+                result.size(), System.currentTimeMillis() - startMs, reportArrivals(rawCDC, result));
+        return result;
+    }
+
+    /**
+     * Waits for all arrivals, but never longer than the given max wait time.
+     * @return the CDC data for all entries, with the arrival timestamp or null when not arrived (yet).
+     */
+    static List<CDCData> collectArrivals(List<CDCData> entries, List<CompletableFuture<Long>> arrivals, long maxWaitMs) {
+        try {
+            CompletableFuture.allOf(arrivals.toArray(new CompletableFuture[0])).get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOG.warn("[Canary] Not all CDC tables answered within {}ms, reporting the partial result", maxWaitMs);
+        } catch (ExecutionException e) {
+            LOG.warn("[Canary] Waiting for CDC data failed, reason: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        } catch (InterruptedException e) {
+            LOG.warn("[Canary] Interrupted while waiting for CDC data, reporting the partial result");
+            Thread.currentThread().interrupt();
+        }
+
+        List<CDCData> result = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            CompletableFuture<Long> arrival = arrivals.get(i);
+            Long ts = arrival.isDone() && !arrival.isCompletedExceptionally() ? arrival.getNow(null) : null;
+            result.add(new CDCData(entries.get(i).getTableName(), entries.get(i).getGkey(), ts));
         }
         return result;
     }
 
+    /**
+     * @return the tables arrived with their lag (arrival minus TOS creation) and the tables missing.
+     */
+    static String reportArrivals(List<CDCData> tosCDC, List<CDCData> aiconCDC) {
+        StringJoiner arrived = new StringJoiner(", ", "arrived=[", "]");
+        StringJoiner missing = new StringJoiner(", ", "missing=[", "]");
+        for (int i = 0; i < aiconCDC.size(); i++) {
+            CDCData aicon = aiconCDC.get(i);
+            Long created = tosCDC.get(i).getCreationTimestamp();
+            if (aicon.getCreationTimestamp() == null) {
+                missing.add(aicon.getTableName());
+            } else if (created != null) {
+                arrived.add(aicon.getTableName() + " lag=" + (aicon.getCreationTimestamp() - created) + "ms");
+            } else {
+                arrived.add(aicon.getTableName());
+            }
+        }
+        return arrived + " " + missing;
+    }
+
     private void determineTimeSync() {
         try {
             Long sync = TimeSyncService.determineSyncTime(
@@ -65,7 +65,7 @@ public class DeckingUpdateFlowSession extends HttpFlowSession {
                 transformedResponse = getMockedResponse("" + deckingUpdateRequestMessage.getRequestId());
             }
             // Step 4: Send the transformed response
-            AiconYardDeckingUpdateResponseProducer producer = new AiconYardDeckingUpdateResponseProducer();
+            AiconYardDeckingUpdateResponseProducer producer = AiconYardDeckingUpdateResponseProducer.getShared();
             producer.sendMessage(deckingUpdateRequestMessage.getRequestId().toString(), transformedResponse);
 
         } catch (Exception e) {
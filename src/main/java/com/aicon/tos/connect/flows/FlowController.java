@@ -13,10 +13,12 @@ import com.aicon.tos.shared.kafka.AiconTosConnectWQRequestTopicConsumer;
 import com.aicon.tos.shared.kafka.AiconTosControlConsumer;
 import com.aicon.tos.shared.kafka.AiconYardDeckingUpdateRequestConsumer;
 import com.aicon.tos.shared.kafka.KafkaConfig;
+import com.aicon.tos.shared.kafka.KafkaConsumerBase;
 import com.aicon.tos.shared.schema.AiconTosControlMessage;
 import com.aicon.tos.shared.schema.AiconYardDeckingUpdateRequestMessage;
 import com.avlino.aicon.ITVJobResequenceRequest.itv_job_resequence_request_value;
 import com.avlino.aicon.WorkQueueActivationRequest.dispatch_work_queue_activation_value;
+import org.apache.avro.generic.GenericRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.slf4j.Logger;
@@ -27,23 +29,33 @@ import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import static com.aicon.tos.connect.flows.BaseController.splitReportLinesIfTooLong;
 
 /**
  * Controls and monitors all steps for a message flow from source to destination, and when it is a synchronous call
  * also the route back to 1 or more (ok/error) response topics.
- * The FlowController subscribes to a single topic in its own thread and spawns a FlowSession object in its own thread
- * to handle the steps to be taken from source until destination and back when relevant.
+ * The FlowController subscribes to a single topic in its own thread and creates a FlowSession object for every
+ * request to handle the steps to be taken from source until destination and back when relevant. The sessions run on
+ * a bounded pool of workers of this flow, sessions for the same record key (gkey) are run in order of arrival. When
+ * too many sessions are pending the consumer is paused until the workers caught up.
  * todo yusuf add flows for the aicon-yard-move-request / aicon-dispatch-update-request (so we can take this out of the http-sink-connector)
  * todo the fact that I see hardcoded names here is a bit weird, I think the controller should all be driven by configuration (similar as what we've done for the Scenario's), so no hardcoded names should be seen here, the controller should take care of the plumbing around it.
  */
 public class FlowController extends  AbstractSessionController implements Runnable, StoppableController {
     private static final Logger LOG = LoggerFactory.getLogger(FlowController.class);
 
+    static final int DEFAULT_SESSION_WORKERS = 8;
+    static final int DEFAULT_SESSION_MAX_PENDING = 100;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
     Map<FlowSession.SessionState, Long> stats;
-    private final Map<FlowSession, Thread> sessions;
-    private boolean running = true;
+    private final Set<FlowSession> sessions;
+    private final FlowSessionDispatcher dispatcher;
+    private volatile boolean running = true;
 
     AiconTosConnectSwapRequestTopicConsumer aiconTosConnectSwapRequestTopicConsumer;
     AiconTosConnectWQRequestTopicConsumer aiconTosConnectWQRequestTopicConsumer;
@@ -90,7 +102,10 @@ public class FlowController extends  AbstractSessionController implements Runnab
             }
         }
 
-        this.sessions = new LinkedHashMap<>();
+        this.sessions = ConcurrentHashMap.newKeySet();
+        this.dispatcher = new FlowSessionDispatcher(flowConfig.getName() + "-Session",
+                getPositiveConfigInt(flowConfig, ConfigDomain.CFG_FLOW_SESSION_WORKERS, DEFAULT_SESSION_WORKERS),
+                getPositiveConfigInt(flowConfig, ConfigDomain.CFG_FLOW_SESSION_MAX_PENDING, DEFAULT_SESSION_MAX_PENDING));
         stats = new LinkedHashMap<>(FlowSession.SessionState.values().length);
         for (FlowSession.SessionState state : FlowSession.SessionState.values()) {
             stats.put(state, 0L);
@@ -141,35 +156,90 @@ public class FlowController extends  AbstractSessionController implements Runnab
             if (aiconYardDeckingUpdateRequestMessageConsumer != null) {
                 aiconYardDeckingUpdateRequestMessageConsumer.stop();
             }
+            dispatcher.shutdown(SHUTDOWN_TIMEOUT_MS);
         }
     }
 
-    private void procesItvTopic() {
-        aiconTosConnectSwapRequestTopicConsumer = new AiconTosConnectSwapRequestTopicConsumer();
+    static int getPositiveConfigInt(ConfigGroup config, String key, int defaultValue) {
+        String value = config.getItemValue(key, null);
+        try {
+            return value != null ? Math.max(1, Integer.parseInt(value.trim())) : defaultValue;
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid {}={}, using {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Polls the consumer until stopped and dispatches a session for every received record. While the dispatcher is
+     * saturated the consumer is paused, it keeps polling (without receiving records) to stay in its consumer group.
+     *
+     * @param consumer       the consumer to poll.
+     * @param sessionFactory creates the session handling a record.
+     */
+    private <V extends GenericRecord> void consumeTopic(KafkaConsumerBase<String, V> consumer,
+                                                        Function<ConsumerRecord<String, V>, FlowSession> sessionFactory) {
+        boolean paused = false;
         while (running) {
-            ConsumerRecords<String, itv_job_resequence_request_value> records =
-                    aiconTosConnectSwapRequestTopicConsumer.pollMessages();
-
-            if (records.count() > 0) {
-                for (ConsumerRecord<String, itv_job_resequence_request_value> consumerRecord : records) {
-                    String json = JsonParser.convertAvroToJson(consumerRecord.value());
-
-                    FlowSession flowSession = new SwapFlowSession(
-                            this, json, getKafkaConfig(), flowConfig, getHttpConfig(), transformer, getN4Scope());
-                    Thread thread = new Thread(flowSession, flowSession.getThreadName((threadCounter++)));
-                    sessions.put(flowSession, thread);
-                    thread.start();
+            if (dispatcher.isSaturated()) {
+                consumer.pause();   // every poll, to also pause partitions assigned by a rebalance
+                if (!paused) {
+                    paused = true;
+                    LOG.warn("{} saturated, pausing consumer of topic {}", dispatcher, consumer.getTopic());
                 }
+            } else if (paused && dispatcher.hasCapacity()) {
+                paused = false;
+                consumer.resume();
+                LOG.info("{} has capacity, resuming consumer of topic {}", dispatcher, consumer.getTopic());
+            }
+
+            ConsumerRecords<String, V> records = consumer.pollMessages();
+            for (ConsumerRecord<String, V> consumerRecord : records) {
+                dispatchSession(getSessionKey(consumerRecord), sessionFactory.apply(consumerRecord));
             }
         }
-        aiconTosConnectSwapRequestTopicConsumer.stop();
+        consumer.stop();
+    }
+
+    private void dispatchSession(String key, FlowSession flowSession) {
+        String threadName = flowSession.getThreadName(threadCounter++);
+        sessions.add(flowSession);
+        dispatcher.dispatch(key, () -> {
+            // the session's name is only for its own logging, the pooled worker gets its own name back afterwards.
+            Thread worker = Thread.currentThread();
+            String workerName = worker.getName();
+            worker.setName(threadName);
+            try {
+                flowSession.run();
+            } finally {
+                sessions.remove(flowSession);
+                worker.setName(workerName);
+            }
+        });
+    }
+
+    /**
+     * @return the record key (gkey) to keep the order of requests for the same key, or a unique key when absent.
+     */
+    static String getSessionKey(ConsumerRecord<String, ?> consumerRecord) {
+        if (consumerRecord.key() != null) {
+            return consumerRecord.key();
+        }
+        return String.format("%s-%d@%d", consumerRecord.topic(), consumerRecord.partition(), consumerRecord.offset());
+    }
+
+    private void procesItvTopic() {
+        aiconTosConnectSwapRequestTopicConsumer = new AiconTosConnectSwapRequestTopicConsumer();
+        consumeTopic(aiconTosConnectSwapRequestTopicConsumer, consumerRecord ->
+                new SwapFlowSession(this, JsonParser.convertAvroToJson(consumerRecord.value()),
+                        getKafkaConfig(), flowConfig, getHttpConfig(), transformer, getN4Scope()));
     }
 
     /**
      * Processes messages from the AICON TOS Work Queue request Kafka topic and initiates
      * flow sessions for each received message. The method continuously polls the Kafka topic
      * for messages while the application is in a running state and handles each message
-     * on a separate thread.
+     * as a session on the workers of this flow.
      * <p>
      * Functionality:
      * - Initializes an instance of {@link AiconTosConnectWQRequestTopicConsumer} for consuming messages.
@@ -177,13 +247,13 @@ public class FlowController extends  AbstractSessionController implements Runnab
      * - For each received message:
      * - Converts the message value from Avro format to JSON using {@link JsonParser}.
      * - Creates a {@link WQFlowSession} to handle the message processing with the specified configurations.
-     * - Starts a new thread for the flow session and maps the flow session to its thread in the 'sessions' map.
+     * - Dispatches the flow session to the workers and tracks it in the 'sessions' set until finished.
      * - Continuously processes messages in a loop until the 'running' flag is set to false.
      * - Stops the Kafka consumer when the application is no longer running.
      * <p>
      * Threading:
-     * - Each flow session executes on its own thread, allowing concurrent processing of multiple messages.
-     * - Tracks and manages threads via the 'sessions' map to ensure proper organization and potential cleanup.
+     * - Flow sessions execute on the bounded worker pool of this flow, allowing concurrent processing of multiple
+     * messages while messages with the same key are processed in order.
      * <p>
      * Important Notes:
      * - Relies on synchronized management of shared resources to ensure thread safety.
@@ -191,40 +261,26 @@ public class FlowController extends  AbstractSessionController implements Runnab
      */
     private void processWqTopic() {
         aiconTosConnectWQRequestTopicConsumer = new AiconTosConnectWQRequestTopicConsumer();
-        while (running) {
-            ConsumerRecords<String, dispatch_work_queue_activation_value> records =
-                    aiconTosConnectWQRequestTopicConsumer.pollMessages();
-
-            if (records.count() > 0) {
-                for (ConsumerRecord<String, dispatch_work_queue_activation_value> consumerRecord : records) {
-                    String json = JsonParser.convertAvroToJson(consumerRecord.value());
-                    FlowSession flowSession = new WQFlowSession(
-                            this, json, getKafkaConfig(), flowConfig, flowConfig ,transformer, getN4Scope());
-                    Thread thread = new Thread(flowSession, flowSession.getThreadName(threadCounter++));
-                    sessions.put(flowSession, thread);
-                    thread.start();
-                }
-            }
-        }
-        aiconTosConnectWQRequestTopicConsumer.stop();
+        consumeTopic(aiconTosConnectWQRequestTopicConsumer, consumerRecord ->
+                new WQFlowSession(this, JsonParser.convertAvroToJson(consumerRecord.value()),
+                        getKafkaConfig(), flowConfig, flowConfig, transformer, getN4Scope()));
     }
 
     /**
      * This method processes messages from the AICON TOS Control Kafka topic and initiates
      * flow sessions for each received message. It continuously polls for messages while
-     * the application is in a running state and creates threads for handling each message.
+     * the application is in a running state and dispatches a session for handling each message.
      * When the application stops running, the associated consumer is also stopped.
      * <p>
      * Functionality:
      * - Initializes an instance of {@link AiconTosControlConsumer} using the specified control flow group ID.
      * - Continuously checks for new Kafka messages while the application is running.
      * - For each message, creates a {@link ControlFlowSession} to handle the message processing.
-     * - Starts a new thread for each flow session and maintains a mapping of flow sessions to threads in the 'sessions' map.
+     * - Dispatches each flow session to the workers and tracks it in the 'sessions' set until finished.
      * - Stops the AICON TOS Control Consumer when the running flag is set to false.
      * <p>
      * Threading:
-     * - Each flow session runs on its own thread, enabling concurrent processing of multiple messages.
-     * - Threads for flow sessions are managed in the 'sessions' map.
+     * - Flow sessions run on the bounded worker pool of this flow, messages with the same key are processed in order.
      * <p>
      * Important Notes:
      * - Uses synchronized data structures and multithreading, requiring careful management of shared resources.
@@ -233,40 +289,17 @@ public class FlowController extends  AbstractSessionController implements Runnab
     private void processAiconTosControlTopic() {
 
         aiconTosControlConsumer = new AiconTosControlConsumer(controlFlowGroupId);
-        while (running) {
-            ConsumerRecords<String, AiconTosControlMessage> records = aiconTosControlConsumer.pollMessages();
-
-            if (records.count() > 0) {
-                for (ConsumerRecord<String, AiconTosControlMessage> consumerRecord : records) {
-                    FlowSession flowSession = new ControlFlowSession(this, consumerRecord, getKafkaConfig(),
-                            flowConfig, getHttpConfig(), transformer, getN4Scope());
-                    Thread thread = new Thread(flowSession, flowSession.getThreadName(threadCounter++));
-                    sessions.put(flowSession, thread);
-                    thread.start();
-                }
-            }
-        }
-        aiconTosControlConsumer.stop();
+        consumeTopic(aiconTosControlConsumer, consumerRecord ->
+                new ControlFlowSession(this, consumerRecord, getKafkaConfig(),
+                        flowConfig, getHttpConfig(), transformer, getN4Scope()));
     }
 
     private void processTosDeckingUpdateTopic() {
 
         aiconYardDeckingUpdateRequestMessageConsumer = new AiconYardDeckingUpdateRequestConsumer();
-        while (running) {
-//            LOG.info("DeckingUpdate flow is running and running = {} ", running);
-            ConsumerRecords<String, AiconYardDeckingUpdateRequestMessage> records = aiconYardDeckingUpdateRequestMessageConsumer.pollMessages();
-
-            if (records.count() > 0) {
-                for (ConsumerRecord<String, AiconYardDeckingUpdateRequestMessage> consumerRecord : records) {
-                    FlowSession flowSession = new DeckingUpdateFlowSession(this, consumerRecord,
-                            flowConfig, getHttpConfig(), transformer, getN4Scope());
-                    Thread thread = new Thread(flowSession, flowSession.getThreadName(threadCounter++));
-                    sessions.put(flowSession, thread);
-                    thread.start();
-                }
-            }
-        }
-        aiconYardDeckingUpdateRequestMessageConsumer.stop();
+        consumeTopic(aiconYardDeckingUpdateRequestMessageConsumer, consumerRecord ->
+                new DeckingUpdateFlowSession(this, consumerRecord,
+                        flowConfig, getHttpConfig(), transformer, getN4Scope()));
     }
 
     public void stopController() {
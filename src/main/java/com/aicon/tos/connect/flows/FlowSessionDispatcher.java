@@ -0,0 +1,152 @@
+package com.aicon.tos.connect.flows;
+
+import com.aicon.tos.shared.util.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs flow sessions on a fixed pool of worker threads. Sessions with the same key (e.g. the gkey of the request) are
+ * run one after the other in order of dispatch, sessions with different keys run in parallel.
+ * <p>
+ * Dispatching never blocks, instead the nr of dispatched but unfinished sessions is tracked against a max, so the
+ * caller can stop fetching new requests while the dispatcher is saturated and continue when half of it is drained.
+ */
+class FlowSessionDispatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(FlowSessionDispatcher.class);
+
+    private final String name;
+    private final ExecutorService workers;
+    private final int maxPending;
+    private final Map<String, Queue<Runnable>> keyQueues = new HashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * @param name        the name of the dispatcher, used as prefix for the worker thread names.
+     * @param workerCount the nr of worker threads, at least 1.
+     * @param maxPending  the nr of unfinished sessions at which the dispatcher is saturated, at least 1.
+     */
+    FlowSessionDispatcher(String name, int workerCount, int maxPending) {
+        if (workerCount < 1 || maxPending < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "workerCount and maxPending should be at least 1, got %s and %s", workerCount, maxPending));
+        }
+        this.name = name;
+        this.maxPending = maxPending;
+        this.workers = Executors.newFixedThreadPool(workerCount, new NamedThreadFactory(name));
+    }
+
+    /**
+     * Runs the session as soon as a worker is available and all sessions dispatched earlier for the same key have
+     * finished.
+     *
+     * @param key     the ordering key of the session.
+     * @param session the session to run.
+     */
+    void dispatch(String key, Runnable session) {
+        pending.incrementAndGet();
+        Runnable task = () -> {
+            try {
+                session.run();
+            } catch (RuntimeException e) {
+                LOG.error("{}: session for key {} failed", name, key, e);
+            } finally {
+                pending.decrementAndGet();
+            }
+        };
+
+        boolean startNow;
+        synchronized (keyQueues) {
+            Queue<Runnable> waiting = keyQueues.get(key);
+            startNow = waiting == null;
+            if (startNow) {
+                keyQueues.put(key, new ArrayDeque<>(1));
+            } else {
+                waiting.add(task);
+            }
+        }
+        if (startNow) {
+            execute(key, task);
+        }
+    }
+
+    private void execute(String key, Runnable task) {
+        try {
+            workers.execute(() -> runInOrder(key, task));
+        } catch (RejectedExecutionException e) {
+            int dropped = 1;
+            synchronized (keyQueues) {
+                Queue<Runnable> waiting = keyQueues.remove(key);
+                if (waiting != null) {
+                    dropped += waiting.size();
+                }
+            }
+            pending.addAndGet(-dropped);
+            LOG.warn("{} is shut down, dropped {} session(s) for key {}", name, dropped, key);
+        }
+    }
+
+    private void runInOrder(String key, Runnable task) {
+        Runnable next = task;
+        while (next != null) {
+            next.run();
+            synchronized (keyQueues) {
+                Queue<Runnable> waiting = keyQueues.get(key);
+                next = waiting != null ? waiting.poll() : null;
+                if (next == null) {
+                    keyQueues.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true when the nr of unfinished sessions reached the max.
+     */
+    boolean isSaturated() {
+        return pending.get() >= maxPending;
+    }
+
+    /**
+     * @return true when at most half of the max nr of sessions is unfinished.
+     */
+    boolean hasCapacity() {
+        return pending.get() <= maxPending / 2;
+    }
+
+    int getPending() {
+        return pending.get();
+    }
+
+    int getMaxPending() {
+        return maxPending;
+    }
+
+    /**
+     * Stops accepting sessions, the running and queued sessions are finished within the given time.
+     */
+    void shutdown(long timeoutMs) {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                LOG.warn("{}: {} session(s) not finished within {}ms", name, pending.get(), timeoutMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s pending=%s/%s", name, pending.get(), maxPending);
+    }
+}
@@ -43,7 +43,7 @@ public class SwapFlowSession extends HttpFlowSession {
 
             logConvertedRecord(responseValue);
 
-            AiconTosConnectSwapResponseTopicProducer producer = new AiconTosConnectSwapResponseTopicProducer();
+            AiconTosConnectSwapResponseTopicProducer producer = AiconTosConnectSwapResponseTopicProducer.getShared();
 
             itv_job_resequence_response_key msgKey = new itv_job_resequence_response_key();
             msgKey.setRequestIdx(responseValue.getRequestIdx());
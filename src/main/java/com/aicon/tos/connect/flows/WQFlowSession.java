@@ -52,7 +52,7 @@ public class WQFlowSession extends HttpFlowSession {
             msgValue.setErrMsg(responseValue.getErrMsg());
             msgValue.setErrCode(responseValue.getErrCode());
 
-            AiconTosConnectWQResponseTopicProducer producer = new AiconTosConnectWQResponseTopicProducer();
+            AiconTosConnectWQResponseTopicProducer producer = AiconTosConnectWQResponseTopicProducer.getShared();
             producer.sendMessage(msgKey.toString(), msgValue);
         } catch(Exception e) {
             throw new FlowSessionException("WQFlowSession execution failed", e);
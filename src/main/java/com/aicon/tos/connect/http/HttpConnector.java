@@ -1,36 +1,64 @@
 package com.aicon.tos.connect.http;
 
 import com.aicon.tos.exceptions.HttpException;
+import com.aicon.tos.interceptor.decide.InFlightLimiter;
 import com.aicon.tos.shared.config.ConfigGroup;
 import com.aicon.tos.shared.config.ConfigSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * HttpConnector provides a wrapper around Java's HttpClient for making
  * HTTP requests, delegating response handling to the HttpResponseHandler.
+ * <p>
+ * All connectors share 1 HttpClient, which keeps the connections per endpoint alive and reuses them, so a new flow
+ * session does not pay the TCP/TLS setup again (and does not leave a selector thread behind). The nr of concurrent
+ * requests per endpoint is limited by {@link ConfigSettings#CFG_HTTP_MAX_CONCURRENT_REQUESTS}, requests above the limit
+ * are queued without blocking the caller. Every request times out after
+ * {@link ConfigSettings#CFG_HTTP_READ_TIMEOUT_MS}, so a hanging endpoint can not keep its slots forever.
  */
 public class HttpConnector {
 
     private static final Logger LOG = LoggerFactory.getLogger(HttpConnector.class);
+
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 10;
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofMillis(10000);
+
+    private static final HttpClient SHARED_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private static final Map<String, InFlightLimiter> endpointLimiters = new ConcurrentHashMap<>();
+    private static final Map<String, HeaderSet> headerSets = new ConcurrentHashMap<>();
+
     private final HttpClient client;
 
     /**
-     * Constructor to initialize the HttpConnector with a custom HttpClient configuration.
+     * The default headers of an endpoint, built for the given authorization.
+     */
+    private record HeaderSet(String authorization, String[] nameValues) {
+    }
+
+    /**
+     * Constructor to initialize the HttpConnector with the shared HttpClient.
      */
     public HttpConnector() {
-        this.client = HttpClient.newBuilder()
-                .connectTimeout(java.time.Duration.ofSeconds(10))
-                .build();
+        this(SHARED_CLIENT);
+    }
+
+    HttpConnector(HttpClient client) {
+        this.client = client;
     }
 
     /**
@@ -41,29 +69,7 @@ public class HttpConnector {
      * @return The response body as a String.
      */
     public String sendGet(String uri, Map<String, String> headers) {
-        LOG.info("Sending GET request to URI: {}", uri);
-
-        // Build the HTTP GET request.
-        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
-                .uri(URI.create(uri))
-                .GET();
-
-        // Add headers if provided.
-        if (headers != null) {
-            headers.forEach(requestBuilder::header);
-        }
-        HttpRequest request = requestBuilder.build();
-
-        // Send the request and delegate response processing to HttpResponseHandler.
-        HttpResponse<String> response = null;
-        try {
-            response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        } catch (IOException | InterruptedException e) {
-            LOG.error("An error occurred during the HTTP GET request to URI: {}", uri, e);
-            throw new HttpException("Error during HTTP GET request to URI: " + uri, -1, e.getMessage());
-        }
-        return HttpResponseHandler.handleHttpResponse(response);
-
+        return join(sendAsync("GET", uri, toHeaderArray(headers), null, 0, DEFAULT_READ_TIMEOUT), "GET", uri);
     }
 
     /**
@@ -75,28 +81,7 @@ public class HttpConnector {
      * @return The response body as a String.
      */
     public String sendPost(String uri, Map<String, String> headers, String body) {
-        try {
-            LOG.info("Sending POST request to URI: {}", uri);
-
-            // Build the HTTP POST request.
-            HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
-                    .uri(URI.create(uri))
-                    .POST(HttpRequest.BodyPublishers.ofString(body));
-
-            // Add headers if provided.
-            if (headers != null) {
-                headers.forEach(requestBuilder::header);
-            }
-            HttpRequest request = requestBuilder.build();
-
-            // Send the request and delegate response processing to HttpResponseHandler.
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-            return HttpResponseHandler.handleHttpResponse(response);
-
-        } catch (IOException | InterruptedException e) {
-            LOG.error("An error occurred during the HTTP POST request to URI: {}", uri, e);
-            throw new HttpException("Error during HTTP POST request to URI: " + uri, -1, e.getMessage());
-        }
+        return join(sendAsync("POST", uri, toHeaderArray(headers), body, 0, DEFAULT_READ_TIMEOUT), "POST", uri);
     }
 
     /**
@@ -108,6 +93,21 @@ public class HttpConnector {
      * @throws UnsupportedOperationException If the HTTP method is invalid or unsupported.
      */
     public String sendHttpRequest(ConfigGroup httpConfig, String requestBody) {
+        String httpMethod = httpConfig.getItemValue(ConfigSettings.CFG_HTTP_METHOD, ConfigSettings.CFG_DEFAULT_METHOD);
+        String url = httpConfig.getItemValue(ConfigSettings.CFG_HTTP_URL, "");
+        return join(sendHttpRequestAsync(httpConfig, requestBody), httpMethod, url);
+    }
+
+    /**
+     * Sends an HTTP request (GET or POST) based on the provided configuration without waiting for the response.
+     *
+     * @param httpConfig  The HTTP configuration for the request.
+     * @param requestBody The body of the request (for POST). Can be null or empty for GET.
+     * @return The future completing with the response body, or exceptionally with a {@link HttpException}.
+     * @throws IllegalArgumentException when the URL is missing or a POST has no body.
+     * @throws UnsupportedOperationException If the HTTP method is invalid or unsupported.
+     */
+    public CompletableFuture<String> sendHttpRequestAsync(ConfigGroup httpConfig, String requestBody) {
         // Extract the HTTP method from configuration
         String httpMethod = httpConfig.getItemValue(ConfigSettings.CFG_HTTP_METHOD, ConfigSettings.CFG_DEFAULT_METHOD);
         String url = httpConfig.getItemValue(ConfigSettings.CFG_HTTP_URL, "");
@@ -116,22 +116,57 @@ public class HttpConnector {
             throw new IllegalArgumentException("URL must be provided in HTTP configuration.");
         }
 
-        Map<String, String> headers = buildDefaultHeaders(httpConfig);
+        String[] headers = getDefaultHeaderSet(httpConfig);
+        int maxConcurrent = getMaxConcurrentRequests(httpConfig);
+        Duration timeout = getReadTimeout(httpConfig);
 
         // Execute appropriate HTTP method
         if ("GET".equalsIgnoreCase(httpMethod)) {
-            return sendGet(url, headers);
+            return sendAsync("GET", url, headers, null, maxConcurrent, timeout);
         } else if ("POST".equalsIgnoreCase(httpMethod)) {
             if (requestBody == null || requestBody.isEmpty()) {
                 throw new IllegalArgumentException("POST request requires a non-null and non-empty body.");
             }
-            return sendPost(url, headers, requestBody);
+            return sendAsync("POST", url, headers, requestBody, maxConcurrent, timeout);
         } else {
             // Reject unsupported methods
             throw new UnsupportedOperationException("Unsupported HTTP method: " + httpMethod);
         }
     }
 
+    /**
+     * Sends the request via the shared client, limited to the max nr of concurrent requests to the endpoint.
+     *
+     * @param method        GET or POST.
+     * @param uri           The target URI.
+     * @param headers       The headers as name, value pairs, may be null.
+     * @param body          The request body, only used for POST.
+     * @param maxConcurrent The limit for the endpoint, 0 to keep the current limit (or the default for a new endpoint).
+     * @param timeout       The time the request may take, it then completes with an HttpTimeoutException.
+     * @return The future completing with the response body.
+     */
+    public CompletableFuture<String> sendAsync(String method, String uri, String[] headers, String body,
+                                               int maxConcurrent, Duration timeout) {
+        LOG.info("Sending {} request to URI: {}", method, uri);
+        URI target = URI.create(uri);
+
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder().uri(target).timeout(timeout);
+        if ("POST".equalsIgnoreCase(method)) {
+            requestBuilder.POST(HttpRequest.BodyPublishers.ofString(body));
+        } else {
+            requestBuilder.GET();
+        }
+        if (headers != null && headers.length > 0) {
+            requestBuilder.headers(headers);
+        }
+        HttpRequest request = requestBuilder.build();
+
+        // Send the request and delegate response processing to HttpResponseHandler.
+        return getLimiter(target, maxConcurrent)
+                .submit(() -> client.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                .thenApply(HttpResponseHandler::handleHttpResponse);
+    }
+
     /**
      * Builds default HTTP headers for requests.
      *
@@ -143,10 +178,96 @@ public class HttpConnector {
         headers.put("Accept", "application/json");
 //        headers.put("SOAPAction", httpConfig.getItemValue(ConfigSettings.CFG_HTTP_SOAP_ACTION, ""));
         headers.put("SOAPAction","");
-        String credentials = httpConfig.getItemValue(ConfigSettings.CFG_HTTP_USERNAME) + ":" +
-                httpConfig.getItemValue(ConfigSettings.CFG_HTTP_PASSWORD);
-        String encodedCredentials = Base64.getEncoder().encodeToString(credentials.getBytes());
-        headers.put("Authorization", "Basic " + encodedCredentials);
+        headers.put("Authorization", "Basic " + encodeCredentials(getCredentials(httpConfig)));
         return headers;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return the default headers as name, value pairs, computed once per endpoint and rebuilt when its credentials
+     * change.
+     */
+    String[] getDefaultHeaderSet(ConfigGroup httpConfig) {
+        String authorization = "Basic " + encodeCredentials(getCredentials(httpConfig));
+        HeaderSet headerSet = headerSets.compute(endpointOf(URI.create(httpConfig.getItemValue(ConfigSettings.CFG_HTTP_URL, ""))),
+                (endpoint, current) -> current != null && current.authorization().equals(authorization)
+                        ? current
+                        : new HeaderSet(authorization, toHeaderArray(buildDefaultHeaders(httpConfig))));
+        return headerSet.nameValues();
+    }
+
+    static int getMaxConcurrentRequests(ConfigGroup httpConfig) {
+        String value = httpConfig.getItemValue(ConfigSettings.CFG_HTTP_MAX_CONCURRENT_REQUESTS, null);
+        try {
+            return value != null ? Math.max(1, Integer.parseInt(value.trim())) : DEFAULT_MAX_CONCURRENT_REQUESTS;
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid {}={}, using {}", ConfigSettings.CFG_HTTP_MAX_CONCURRENT_REQUESTS, value, DEFAULT_MAX_CONCURRENT_REQUESTS);
+            return DEFAULT_MAX_CONCURRENT_REQUESTS;
+        }
+    }
+
+    static Duration getReadTimeout(ConfigGroup httpConfig) {
+        String value = httpConfig.getItemValue(ConfigSettings.CFG_HTTP_READ_TIMEOUT_MS, null);
+        try {
+            return value != null ? Duration.ofMillis(Math.max(1, Long.parseLong(value.trim()))) : DEFAULT_READ_TIMEOUT;
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid {}={}, using {}", ConfigSettings.CFG_HTTP_READ_TIMEOUT_MS, value, DEFAULT_READ_TIMEOUT.toMillis());
+            return DEFAULT_READ_TIMEOUT;
+        }
+    }
+
+    /**
+     * @return the limiter of the endpoint of the uri, resized when a different limit is given.
+     */
+    static InFlightLimiter getLimiter(URI uri, int maxConcurrent) {
+        // starting a queued request only hands it over to the client, so it can run on the completing thread.
+        InFlightLimiter limiter = endpointLimiters.computeIfAbsent(endpointOf(uri), key ->
+                new InFlightLimiter(maxConcurrent > 0 ? maxConcurrent : DEFAULT_MAX_CONCURRENT_REQUESTS, Runnable::run));
+        if (maxConcurrent > 0 && limiter.getMaxInFlight() != maxConcurrent) {
+            LOG.info("Max concurrent requests to {} changed from {} to {}", endpointOf(uri), limiter.getMaxInFlight(), maxConcurrent);
+            limiter.setMaxInFlight(maxConcurrent);
+        }
+        return limiter;
+    }
+
+    private static String endpointOf(URI uri) {
+        return uri.getScheme() + "://" + uri.getAuthority();
+    }
+
+    private static String getCredentials(ConfigGroup httpConfig) {
+        return httpConfig.getItemValue(ConfigSettings.CFG_HTTP_USERNAME) + ":" +
+                httpConfig.getItemValue(ConfigSettings.CFG_HTTP_PASSWORD);
+    }
+
+    private static String encodeCredentials(String credentials) {
+        return Base64.getEncoder().encodeToString(credentials.getBytes());
+    }
+
+    private static String[] toHeaderArray(Map<String, String> headers) {
+        if (headers == null) {
+            return null;
+        }
+        String[] nameValues = new String[headers.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            nameValues[i++] = header.getKey();
+            nameValues[i++] = header.getValue();
+        }
+        return nameValues;
+    }
+
+    /**
+     * Waits for the response, rethrowing the HttpExceptions and wrapping IO errors in an HttpException.
+     */
+    private static String join(CompletableFuture<String> future, String method, String uri) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof HttpException httpException) {
+                throw httpException;
+            }
+            LOG.error("An error occurred during the HTTP {} request to URI: {}", method, uri, cause);
+            throw new HttpException("Error during HTTP " + method + " request to URI: " + uri, -1, cause.getMessage());
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.aicon.tos.connect.http.transformers;
+
+import com.aicon.tos.shared.exceptions.SoapResponseTransformationException;
+import org.apache.commons.text.StringEscapeUtils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes requests into the SOAP envelope of the N4 argo basic service and decodes the result from its responses.
+ * <p>
+ * The envelope around a request is constant except for the scope, so it is kept as pre-encoded parts that are written
+ * directly to the output. Responses are read with StAX: only the text of the {@code basicInvokeResponse} and the
+ * content of the {@code argo:custom-response} are collected, no document tree is built for the (possibly large)
+ * response. The XML factories are created once and shared, they are thread-safe after configuration.
+ */
+public final class SoapCodec {
+    static final String ARGO_NAMESPACE = "http://www.navis.com/argo";
+    static final String BODY = "Body";
+    static final String BASIC_INVOKE_RESPONSE = "basicInvokeResponse";
+    static final String CUSTOM_RESPONSE = "custom-response";
+
+    private static final String ENVELOPE_START =
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" " +
+            "xmlns:arg=\"http://www.navis.com/services/argobasicservice\">\n" +
+            "<soapenv:Header/>\n" +
+            "<soapenv:Body>\n" +
+            "<arg:basicInvoke>\n" +
+            "<arg:scopeCoordinateIds>";
+    private static final String SCOPE_END =
+            "</arg:scopeCoordinateIds>\n" +
+            "<arg:xmlDoc><![CDATA[\n" +
+            "<custom class=\"AlenzaYardsightWebserviceListener\" type=\"extension\">";
+    private static final String ENVELOPE_END =
+            "</custom>\n" +
+            "    ]]></arg:xmlDoc>\n" +
+            "</arg:basicInvoke>\n" +
+            "</soapenv:Body>\n" +
+            "</soapenv:Envelope>";
+    private static final byte[] ENVELOPE_START_BYTES = ENVELOPE_START.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SCOPE_END_BYTES = SCOPE_END.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ENVELOPE_END_BYTES = ENVELOPE_END.getBytes(StandardCharsets.UTF_8);
+    private static final int ENVELOPE_LENGTH = ENVELOPE_START.length() + SCOPE_END.length() + ENVELOPE_END.length();
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    private SoapCodec() {
+        // Prevent instantiation
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        // prevent XXE attacks
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Writes the SOAP envelope with the request to the output.
+     *
+     * @param out     the output to write the UTF-8 encoded envelope to.
+     * @param request the plain request, placed as is in the CDATA of the envelope.
+     * @param n4Scope the scope coordinates of the request.
+     * @throws IOException when writing to the output failed.
+     */
+    public static void writeRequest(OutputStream out, String request, String n4Scope) throws IOException {
+        out.write(ENVELOPE_START_BYTES);
+        out.write(escapeText(n4Scope).getBytes(StandardCharsets.UTF_8));
+        out.write(SCOPE_END_BYTES);
+        out.write(request.getBytes(StandardCharsets.UTF_8));
+        out.write(ENVELOPE_END_BYTES);
+    }
+
+    /**
+     * @return the UTF-8 encoded SOAP envelope with the request.
+     */
+    public static byte[] encodeRequest(String request, String n4Scope) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(ENVELOPE_LENGTH + 2 * request.length());
+        try {
+            writeRequest(buffer, request, n4Scope);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // not thrown by a byte array
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * @return the SOAP envelope with the request.
+     */
+    public static String encodeRequestAsString(String request, String n4Scope) {
+        String scope = escapeText(n4Scope);
+        return new StringBuilder(ENVELOPE_LENGTH + scope.length() + request.length())
+                .append(ENVELOPE_START)
+                .append(scope)
+                .append(SCOPE_END)
+                .append(request)
+                .append(ENVELOPE_END)
+                .toString();
+    }
+
+    /**
+     * Extracts the content of the {@code argo:custom-response} from the {@code basicInvokeResponse} in the SOAP body.
+     *
+     * @param soapResponse the SOAP response.
+     * @return the content of the custom response, trimmed.
+     * @throws SoapResponseTransformationException if the response can not be parsed or an expected element is missing.
+     */
+    public static String decodeResponse(String soapResponse) {
+        try {
+            return decodeResponse(INPUT_FACTORY.createXMLStreamReader(new StringReader(soapResponse)));
+        } catch (Exception e) {
+            throw new SoapResponseTransformationException("Error while transforming SOAP response", e);
+        }
+    }
+
+    /**
+     * Extracts the content of the {@code argo:custom-response} from the SOAP response read from the stream.
+     *
+     * @param soapResponse the SOAP response, in the encoding of its XML declaration (default UTF-8).
+     * @return the content of the custom response, trimmed.
+     * @throws SoapResponseTransformationException if the response can not be parsed or an expected element is missing.
+     */
+    public static String decodeResponse(InputStream soapResponse) {
+        try {
+            return decodeResponse(INPUT_FACTORY.createXMLStreamReader(soapResponse));
+        } catch (Exception e) {
+            throw new SoapResponseTransformationException("Error while transforming SOAP response", e);
+        }
+    }
+
+    private static String decodeResponse(XMLStreamReader reader) throws XMLStreamException {
+        String escapedXml;
+        try {
+            if (!moveToDescendant(reader, null, BODY)) {
+                throw new SoapResponseTransformationException("SOAP Body not found in response.");
+            }
+            if (!moveToDescendant(reader, null, BASIC_INVOKE_RESPONSE)) {
+                throw new SoapResponseTransformationException("<basicInvokeResponse> not found in SOAP Body.");
+            }
+            escapedXml = readTextContent(reader);
+        } finally {
+            reader.close();
+        }
+        if (escapedXml.isEmpty()) {
+            throw new SoapResponseTransformationException("No content found inside <basicInvokeResponse>.");
+        }
+
+        XMLStreamReader inner = INPUT_FACTORY.createXMLStreamReader(
+                new StringReader(StringEscapeUtils.unescapeXml(escapedXml)));
+        try {
+            if (!moveToDescendant(inner, ARGO_NAMESPACE, CUSTOM_RESPONSE)) {
+                throw new SoapResponseTransformationException("<argo:custom-response> not found in the unescaped response.");
+            }
+            return copyContent(inner).trim();
+        } finally {
+            inner.close();
+        }
+    }
+
+    /**
+     * Moves the reader to the first descendant element of the current element (or document) with the name.
+     *
+     * @param namespace the namespace of the element, null for any namespace.
+     * @return true when found, the reader is then positioned at its start element.
+     */
+    static boolean moveToDescendant(XMLStreamReader reader, String namespace, String localName) throws XMLStreamException {
+        int depth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (localName.equals(reader.getLocalName())
+                        && (namespace == null || namespace.equals(reader.getNamespaceURI()))) {
+                    return true;
+                }
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT && --depth < 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the concatenated text of the current element and all its descendants, the reader is positioned at the
+     * end element.
+     */
+    static String readTextContent(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT -> depth++;
+                case XMLStreamConstants.END_ELEMENT -> {
+                    if (depth-- == 0) {
+                        return text.toString();
+                    }
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                default -> {
+                    // comments and processing instructions are no text content
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Serializes the content (child nodes) of the current element, namespaces used but declared outside the content
+     * are declared on the outermost element using them.
+     */
+    static String copyContent(XMLStreamReader reader) throws XMLStreamException {
+        StringWriter out = new StringWriter();
+        XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(out);
+        int depth = 0;
+        int event = reader.next();
+        while (true) {
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    StartElement element = StartElement.read(reader);
+                    event = reader.next();
+                    if (event == XMLStreamConstants.END_ELEMENT) {
+                        element.write(writer, true);
+                        event = reader.next();
+                    } else {
+                        element.write(writer, false);
+                        depth++;
+                    }
+                    continue;
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    if (depth-- == 0) {
+                        writer.flush();
+                        return out.toString();
+                    }
+                    writer.writeEndElement();
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.SPACE ->
+                        writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                case XMLStreamConstants.CDATA -> writer.writeCData(reader.getText());
+                case XMLStreamConstants.COMMENT -> writer.writeComment(reader.getText());
+                case XMLStreamConstants.END_DOCUMENT -> {
+                    writer.flush();
+                    return out.toString();
+                }
+                default -> {
+                    // processing instructions are not part of the result
+                }
+            }
+            event = reader.next();
+        }
+    }
+
+    /**
+     * The name, namespace declarations and attributes of a start element, captured to look ahead for an empty element.
+     */
+    private record StartElement(String prefix, String localName, String namespace,
+                                String[] nsPrefixes, String[] nsUris, String[] attributes) {
+
+        static StartElement read(XMLStreamReader reader) {
+            String[] nsPrefixes = new String[reader.getNamespaceCount()];
+            String[] nsUris = new String[nsPrefixes.length];
+            for (int i = 0; i < nsPrefixes.length; i++) {
+                nsPrefixes[i] = reader.getNamespacePrefix(i);
+                nsUris[i] = reader.getNamespaceURI(i);
+            }
+            String[] attributes = new String[reader.getAttributeCount() * 4];
+            for (int i = 0, a = 0; a < attributes.length; i++) {
+                attributes[a++] = reader.getAttributePrefix(i);
+                attributes[a++] = reader.getAttributeNamespace(i);
+                attributes[a++] = reader.getAttributeLocalName(i);
+                attributes[a++] = reader.getAttributeValue(i);
+            }
+            return new StartElement(nullToEmpty(reader.getPrefix()), reader.getLocalName(),
+                    nullToEmpty(reader.getNamespaceURI()), nsPrefixes, nsUris, attributes);
+        }
+
+        void write(XMLStreamWriter writer, boolean empty) throws XMLStreamException {
+            // determine the bindings missing in the scope of the parent before the element opens its own scope
+            boolean declareNamespace = isUnbound(writer, prefix, namespace);
+            boolean[] declareAttrNamespace = new boolean[attributes.length / 4];
+            for (int a = 0; a < attributes.length; a += 4) {
+                declareAttrNamespace[a / 4] = isUnbound(writer, nullToEmpty(attributes[a]), nullToEmpty(attributes[a + 1]));
+            }
+
+            if (empty) {
+                writer.writeEmptyElement(prefix, localName, namespace);
+            } else {
+                writer.writeStartElement(prefix, localName, namespace);
+            }
+            for (int i = 0; i < nsPrefixes.length; i++) {
+                String nsPrefix = nullToEmpty(nsPrefixes[i]);
+                writeNamespace(writer, nsPrefix, nullToEmpty(nsUris[i]));
+                declareNamespace &= !nsPrefix.equals(prefix);
+                for (int a = 0; a < attributes.length; a += 4) {
+                    declareAttrNamespace[a / 4] &= !nsPrefix.equals(nullToEmpty(attributes[a]));
+                }
+            }
+            if (declareNamespace) {
+                writeNamespace(writer, prefix, namespace);
+            }
+            for (int a = 0; a < attributes.length; a += 4) {
+                String attrPrefix = nullToEmpty(attributes[a]);
+                String attrNamespace = nullToEmpty(attributes[a + 1]);
+                if (declareAttrNamespace[a / 4] && !(attrPrefix.equals(prefix) && declareNamespace)) {
+                    writeNamespace(writer, attrPrefix, attrNamespace);
+                }
+                writer.writeAttribute(attrPrefix, attrNamespace, attributes[a + 2], attributes[a + 3]);
+            }
+        }
+
+        private static boolean isUnbound(XMLStreamWriter writer, String prefix, String namespace) {
+            return !namespace.isEmpty() && !namespace.equals(writer.getNamespaceContext().getNamespaceURI(prefix));
+        }
+
+        private static void writeNamespace(XMLStreamWriter writer, String prefix, String namespace)
+                throws XMLStreamException {
+            if (prefix.isEmpty()) {
+                writer.writeDefaultNamespace(namespace);
+                writer.setDefaultNamespace(namespace);
+            } else {
+                writer.writeNamespace(prefix, namespace);
+                writer.setPrefix(prefix, namespace);
+            }
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String escapeText(String text) {
+        if (text == null) {
+            return "null";      // as appended to the envelope before
+        }
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
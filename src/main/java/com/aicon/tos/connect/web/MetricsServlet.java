@@ -0,0 +1,25 @@
+package com.aicon.tos.connect.web;
+
+import com.aicon.tos.interceptor.InterceptorMetrics;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Prometheus scrape endpoint, exposes the metrics of {@link InterceptorMetrics} in the Prometheus text format.
+ */
+public class MetricsServlet extends HttpServlet {
+
+    static final String CONTENT_TYPE_PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        response.setContentType(CONTENT_TYPE_PROMETHEUS);
+        PrintWriter out = response.getWriter();
+        out.write(InterceptorMetrics.getInstance().scrape());
+    }
+}
@@ -43,13 +43,11 @@ public class CDCInfoView extends FormLayout {
     private final TextArea timeSyncField = new TextArea();
     private transient ScheduledExecutorService autoRefreshService;
     private final transient DataStore dataStore;
-    private final transient CDCDataProcessor cdcDataProcessor;
 
 
     public CDCInfoView() {
         this.ui = UI.getCurrent();
         this.canaryController = FlowManager.getInstance().getCanaryController();
-        this.cdcDataProcessor = canaryController.getCDCDataProcessor();
         dataStore = DataStore.getInstance();
 
         setResponsiveSteps(new ResponsiveStep("0", 1));
@@ -70,6 +68,9 @@ public class CDCInfoView extends FormLayout {
         timeSyncField.setWidth(width);
         timeSyncField.setReadOnly(true);
 
+        // the processor is rebuilt when the config file changes, so it is asked from the controller every time
+        CDCDataProcessor cdcDataProcessor = canaryController.getCDCDataProcessor();
+
         // TOS CDC Data
         addFormItem(tosCDCDataField, "TOS CDC Data:");
         tosCDCDataField.setValue(cdcDataProcessor.convertRawStringToPrettyCDCString(canaryController.getLatestTOSCDCData()));
@@ -101,7 +102,7 @@ public class CDCInfoView extends FormLayout {
 
     /**
      * Updates the UI fields with the most recent data from the underlying systems.
-     * This method retrieves data from the `canaryController`, `cdcDataProcessor`, and `dataStore`,
+     * This method retrieves data from the `canaryController`, its current `cdcDataProcessor`, and `dataStore`,
      * and formats or processes it as needed before assigning it to the corresponding UI fields.
      * <p>
      * Specifically, this method performs the following actions:
@@ -116,7 +117,8 @@ public class CDCInfoView extends FormLayout {
      * reflecting changes and updates made to those systems.
      */
     private void refreshView() {
-        cdcTablesField.setValue(canaryController.getCDCDataProcessor().getCdcConfigTableString());
+        CDCDataProcessor cdcDataProcessor = canaryController.getCDCDataProcessor();
+        cdcTablesField.setValue(cdcDataProcessor.getCdcConfigTableString());
         timeSyncField.setValue(explainTimeSync(dataStore.getTimeSync()));
         tosCDCDataField.setValue(cdcDataProcessor.convertRawStringToPrettyCDCString(canaryController.getLatestTOSCDCData()));
         aiconCDCDataField.setValue(cdcDataProcessor.convertRawStringToPrettyCDCString(canaryController.getLatestAiconCDCData()));
@@ -134,6 +136,7 @@ public class CDCInfoView extends FormLayout {
      * @return a string containing unique IDs and their corresponding latencies in the format "tableName(gkey)=latency"
      */
     private String getLatencies(String latestTOSCDCData, String latestAiconCDCData) {
+        CDCDataProcessor cdcDataProcessor = canaryController.getCDCDataProcessor();
         List<CDCData> tosCDCData = cdcDataProcessor.convertStringToCDCData(latestTOSCDCData);
         List<CDCData> aiconCDCData = cdcDataProcessor.convertStringToCDCData(latestAiconCDCData);
 
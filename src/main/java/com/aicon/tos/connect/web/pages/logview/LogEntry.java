@@ -0,0 +1,139 @@
+package com.aicon.tos.connect.web.pages.logview;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * A captured log event, only the rendered fields are kept (not the event itself, which may hold on to its arguments).
+ * The HTML is rendered when displayed, the lower-case search text is built once on the first filter request.
+ */
+public final class LogEntry {
+    private static final DateTimeFormatter TS_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+
+    private final long seq;
+    private final long timestamp;
+    private final String level;
+    private final String threadName;
+    private final String loggerName;
+    private final String message;
+    private volatile String searchText = null;
+
+    public LogEntry(long seq, long timestamp, String level, String threadName, String loggerName, String message) {
+        this.seq = seq;
+        this.timestamp = timestamp;
+        this.level = level;
+        this.threadName = threadName;
+        this.loggerName = loggerName;
+        this.message = message != null ? message : "";
+    }
+
+    static LogEntry of(long seq, ILoggingEvent event) {
+        return new LogEntry(seq, event.getTimeStamp(), event.getLevel().levelStr, event.getThreadName(),
+                event.getLoggerName(), event.getFormattedMessage());
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getLevel() {
+        return level;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public String getLoggerName() {
+        return loggerName;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getFormattedTimestamp() {
+        return TS_FORMAT.format(Instant.ofEpochMilli(timestamp));
+    }
+
+    /**
+     * @return the plain text as displayed, in lower case, to match keywords (already in lower case) on.
+     */
+    public String getSearchText() {
+        String text = searchText;
+        if (text == null) {
+            text = String.join(" ", getFormattedTimestamp(), "[" + threadName + "]", level, loggerName, "-", message)
+                    .toLowerCase(Locale.ROOT);
+            searchText = text;
+        }
+        return text;
+    }
+
+    /**
+     * @param keywords lower-case keywords, empty ones are ignored
+     * @param useAnd true when all keywords should match, else at least 1 of them
+     * @return true when matching the keywords, or when there are no keywords at all.
+     */
+    public boolean matches(String[] keywords, boolean useAnd) {
+        String text = null;
+        boolean hasKeyword = false;
+        boolean any = false;
+        for (String keyword : keywords) {
+            if (keyword == null || keyword.isEmpty()) {
+                continue;
+            }
+            if (text == null) {
+                text = getSearchText();
+            }
+            hasKeyword = true;
+            boolean found = text.contains(keyword);
+            if (useAnd && !found) {
+                return false;
+            }
+            any |= found;
+        }
+        return !hasKeyword || useAnd || any;
+    }
+
+    public String toHtml() {
+        String levelColor = switch (level) {
+            case "ERROR" -> "red";
+            case "WARN" -> "orange";
+            case "INFO" -> "green";
+            case "DEBUG" -> "gray";
+            default -> "black";
+        };
+
+        return String.format(
+                "<div style='font-family:monospace; white-space:pre-wrap;'>"
+                        + "<span style='color:blue;'>%s</span> "
+                        + "<span style='color:gray;'>[%s]</span> "
+                        + "<span style='color:%s;'>%s</span> "
+                        + "<span style='color:darkcyan;'>%s</span> - "
+                        + "%s"
+                        + "</div>",
+                getFormattedTimestamp(),
+                threadName,
+                levelColor,
+                level,
+                loggerName,
+                escapeHtml(message)
+        );
+    }
+
+    private static String escapeHtml(String input) {
+        return input.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;");
+    }
+}
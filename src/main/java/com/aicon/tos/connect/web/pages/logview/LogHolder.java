@@ -23,6 +23,27 @@ public class LogHolder {
         return appender != null ? appender.getMessages() : List.of();
     }
 
+    /**
+     * Reads the log entries added since the cursor, see {@link LogRingBuffer#read(long, int)}.
+     */
+    public static LogRingBuffer.Slice read(long cursor, int maxEntries) {
+        return appender != null ? appender.read(cursor, maxEntries) : new LogRingBuffer.Slice(List.of(), cursor, 0);
+    }
+
+    /**
+     * @return the cursor of the oldest entry still available.
+     */
+    public static long getOldestCursor() {
+        return appender != null ? appender.getBuffer().getOldestCursor() : 0;
+    }
+
+    /**
+     * @return the max nr of entries kept.
+     */
+    public static int getCapacity() {
+        return appender != null ? appender.getCapacity() : VaadinLogAppender.DEFAULT_CAPACITY;
+    }
+
     public static void clear() {
         if (appender != null) appender.clear();
     }
@@ -0,0 +1,121 @@
+package com.aicon.tos.connect.web.pages.logview;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed capacity, lock-free ring buffer of {@link LogEntry}s. Writers claim a sequence number and overwrite the oldest
+ * slot, so heap use stays flat no matter how long the application runs. Readers keep a cursor (the next sequence
+ * number to read) and fetch only the entries added since, entries overwritten before being read are skipped.
+ */
+public class LogRingBuffer {
+    private final int capacity;
+    private final AtomicReferenceArray<LogEntry> slots;
+    private final AtomicLong nextSeq = new AtomicLong(0);
+    private final AtomicLong clearedSeq = new AtomicLong(0);   // entries before this seq are cleared
+
+    /**
+     * The result of a read: the entries found and the cursor to pass to the next read.
+     * @param entries the entries in order of sequence
+     * @param nextCursor the cursor for the next read
+     * @param skipped the nr of entries lost (overwritten or cleared) since the given cursor
+     */
+    public record Slice(List<LogEntry> entries, long nextCursor, long skipped) {
+    }
+
+    public LogRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity should be at least 1, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * @return the sequence number to create the next entry with, see {@link #add(LogEntry)}.
+     */
+    public long claimSeq() {
+        return nextSeq.getAndIncrement();
+    }
+
+    /**
+     * Stores the entry created with a sequence number from {@link #claimSeq()}, overwriting the oldest one.
+     */
+    public void add(LogEntry entry) {
+        int idx = index(entry.getSeq());
+        // a slow writer must not overwrite a newer entry of a writer which already wrapped around
+        LogEntry current;
+        do {
+            current = slots.get(idx);
+            if (current != null && current.getSeq() > entry.getSeq()) {
+                return;
+            }
+        } while (!slots.compareAndSet(idx, current, entry));
+    }
+
+    /**
+     * Reads the entries starting at the cursor.
+     * @param cursor the seq to start reading at, use 0 or {@link #getOldestCursor()} for all available entries.
+     * @param maxEntries the max nr of entries to return
+     * @return the entries found and the next cursor
+     */
+    public Slice read(long cursor, int maxEntries) {
+        long head = nextSeq.get();
+        long start = Math.min(head, Math.max(cursor, Math.max(head - capacity, clearedSeq.get())));
+        long skipped = Math.max(0, start - cursor);
+        long end = Math.min(head, start + Math.max(0, maxEntries));
+
+        List<LogEntry> entries = new ArrayList<>((int) Math.max(0, end - start));
+        long seq = start;
+        for (; seq < end; seq++) {
+            LogEntry entry = slots.get(index(seq));
+            if (entry == null || entry.getSeq() < seq) {
+                break;          // claimed but not written yet, read it the next time
+            }
+            if (entry.getSeq() == seq) {
+                entries.add(entry);
+            } else {
+                skipped++;      // overwritten meanwhile
+            }
+        }
+        return new Slice(entries, seq, skipped);
+    }
+
+    /**
+     * @return the cursor pointing at the oldest entry still available.
+     */
+    public long getOldestCursor() {
+        return Math.max(nextSeq.get() - capacity, clearedSeq.get());
+    }
+
+    /**
+     * @return the cursor pointing after the newest entry (so reading from here returns only new entries).
+     */
+    public long getHeadCursor() {
+        return nextSeq.get();
+    }
+
+    /**
+     * Hides all current entries from readers; the slots are reused by new entries.
+     */
+    public void clear() {
+        clearedSeq.accumulateAndGet(nextSeq.get(), Math::max);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the nr of entries available for reading.
+     */
+    public int size() {
+        return (int) (nextSeq.get() - getOldestCursor());
+    }
+
+    private int index(long seq) {
+        return (int) (seq % capacity);
+    }
+}
@@ -14,21 +14,28 @@ import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.server.VaadinSession;
 
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
+/**
+ * Shows the log entries captured by the {@link VaadinLogAppender}. Only the entries added since the last refresh are
+ * read (using a cursor) and rendered, the whole log is only re-rendered when the filter settings change.
+ */
 @PageTitle("Mediator Logging")
 @Route("log-viewer")
 public class LogViewerView extends VerticalLayout {
+    private static final int READ_BATCH_SIZE = 1000;
 
     private final Div logArea = new Div();
 
     private final Button refreshButton = new Button("Refresh", e -> refreshLogs());
     private final Button clearButton = new Button("Clear", e -> {
         LogHolder.clear();
+        filterSignature = null;     // forces a re-render
         refreshLogs();
     });
 
@@ -45,6 +52,13 @@ public class LogViewerView extends VerticalLayout {
 
     private final transient  ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
 
+    // state of the incremental rendering
+    private long cursor = 0;
+    private String filterSignature = null;
+    private int afterRemaining = 0;
+    private final Deque<LogEntry> beforeContext = new ArrayDeque<>();
+    private final Deque<Div> renderedLines = new ArrayDeque<>();
+
     public LogViewerView() {
         // Font size field
         fontSizeField.setValue(14.0);
@@ -130,22 +144,44 @@ public class LogViewerView extends VerticalLayout {
 
     private void refreshLogs() {
         getUI().ifPresent(ui -> ui.access(() -> {
-            logArea.removeAll();
-
-            List<String> logs = LogHolder.getLogs();
             int before = getLinesBefore();
             int after = getLinesAfter();
             boolean useAnd = "AND".equals(filterMode.getValue());
             String[] keywords = getKeywords();
 
-            boolean[] matchMap = buildMatchMap(logs, keywords, useAnd);
+            String signature = String.join("|", keywords) + "|" + useAnd + "|" + before + "|" + after;
+            if (!signature.equals(filterSignature)) {
+                resetView(signature);
+            }
 
-            renderLogs(logs, matchMap, before, after, keywords);
+            boolean added = false;
+            LogRingBuffer.Slice slice;
+            do {
+                slice = LogHolder.read(cursor, READ_BATCH_SIZE);
+                cursor = slice.nextCursor();
+                for (LogEntry entry : slice.entries()) {
+                    added |= renderEntry(entry, keywords, useAnd, before, after);
+                }
+            } while (slice.entries().size() == READ_BATCH_SIZE);
 
-            scrollToBottom();
+            if (added) {
+                scrollToBottom();
+            }
         }));
     }
 
+    /**
+     * Clears the view to render all available entries again with the new filter settings.
+     */
+    private void resetView(String signature) {
+        logArea.removeAll();
+        renderedLines.clear();
+        beforeContext.clear();
+        afterRemaining = 0;
+        cursor = LogHolder.getOldestCursor();
+        filterSignature = signature;
+    }
+
     private int getLinesBefore() {
         return linesBefore.getValue() != null ? linesBefore.getValue().intValue() : 0;
     }
@@ -162,57 +198,28 @@ public class LogViewerView extends VerticalLayout {
         };
     }
 
-    private boolean[] buildMatchMap(List<String> logs, String[] keywords, boolean useAnd) {
-        boolean[] matchMap = new boolean[logs.size()];
-
-        for (int i = 0; i < logs.size(); i++) {
-            String plainText = logs.get(i).replaceAll("<[^>]*>", "").toLowerCase();
-
-            if (useAnd) {
-                matchMap[i] = allKeywordsMatch(plainText, keywords);
-            } else {
-                matchMap[i] = anyKeywordMatches(plainText, keywords);
-            }
+    /**
+     * Renders the entry when it matches the keywords or is within the context lines of a match. Non-matching entries
+     * are kept aside for a while, as they could become the lines before of a later match.
+     * @return true when something was rendered
+     */
+    private boolean renderEntry(LogEntry entry, String[] keywords, boolean useAnd, int before, int after) {
+        if (entry.matches(keywords, useAnd)) {
+            beforeContext.forEach(contextEntry -> addLogToView(contextEntry.toHtml()));
+            beforeContext.clear();
+            addLogToView(highlightKeywords(entry.toHtml(), keywords));
+            afterRemaining = after;
+            return true;
         }
-
-        return matchMap;
-    }
-
-    private boolean allKeywordsMatch(String text, String[] keywords) {
-        for (String keyword : keywords) {
-            if (!keyword.isEmpty() && !text.contains(keyword)) {
-                return false;
-            }
+        if (afterRemaining > 0) {
+            afterRemaining--;
+            addLogToView(entry.toHtml());
+            return true;
         }
-        return true;
-    }
-
-    private boolean anyKeywordMatches(String text, String[] keywords) {
-        for (String keyword : keywords) {
-            if (!keyword.isEmpty() && text.contains(keyword)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-
-    private void renderLogs(List<String> logs, boolean[] matchMap, int before, int after, String[] keywords) {
-        for (int i = 0; i < logs.size(); i++) {
-            if (isInContext(matchMap, i, before, after)) {
-                String html = logs.get(i);
-                if (matchMap[i]) {
-                    html = highlightKeywords(html, keywords);
-                }
-                addLogToView(html);
-            }
-        }
-    }
-
-    private boolean isInContext(boolean[] matchMap, int currentIndex, int before, int after) {
-        for (int j = Math.max(0, currentIndex - before); j <= Math.min(matchMap.length - 1, currentIndex + after); j++) {
-            if (matchMap[j]) {
-                return true;
+        if (before > 0) {
+            beforeContext.addLast(entry);
+            if (beforeContext.size() > before) {
+                beforeContext.removeFirst();
             }
         }
         return false;
@@ -222,6 +229,11 @@ public class LogViewerView extends VerticalLayout {
         Div logLine = new Div();
         logLine.getElement().setProperty("innerHTML", html);
         logArea.add(logLine);
+        renderedLines.addLast(logLine);
+        // keep the view as bounded as the log buffer
+        while (renderedLines.size() > LogHolder.getCapacity()) {
+            logArea.remove(renderedLines.removeFirst());
+        }
     }
 
     private void scrollToBottom() {
@@ -1,69 +1,68 @@
 package com.aicon.tos.connect.web.pages.logview;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
-import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
 
-import java.time.Instant;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
 
-public class VaadinLogAppender extends AppenderBase<ILoggingEvent> {
+/**
+ * Captures the log events for the {@link LogViewerView} in a {@link LogRingBuffer} of fixed capacity (configurable
+ * with <code>&lt;capacity&gt;</code> in logback.xml), the oldest events are overwritten. The buffer is lock-free, so
+ * the appender does not need the synchronization of AppenderBase.
+ */
+public class VaadinLogAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+    public static final int DEFAULT_CAPACITY = 10000;
 
-    private final List<String> messages = new ArrayList<>();
+    private int capacity = DEFAULT_CAPACITY;
+    private volatile LogRingBuffer buffer = new LogRingBuffer(DEFAULT_CAPACITY);
 
     @Override
-    protected void append(ILoggingEvent event) {
+    public void start() {
+        if (buffer.getCapacity() != capacity) {
+            buffer = new LogRingBuffer(capacity);
+        }
+        super.start();
+    }
 
-        String timestamp = Instant.ofEpochMilli(event.getTimeStamp())
-                .atZone(ZoneId.systemDefault())
-                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS"));
+    @Override
+    protected void append(ILoggingEvent event) {
+        LogRingBuffer current = buffer;
+        current.add(LogEntry.of(current.claimSeq(), event));
+    }
 
-        String level = event.getLevel().levelStr;
-        String levelColor = switch (level) {
-            case "ERROR" -> "red";
-            case "WARN" -> "orange";
-            case "INFO" -> "green";
-            case "DEBUG" -> "gray";
-            default -> "black";
-        };
+    /**
+     * @param capacity the max nr of log events kept, set before {@link #start()}.
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity > 0 ? capacity : DEFAULT_CAPACITY;
+    }
 
-        String htmlMessage = String.format(
-                "<div style='font-family:monospace; white-space:pre-wrap;'>"
-                        + "<span style='color:blue;'>%s</span> "
-                        + "<span style='color:gray;'>[%s]</span> "
-                        + "<span style='color:%s;'>%s</span> "
-                        + "<span style='color:darkcyan;'>%s</span> - "
-                        + "%s"
-                        + "</div>",
-                timestamp,
-                event.getThreadName(),
-                levelColor,
-                level,
-                event.getLoggerName(),
-                escapeHtml(event.getFormattedMessage())
-        );
+    public int getCapacity() {
+        return capacity;
+    }
 
-        messages.add(htmlMessage);
+    public LogRingBuffer getBuffer() {
+        return buffer;
     }
 
-    private String escapeHtml(String input) {
-        return input.replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;");
+    /**
+     * Reads the log entries added since the cursor, see {@link LogRingBuffer#read(long, int)}.
+     */
+    public LogRingBuffer.Slice read(long cursor, int maxEntries) {
+        return buffer.read(cursor, maxEntries);
     }
 
-    // Synchronized access to getMessages()
+    /**
+     * @return all available log entries rendered as HTML, prefer the cursor based {@link #read(long, int)}.
+     */
     public List<String> getMessages() {
-        return new ArrayList<>(messages);
+        return buffer.read(buffer.getOldestCursor(), buffer.getCapacity()).entries().stream()
+                .map(LogEntry::toHtml)
+                .toList();
     }
 
     public void clear() {
-        synchronized (messages) {
-            messages.clear();
-        }
+        buffer.clear();
     }
 
     // Factory method to create the appender and set it up
@@ -73,4 +72,4 @@ public class VaadinLogAppender extends AppenderBase<ILoggingEvent> {
         appender.start();
         return appender;
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.aicon.tos.control;
 
 import com.aicon.tos.connect.web.pages.DataStore;
 import com.aicon.tos.control.mail.EmailInfoService;
+import com.aicon.tos.control.mail.EmailOutbox;
 import com.aicon.tos.control.mail.EmailSender;
 import com.aicon.tos.shared.AiconTosMediatorConfig;
 import com.aicon.tos.shared.config.ConfigSettings;
@@ -14,10 +15,21 @@ import com.aicon.tos.shared.schema.AiconUserControlMessage;
 import com.aicon.tos.shared.schema.ConnectionStatus;
 import com.aicon.tos.shared.schema.OperatingMode;
 import com.aicon.tos.shared.schema.UserOperatingMode;
+import com.aicon.tos.shared.util.NamedThreadFactory;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
 /**
  * The AiconTosControl class serves as the central service for managing the operating mode
  * of the AICON TOS system. It integrates with Kafka to consume messages from various topics
@@ -30,24 +42,39 @@ import org.slf4j.LoggerFactory;
  * OperatingModeRuleEngine.
  * - Sending control messages to the AICON TOS system to reflect changes in the operating mode.
  * - Managing the lifecycle of Kafka consumers and producers.
+ * <p>
+ * Each consumer is polled by its own thread, which queues the received messages as events. The control thread
+ * applies the events one at a time in order of arrival, so the state is only changed by one thread. Emails about
+ * a changed operating mode are sent by an {@link EmailOutbox}, a mode switch never waits for the mail server.
+ * The time from receiving a message until the control message is sent is recorded as the
+ * {@value #METRIC_MODE_SWITCH} timer.
  */
 public class AiconTosControl {
 
     private final Logger LOG = LoggerFactory.getLogger(AiconTosControl.class);
 
     private static final String UNCHANGED_INPUTS_TXT = "Unchanged inputs";
+    public static final String METRIC_MODE_SWITCH = "aicon.control.mode.switch";
+    private static final String TAG_TRIGGER = "trigger";
+    private static final String TAG_MODE = "mode";
+    private static final String TRIGGER_CONNECTION = "connection";
+    private static final String TRIGGER_USER = "user";
+    private static final long EVENT_WAIT_MSEC = 500;
 
     private AiconTosConnectionStatusConsumer connectionStatusConsumer;
     private AiconUserControlConsumer userControlConsumer;
     private AiconTosControlProducer aiconTosControlProducer;
-    private ConnectionStatus currentConnectionStatus = ConnectionStatus.NOK;
-    private UserOperatingMode currentUserOperatingMode = UserOperatingMode.OFF;
-    private Boolean currentCdcOk = Boolean.FALSE;
+    private volatile ConnectionStatus currentConnectionStatus = ConnectionStatus.NOK;
+    private volatile UserOperatingMode currentUserOperatingMode = UserOperatingMode.OFF;
+    private volatile Boolean currentCdcOk = Boolean.FALSE;
     private Boolean ignore = Boolean.TRUE;
     private OperatingMode newOperatingMode = OperatingMode.OFF;
     private volatile boolean running = true;
     private DataStore dataStore = null;
     private EmailInfoService emailInfoService = null;
+    private final EmailOutbox emailOutbox = new EmailOutbox();
+    private final BlockingQueue<Runnable> events = new LinkedBlockingQueue<>();
+    private ExecutorService consumerThreads = null;
     private OperatingModeRuleEngine ruleEngine;
     private OperatingMode currentOperatingMode = OperatingMode.OFF;
     ConfigSettings config = ConfigSettings.getInstance();
@@ -87,23 +114,57 @@ public class AiconTosControl {
     }
 
     /**
-     * Starts the AICON TOS Control service, initializes logging and consumers, and continuously processes messages.
+     * Starts the AICON TOS Control service, starts a thread per consumer, and continuously processes the events
+     * queued by them.
      */
-   public void start() {
-       Thread.currentThread().setName("AiconTosControl");
-
-       // Initial operating mode
-       sendAiconTosControlMessage(
-           AiconTosMediatorConfig.REQUEST_ID, currentOperatingMode, ignore, "Starting up"
-       );
-
-       // Continuously process incoming messages
-       while (running) {
-           processConnectionStatusAndCDCMessages();
-           processUserControlMessages();
-       }
-   }
+    public void start() {
+        Thread.currentThread().setName("AiconTosControl");
+
+        // Initial operating mode
+        sendAiconTosControlMessage(
+                AiconTosMediatorConfig.REQUEST_ID, currentOperatingMode, ignore, "Starting up"
+        );
+
+        consumerThreads = Executors.newFixedThreadPool(2, new NamedThreadFactory("AiconTosControlConsumer"));
+        consumerThreads.submit(() -> queueEvents(connectionStatusConsumer::pollMessages, this::handleConnectionStatus));
+        consumerThreads.submit(() -> queueEvents(userControlConsumer::pollMessages, this::handleUserControl));
+
+        // Continuously process the events in order of arrival
+        while (running) {
+            try {
+                Runnable event = events.poll(EVENT_WAIT_MSEC, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    event.run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                LOG.error("Processing control event failed, reason: {}", e.getMessage(), e);
+            }
+        }
+    }
 
+    /**
+     * Polls a consumer until the service stops and queues each received message as an event for the control thread.
+     *
+     * @param poll    polls the consumer.
+     * @param handler handles a message with the System.nanoTime() it was received at.
+     */
+    private <V> void queueEvents(Supplier<ConsumerRecords<String, V>> poll, BiConsumer<V, Long> handler) {
+        while (running) {
+            try {
+                ConsumerRecords<String, V> records = poll.get();
+                long receivedAt = System.nanoTime();
+                records.forEach(consumerRecord -> {
+                    V message = consumerRecord.value();
+                    events.add(() -> handler.accept(message, receivedAt));
+                });
+            } catch (RuntimeException e) {
+                LOG.error("Polling for control events failed, reason: {}", e.getMessage(), e);
+            }
+        }
+    }
 
     /**
      * Stops the service and gracefully shuts down Kafka consumers.
@@ -112,6 +173,10 @@ public class AiconTosControl {
         running = false;
         connectionStatusConsumer.stop();
         userControlConsumer.stop();
+        if (consumerThreads != null) {
+            consumerThreads.shutdownNow();
+        }
+        emailOutbox.close();
     }
 
     /**
@@ -119,57 +184,54 @@ public class AiconTosControl {
      * mode based on message content and predefined rules.
      */
     public void processConnectionStatusAndCDCMessages() {
-
-        ConsumerRecords<String, AiconTosConnectionStatusMessage> records;
-
         if (running) {
-            records = connectionStatusConsumer.pollMessages();
-
-            records.forEach(consumerRecord -> {
-
-                LOG.info("-----------------Received connection status message --------------------");
-
-                AiconTosConnectionStatusMessage connectionStatusMessage = consumerRecord.value();
-                if (connectionStatusMessage != null && connectionStatusMessage.getCdcOk() != null) {
-                    LOG.info("Connection status message: {}", connectionStatusMessage.toString());
-                    String comment;
-                    if (this.currentConnectionStatus != connectionStatusMessage.getConnectionStatus() ||
-                            !this.currentCdcOk.equals(connectionStatusMessage.getCdcOk())) {
-                        this.newOperatingMode = ruleEngine.newOperatingMode(
-                                this.currentConnectionStatus, connectionStatusMessage.getConnectionStatus(),
-                                this.currentCdcOk, connectionStatusMessage.getCdcOk(),
-                                this.currentUserOperatingMode, this.currentUserOperatingMode);
-                        comment = createComment(this.currentConnectionStatus, connectionStatusMessage.getConnectionStatus(),
-                                this.currentCdcOk, connectionStatusMessage.getCdcOk(),
-                                this.currentUserOperatingMode, this.currentUserOperatingMode);
-
-                        EmailSender.sendEmailToConfiguredEmployees(
-                                emailInfoService,
-                                currentOperatingMode,
-                                newOperatingMode,
-                                currentConnectionStatus,
-                                connectionStatusMessage.getConnectionStatus(),
-                                currentCdcOk,
-                                connectionStatusMessage.getCdcOk()
-                        );
-
-                        //Switch to new values
-                        this.currentConnectionStatus = connectionStatusMessage.getConnectionStatus();
-                        this.currentCdcOk = connectionStatusMessage.getCdcOk();
-                        this.currentOperatingMode = newOperatingMode;
-                        LOG.info("New operating mode: {}", newOperatingMode.name());
-
-                        // Send the TOS Control message
-                        sendAiconTosControlMessage(String.valueOf(connectionStatusMessage.getRequestId()),
-                                this.currentOperatingMode, ignore, comment);
-                    } else {
-                        LOG.info(UNCHANGED_INPUTS_TXT);
-                        comment = UNCHANGED_INPUTS_TXT;
-                    }
-                } else {
-                    LOG.error("FOUND ANOTHER CONNECTION STATUS MESSAGE WITHOUT CDC OK VALUE!");
-                }
-            });
+            ConsumerRecords<String, AiconTosConnectionStatusMessage> records = connectionStatusConsumer.pollMessages();
+            long receivedAt = System.nanoTime();
+            records.forEach(consumerRecord -> handleConnectionStatus(consumerRecord.value(), receivedAt));
+        }
+    }
+
+    /**
+     * Updates the operational mode for a connection status message.
+     *
+     * @param connectionStatusMessage the received message.
+     * @param receivedAt              the System.nanoTime() the message was received at.
+     */
+    private void handleConnectionStatus(AiconTosConnectionStatusMessage connectionStatusMessage, long receivedAt) {
+        LOG.info("-----------------Received connection status message --------------------");
+
+        if (connectionStatusMessage != null && connectionStatusMessage.getCdcOk() != null) {
+            LOG.info("Connection status message: {}", connectionStatusMessage.toString());
+            String comment;
+            if (this.currentConnectionStatus != connectionStatusMessage.getConnectionStatus() ||
+                    !this.currentCdcOk.equals(connectionStatusMessage.getCdcOk())) {
+                this.newOperatingMode = ruleEngine.newOperatingMode(
+                        this.currentConnectionStatus, connectionStatusMessage.getConnectionStatus(),
+                        this.currentCdcOk, connectionStatusMessage.getCdcOk(),
+                        this.currentUserOperatingMode, this.currentUserOperatingMode);
+                comment = createComment(this.currentConnectionStatus, connectionStatusMessage.getConnectionStatus(),
+                        this.currentCdcOk, connectionStatusMessage.getCdcOk(),
+                        this.currentUserOperatingMode, this.currentUserOperatingMode);
+
+                notifyByEmail(currentOperatingMode, newOperatingMode,
+                        currentConnectionStatus, connectionStatusMessage.getConnectionStatus(),
+                        currentCdcOk, connectionStatusMessage.getCdcOk());
+
+                //Switch to new values
+                this.currentConnectionStatus = connectionStatusMessage.getConnectionStatus();
+                this.currentCdcOk = connectionStatusMessage.getCdcOk();
+                this.currentOperatingMode = newOperatingMode;
+                LOG.info("New operating mode: {}", newOperatingMode.name());
+
+                // Send the TOS Control message
+                sendAiconTosControlMessage(String.valueOf(connectionStatusMessage.getRequestId()),
+                        this.currentOperatingMode, ignore, comment);
+                recordModeSwitch(TRIGGER_CONNECTION, receivedAt);
+            } else {
+                LOG.info(UNCHANGED_INPUTS_TXT);
+            }
+        } else {
+            LOG.error("FOUND ANOTHER CONNECTION STATUS MESSAGE WITHOUT CDC OK VALUE!");
         }
     }
 
@@ -178,51 +240,87 @@ public class AiconTosControl {
      * mode based on user input and predefined rules.
      */
     public void processUserControlMessages() {
-        ConsumerRecords<String, AiconUserControlMessage> records;
-
         if (running) {
-            records = userControlConsumer.pollMessages();
-
-            records.forEach(consumerRecord -> {
-                AiconUserControlMessage userControlMessage = consumerRecord.value();
-                LOG.info("-----------------Received user control message: {}", userControlMessage);
-
-                if (this.currentUserOperatingMode == userControlMessage.getUserOperatingMode() &&
-                        this.ignore.equals(userControlMessage.getIgnore())) {
-                    LOG.info(UNCHANGED_INPUTS_TXT);
-                } else {
-                    // Set TOS control logic based on the user control message
-                    var newUserOperatingMode = userControlMessage.getUserOperatingMode();
-                    var tosControlId = String.valueOf(userControlMessage.getId());
-                    newOperatingMode = ruleEngine.newOperatingMode(
-                            this.currentConnectionStatus, this.currentConnectionStatus,
-                            this.currentCdcOk, this.currentCdcOk,
-                            this.currentUserOperatingMode, newUserOperatingMode);
-                    String comment = createComment(
-                            this.currentConnectionStatus, this.currentConnectionStatus,
-                            this.currentCdcOk, this.currentCdcOk,
-                            this.currentUserOperatingMode, newUserOperatingMode);
-                    // Send email notifications based on the new operating mode
-                    EmailSender.sendEmailToConfiguredEmployees(
-                            emailInfoService,
-                            currentOperatingMode,
-                            newOperatingMode,
-                            currentUserOperatingMode,
-                            newUserOperatingMode);
-
-                    this.ignore = userControlMessage.getIgnore();
-                    this.currentUserOperatingMode = userControlMessage.getUserOperatingMode();
-                    this.currentOperatingMode = newOperatingMode;
-
-                    LOG.info("New operating mode: {}", newOperatingMode.name());
-
-                    // Send the TOS Control message
-                    sendAiconTosControlMessage(tosControlId, currentOperatingMode, ignore, comment);
-                }
-            });
+            ConsumerRecords<String, AiconUserControlMessage> records = userControlConsumer.pollMessages();
+            long receivedAt = System.nanoTime();
+            records.forEach(consumerRecord -> handleUserControl(consumerRecord.value(), receivedAt));
         }
     }
 
+    /**
+     * Updates the operational mode for a user control message.
+     *
+     * @param userControlMessage the received message.
+     * @param receivedAt         the System.nanoTime() the message was received at.
+     */
+    private void handleUserControl(AiconUserControlMessage userControlMessage, long receivedAt) {
+        LOG.info("-----------------Received user control message: {}", userControlMessage);
+
+        if (this.currentUserOperatingMode == userControlMessage.getUserOperatingMode() &&
+                this.ignore.equals(userControlMessage.getIgnore())) {
+            LOG.info(UNCHANGED_INPUTS_TXT);
+        } else {
+            // Set TOS control logic based on the user control message
+            var newUserOperatingMode = userControlMessage.getUserOperatingMode();
+            var tosControlId = String.valueOf(userControlMessage.getId());
+            newOperatingMode = ruleEngine.newOperatingMode(
+                    this.currentConnectionStatus, this.currentConnectionStatus,
+                    this.currentCdcOk, this.currentCdcOk,
+                    this.currentUserOperatingMode, newUserOperatingMode);
+            String comment = createComment(
+                    this.currentConnectionStatus, this.currentConnectionStatus,
+                    this.currentCdcOk, this.currentCdcOk,
+                    this.currentUserOperatingMode, newUserOperatingMode);
+            // Send email notifications based on the new operating mode
+            notifyByEmail(currentOperatingMode, newOperatingMode, currentUserOperatingMode, newUserOperatingMode);
+
+            this.ignore = userControlMessage.getIgnore();
+            this.currentUserOperatingMode = userControlMessage.getUserOperatingMode();
+            this.currentOperatingMode = newOperatingMode;
+
+            LOG.info("New operating mode: {}", newOperatingMode.name());
+
+            // Send the TOS Control message
+            sendAiconTosControlMessage(tosControlId, currentOperatingMode, ignore, comment);
+            recordModeSwitch(TRIGGER_USER, receivedAt);
+        }
+    }
+
+    /**
+     * Queues the email about a mode change caused by a changed connection or CDC status in the outbox.
+     */
+    private void notifyByEmail(OperatingMode operatingMode, OperatingMode newOperatingMode,
+                               ConnectionStatus connectionStatus, ConnectionStatus newConnectionStatus,
+                               Boolean cdcOk, Boolean newCdcOk) {
+        EmailInfoService service = emailInfoService;
+        emailOutbox.submit(newOperatingMode, () -> EmailSender.sendEmailToConfiguredEmployees(
+                service, operatingMode, newOperatingMode, connectionStatus, newConnectionStatus, cdcOk, newCdcOk));
+    }
+
+    /**
+     * Queues the email about a mode change caused by a changed user operating mode in the outbox.
+     */
+    private void notifyByEmail(OperatingMode operatingMode, OperatingMode newOperatingMode,
+                               UserOperatingMode userOperatingMode, UserOperatingMode newUserOperatingMode) {
+        EmailInfoService service = emailInfoService;
+        emailOutbox.submit(newOperatingMode, () -> EmailSender.sendEmailToConfiguredEmployees(
+                service, operatingMode, newOperatingMode, userOperatingMode, newUserOperatingMode));
+    }
+
+    /**
+     * Records the time from receiving the message until the control message was sent.
+     */
+    private void recordModeSwitch(String trigger, long receivedAt) {
+        long latency = System.nanoTime() - receivedAt;
+        Timer.builder(METRIC_MODE_SWITCH)
+                .tags(TAG_TRIGGER, trigger, TAG_MODE, currentOperatingMode.name())
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry)
+                .record(latency, TimeUnit.NANOSECONDS);
+        LOG.info("Operating mode {} sent {} ms after receiving the {} message",
+                currentOperatingMode, TimeUnit.NANOSECONDS.toMillis(latency), trigger);
+    }
+
     /**
      * Creates a string comment summarizing changes in connection status,
      * CDC state, and user operating mode.
@@ -0,0 +1,142 @@
+package com.aicon.tos.control;
+
+import com.aicon.tos.shared.schema.ConnectionStatus;
+import com.aicon.tos.shared.schema.OperatingMode;
+import com.aicon.tos.shared.schema.OperatingModeRule;
+import com.aicon.tos.shared.schema.UserOperatingMode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A rule table compiled into a dense lookup array with a cell for every combination of the current and new
+ * connection status, CDC status and user operating mode. Looking up the operating mode is an index calculation,
+ * independent of the number of rules.
+ * <p>
+ * A rule with an empty (null) field can never match, it is ignored and reported as a conflict. When rules overlap, the
+ * first rule in the table wins (like the rules were matched in order before); overlapping rules with a different
+ * operating mode are reported as conflicts. A table is immutable, a new rule table is compiled into a new table.
+ */
+final class OperatingModeDecisionTable {
+    private static final ConnectionStatus[] CONNECTION_STATES = ConnectionStatus.values();
+    private static final Boolean[] CDC_STATES = {Boolean.FALSE, Boolean.TRUE};
+    private static final UserOperatingMode[] USER_MODES = UserOperatingMode.values();
+    private static final int NR_CELLS = CONNECTION_STATES.length * CONNECTION_STATES.length
+            * CDC_STATES.length * CDC_STATES.length * USER_MODES.length * USER_MODES.length;
+
+    private final List<OperatingModeRule> rules;
+    private final OperatingMode[] cells = new OperatingMode[NR_CELLS];
+    private final List<String> conflicts = new ArrayList<>();
+    private int nrOverlaps = 0;
+
+    private OperatingModeDecisionTable(List<OperatingModeRule> rules) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+    }
+
+    /**
+     * Compiles the rules into a decision table.
+     *
+     * @param rules the rules in order of precedence.
+     * @return the compiled table.
+     */
+    static OperatingModeDecisionTable compile(List<OperatingModeRule> rules) {
+        OperatingModeDecisionTable table = new OperatingModeDecisionTable(rules == null ? List.of() : rules);
+        OperatingModeRule[] decidedBy = new OperatingModeRule[NR_CELLS];
+        for (OperatingModeRule rule : table.rules) {
+            if (!OperatingModeRuleEngine.isComplete(rule)) {
+                table.conflicts.add(String.format("Rule %s has an empty field and is ignored", rule));
+                continue;
+            }
+            int index = index(rule.getCurrentConnectionStatus(), rule.getNewConnectionStatus(),
+                    rule.getCurrentCdcOk(), rule.getNewCdcOk(),
+                    rule.getCurrentUserOperatingMode(), rule.getNewUserOperatingMode());
+            table.decide(index, rule, decidedBy);
+        }
+        return table;
+    }
+
+    private void decide(int index, OperatingModeRule rule, OperatingModeRule[] decidedBy) {
+        OperatingModeRule earlier = decidedBy[index];
+        if (earlier == null) {
+            decidedBy[index] = rule;
+            cells[index] = rule.getNewOperatingMode();
+        } else if (earlier != rule) {
+            nrOverlaps++;
+            if (earlier.getNewOperatingMode() != rule.getNewOperatingMode()) {
+                conflicts.add(String.format("Rule %s conflicts with earlier rule %s, the earlier rule is used",
+                        rule, earlier));
+            }
+        }
+    }
+
+    /**
+     * @return the index of the cell, or -1 when any of the states is null.
+     */
+    private static int index(ConnectionStatus currentConnectionStatus, ConnectionStatus newConnectionStatus,
+                             Boolean currentCdcOk, Boolean newCdcOk,
+                             UserOperatingMode currentUserOperatingMode, UserOperatingMode newUserOperatingMode) {
+        if (currentConnectionStatus == null || newConnectionStatus == null || currentCdcOk == null || newCdcOk == null
+                || currentUserOperatingMode == null || newUserOperatingMode == null) {
+            return -1;
+        }
+        int index = currentConnectionStatus.ordinal();
+        index = index * CONNECTION_STATES.length + newConnectionStatus.ordinal();
+        index = index * CDC_STATES.length + (currentCdcOk ? 1 : 0);
+        index = index * CDC_STATES.length + (newCdcOk ? 1 : 0);
+        index = index * USER_MODES.length + currentUserOperatingMode.ordinal();
+        return index * USER_MODES.length + newUserOperatingMode.ordinal();
+    }
+
+    /**
+     * @return the operating mode of the first rule matching the states, or null when no rule matches.
+     */
+    OperatingMode lookup(ConnectionStatus currentConnectionStatus, ConnectionStatus newConnectionStatus,
+                         Boolean currentCdcOk, Boolean newCdcOk,
+                         UserOperatingMode currentUserOperatingMode, UserOperatingMode newUserOperatingMode) {
+        int index = index(currentConnectionStatus, newConnectionStatus, currentCdcOk, newCdcOk,
+                currentUserOperatingMode, newUserOperatingMode);
+        return index < 0 ? null : cells[index];
+    }
+
+    /**
+     * @return the rules the table was compiled from, in order of precedence.
+     */
+    List<OperatingModeRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * @return a description of every rule that was (partly) overruled by an earlier rule with a different operating
+     * mode, or that was ignored.
+     */
+    List<String> getConflicts() {
+        return Collections.unmodifiableList(conflicts);
+    }
+
+    /**
+     * @return the number of cells matched by more than one rule.
+     */
+    int getNrOverlaps() {
+        return nrOverlaps;
+    }
+
+    /**
+     * @return the number of combinations of states no rule matches.
+     */
+    int getNrUncovered() {
+        int uncovered = 0;
+        for (OperatingMode cell : cells) {
+            if (cell == null) {
+                uncovered++;
+            }
+        }
+        return uncovered;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OperatingModeDecisionTable[rules=%d, uncovered=%d/%d, overlaps=%d, conflicts=%d]",
+                rules.size(), getNrUncovered(), NR_CELLS, nrOverlaps, conflicts.size());
+    }
+}
@@ -17,19 +17,21 @@ import java.util.List;
 /**
  * The OperatingModeRuleEngine class defines the rules for determining the operating mode
  * based on the current and new states of connection status, CDC status, and user operating mode.
+ * <p>
+ * Every rule table is compiled into an {@link OperatingModeDecisionTable}, which is replaced as a whole when a new
+ * rule table is received, so a decision never sees a partly updated rule table.
  */
 public class OperatingModeRuleEngine implements AiconTosControlRuleTableMessageListener {
 
     private static final Logger LOG = LoggerFactory.getLogger(OperatingModeRuleEngine.class);
     private static OperatingModeRuleEngine instance; // Singleton instance
 
-    private List<OperatingModeRule> rules;
+    private volatile OperatingModeDecisionTable decisionTable = OperatingModeDecisionTable.compile(List.of());
     private final AiconTosControlRuleTableConsumer ruleTableConsumer;
     private final AiconTosControlRuleTableProducer ruleTableProducer;
 
     // Private constructor to prevent instantiation
     private OperatingModeRuleEngine(Boolean activateListener) {
-        rules = new ArrayList<>();
         this.ruleTableConsumer = new AiconTosControlRuleTableConsumer();
         this.ruleTableProducer = new AiconTosControlRuleTableProducer();
         if (activateListener) {
@@ -54,7 +56,17 @@ public class OperatingModeRuleEngine implements AiconTosControlRuleTableMessageL
     @Override
     public void onMessageReceived(List<OperatingModeRule> ruleTable) {
         LOG.debug("Received new ruleTable = {}", ruleTable);
-        this.rules = ruleTable;
+        publish(ruleTable);
+    }
+
+    /**
+     * Compiles the rule table and makes it the table used for new decisions.
+     */
+    private void publish(List<OperatingModeRule> ruleTable) {
+        OperatingModeDecisionTable table = OperatingModeDecisionTable.compile(ruleTable);
+        table.getConflicts().forEach(conflict -> LOG.warn("Rule table: {}", conflict));
+        LOG.info("Using {}", table);
+        decisionTable = table;
     }
 
 
@@ -62,145 +74,164 @@ public class OperatingModeRuleEngine implements AiconTosControlRuleTableMessageL
      * Initializes the rule set with predefined conditions for determining the operating mode.
      */
     public void initializeRules() {
+        List<OperatingModeRule> rules = new ArrayList<>();
         // @formatter:off
-        add(ConnectionStatus.OK, 	ConnectionStatus.OK, 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.ON);
-
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.ON);
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.ON);
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.AUTO  , 	OperatingMode.ON   );
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.ON    , 	OperatingMode.ON   );
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.AUTO  , 	OperatingMode.ON   );
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.ON    , 	OperatingMode.ON   );
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.ON    , 	OperatingMode.ON   );
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
-        add(ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.AUTO  , 	OperatingMode.ON   );
-
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.OFF  );
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.OFF  );
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.OFF  );
-
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.OFF);
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.OFF);
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.OFF);
-
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW  );
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW  );
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW  );
-
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.ON);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.ON);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.ON   );
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.ON   );
-        add(ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.AUTO  , 	OperatingMode.OFF  );
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.SHADOW, 	OperatingMode.OFF  );
-
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.ON    , 	OperatingMode.OFF  );
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.AUTO  , 	OperatingMode.OFF  );
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.SHADOW, 	OperatingMode.OFF  );
-
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.ON    , 	OperatingMode.OFF  );
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.SHADOW, 	OperatingMode.OFF  );
-
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.ON    , 	OperatingMode.OFF  );
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.AUTO  , 	OperatingMode.OFF  );
-
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.OFF);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.OFF);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.OFF);
-
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.OFF   , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
-
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.OFF   , 	OperatingMode.SHADOW);
-        add(ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.OK, 	ConnectionStatus.OK, 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.ON);
+
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.ON);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.ON);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.AUTO  , 	OperatingMode.ON   );
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.ON    , 	OperatingMode.ON   );
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.AUTO  , 	OperatingMode.ON   );
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.ON    , 	OperatingMode.ON   );
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.ON    , 	OperatingMode.ON   );
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.AUTO  , 	OperatingMode.ON   );
+
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.OFF  );
+
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.OFF);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.OFF);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.OFF);
+
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.OK , 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW  );
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW  );
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW  );
+
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.ON);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.ON);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	false, 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.ON   );
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.ON   );
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.OK , 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.AUTO  , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.SHADOW, 	OperatingMode.OFF  );
+
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.ON    , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.AUTO  , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.SHADOW, 	OperatingMode.OFF  );
+
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.ON    , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.SHADOW, 	OperatingMode.OFF  );
+
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.ON    , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.AUTO  , 	OperatingMode.OFF  );
+
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	false, 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.ON    , 	UserOperatingMode.ON    , 	OperatingMode.OFF);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.OFF   , 	UserOperatingMode.OFF   , 	OperatingMode.OFF);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.AUTO  , 	UserOperatingMode.AUTO  , 	OperatingMode.OFF);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	false, 	UserOperatingMode.SHADOW, 	UserOperatingMode.SHADOW, 	OperatingMode.OFF);
+
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.OFF   , 	OperatingMode.OFF  );
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.ON    , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.OFF   , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.OFF   , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.AUTO  , 	UserOperatingMode.SHADOW, 	OperatingMode.SHADOW);
+
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.ON    , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.OFF   , 	OperatingMode.SHADOW);
+        add(rules, ConnectionStatus.NOK, 	ConnectionStatus.NOK, 	true , 	true , 	UserOperatingMode.SHADOW, 	UserOperatingMode.AUTO  , 	OperatingMode.SHADOW);
         // @formatter:on
+        publish(rules);
     }
 
     /**
-     * Returns the rule set with predefined conditions for determining the operating mode.
+     * Returns a copy of the rule set the operating mode is currently determined with, the rules are copied as well;
+     * changes to it are only used after they are saved and received again.
      */
     public List<OperatingModeRule> getRules() {
+        List<OperatingModeRule> rules = new ArrayList<>();
+        for (OperatingModeRule rule : decisionTable.getRules()) {
+            rules.add(rule == null ? null : OperatingModeRule.newBuilder(rule).build());
+        }
         return rules;
     }
 
+    /**
+     * @return true when all fields of the rule are filled in, a rule with an empty field is ignored.
+     */
+    public static boolean isComplete(OperatingModeRule rule) {
+        return rule != null
+                && rule.getCurrentConnectionStatus() != null && rule.getNewConnectionStatus() != null
+                && rule.getCurrentCdcOk() != null && rule.getNewCdcOk() != null
+                && rule.getCurrentUserOperatingMode() != null && rule.getNewUserOperatingMode() != null
+                && rule.getNewOperatingMode() != null;
+    }
+
     /**
      * Adds a new rule to the rule set.
      *
+     * @param rules                    The rule set to add the rule to.
      * @param currentConnectionStatus  The current connection status.
      * @param newConnectionStatus      The new connection status.
      * @param currentCdcOk             The current CDC status.
@@ -209,10 +240,11 @@ public class OperatingModeRuleEngine implements AiconTosControlRuleTableMessageL
      * @param newUserOperatingMode     The new user operating mode.
      * @param newOperatingMode         The resulting operating mode for this rule.
      */
-    private void add(ConnectionStatus currentConnectionStatus, ConnectionStatus newConnectionStatus,
-                     Boolean currentCdcOk, Boolean newCdcOk,
-                     UserOperatingMode currentUserOperatingMode, UserOperatingMode newUserOperatingMode,
-                     OperatingMode newOperatingMode) {
+    private static void add(List<OperatingModeRule> rules,
+                            ConnectionStatus currentConnectionStatus, ConnectionStatus newConnectionStatus,
+                            Boolean currentCdcOk, Boolean newCdcOk,
+                            UserOperatingMode currentUserOperatingMode, UserOperatingMode newUserOperatingMode,
+                            OperatingMode newOperatingMode) {
         rules.add(new OperatingModeRule(currentConnectionStatus, newConnectionStatus,
                                         currentCdcOk, newCdcOk,
                                         currentUserOperatingMode, newUserOperatingMode,
@@ -241,23 +273,21 @@ public class OperatingModeRuleEngine implements AiconTosControlRuleTableMessageL
                  currentCdcOk, newCdcOk,
 
                  currentUserOperatingMode, newUserOperatingMode);
-        return rules.stream()
-                .filter(rule -> matches(rule, currentConnectionStatus, newConnectionStatus,
-                                        currentCdcOk, newCdcOk,
-                                        currentUserOperatingMode, newUserOperatingMode))
-                .findFirst()
-                .map(OperatingModeRule::getNewOperatingMode)
-                .orElseGet(() -> {
-                    LOG.error("No matching rule found for the given inputs: Conn {}=>{}, CDC {}=>{}, User {}=>{}",
-                              currentConnectionStatus, newConnectionStatus,
-                              currentCdcOk, newCdcOk,
-                              currentUserOperatingMode, newUserOperatingMode);
-                    return OperatingMode.OFF;
-                });
+        OperatingMode operatingMode = decisionTable.lookup(currentConnectionStatus, newConnectionStatus,
+                                                           currentCdcOk, newCdcOk,
+                                                           currentUserOperatingMode, newUserOperatingMode);
+        if (operatingMode == null) {
+            LOG.error("No matching rule found for the given inputs: Conn {}=>{}, CDC {}=>{}, User {}=>{}",
+                      currentConnectionStatus, newConnectionStatus,
+                      currentCdcOk, newCdcOk,
+                      currentUserOperatingMode, newUserOperatingMode);
+            return OperatingMode.OFF;
+        }
+        return operatingMode;
     }
 
     /**
-     * Determines if this rule matches the given parameters.
+     * Determines if this rule matches the given parameters, a field of the rule that is null matches any value.
      *
      * @param currentConnectionStatus  The current connection status.
      * @param newConnectionStatus      The new connection status.
@@ -271,12 +301,16 @@ public class OperatingModeRuleEngine implements AiconTosControlRuleTableMessageL
                            ConnectionStatus currentConnectionStatus, ConnectionStatus newConnectionStatus,
                            Boolean currentCdcOk, Boolean newCdcOk, UserOperatingMode currentUserOperatingMode,
                            UserOperatingMode newUserOperatingMode) {
-        return rule.getCurrentConnectionStatus() == currentConnectionStatus &&
-                rule.getNewConnectionStatus() == newConnectionStatus &&
-                rule.getCurrentCdcOk().equals(currentCdcOk) &&
-                rule.getNewCdcOk().equals(newCdcOk) &&
-                rule.getCurrentUserOperatingMode() == currentUserOperatingMode &&
-                rule.getNewUserOperatingMode() == newUserOperatingMode;
+        return matches(rule.getCurrentConnectionStatus(), currentConnectionStatus) &&
+                matches(rule.getNewConnectionStatus(), newConnectionStatus) &&
+                matches(rule.getCurrentCdcOk(), currentCdcOk) &&
+                matches(rule.getNewCdcOk(), newCdcOk) &&
+                matches(rule.getCurrentUserOperatingMode(), currentUserOperatingMode) &&
+                matches(rule.getNewUserOperatingMode(), newUserOperatingMode);
+    }
+
+    private static boolean matches(Object ruleValue, Object value) {
+        return ruleValue == null || ruleValue.equals(value);
     }
 
     public void saveRules(List<OperatingModeRule> ruleTable) {
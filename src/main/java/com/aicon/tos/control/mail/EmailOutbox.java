@@ -0,0 +1,102 @@
+package com.aicon.tos.control.mail;
+
+import com.aicon.tos.shared.schema.OperatingMode;
+import com.aicon.tos.shared.util.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sends the operating mode change emails in the background, so a slow or unreachable mail server never delays
+ * switching the operating mode.
+ * <p>
+ * Notifications are rate limited: at most one notification is sent per interval. A notification submitted while
+ * another one is still waiting replaces it, so after a burst of mode changes only the latest one is mailed. A
+ * notification for the operating mode that was mailed last is skipped.
+ */
+public class EmailOutbox implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(EmailOutbox.class);
+
+    public static final Duration DEFAULT_MIN_INTERVAL = Duration.ofSeconds(10);
+
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("EmailOutbox"));
+    private final AtomicReference<Notification> pending = new AtomicReference<>();
+    private final long minIntervalNanos;
+    private volatile long lastSentAt;
+    private volatile boolean anySent = false;
+    private OperatingMode lastSentMode = null;      // only used by the outbox thread
+
+    private record Notification(OperatingMode operatingMode, Runnable send) {
+    }
+
+    public EmailOutbox() {
+        this(DEFAULT_MIN_INTERVAL);
+    }
+
+    /**
+     * @param minInterval the minimal time between two notifications.
+     */
+    public EmailOutbox(Duration minInterval) {
+        this.minIntervalNanos = minInterval.toNanos();
+    }
+
+    /**
+     * Queues a notification and returns immediately.
+     *
+     * @param operatingMode the operating mode the notification is about.
+     * @param send          sends the notification, runs on the outbox thread.
+     */
+    public void submit(OperatingMode operatingMode, Runnable send) {
+        if (executor.isShutdown()) {
+            LOG.warn("Email outbox is closed, notification for {} is not sent", operatingMode);
+            return;
+        }
+        Notification replaced = pending.getAndSet(new Notification(operatingMode, send));
+        if (replaced != null) {
+            LOG.info("Notification for {} replaced by the notification for {}", replaced.operatingMode(), operatingMode);
+            return;
+        }
+        long delay = anySent ? Math.max(0, lastSentAt + minIntervalNanos - System.nanoTime()) : 0;
+        executor.schedule(this::sendPending, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void sendPending() {
+        lastSentAt = System.nanoTime();
+        anySent = true;
+        Notification notification = pending.getAndSet(null);
+        if (notification == null) {
+            return;
+        }
+        if (notification.operatingMode() == lastSentMode) {
+            LOG.info("Skipping notification, already sent for mode: {}", lastSentMode);
+            return;
+        }
+        try {
+            notification.send().run();
+            lastSentMode = notification.operatingMode();
+        } catch (RuntimeException e) {
+            LOG.error("Sending notification for {} failed, reason: {}", notification.operatingMode(), e.getMessage());
+        }
+    }
+
+    /**
+     * @return true when a notification is waiting to be sent.
+     */
+    public boolean hasPending() {
+        return pending.get() != null;
+    }
+
+    /**
+     * Stops the outbox, a notification that is waiting is not sent anymore.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
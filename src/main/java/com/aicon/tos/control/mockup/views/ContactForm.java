@@ -2,8 +2,8 @@ package com.aicon.tos.control.mockup.views;
 
 import com.aicon.tos.control.mail.EmailInfo;
 import com.aicon.tos.control.mail.EmailInfoService;
+import com.aicon.tos.shared.json.JsonUtil;
 import com.aicon.tos.shared.schema.OperatingMode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.grid.Grid;
@@ -163,9 +163,8 @@ public class ContactForm {
      * Exports the current email contact list to a JSON file.
      */
     private void exportToJson() {
-        ObjectMapper objectMapper = new ObjectMapper();
         try {
-            objectMapper.writeValue(new File(getJsonFilePath()), emailInfoList);
+            JsonUtil.getMapper().writeValue(new File(getJsonFilePath()), emailInfoList);
             Notification.show("Data exported to JSON.");
         } catch (IOException e) {
             Notification.show("Failed to export data.");
@@ -176,9 +175,8 @@ public class ContactForm {
      * Imports email contact list data from a JSON file.
      */
     private void importFromJson() {
-        ObjectMapper objectMapper = new ObjectMapper();
         try {
-            emailInfoList = objectMapper.readValue(new File(getJsonFilePath()), objectMapper.getTypeFactory().constructCollectionType(List.class, EmailInfo.class));
+            emailInfoList = JsonUtil.getMapper().readValue(new File(getJsonFilePath()), JsonUtil.getMapper().getTypeFactory().constructCollectionType(List.class, EmailInfo.class));
             grid.setItems(emailInfoList);
             Notification.show("Data imported from JSON.");
         } catch (IOException e) {
@@ -171,6 +171,10 @@ public class RuleEditorForm {
 
         // Pas de 'Save'-knop aan om de nieuwe regel als 'niet nieuw' te markeren na het opslaan
         saveButton = new Button("Save", e -> {
+            if (!binder.validate().isOk() || !ruleTable.stream().allMatch(OperatingModeRuleEngine::isComplete)) {
+                Notification.show("All fields of a rule must be filled in.", 3000, Notification.Position.MIDDLE);
+                return;
+            }
             editor.save(); // Save changes
             setButtonsVisible(false); // Verberg de Save en Cancel buttons
             isNewRule = false; // Reset de nieuwe regelstatus na het opslaan
@@ -274,8 +278,10 @@ public class RuleEditorForm {
                 .setTextAlign(ColumnTextAlign.CENTER)
                 .setEditorComponent(editorField);
 
-        // Bind editor for editing functionality
-        binder.bind(editorField, valueProvider, setter);
+        // Bind editor for editing functionality, a rule with an empty field would never match
+        binder.forField(editorField)
+                .asRequired(headerText + " is required")
+                .bind(valueProvider, setter);
 
         filterField.setPlaceholder("Filter");
         filterField.setWidth("90%"); // Keep filter field slightly narrower than column
@@ -1,13 +1,13 @@
 package com.aicon.tos.interceptor;
 
 import com.aicon.tos.connect.cdc.CDCAction;
+import com.aicon.tos.shared.json.JsonUtil;
+import com.avlino.common.MetaField;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static com.aicon.tos.interceptor.MessageMeta.TS_CDC_RECEIVED;
 import static com.aicon.tos.interceptor.MessageMeta.TS_OFFSET;
@@ -15,22 +15,90 @@ import static com.aicon.tos.interceptor.MessageMeta.TS_OFFSET;
 /**
  * Represents a message collected in the CDC processing pipeline.
  * Stores metadata, values before and after processing, and change status.
+ * <p>
+ * The values are held in arrays in the field order of the {@link CollectedMessageLayout} of the record schema, with
+ * the changed fields in a bitset. The {@link InterceptorValueObject}s of the fields are only created when asked for.
  */
 public class CollectedMessage {
     private static final Logger LOG = LoggerFactory.getLogger(CollectedMessage.class);
 
     protected List<InterceptorValueObject<?>> changedFields = null; // List of all changed values, will be generated at first call
-    protected final Map<String, InterceptorValueObject<?>> fields;  // Map of fields having before/after values
+    private final CollectedMessageLayout layout;            // Names and MetaFields of the fields
+    private final Object[] beforeValues;                    // Values before the change in layout order, null when created
+    private final Object[] afterValues;                     // Values after the change in layout order, null when deleted
+    private final BitSet changed;                           // Indexes of the changed fields
+    private final InterceptorValueObject<?>[] valueObjects; // Value objects per field, created at first call
     protected final MessageMeta meta;
 
     public CollectedMessage(CDCAction cdcAction, String entityName, long offset, long offsetTimestamp, String messageKey, Map<String, InterceptorValueObject<?>> fields) {
         meta = new MessageMeta(cdcAction, entityName, offset, offsetTimestamp, messageKey);
-        this.fields = fields != null ? fields : new LinkedHashMap<>(0);
+
+        List<Map.Entry<String, InterceptorValueObject<?>>> entries = fields == null ? List.of()
+                : fields.entrySet().stream().filter(entry -> entry.getValue() != null).toList();
+        String[] names = new String[entries.size()];
+        MetaField<?>[] metaFields = new MetaField<?>[entries.size()];
+        beforeValues = new Object[entries.size()];
+        afterValues = new Object[entries.size()];
+        changed = new BitSet(entries.size());
+        valueObjects = new InterceptorValueObject<?>[entries.size()];
+        for (int i = 0; i < names.length; i++) {
+            InterceptorValueObject<?> field = entries.get(i).getValue();
+            names[i] = entries.get(i).getKey();
+            metaFields[i] = field.field();
+            beforeValues[i] = field.beforeValue();
+            afterValues[i] = field.afterValue();
+            changed.set(i, field.isChanged());
+            valueObjects[i] = field;
+        }
+        layout = CollectedMessageLayout.of(names, metaFields);
+    }
+
+    /**
+     * Creates a message from the values read with the layout.
+     *
+     * @param beforeValues the values before the change in layout order, null when there is no before image.
+     * @param afterValues  the values after the change in layout order, null when there is no after image.
+     */
+    CollectedMessage(CDCAction cdcAction, String entityName, long offset, long offsetTimestamp, String messageKey,
+                     CollectedMessageLayout layout, Object[] beforeValues, Object[] afterValues) {
+        meta = new MessageMeta(cdcAction, entityName, offset, offsetTimestamp, messageKey);
+        this.layout = layout;
+        this.beforeValues = beforeValues;
+        this.afterValues = afterValues;
+        this.changed = new BitSet(layout.size());
+        this.valueObjects = new InterceptorValueObject<?>[layout.size()];
+        for (int i = 0; i < layout.size(); i++) {
+            if (!Objects.equals(beforeValue(i), afterValue(i))) {
+                changed.set(i);
+            }
+        }
     }
 
     protected CollectedMessage(CollectedMessage other) {
         this.meta = other.meta;
-        this.fields = other.fields;
+        this.layout = other.layout;
+        this.beforeValues = other.beforeValues;
+        this.afterValues = other.afterValues;
+        this.changed = other.changed;
+        this.valueObjects = other.valueObjects;
+    }
+
+    private Object beforeValue(int index) {
+        return beforeValues != null ? beforeValues[index] : null;
+    }
+
+    private Object afterValue(int index) {
+        return afterValues != null ? afterValues[index] : null;
+    }
+
+    private InterceptorValueObject<?> valueObject(int index) {
+        InterceptorValueObject<?> valueObject = valueObjects[index];
+        if (valueObject == null) {
+            // a race creates an equal value object, which is harmless
+            valueObject = new InterceptorValueObject<>(layout.metaField(index), beforeValue(index), afterValue(index));
+            valueObjects[index] = valueObject;
+        }
+        return valueObject;
     }
 
     /**
@@ -57,11 +125,11 @@ public class CollectedMessage {
     }
 
     public List<InterceptorValueObject<?>> getFields() {
-        return fields == null
-                ? Collections.emptyList()
-                : fields.values().stream()
-                .filter(Objects::nonNull) // Remove null elements from the list
-                .collect(Collectors.toUnmodifiableList());
+        List<InterceptorValueObject<?>> fields = new ArrayList<>(layout.size());
+        for (int i = 0; i < layout.size(); i++) {
+            fields.add(valueObject(i));
+        }
+        return Collections.unmodifiableList(fields);
     }
 
     public InterceptorValueObject<?> getFieldValue(String fieldName) {
@@ -69,7 +137,36 @@ public class CollectedMessage {
             LOG.warn("Field name is null for message with offset {}", getOffset());
             return null;
         }
-        return fields.get(fieldName);
+        int index = layout.indexOf(fieldName);
+        return index < 0 ? null : valueObject(index);
+    }
+
+    /**
+     * @param fieldName the name of the field.
+     * @return the value of the field after the change, without creating its value object; null when the field is
+     * null or unknown.
+     */
+    public Object getAfterValue(String fieldName) {
+        int index = fieldName == null ? -1 : layout.indexOf(fieldName);
+        return index < 0 ? null : afterValue(index);
+    }
+
+    /**
+     * @param fieldName the name of the field.
+     * @param nullValue the value to return when the field is null, unknown or not a number.
+     * @return the value of the field after the change as a long.
+     */
+    public long getLongValue(String fieldName, long nullValue) {
+        return getAfterValue(fieldName) instanceof Number number ? number.longValue() : nullValue;
+    }
+
+    /**
+     * @param fieldName the name of the field.
+     * @param nullValue the value to return when the field is null, unknown or not a number.
+     * @return the value of the field after the change as a double.
+     */
+    public double getDoubleValue(String fieldName, double nullValue) {
+        return getAfterValue(fieldName) instanceof Number number ? number.doubleValue() : nullValue;
     }
 
     public String getFieldValueAsString(String fieldName) {
@@ -129,24 +226,34 @@ public class CollectedMessage {
 
     public List<InterceptorValueObject<?>> getChangedFields() {
         if (changedFields == null) {
-            changedFields = fields.values().stream()
-                    .filter(InterceptorValueObject::isChanged)
-                    .toList();
+            List<InterceptorValueObject<?>> fields = new ArrayList<>(changed.cardinality());
+            for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+                fields.add(valueObject(i));
+            }
+            changedFields = Collections.unmodifiableList(fields);
         }
         return changedFields;
     }
 
+    /**
+     * @return the number of changed fields, without creating their value objects.
+     */
+    public int getChangedFieldCount() {
+        return changed.cardinality();
+    }
+
     public boolean hasChanged(String fieldName) {
         return hasAllChanged(fieldName);
     }
 
     public boolean hasAllChanged(String... fieldNames) {
-        boolean allChanged = true;
         for (String fieldName : fieldNames) {
-            InterceptorValueObject<?> field = fields.get(fieldName);
-            allChanged = allChanged && field != null && field.isChanged();
+            int index = layout.indexOf(fieldName);
+            if (index < 0 || !changed.get(index)) {
+                return false;
+            }
         }
-        return allChanged;
+        return true;
     }
 
     /**
@@ -156,13 +263,12 @@ public class CollectedMessage {
      */
     public String getPayloadAsJson() {
         Map<String, Object> fieldMap = new HashMap<>();
-        for (InterceptorValueObject<?> field : fields.values()) {
-            fieldMap.put(field.field().id(), field.afterValue());
+        for (int i = 0; i < layout.size(); i++) {
+            fieldMap.put(layout.name(i), afterValue(i));
         }
 
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            return mapper.writeValueAsString(fieldMap);
+            return JsonUtil.writer(Map.class).writeValueAsString(fieldMap);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize allFields to JSON: " + e.getMessage(), e);
         }
@@ -178,7 +284,7 @@ public class CollectedMessage {
                 meta.getTimestampAsString(TS_CDC_RECEIVED),
                 meta.getMessageKey(),
                 meta.getCDCAction(),
-                getChangedFields().size()
+                getChangedFieldCount()
         );
     }
 
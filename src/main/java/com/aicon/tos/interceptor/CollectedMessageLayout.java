@@ -0,0 +1,129 @@
+package com.aicon.tos.interceptor;
+
+import com.avlino.common.MetaField;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The fields of a {@link CollectedMessage}, compiled once per (writer) schema of the CDC records: the name, index and
+ * MetaField of every field. A message then only holds its before and after values in arrays in the field order of
+ * its layout.
+ */
+final class CollectedMessageLayout {
+    private static final Map<Schema, CollectedMessageLayout> LAYOUTS = new ConcurrentHashMap<>();
+
+    private final Schema schema;
+    private final String[] names;
+    private final MetaField<?>[] metaFields;
+    private final Map<String, Integer> indexes;
+
+    private CollectedMessageLayout(Schema schema, String[] names, MetaField<?>[] metaFields) {
+        this.schema = schema;
+        this.names = names;
+        this.metaFields = metaFields;
+        this.indexes = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            indexes.put(names[i], i);
+        }
+    }
+
+    /**
+     * @param schema the schema of the before/after image of the CDC records.
+     * @return the layout of the schema, compiled at the first call for the schema.
+     */
+    static CollectedMessageLayout forSchema(Schema schema) {
+        CollectedMessageLayout layout = LAYOUTS.get(schema);
+        return layout != null ? layout : LAYOUTS.computeIfAbsent(schema, CollectedMessageLayout::compile);
+    }
+
+    private static CollectedMessageLayout compile(Schema schema) {
+        List<Schema.Field> fields = schema.getFields();
+        String[] names = new String[fields.size()];
+        MetaField<?>[] metaFields = new MetaField<?>[fields.size()];
+        for (int i = 0; i < names.length; i++) {
+            Schema.Field field = fields.get(i);
+            names[i] = field.name();
+            metaFields[i] = new MetaField<>(names[i], avroTypeToJavaClass(field.schema().getType()));
+        }
+        return new CollectedMessageLayout(schema, names, metaFields);
+    }
+
+    /**
+     * Creates a layout for the given fields, which is not cached (for messages that are not created from a record).
+     */
+    static CollectedMessageLayout of(String[] names, MetaField<?>[] metaFields) {
+        return new CollectedMessageLayout(null, names, metaFields);
+    }
+
+    private static Class<?> avroTypeToJavaClass(Schema.Type avroType) {
+        switch (avroType) {
+            case STRING:
+                return String.class;
+            case INT:
+                return Integer.class;
+            case LONG:
+                return Long.class;
+            case FLOAT:
+                return Float.class;
+            case DOUBLE:
+                return Double.class;
+            case BOOLEAN:
+                return Boolean.class;
+            case BYTES:
+                return ByteBuffer.class;
+            default:
+                return Object.class; // or throw if you want to be strict
+        }
+    }
+
+    /**
+     * Reads the values of all fields from the record.
+     *
+     * @param record the image to read, may be null.
+     * @return the values in field order, or null when there is no record.
+     */
+    Object[] readValues(GenericRecord record) {
+        if (record == null) {
+            return null;
+        }
+        Object[] values = new Object[names.length];
+        if (record instanceof GenericData.Record indexed && indexed.getSchema() == schema) {
+            // the index of the field is its position in the record of this schema
+            for (int i = 0; i < values.length; i++) {
+                values[i] = indexed.get(i);
+            }
+        } else {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = record.get(names[i]);
+            }
+        }
+        return values;
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    /**
+     * @return the index of the field, or -1 when the layout has no such field.
+     */
+    int indexOf(String fieldName) {
+        Integer index = indexes.get(fieldName);
+        return index != null ? index : -1;
+    }
+
+    String name(int index) {
+        return names[index];
+    }
+
+    MetaField<?> metaField(int index) {
+        return metaFields[index];
+    }
+}
@@ -5,7 +5,6 @@ import com.aicon.tos.interceptor.newgenproducerconsumer.mock.InterceptorConsumer
 import com.aicon.tos.interceptor.newgenproducerconsumer.mock.MockInterceptorConsumer;
 import com.aicon.tos.shared.connectors.ConnectorProgress;
 import com.aicon.tos.shared.kafka.InterceptorConsumer;
-import com.avlino.common.MetaField;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -13,11 +12,8 @@ import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Collects messages from 1 specific CDC-topic when requested.
@@ -56,27 +52,6 @@ public class InterceptorCollect {
         this.interceptorConsumer = mockInterceptorConsumer;
     }
 
-    private static Class<?> avroTypeToJavaClass(Schema.Type avroType) {
-        switch (avroType) {
-            case STRING:
-                return String.class;
-            case INT:
-                return Integer.class;
-            case LONG:
-                return Long.class;
-            case FLOAT:
-                return Float.class;
-            case DOUBLE:
-                return Double.class;
-            case BOOLEAN:
-                return Boolean.class;
-            case BYTES:
-                return ByteBuffer.class;
-            default:
-                return Object.class; // or throw if you want to be strict
-        }
-    }
-
     /**
      * Collects a single message from the topic.
      * This method replaces queue-based polling and directly returns a processed message.
@@ -101,30 +76,8 @@ public class InterceptorCollect {
                         first = false;
                     }
 
-                    // Create a new fields list for each record
-                    Map<String, InterceptorValueObject<?>> fieldsMap = new LinkedHashMap<>();
-
                     try {
-                        String key = String.valueOf(rec.key().get(0));
-                        GenericRecord beforeValue = (GenericRecord) rec.value().get(ELM_BEFORE);
-                        GenericRecord afterValue = (GenericRecord) rec.value().get(ELM_AFTER);
-
-                        CDCAction action = CDCAction.getAction(beforeValue == null, afterValue == null);
-
-                        Schema schema = afterValue != null ? afterValue.getSchema() : beforeValue.getSchema();
-                        for (Schema.Field field : schema.getFields()) {
-                            String fieldname = field.name();
-
-                            MetaField<?> metaField = new MetaField<>(fieldname, avroTypeToJavaClass(field.schema().getType()));
-
-                            fieldsMap.put(fieldname,
-                                    new InterceptorValueObject<>(
-                                            metaField,
-                                            beforeValue != null ? beforeValue.get(fieldname) : null,
-                                            afterValue != null ? afterValue.get(fieldname) : null)
-                            );
-                        }
-                        collectedMessages.add(new CollectedMessage(action, entityName, rec.offset(), rec.timestamp(), key, fieldsMap));
+                        collectedMessages.add(toCollectedMessage(entityName, rec));
                     } catch (Exception e) {
                         LOG.error("Processing message for topic {}/{} failed, reason: {}", entityName, topic, e.getMessage());
                     }
@@ -134,4 +87,24 @@ public class InterceptorCollect {
 
         return collectedMessages;
     }
+
+    /**
+     * Converts a CDC record (with a before and after image) into a CollectedMessage holding all fields of the image.
+     *
+     * @param entityName the entity the record belongs to.
+     * @param rec the record as polled from the CDC-topic.
+     * @return the collected message.
+     */
+    static CollectedMessage toCollectedMessage(String entityName, ConsumerRecord<GenericRecord, GenericRecord> rec) {
+        String key = String.valueOf(rec.key().get(0));
+        GenericRecord beforeValue = (GenericRecord) rec.value().get(ELM_BEFORE);
+        GenericRecord afterValue = (GenericRecord) rec.value().get(ELM_AFTER);
+
+        CDCAction action = CDCAction.getAction(beforeValue == null, afterValue == null);
+
+        Schema schema = afterValue != null ? afterValue.getSchema() : beforeValue.getSchema();
+        CollectedMessageLayout layout = CollectedMessageLayout.forSchema(schema);
+        return new CollectedMessage(action, entityName, rec.offset(), rec.timestamp(), key,
+                layout, layout.readValues(beforeValue), layout.readValues(afterValue));
+    }
 }
@@ -12,6 +12,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -21,9 +22,14 @@ public class InterceptorConfig {
 
     private static final String FALSE = String.valueOf(false);
 
+    public static final String CFG_DECIDE_LANES = "decide.lanes";
+    public static final int DEFAULT_DECIDE_LANES = 4;
+    public static final String CFG_MAX_INFLIGHT_REQUESTS = "max.inflight.requests";
+
     private static final Logger LOG = LoggerFactory.getLogger(InterceptorConfig.class);
     private final Map<String, InterceptorEntityConfig> entityConfig = new HashMap<>();
     private boolean useMockedConsumers = false;
+    private int decideLanes = DEFAULT_DECIDE_LANES;
 
     public InterceptorConfig() {
 
@@ -43,6 +49,8 @@ public class InterceptorConfig {
             return;
         }
 
+        decideLanes = parseDecideLanes(interceptorConfigGroup.getItemValue(CFG_DECIDE_LANES, null));
+
         LOG.info("Initializing Interceptor configuration from entities...");
         for (ConfigGroup topicGroup : interceptorConfigGroup.getChildren()) {
             if (topicGroup.isOfType(ConfigType.InterceptorEntity)) {
@@ -57,6 +65,39 @@ public class InterceptorConfig {
         }
     }
 
+    private static int parseDecideLanes(String value) {
+        if (value == null || value.isBlank()) {
+            return DEFAULT_DECIDE_LANES;
+        }
+        try {
+            int lanes = Integer.parseInt(value.trim());
+            if (lanes > 0) {
+                return lanes;
+            }
+        } catch (NumberFormatException e) {
+            // falls through to the warning
+        }
+        LOG.warn("Invalid value '{}' for {}, using default {}", value, CFG_DECIDE_LANES, DEFAULT_DECIDE_LANES);
+        return DEFAULT_DECIDE_LANES;
+    }
+
+    private static int parseMaxInFlightRequests(String value) {
+        int defaultValue = InterceptorEntityConfig.DEFAULT_MAX_IN_FLIGHT_REQUESTS;
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            int maxInFlight = Integer.parseInt(value.trim());
+            if (maxInFlight > 0) {
+                return maxInFlight;
+            }
+        } catch (NumberFormatException e) {
+            // falls through to the warning
+        }
+        LOG.warn("Invalid value '{}' for {}, using default {}", value, CFG_MAX_INFLIGHT_REQUESTS, defaultValue);
+        return defaultValue;
+    }
+
     private InterceptorEntityConfig createInterceptorEntityConfig(ConfigGroup entityConfig) {
         String entityConfigName = entityConfig.getName();
         if (entityConfigName == null || entityConfigName.isEmpty()) {
@@ -74,9 +115,12 @@ public class InterceptorConfig {
         boolean testChanges = Boolean.parseBoolean(entityConfig.getItemValue("test.changes", FALSE));
         boolean testDeletions = Boolean.parseBoolean(entityConfig.getItemValue("test.deletions", FALSE));
 
+        String indexFields = entityConfig.getItemValue("index.fields", null);
+        int maxInFlightRequests = parseMaxInFlightRequests(entityConfig.getItemValue(CFG_MAX_INFLIGHT_REQUESTS, null));
+
         ConfigGroup scenariosGroup = entityConfig.getChildGroup(ConfigType.Scenarios);
 
-        return new InterceptorEntityConfig(
+        InterceptorEntityConfig interceptorEntityConfig = new InterceptorEntityConfig(
                 entityName,
                 topicName,
                 groupId,
@@ -88,6 +132,14 @@ public class InterceptorConfig {
                 testChanges,
                 testDeletions
         );
+        if (indexFields != null && !indexFields.isBlank()) {
+            interceptorEntityConfig.setIndexFields(Arrays.stream(indexFields.split(","))
+                    .map(String::trim)
+                    .filter(field -> !field.isEmpty())
+                    .toList());
+        }
+        interceptorEntityConfig.setMaxInFlightRequests(maxInFlightRequests);
+        return interceptorEntityConfig;
     }
 
     public List<String> getEntityKeys() {
@@ -123,6 +175,17 @@ public class InterceptorConfig {
         }
     }
 
+    /**
+     * @return the maximum number of lanes to decide on the filtered messages in parallel.
+     */
+    public int getDecideLanes() {
+        return decideLanes;
+    }
+
+    public void setDecideLanes(int decideLanes) {
+        this.decideLanes = Math.max(1, decideLanes);
+    }
+
     public boolean usesMockedConsumers() {
         return this.useMockedConsumers;
     }
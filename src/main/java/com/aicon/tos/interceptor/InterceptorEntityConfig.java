@@ -3,6 +3,7 @@ package com.aicon.tos.interceptor;
 import com.aicon.tos.shared.config.ConfigGroup;
 
 import java.time.Duration;
+import java.util.List;
 
 
 /**
@@ -23,6 +24,8 @@ import java.time.Duration;
  * - `testCreations`: Indicates if the configuration should test for message creation events.
  * - `testChanges`: Indicates if the configuration should test for message change events.
  * - `testDeletions`: Indicates if the configuration should test for message deletion events.
+ * - `indexFields`: The fields the message store keeps a hash index for, defaults to {@link #DEFAULT_INDEX_FIELDS}.
+ * - `maxInFlightRequests`: The max nr of outstanding (decking) requests per scenario, defaults to {@link #DEFAULT_MAX_IN_FLIGHT_REQUESTS}.
  *
  * Methods:
  * - Getters are provided for each field to access the configuration details.
@@ -34,8 +37,14 @@ import java.time.Duration;
  * - `isTestCreations()`: Indicates whether creation tests are enabled.
  * - `isTestChanges()`: Indicates whether change tests are enabled.
  * - `isTestDeletions()`: Indicates whether deletion tests are enabled.
+ * - `getIndexFields()`: Retrieves the fields which are indexed in the message store.
+ * - `getMaxInFlightRequests()`: Retrieves the max nr of outstanding requests per scenario.
  */
 public class InterceptorEntityConfig {
+    public static final List<String> DEFAULT_INDEX_FIELDS = List.of(
+            "gkey", "work_queue_gkey", "twin_with", "sequence", "tran_gkey", "itv_gkey");
+    public static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 50;
+
     private final String entityName;
     private final String topicName;
     private final String groupId;
@@ -47,6 +56,8 @@ public class InterceptorEntityConfig {
     private final boolean testChanges;
     private final boolean testDeletions;
     private boolean useMockedInterceptor = false;
+    private List<String> indexFields = DEFAULT_INDEX_FIELDS;
+    private int maxInFlightRequests = DEFAULT_MAX_IN_FLIGHT_REQUESTS;
 
     public InterceptorEntityConfig(String entityName, String topicName, String groupId, int maxNrMessagesInStorage, Duration maxTimeInStorage,
                                    long processingDelay, ConfigGroup scnGrp,
@@ -102,6 +113,22 @@ public class InterceptorEntityConfig {
         return testDeletions;
     }
 
+    public List<String> getIndexFields() {
+        return indexFields;
+    }
+
+    public void setIndexFields(List<String> indexFields) {
+        this.indexFields = indexFields != null ? List.copyOf(indexFields) : DEFAULT_INDEX_FIELDS;
+    }
+
+    public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    public void setMaxInFlightRequests(int maxInFlightRequests) {
+        this.maxInFlightRequests = maxInFlightRequests > 0 ? maxInFlightRequests : DEFAULT_MAX_IN_FLIGHT_REQUESTS;
+    }
+
     public void setUseMockedInterceptor(boolean useMockedConsumers) {
         this.useMockedInterceptor = useMockedConsumers;
     }
@@ -5,6 +5,7 @@ import com.aicon.tos.interceptor.decide.scenarios.Scenario;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
@@ -101,14 +102,8 @@ public class InterceptorFilter implements Runnable {
     void sendMessageToDecideIfNeeded(CollectedMessage message) {
         this.lastProcessedMessage = message;
 
-        boolean relevant = false;
-        for (Scenario scenario: decide.getScenariosForEntity(message.getEntityName())) {
-            if (scenario.isRelevantEvent(message)) {
-                relevant = true;    // happy at first match
-                break;
-            }
-        }
-        if (relevant) {
+        if (isRelevantForAnyScenario(decide.getScenariosForEntity(message.getEntityName()), message)) {
+            message.meta().addTimestamp(MessageMeta.TS_FILTERED, null);
             decide.addMessageToSharedQueue(new FilteredMessage(message));
             LOG.info("Message is relevant and added to decide queue: {}", message);
         } else if (LOG.isTraceEnabled()) {
@@ -118,6 +113,20 @@ public class InterceptorFilter implements Runnable {
         latch.countDown();
     }
 
+    /**
+     * @param scenarios the scenarios registered for the entity of the message.
+     * @param message the collected message to evaluate.
+     * @return true when at least 1 of the scenarios finds the message relevant.
+     */
+    static boolean isRelevantForAnyScenario(Collection<Scenario> scenarios, CollectedMessage message) {
+        for (Scenario scenario: scenarios) {
+            if (scenario.isRelevantEvent(message)) {
+                return true;        // happy at first match
+            }
+        }
+        return false;
+    }
+
     /**
      * Sets the future task for this filter.
      *
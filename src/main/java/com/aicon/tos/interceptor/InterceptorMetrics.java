@@ -0,0 +1,175 @@
+package com.aicon.tos.interceptor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.aicon.tos.interceptor.MessageMeta.*;
+
+/**
+ * Turns the timestamps collected in the {@link MessageMeta} of a message into latency timers (with percentile
+ * histograms), tagged by entity and scenario. The stages measured once per message, tagged by entity only, are:
+ * <ul>
+ *     <li>{@link #STAGE_CDC_TO_FILTER}: received from the CDC-topic until found relevant by the filter;</li>
+ *     <li>{@link #STAGE_FILTER_TO_DECIDE}: waiting in the decide queue until taken by its lane.</li>
+ * </ul>
+ * The stages measured per scenario processing the message are:
+ * <ul>
+ *     <li>{@link #STAGE_DECIDE_TO_ENGINE}: scenario start until the first request is sent;</li>
+ *     <li>{@link #STAGE_ENGINE_ROUND_TRIP}: request sent until its response is received, tagged with the request topic;</li>
+ *     <li>{@link #STAGE_SCENARIO}: scenario start until end, tagged with the result.</li>
+ * </ul>
+ * The singleton registers in a Prometheus registry, which is scraped via the /metrics servlet.
+ */
+public class InterceptorMetrics {
+    private static final Logger LOG = LoggerFactory.getLogger(InterceptorMetrics.class);
+
+    public static final String METRIC_PREFIX            = "aicon.interceptor.";
+    public static final String STAGE_CDC_TO_FILTER      = METRIC_PREFIX + "cdc.to.filter";
+    public static final String STAGE_FILTER_TO_DECIDE   = METRIC_PREFIX + "filter.to.decide";
+    public static final String STAGE_DECIDE_TO_ENGINE   = METRIC_PREFIX + "decide.to.engine";
+    public static final String STAGE_ENGINE_ROUND_TRIP  = METRIC_PREFIX + "engine.round.trip";
+    public static final String STAGE_SCENARIO           = METRIC_PREFIX + "scenario";
+
+    public static final String TAG_ENTITY   = "entity";
+    public static final String TAG_SCENARIO = "scenario";
+    public static final String TAG_TOPIC    = "topic";
+    public static final String TAG_RESULT   = "result";
+
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED = Duration.ofMinutes(2);
+
+    private static final Object lock = new Object();
+    private static volatile InterceptorMetrics instance = null;
+
+    private final MeterRegistry registry;
+    // registering looks the meter up in the registry, the timers are kept by name and tags to record directly
+    private final Map<List<String>, Timer> timers = new ConcurrentHashMap<>();
+
+    public static InterceptorMetrics getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    PrometheusMeterRegistry prometheusRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+                    Metrics.addRegistry(prometheusRegistry);
+                    instance = new InterceptorMetrics(prometheusRegistry);
+                }
+            }
+        }
+        return instance;
+    }
+
+    public InterceptorMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * @return the metrics in the Prometheus text format, empty when not registered in a Prometheus registry.
+     */
+    public String scrape() {
+        return registry instanceof PrometheusMeterRegistry prometheusRegistry ? prometheusRegistry.scrape() : "";
+    }
+
+    /**
+     * Records the latencies of the stages the message went through before it is decided on, to be called once per
+     * message, however many scenarios process it.
+     * @param meta the meta of the message taken from the decide queue
+     * @param decided when the message was taken from the decide queue
+     */
+    public void recordMessage(MessageMeta meta, Instant decided) {
+        try {
+            String entity = meta.getEntityName();
+            Instant received = meta.getTimestamp(TS_CDC_RECEIVED);
+            Instant filtered = meta.getTimestamp(TS_FILTERED);
+
+            record(STAGE_CDC_TO_FILTER, received, filtered, TAG_ENTITY, entity);
+            record(STAGE_FILTER_TO_DECIDE, filtered, decided, TAG_ENTITY, entity);
+        } catch (Exception e) {     // metrics should never break the processing
+            LOG.warn("Recording metrics for {} failed, reason: {}", meta, e.getMessage());
+        }
+    }
+
+    /**
+     * Records the latencies of the stages the message went through while processed by the scenario. Only the
+     * timestamps between the start and end of the scenario are used for the requests, so other scenarios processing
+     * the same message do not interfere.
+     * @param meta the meta of the processed message
+     * @param scenarioName the scenario which has processed the message
+     * @param success false when the scenario ended with an exception
+     */
+    public void recordStages(MessageMeta meta, String scenarioName, boolean success) {
+        try {
+            List<Map.Entry<String, Instant>> timestamps = snapshot(meta);
+            String entity = meta.getEntityName();
+            Instant started = meta.getTimestamp(TS_START_PREFIX + scenarioName);
+            Instant ended = meta.getTimestamp(TS_END_PREFIX + scenarioName);
+
+            if (started == null) {
+                return;
+            }
+            record(STAGE_SCENARIO, started, ended != null ? ended : Instant.now(),
+                    TAG_ENTITY, entity, TAG_SCENARIO, scenarioName, TAG_RESULT, success ? "ok" : "error");
+
+            // Requests are paired to their responses in order of sending.
+            Deque<Map.Entry<String, Instant>> sent = new ArrayDeque<>();
+            boolean firstSend = true;
+            for (Map.Entry<String, Instant> ts : timestamps) {
+                if (ts.getValue().isBefore(started) || (ended != null && ts.getValue().isAfter(ended))) {
+                    continue;
+                }
+                if (ts.getKey().startsWith(TS_SEND_PREFIX)) {
+                    if (firstSend) {
+                        record(STAGE_DECIDE_TO_ENGINE, started, ts.getValue(), TAG_ENTITY, entity, TAG_SCENARIO, scenarioName);
+                        firstSend = false;
+                    }
+                    sent.add(ts);
+                } else if (ts.getKey().startsWith(TS_RECV_PREFIX) && !sent.isEmpty()) {
+                    Map.Entry<String, Instant> request = sent.poll();
+                    record(STAGE_ENGINE_ROUND_TRIP, request.getValue(), ts.getValue(), TAG_ENTITY, entity,
+                            TAG_SCENARIO, scenarioName, TAG_TOPIC, request.getKey().substring(TS_SEND_PREFIX.length()));
+                }
+            }
+        } catch (Exception e) {     // metrics should never break the processing
+            LOG.warn("Recording metrics for {} failed, reason: {}", meta, e.getMessage());
+        }
+    }
+
+    private void record(String name, Instant from, Instant to, String... tags) {
+        if (from == null || to == null) {
+            return;
+        }
+        List<String> key = new ArrayList<>(tags.length + 1);
+        key.add(name);
+        key.addAll(Arrays.asList(tags));
+        timers.computeIfAbsent(key, k -> Timer.builder(name)
+                        .tags(tags)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(MIN_EXPECTED)
+                        .maximumExpectedValue(MAX_EXPECTED)
+                        .register(registry))
+                .record(Duration.between(from, to));
+    }
+
+    /**
+     * @return the timestamps of the meta in chronological order.
+     */
+    private static List<Map.Entry<String, Instant>> snapshot(MessageMeta meta) {
+        List<Map.Entry<String, Instant>> timestamps = new ArrayList<>();
+        meta.getAllTimeStamps().forEach((key, ts) -> timestamps.add(Map.entry(key, ts)));
+        timestamps.sort(Map.Entry.comparingByValue());
+        return timestamps;
+    }
+}
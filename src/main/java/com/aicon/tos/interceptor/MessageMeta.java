@@ -21,6 +21,7 @@ import static com.avlino.common.Constants.QUESTION;
 public class MessageMeta {
     public static final String TS_OFFSET        = "CDC.Offset";  // read from the topic
     public static final String TS_CDC_RECEIVED  = "CDC.received";// when received by the consumer
+    public static final String TS_FILTERED      = "FILTERED";    // when found relevant by the filter
     public static final String TS_DONE          = "DONE";        // when all done
     public static final String TS_START_PREFIX  = "START.";      // when scenario starts
     public static final String TS_END_PREFIX    = "END.";        // when scenario ends
@@ -153,7 +154,7 @@ public class MessageMeta {
         addTimestamp(tsPrefix + tsAction, Instant.now(), logger);
     }
 
-    public void addTimestamp(String tsKey, Instant ts, Logger logger) {
+    public synchronized void addTimestamp(String tsKey, Instant ts, Logger logger) {
         lastTs = ts.toEpochMilli();
         if (firstTs == 0) {
             firstTs = lastTs;
@@ -165,7 +166,7 @@ public class MessageMeta {
         }
     }
 
-    public Instant getTimestamp(String tsKey) {
+    public synchronized Instant getTimestamp(String tsKey) {
         return timestamps.get(tsKey);
     }
 
@@ -196,15 +197,18 @@ public class MessageMeta {
      * Returns the processing time in milliseconds between first timestamp and last recorded timestamp.
      * @return processing time in ms.
      */
-    public long getDurationMs() {
+    public synchronized long getDurationMs() {
         return firstTs != 0 && lastTs != 0 ? lastTs - firstTs : 0;
     }
 
-    public Map<String, Instant> getAllTimeStamps() {
-        return timestamps;
+    /**
+     * @return a copy of the timestamps in order of recording, timestamps are added from several threads.
+     */
+    public synchronized Map<String, Instant> getAllTimeStamps() {
+        return new LinkedHashMap<>(timestamps);
     }
 
-    public String getAllTimeStampsToString(boolean forLogging, DateTimeFormatter dtFormatter, boolean showDeltas) {
+    public synchronized String getAllTimeStampsToString(boolean forLogging, DateTimeFormatter dtFormatter, boolean showDeltas) {
         final String OFFSET_FORMAT = "TS|offset=%10d|";
         final String TS_FORMAT = forLogging ? "|%40s = %23s" : "%s=\n%s";
         final String DELTA_FORMAT = forLogging ? "|delta = %7d ms" : " (%7dms)";
@@ -233,7 +237,7 @@ public class MessageMeta {
     }
 
     public String getCdcReceivedDowTime() {
-        Instant recvTS = timestamps.get(TS_CDC_RECEIVED);
+        Instant recvTS = getTimestamp(TS_CDC_RECEIVED);
         if (recvTS == null) {
             return "";
         }
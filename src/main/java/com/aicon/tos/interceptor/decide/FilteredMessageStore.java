@@ -0,0 +1,476 @@
+package com.aicon.tos.interceptor.decide;
+
+import com.aicon.tos.interceptor.FilteredMessage;
+import com.aicon.tos.interceptor.InterceptorEntityConfig;
+import com.aicon.tos.interceptor.InterceptorValueObject;
+import com.aicon.tos.interceptor.MessageMeta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static com.avlino.common.Constants.LF;
+
+/**
+ * In-memory storage of filtered messages, grouped per entity, with secondary hash indexes on a configurable set of
+ * fields (see {@link InterceptorEntityConfig#getIndexFields()}).
+ * <p>
+ * Messages are kept in arrival order. Eviction (max number of messages and max time in storage) always removes the
+ * oldest message, which is also the oldest entry of each index bucket it is part of, so eviction costs O(1) per message.
+ * Index values are compared on their string representation, so a Long gkey matches "12345" as well.
+ */
+public class FilteredMessageStore {
+    private static final Logger LOG = LoggerFactory.getLogger(FilteredMessageStore.class);
+
+    public static final int DEFAULT_MAX_NR_MESSAGES = 10000;
+    public static final Duration DEFAULT_MAX_TIME = Duration.ofMinutes(30);
+
+    private final ConcurrentMap<String, EntityStore> entityStores = new ConcurrentHashMap<>();
+
+    /**
+     * Registers (or replaces) the storage for an entity using the limits and index fields of its configuration.
+     * @param entityConfig the entity configuration
+     */
+    public void registerEntity(InterceptorEntityConfig entityConfig) {
+        registerEntity(entityConfig.getEntityName(), entityConfig.getMaxNrMessagesInStorage(),
+                entityConfig.getMaxTimeInStorage(), entityConfig.getIndexFields());
+    }
+
+    /**
+     * Registers (or replaces) the storage for an entity.
+     * @param entityName the entity name
+     * @param maxNrMessages max number of messages to keep, oldest are removed first
+     * @param maxTime max time between the oldest and newest message (based on {@link MessageMeta#TS_CDC_RECEIVED})
+     * @param indexFields the field names to keep a hash index for
+     */
+    public void registerEntity(String entityName, int maxNrMessages, Duration maxTime, Collection<String> indexFields) {
+        entityStores.put(entityName, new EntityStore(entityName, maxNrMessages, maxTime, indexFields));
+        LOG.info("Message store for entity {} registered, max messages={}, max time={}, indexes={}",
+                entityName, maxNrMessages, maxTime, indexFields);
+    }
+
+    /**
+     * Adds the message to the storage of its entity and removes the oldest messages exceeding the limits.
+     * When the entity is not registered it will be registered with default limits and indexes.
+     * @param message the message to store
+     */
+    public void add(FilteredMessage message) {
+        getOrCreateStore(message.getEntityName()).add(message);
+    }
+
+    /**
+     * @return the number of messages stored for the entity, 0 when unknown.
+     */
+    public int size(String entityName) {
+        EntityStore store = entityStores.get(entityName);
+        return store != null ? store.size() : 0;
+    }
+
+    /**
+     * @return a copy of all messages of the entity in arrival order (oldest first), or an empty list when none found.
+     */
+    public List<FilteredMessage> getMessages(String entityName) {
+        EntityStore store = entityStores.get(entityName);
+        return store != null ? store.getAll() : Collections.emptyList();
+    }
+
+    /**
+     * Finds all messages of an entity where the after-value of given field equals the given value, using the index
+     * when the field is indexed, else scanning all messages.
+     * @param entityName the entity to search in
+     * @param fieldName the field name to match
+     * @param value the value to match, compared on its string representation; null never matches.
+     * @return the matching messages in arrival order (oldest first), or an empty list when none found.
+     */
+    public List<FilteredMessage> findByField(String entityName, String fieldName, Object value) {
+        EntityStore store = entityStores.get(entityName);
+        if (store == null || fieldName == null || value == null) {
+            return Collections.emptyList();
+        }
+        return store.findByField(fieldName, String.valueOf(value));
+    }
+
+    /**
+     * Registers an additional index for an entity, e.g. on a combination of fields. Messages already stored will be
+     * added to the index as well. When the entity is not registered yet, it will be registered with defaults.
+     * @param entityName the entity to add the index for
+     * @param indexName the unique name of the index (within the entity), must not be the name of an indexed field.
+     * @param keyFunction creates the index key for a message, when it returns null the message is not indexed.
+     * @return true when added, false when an index with the same name already existed.
+     */
+    public boolean registerIndex(String entityName, String indexName, Function<FilteredMessage, String> keyFunction) {
+        boolean added = getOrCreateStore(entityName).addIndex(indexName, keyFunction);
+        if (added) {
+            LOG.info("Index {} registered for message store of entity {}", indexName, entityName);
+        }
+        return added;
+    }
+
+    /**
+     * Finds all messages of an entity having the given key in the named index.
+     * @param entityName the entity to search in
+     * @param indexName the name of the index (or indexed field)
+     * @param key the key to look for
+     * @return the matching messages in arrival order (oldest first), or an empty list when none found or unknown index.
+     */
+    public List<FilteredMessage> findByIndex(String entityName, String indexName, String key) {
+        EntityStore store = entityStores.get(entityName);
+        if (store == null || key == null) {
+            return Collections.emptyList();
+        }
+        return store.findByIndex(indexName, key);
+    }
+
+    /**
+     * Returns the newest message of an entity having the given key in the named index in O(1).
+     * @param entityName the entity to search in
+     * @param indexName the name of the index (or indexed field)
+     * @param key the key to look for
+     * @return the newest matching message, or null when none found or unknown index.
+     */
+    public FilteredMessage findLatestByIndex(String entityName, String indexName, String key) {
+        EntityStore store = entityStores.get(entityName);
+        if (store == null || key == null) {
+            return null;
+        }
+        return store.findLatestByIndex(indexName, key);
+    }
+
+    /**
+     * Finds all messages of an entity matching the predicate (full scan, without copying the storage first).
+     * @return the matching messages in arrival order (oldest first), or an empty list when none found.
+     */
+    public List<FilteredMessage> findAll(String entityName, Predicate<FilteredMessage> predicate) {
+        EntityStore store = entityStores.get(entityName);
+        return store != null ? store.findAll(predicate) : Collections.emptyList();
+    }
+
+    /**
+     * Walks the messages of an entity from newest to oldest and returns the first one matching the predicate.
+     * @param entityName the entity to search in
+     * @param predicate the condition to match
+     * @param stopCondition when not null and true for a message, the search stops (e.g. to limit on a time window).
+     * @return the newest matching message or null when not found.
+     */
+    public FilteredMessage findLatest(String entityName, Predicate<FilteredMessage> predicate, Predicate<FilteredMessage> stopCondition) {
+        EntityStore store = entityStores.get(entityName);
+        return store != null ? store.findLatest(predicate, stopCondition) : null;
+    }
+
+    /**
+     * Finds messages across all entities matching the predicate.
+     */
+    public List<FilteredMessage> findAcrossEntities(Predicate<FilteredMessage> predicate) {
+        List<FilteredMessage> result = new ArrayList<>();
+        for (EntityStore store : entityStores.values()) {
+            result.addAll(store.findAll(predicate));
+        }
+        return result;
+    }
+
+    /**
+     * @return true when the field (or named index) is indexed for the given entity.
+     */
+    public boolean isIndexed(String entityName, String indexName) {
+        EntityStore store = entityStores.get(entityName);
+        return store != null && store.getIndex(indexName) != null;
+    }
+
+    /**
+     * @return the names of all entities having a storage.
+     */
+    public Set<String> getEntityNames() {
+        return Collections.unmodifiableSet(entityStores.keySet());
+    }
+
+    /**
+     * Removes all messages, but keeps the registered entities.
+     */
+    public void clear() {
+        entityStores.values().forEach(EntityStore::clear);
+    }
+
+    private EntityStore getOrCreateStore(String entityName) {
+        return entityStores.computeIfAbsent(entityName, name -> {
+            LOG.warn("No message store registered for entity {}, using defaults.", name);
+            return new EntityStore(name, DEFAULT_MAX_NR_MESSAGES, DEFAULT_MAX_TIME, InterceptorEntityConfig.DEFAULT_INDEX_FIELDS);
+        });
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (EntityStore store : entityStores.values()) {
+            sb.append("  Store for ").append(store.entityName)
+                    .append(", size = ").append(store.size())
+                    .append(", indexes = ").append(store.getIndexNames())
+                    .append(LF);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A stored message together with its index keys, so eviction does not have to read the fields again.
+     */
+    private static final class Entry {
+        private final FilteredMessage message;
+        private final Instant received;
+        private String[] indexKeys;
+
+        Entry(FilteredMessage message, Instant received, String[] indexKeys) {
+            this.message = message;
+            this.received = received;
+            this.indexKeys = indexKeys;
+        }
+    }
+
+    /**
+     * A hash index, mapping a key to the entries having that key in arrival order.
+     */
+    private static final class Index {
+        private final String name;
+        private final Function<FilteredMessage, String> keyFunction;
+        private final Map<String, ArrayDeque<Entry>> buckets = new HashMap<>();
+
+        Index(String name, Function<FilteredMessage, String> keyFunction) {
+            this.name = name;
+            this.keyFunction = keyFunction;
+        }
+
+        String createKey(FilteredMessage message) {
+            try {
+                return keyFunction.apply(message);
+            } catch (Exception e) {
+                LOG.warn("Creating key for index {} failed for message (offset={}), reason: {}", name, message.getOffset(), e.getMessage());
+                return null;
+            }
+        }
+
+        void add(String key, Entry entry) {
+            if (key != null) {
+                buckets.computeIfAbsent(key, k -> new ArrayDeque<>(2)).addLast(entry);
+            }
+        }
+
+        void remove(String key, Entry entry) {
+            if (key == null) {
+                return;
+            }
+            ArrayDeque<Entry> bucket = buckets.get(key);
+            if (bucket != null) {
+                if (bucket.peekFirst() == entry) {
+                    bucket.pollFirst();
+                } else {
+                    bucket.remove(entry);
+                }
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the index key for a field, being the string representation of its after-value.
+     */
+    private static Function<FilteredMessage, String> fieldKey(String fieldName) {
+        return message -> {
+            InterceptorValueObject<?> field = message.getFieldValue(fieldName);
+            return field != null ? field.afterValueAsString(null) : null;
+        };
+    }
+
+    /**
+     * Storage of a single entity, guarded by a read/write lock.
+     */
+    private static class EntityStore {
+        private final String entityName;
+        private final int maxNrMessages;
+        private final Duration maxTime;
+        private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+        // only changes when registering an index, so iterating is safe without holding the lock
+        private final List<Index> indexes = new CopyOnWriteArrayList<>();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        EntityStore(String entityName, int maxNrMessages, Duration maxTime, Collection<String> indexFields) {
+            this.entityName = entityName;
+            this.maxNrMessages = maxNrMessages;
+            this.maxTime = maxTime != null ? maxTime : DEFAULT_MAX_TIME;
+            if (indexFields != null) {
+                for (String field : indexFields) {
+                    addIndex(field, fieldKey(field));
+                }
+            }
+        }
+
+        boolean addIndex(String indexName, Function<FilteredMessage, String> keyFunction) {
+            lock.writeLock().lock();
+            try {
+                if (getIndex(indexName) != null) {
+                    return false;
+                }
+                Index index = new Index(indexName, keyFunction);
+                int pos = indexes.size();
+                indexes.add(index);
+                for (Entry entry : entries) {
+                    entry.indexKeys = Arrays.copyOf(entry.indexKeys, pos + 1);
+                    entry.indexKeys[pos] = index.createKey(entry.message);
+                    index.add(entry.indexKeys[pos], entry);
+                }
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        Index getIndex(String indexName) {
+            for (Index index : indexes) {
+                if (index.name.equals(indexName)) {
+                    return index;
+                }
+            }
+            return null;
+        }
+
+        List<String> getIndexNames() {
+            return indexes.stream().map(index -> index.name).toList();
+        }
+
+        void add(FilteredMessage message) {
+            Instant received = message.meta().getTimestamp(MessageMeta.TS_CDC_RECEIVED);
+
+            lock.writeLock().lock();
+            try {
+                String[] keys = new String[indexes.size()];
+                Entry entry = new Entry(message, received != null ? received : Instant.now(), keys);
+                entries.addLast(entry);
+                for (int i = 0; i < keys.length; i++) {
+                    Index index = indexes.get(i);
+                    keys[i] = index.createKey(message);
+                    index.add(keys[i], entry);
+                }
+                evict(entry.received);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Removes the oldest entries as long as limits are exceeded, must be called holding the write lock.
+         */
+        private void evict(Instant newest) {
+            while (!entries.isEmpty()
+                    && (entries.size() > maxNrMessages || Duration.between(entries.peekFirst().received, newest).compareTo(maxTime) > 0)) {
+                Entry oldest = entries.pollFirst();
+                for (int i = 0; i < oldest.indexKeys.length; i++) {
+                    indexes.get(i).remove(oldest.indexKeys[i], oldest);
+                }
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Removed oldest message (offset={}) from entity {}", oldest.message.getOffset(), entityName);
+                }
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<FilteredMessage> getAll() {
+            return findAll(null);
+        }
+
+        List<FilteredMessage> findByField(String fieldName, String value) {
+            if (getIndex(fieldName) == null) {
+                Function<FilteredMessage, String> key = fieldKey(fieldName);
+                return findAll(msg -> value.equals(key.apply(msg)));
+            }
+            return findByIndex(fieldName, value);
+        }
+
+        List<FilteredMessage> findByIndex(String indexName, String key) {
+            lock.readLock().lock();
+            try {
+                Index index = getIndex(indexName);
+                ArrayDeque<Entry> bucket = index != null ? index.buckets.get(key) : null;
+                if (bucket == null) {
+                    return Collections.emptyList();
+                }
+                List<FilteredMessage> result = new ArrayList<>(bucket.size());
+                for (Entry entry : bucket) {
+                    result.add(entry.message);
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        FilteredMessage findLatestByIndex(String indexName, String key) {
+            lock.readLock().lock();
+            try {
+                Index index = getIndex(indexName);
+                ArrayDeque<Entry> bucket = index != null ? index.buckets.get(key) : null;
+                return bucket != null ? bucket.peekLast().message : null;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<FilteredMessage> findAll(Predicate<FilteredMessage> predicate) {
+            lock.readLock().lock();
+            try {
+                List<FilteredMessage> result = new ArrayList<>(predicate == null ? entries.size() : 4);
+                for (Entry entry : entries) {
+                    if (predicate == null || predicate.test(entry.message)) {
+                        result.add(entry.message);
+                    }
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        FilteredMessage findLatest(Predicate<FilteredMessage> predicate, Predicate<FilteredMessage> stopCondition) {
+            lock.readLock().lock();
+            try {
+                Iterator<Entry> it = entries.descendingIterator();
+                while (it.hasNext()) {
+                    FilteredMessage msg = it.next().message;
+                    if (predicate.test(msg)) {
+                        return msg;
+                    }
+                    if (stopCondition != null && stopCondition.test(msg)) {
+                        return null;
+                    }
+                }
+                return null;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void clear() {
+            lock.writeLock().lock();
+            try {
+                entries.clear();
+                indexes.forEach(index -> index.buckets.clear());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.aicon.tos.interceptor.decide;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of asynchronous requests in flight without blocking the caller. Requests above the limit are
+ * queued and started (on the given executor) as soon as a running request completes, in order of submission.
+ * The limit can be changed while requests are in flight.
+ */
+public class InFlightLimiter {
+    private int maxInFlight;
+    private final Executor executor;
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+    private int inFlight = 0;
+
+    /**
+     * @param maxInFlight the max nr of requests running at the same time, at least 1.
+     * @param executor the executor to start queued requests on.
+     */
+    public InFlightLimiter(int maxInFlight, Executor executor) {
+        checkLimit(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.executor = executor;
+    }
+
+    private static void checkLimit(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight should be at least 1, got " + maxInFlight);
+        }
+    }
+
+    /**
+     * Changes the limit, a higher limit starts queued requests directly, a lower limit lets the requests in flight
+     * complete before new ones are started.
+     * @param maxInFlight the new max nr of requests running at the same time, at least 1.
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        checkLimit(maxInFlight);
+        List<Runnable> startNow = new ArrayList<>();
+        synchronized (this) {
+            this.maxInFlight = maxInFlight;
+            while (inFlight < maxInFlight && !pending.isEmpty()) {
+                inFlight++;
+                startNow.add(pending.poll());
+            }
+        }
+        startNow.forEach(this::execute);
+    }
+
+    /**
+     * Starts the request directly when below the limit, else queues it. Never blocks.
+     * @param request supplies the future of the request when it gets started.
+     * @return a future completing with the result of the request.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> startRequest(request, result);
+
+        boolean startNow;
+        synchronized (this) {
+            startNow = inFlight < maxInFlight;
+            if (startNow) {
+                inFlight++;
+            } else {
+                pending.add(start);
+            }
+        }
+        if (startNow) {
+            start.run();
+        }
+        return result;
+    }
+
+    private <T> void startRequest(Supplier<CompletableFuture<T>> request, CompletableFuture<T> result) {
+        CompletableFuture<T> future;
+        try {
+            future = request.get();
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, ex) -> {
+            release();
+            if (ex != null) {
+                result.completeExceptionally(ex);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = inFlight <= maxInFlight ? pending.poll() : null;   // above a lowered limit the slot is given up
+            if (next == null) {
+                inFlight--;
+            }
+        }
+        if (next != null) {
+            execute(next);
+        }
+    }
+
+    private void execute(Runnable start) {
+        try {
+            executor.execute(start);
+        } catch (RejectedExecutionException e) {
+            start.run();     // executor is shutting down, don't lose the request
+        }
+    }
+
+    public synchronized int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("in-flight=%s/%s, pending=%s", inFlight, maxInFlight, pending.size());
+    }
+}
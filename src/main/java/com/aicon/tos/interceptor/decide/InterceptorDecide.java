@@ -14,7 +14,6 @@ import generated.ConfigItemKeyEnum;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
@@ -23,6 +22,12 @@ import static com.avlino.common.Constants.LF;
 
 /**
  * Manages the filtering and decision pipeline, allowing aggregated results from multiple entities, with storage.
+ * <p>
+ * The filtered messages are decided on in lanes, each with its own queue and processing thread. All messages of an
+ * entity go through the same lane, so the messages of an entity (and thus of a key) are observed by its scenarios in
+ * order, while the entities are spread over the lanes. Entities correlated by a scenario (see
+ * {@link Scenario#getCorrelatedEntities()}) share a lane, so their messages are stored and decided on in order of
+ * arrival too. The store keeps a separate shard per entity.
  */
 public class InterceptorDecide {
 
@@ -30,26 +35,106 @@ public class InterceptorDecide {
 
     private final InterceptorConfig config;
 
-    private final BlockingQueue<FilteredMessage> sharedQueue = new LinkedBlockingQueue<>();
-    private final ConcurrentMap<String, LinkedList<FilteredMessage>> globalMessageStorage = new ConcurrentHashMap<>();
+    private final DecideLane[] lanes;
+    private final Map<String, DecideLane> entityLanes = new HashMap<>();
+    private final FilteredMessageStore messageStore = new FilteredMessageStore();
     private final FixedSizeObservableList<MessageMeta> metaCache = new FixedSizeObservableList<>(100, FixedSizeObservableList.ListOrder.DESCENDING);
     private final Map<String, List<Scenario>> entityScenarios = new HashMap<>();
 
     private final ConcurrentMap<String, ExecutorService> filterExecutors = new ConcurrentHashMap<>();
-    private final ExecutorService processingExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "SharedProcessingThread"));
     private final ExecutorService scenarioExecutor = Executors.newFixedThreadPool(10, new NamedThreadFactory("ScenarioProcessingThread"));
 
     private final List<InterceptorFilter> filters = new ArrayList<>();
 
+    /**
+     * A queue of filtered messages with the thread deciding on them.
+     */
+    private static final class DecideLane {
+        private final int index;
+        private final BlockingQueue<FilteredMessage> queue = new LinkedBlockingQueue<>();
+        private final ExecutorService executor;
+
+        private DecideLane(int index) {
+            this.index = index;
+            this.executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "DecideLane-" + index));
+        }
+    }
+
     public InterceptorDecide(InterceptorConfig config) {
         this.config = config;
+        initializeMessageStore();
         initializeScenarios();
+        this.lanes = createLanes();
     }
 
     public InterceptorDecide() {
         this(new InterceptorConfig());
     }
 
+    /**
+     * Creates the lanes, no more than there are groups of correlated entities, and assigns the groups round-robin to
+     * the lanes.
+     */
+    private DecideLane[] createLanes() {
+        List<String> entityNames = config.getEntities() == null ? List.of()
+                : config.getEntities().stream().map(InterceptorEntityConfig::getEntityName).sorted().toList();
+        List<Set<String>> groups = groupCorrelatedEntities(entityNames);
+        int nrLanes = Math.max(1, Math.min(config.getDecideLanes(), groups.size()));
+        DecideLane[] created = new DecideLane[nrLanes];
+        for (int i = 0; i < nrLanes; i++) {
+            created[i] = new DecideLane(i);
+        }
+        for (int i = 0; i < groups.size(); i++) {
+            for (String entityName : groups.get(i)) {
+                entityLanes.put(entityName, created[i % nrLanes]);
+            }
+        }
+        LOG.info("Deciding on {} entities in {} lanes, correlated entities: {}", entityNames.size(), nrLanes,
+                groups.stream().filter(group -> group.size() > 1).toList());
+        return created;
+    }
+
+    /**
+     * @return the entities grouped by the correlations of their scenarios, in order of the first entity of a group.
+     */
+    private List<Set<String>> groupCorrelatedEntities(List<String> entityNames) {
+        Map<String, Set<String>> groupOf = new HashMap<>();
+        for (String entityName : entityNames) {
+            groupOf.put(entityName, new TreeSet<>(Set.of(entityName)));
+        }
+        for (String entityName : entityNames) {
+            for (Scenario scenario : entityScenarios.getOrDefault(entityName, List.of())) {
+                for (String correlated : scenario.getCorrelatedEntities()) {
+                    Set<String> group = groupOf.get(entityName);
+                    Set<String> other = groupOf.get(correlated);
+                    if (other != null && other != group) {
+                        group.addAll(other);
+                        other.forEach(merged -> groupOf.put(merged, group));
+                    }
+                }
+            }
+        }
+        List<Set<String>> groups = new ArrayList<>();
+        for (String entityName : entityNames) {
+            Set<String> group = groupOf.get(entityName);
+            if (!groups.contains(group)) {
+                groups.add(group);
+            }
+        }
+        return groups;
+    }
+
+    private DecideLane getLane(String entityName) {
+        DecideLane lane = entityLanes.get(entityName);
+        return lane != null ? lane : lanes[Math.floorMod(Objects.hashCode(entityName), lanes.length)];
+    }
+
+    private void initializeMessageStore() {
+        if (config.getEntities() != null) {
+            config.getEntities().forEach(messageStore::registerEntity);
+        }
+    }
+
     private void initializeScenarios() {
         if (config.getEntities() != null) {
             for (InterceptorEntityConfig entityConfig : config.getEntities()) {
@@ -67,6 +152,7 @@ public class InterceptorDecide {
                             try {
                                 Scenario scenario = ConfigUtil.createObject(className, Scenario.class);
                                 scenario.init(scnConfig.getName(), entityConfig);
+                                scenario.defineIndexes(messageStore);
                                 scenarioList.add(scenario);
                                 LOG.info("Scenario {} using class {} successful loaded, running = {}.", scnConfig.getName(), className, scenario.isRunning());
                             } catch (Exception e) {
@@ -85,7 +171,9 @@ public class InterceptorDecide {
 
     public void start() {
         LOG.info("Starting filtering and decision pipeline...");
-        processingExecutor.submit(this::processMessages);
+        for (DecideLane lane : lanes) {
+            lane.executor.submit(() -> processMessages(lane));
+        }
 
         config.getEntities().forEach(this::startFilterForEntity);
 
@@ -105,10 +193,10 @@ public class InterceptorDecide {
         LOG.info("Filter thread started for entityName {}", entityConfig);
     }
 
-    private void processMessages() {
+    private void processMessages(DecideLane lane) {
         try {
             while (!Thread.currentThread().isInterrupted()) {
-                processQueueMessagesSafely();
+                processQueueMessagesSafely(lane);
             }
         } catch (InterruptedException e) {
             LOG.info("{} Interrupted while waiting in thread...", Thread.currentThread().getName());
@@ -120,81 +208,85 @@ public class InterceptorDecide {
         }
     }
 
-    private void processQueueMessagesSafely() throws InterruptedException {
-        if (sharedQueue.isEmpty()) {
-            LOG.info("Queue is empty. Sleeping...");
-        } else if (LOG.isDebugEnabled()) {
-//            sharedQueue.forEach(message -> {
-//                LOG.debug("Queued message: {}", message);
-//            });
+    private void processQueueMessagesSafely(DecideLane lane) throws InterruptedException {
+        if (lane.queue.isEmpty()) {
+            LOG.info("Queue of lane {} is empty. Sleeping...", lane.index);
         }
-        FilteredMessage message = sharedQueue.take();
+        FilteredMessage message = lane.queue.take();
+        InterceptorMetrics.getInstance().recordMessage(message.meta(), Instant.now());
 
         storeMessage(message);
         List<Scenario> scenarios = entityScenarios.get(message.getEntityName());
         scenarios.forEach(scenario -> {
+            try {
+                scenario.observeMessage(message);
+            } catch (Exception e) {
+                LOG.warn("{} Scenario observeMessage failed, reason: {}", scenario.getName(), e.getMessage());
+            }
             if (scenario.isRelevantEvent(message)) {
-                if (scenario.addsMessageMeta() && !metaCache.contains(message.meta())) {
-                    metaCache.add(message.meta());
-                }
-
-                scenarioExecutor.submit(() -> {
-                    try {
-                        scenario.processMessage(message, globalMessageStorage);
-                    } catch (Exception e) {
-                        if (scenario.addsMessageMeta()) {
-                            message.meta().setResultWhenHigher(ResultLevel.ERROR, String.format("%s failed: %s", scenario.getName(), e.getMessage()));
+                if (scenario.addsMessageMeta()) {
+                    // the lanes share the cache
+                    synchronized (metaCache) {
+                        if (!metaCache.contains(message.meta())) {
+                            metaCache.add(message.meta());
                         }
-                        LOG.error("{} Scenario processMessage failed due to exception, reason: {}", scenario.getName(), e.getMessage());
-                    }
-                    printGlobalStorage("After processing scenario (" + scenario.getName() + "): ");
-                    LOG.debug("Processing time table for {}:\n{}", message.meta(), message.meta().getAllTimeStampsToString(true, DateTimeUtils.DATE_TIME_MS_FORMAT, true));
-                    if (scenario.addsMessageMeta()) {
-                        message.meta().addTimestamp(MessageMeta.TS_DONE, LOG);
-                        message.meta().setResultWhenHigher(ResultLevel.OK, null);
-                        metaCache.notifyObservers();
                     }
-                });
+                }
+
+                // the scenario thread is released as soon as the scenario waits on other systems
+                scenarioExecutor.submit(() -> startScenario(scenario, message)
+                        .whenComplete((result, ex) -> finishScenario(scenario, message, ex)));
             }
         });
     }
 
-    private void storeMessage(FilteredMessage message) {
-        String entityName = message.getEntityName();
-        // printGlobalStorage("Before storing message: ");
-        globalMessageStorage.computeIfAbsent(entityName, k -> new LinkedList<>()).add(message);
-        // printGlobalStorage("After storing message: ");
-
-        LOG.info("Stored message (offset={}) for entity {}.", message.getOffset(), entityName);
-        enforceEntityLimits(entityName);
+    private CompletableFuture<Void> startScenario(Scenario scenario, FilteredMessage message) {
+        try {
+            return scenario.processMessageAsync(message, messageStore);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
 
-    private void enforceEntityLimits(String entityName) {
-        InterceptorEntityConfig entityConfig = config.getEntityConfig(entityName);
-        LinkedList<FilteredMessage> messages = globalMessageStorage.getOrDefault(entityName, new LinkedList<>());
-
-        synchronized (messages) {
-            while (messages.size() > entityConfig.getMaxNrMessagesInStorage()
-                    || exceedsMaxDuration(messages, entityConfig.getMaxTimeInStorage())) {
-                LOG.info("Removing oldest message from entity {}", entityName);
-                messages.removeFirst();
+    private void finishScenario(Scenario scenario, FilteredMessage message, Throwable ex) {
+        if (ex != null) {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (scenario.addsMessageMeta()) {
+                message.meta().setResultWhenHigher(ResultLevel.ERROR, String.format("%s failed: %s", scenario.getName(), cause.getMessage()));
+            }
+            LOG.error("{} Scenario processMessage failed due to exception, reason: {}", scenario.getName(), cause.getMessage());
+        }
+        InterceptorMetrics.getInstance().recordStages(message.meta(), scenario.getName(), ex == null);
+        printGlobalStorage("After processing scenario (" + scenario.getName() + "): ");
+        LOG.debug("Processing time table for {}:\n{}", message.meta(), message.meta().getAllTimeStampsToString(true, DateTimeUtils.DATE_TIME_MS_FORMAT, true));
+        if (scenario.addsMessageMeta()) {
+            message.meta().addTimestamp(MessageMeta.TS_DONE, LOG);
+            message.meta().setResultWhenHigher(ResultLevel.OK, null);
+            // the observers read the cache, which the lanes change
+            synchronized (metaCache) {
+                metaCache.notifyObservers();
             }
         }
     }
 
-    private boolean exceedsMaxDuration(LinkedList<FilteredMessage> messages, Duration maxDuration) {
-        if (messages.isEmpty()) return false;
-        Instant oldestTimestamp = messages.getFirst().meta().getTimestamp(MessageMeta.TS_CDC_RECEIVED);
-        Instant newestTimestamp = messages.getLast().meta().getTimestamp(MessageMeta.TS_CDC_RECEIVED);
-        return Duration.between(oldestTimestamp, newestTimestamp).compareTo(maxDuration) > 0;
+    private void storeMessage(FilteredMessage message) {
+        // eviction of the oldest messages (max nr / max time in storage) is done by the store itself.
+        messageStore.add(message);
+        LOG.info("Stored message (offset={}) for entity {}.", message.getOffset(), message.getEntityName());
     }
 
+    /**
+     * Queues the message in the lane of its entity.
+     *
+     * @param message the filtered message to decide on.
+     */
     public void addMessageToSharedQueue(FilteredMessage message) {
         try {
-                sharedQueue.put(message);
+                DecideLane lane = getLane(message.getEntityName());
+                lane.queue.put(message);
                 LOG.info(AnsiColor.brightYellow(
-                                "Message (offset={}) added to shared queue for entity '{}', queue-size={}."),
-                        message.getOffset(), message.getEntityName(), sharedQueue.size());
+                                "Message (offset={}) added to queue of lane {} for entity '{}', queue-size={}."),
+                        message.getOffset(), lane.index, message.getEntityName(), lane.queue.size());
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             LOG.error("{} got interrupted, unable to add message to shared queue.", Thread.currentThread().getName());
@@ -210,7 +302,9 @@ public class InterceptorDecide {
             }
         }
 
-        shutdownExecutor(processingExecutor);
+        for (DecideLane lane : lanes) {
+            shutdownExecutor(lane.executor);
+        }
         shutdownExecutor(scenarioExecutor);
         filterExecutors.values().forEach(this::shutdownExecutor);
         LOG.info("Shutdown complete.");
@@ -229,7 +323,14 @@ public class InterceptorDecide {
     }
 
     public List<FilteredMessage> getStoredMessages(String entityName) {
-        return Collections.unmodifiableList(globalMessageStorage.getOrDefault(entityName, new LinkedList<>()));
+        return Collections.unmodifiableList(messageStore.getMessages(entityName));
+    }
+
+    /**
+     * @return the store holding all filtered messages relevant for any of the scenarios.
+     */
+    public FilteredMessageStore getMessageStore() {
+        return messageStore;
     }
 
     public int getNumberOfStartedFilterThreads() {
@@ -237,7 +338,14 @@ public class InterceptorDecide {
     }
 
     public int getStartedProcessingThreads() {
-        return 1; // Only one processing thread in this implementation
+        return lanes.length; // One processing thread per lane
+    }
+
+    /**
+     * @return the index of the lane deciding on the messages of the entity.
+     */
+    public int getLaneIndex(String entityName) {
+        return getLane(entityName).index;
     }
 
     public int getStartedConsumerThreads() {
@@ -245,35 +353,39 @@ public class InterceptorDecide {
     }
 
     public void clearStorage() {
-        sharedQueue.clear();
-        globalMessageStorage.clear();
+        for (DecideLane lane : lanes) {
+            lane.queue.clear();
+        }
+        messageStore.clear();
     }
 
     private void printGlobalStorage(String prefix) {
-        synchronized (globalMessageStorage) {
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("{}: Global storage has {} entries", prefix, globalMessageStorage.size());
-                return;
-            }
-            if (!LOG.isTraceEnabled()) {
-                return;
-            }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{}: Global storage has {} entries", prefix, messageStore.getEntityNames().size());
+            return;
+        }
+        if (!LOG.isTraceEnabled()) {
+            return;
+        }
 
-            for (Map.Entry<String, LinkedList<FilteredMessage>> entry : globalMessageStorage.entrySet()) {
-                List<FilteredMessage> messages = globalMessageStorage.get(entry.getKey());
-                LOG.trace("{}: Global storage messages for {}:", prefix, entry.getKey());
+        for (String entityName : messageStore.getEntityNames()) {
+            List<FilteredMessage> messages = messageStore.getMessages(entityName);
+            LOG.trace("{}: Global storage messages for {}:", prefix, entityName);
 
-                if (messages != null) {
-                    messages.forEach(message -> LOG.trace(message.toString()));
-                } else {
-                    LOG.trace("No messages stored for entityName {}", entry.getKey());
-                }
+            if (!messages.isEmpty()) {
+                messages.forEach(message -> LOG.trace(message.toString()));
+            } else {
+                LOG.trace("No messages stored for entityName {}", entityName);
             }
         }
     }
 
     public int getNrOfQueuedMessages() {
-        return sharedQueue.size();
+        int queued = 0;
+        for (DecideLane lane : lanes) {
+            queued += lane.queue.size();
+        }
+        return queued;
     }
 
     /**
@@ -296,10 +408,10 @@ public class InterceptorDecide {
             }
         }
         sb.append("Filtered Message stores:").append(LF);
-        for (Map.Entry<String, LinkedList<FilteredMessage>> entry : globalMessageStorage.entrySet()) {
-            sb.append("  Store for ").append(entry.getKey()).append(", size = ").append(entry.getValue().size()).append(LF);
+        sb.append(messageStore);
+        for (DecideLane lane : lanes) {
+            sb.append("DecideLane-").append(lane.index).append("      size = ").append(lane.queue.size()).append(LF);
         }
-        sb.append("SharedQueue       size = ").append(sharedQueue.size()).append(LF);
         sb.append("MessageMeta cache size = ").append(metaCache.size()).append(LF);
         return sb.toString();
     }
@@ -37,6 +37,12 @@ public class ResponseDispatcher<V extends GenericRecord> implements Runnable {
         LOG.debug("Registered handler for key: {}", key);
     }
 
+    public void unregisterHandler(String key) {
+        if (handlers.remove(key) != null) {
+            LOG.debug("Unregistered handler for key: {}", key);
+        }
+    }
+
     public void start() {
         consumer.getStatus().setProgressWhen(CONNECTING, INITIALIZED);
         new Thread(this).start();
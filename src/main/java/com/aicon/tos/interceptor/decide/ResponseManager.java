@@ -4,6 +4,7 @@ package com.aicon.tos.interceptor.decide;
 import com.aicon.tos.shared.kafka.KafkaConsumerBase;
 import org.apache.avro.generic.GenericRecord;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class ResponseManager<V extends GenericRecord> {
     private final ResponseDispatcher<V> dispatcher;
@@ -29,4 +30,28 @@ public class ResponseManager<V extends GenericRecord> {
         dispatcher.registerHandler(key, handler);
         return handler.getFuture();
     }
+
+
+    /**
+     * Registers a handler for the key, which times out without holding a thread. The handler is removed from the
+     * dispatcher when the future completes in any way, so timed-out requests do not pile up.
+     * @param key the request key to wait for
+     * @param timeout the max time to wait for the response
+     * @param unit the unit of the timeout
+     * @return the future completing with the response, or exceptionally with a TimeoutException.
+     */
+    public CompletableFuture<V> registerAndGetFuture(String key, long timeout, TimeUnit unit) {
+        return registerAndGetFuture(key)
+                .orTimeout(timeout, unit)
+                .whenComplete((response, ex) -> dispatcher.unregisterHandler(key));
+    }
+
+
+    /**
+     * Stops waiting for the response of the key, e.g. when sending the request failed.
+     * @param key the request key
+     */
+    public void unregister(String key) {
+        dispatcher.unregisterHandler(key);
+    }
 }
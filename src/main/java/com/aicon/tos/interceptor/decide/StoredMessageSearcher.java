@@ -1,11 +1,10 @@
 package com.aicon.tos.interceptor.decide;
 
 import com.aicon.tos.interceptor.FilteredMessage;
+import com.aicon.tos.interceptor.InterceptorValueObject;
 
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Objects;
 import java.util.function.Predicate;
 
 /**
@@ -13,30 +12,30 @@ import java.util.function.Predicate;
  */
 public class StoredMessageSearcher {
 
-    private final ConcurrentMap<String, LinkedList<FilteredMessage>> globalMessageStorage;
+    private final FilteredMessageStore messageStore;
 
     /**
-     * Constructor accepting the global message storage.
+     * Constructor accepting the message store.
      *
-     * @param globalMessageStorage A map where the key is the topic name,
-     *                       and the value is the list of messages for that topic.
+     * @param messageStore the store holding the messages grouped per topic (entity).
      */
-    public StoredMessageSearcher(ConcurrentMap<String, LinkedList<FilteredMessage>> globalMessageStorage) {
-        this.globalMessageStorage = globalMessageStorage;
+    public StoredMessageSearcher(FilteredMessageStore messageStore) {
+        this.messageStore = messageStore;
     }
 
     /**
      * Retrieves all messages for a specific topic.
      *
      * @param topic The topic name.
-     * @return An immutable list of messages for the topic, or an empty list if none found.
+     * @return A list of messages for the topic, or an empty list if none found.
      */
     public List<FilteredMessage> findMessagesByTopic(String topic) {
-        return getMessagesOrEmpty(topic);
+        return messageStore.getMessages(topic);
     }
 
     /**
      * Retrieves all messages that match a specified field name and value within a topic.
+     * Uses the index of the store when the field is indexed.
      *
      * @param topic The topic name.
      * @param fieldName   The name of the field to match.
@@ -44,14 +43,30 @@ public class StoredMessageSearcher {
      * @return A list of matching messages.
      */
     public List<FilteredMessage> findMessagesByField(String topic, String fieldName, Object fieldValue) {
-        return getMessagesOrEmpty(topic).stream()
-                .filter(message -> message.getFields().stream()
-                        .anyMatch(field -> field.field().id().equals(fieldName) &&
-                                (fieldValue == null || field.afterValue().equals(fieldValue)))
-                )
+        if (fieldValue == null) {
+            return messageStore.findAll(topic, message -> message.getFieldValue(fieldName) != null);
+        }
+        return messageStore.findByField(topic, fieldName, fieldValue).stream()
+                .filter(message -> {
+                    InterceptorValueObject<?> field = message.getFieldValue(fieldName);
+                    return field != null && Objects.equals(fieldValue, field.afterValue());
+                })
                 .toList();
     }
 
+    /**
+     * Retrieves all messages where the value of the field has the same string representation as the given value, so
+     * a Long 12345 matches "12345" as well. Uses the index of the store when the field is indexed.
+     *
+     * @param topic The topic name.
+     * @param fieldName The name of the field to match.
+     * @param fieldValue The value to match, null never matches.
+     * @return A list of matching messages (oldest first).
+     */
+    public List<FilteredMessage> findMessagesByFieldValue(String topic, String fieldName, Object fieldValue) {
+        return messageStore.findByField(topic, fieldName, fieldValue);
+    }
+
     /**
      * Finds messages in a topic that satisfy a custom condition.
      *
@@ -60,9 +75,7 @@ public class StoredMessageSearcher {
      * @return A list of messages that match the predicate.
      */
     public List<FilteredMessage> findMessagesByCondition(String topic, Predicate<FilteredMessage> predicate) {
-        return getMessagesOrEmpty(topic).stream()
-                .filter(predicate)
-                .toList();
+        return messageStore.findAll(topic, predicate);
     }
 
     /**
@@ -72,20 +85,6 @@ public class StoredMessageSearcher {
      * @return A list of messages that match the specified condition across all topics.
      */
     public List<FilteredMessage> searchMessagesAcrossTopics(Predicate<FilteredMessage> predicate) {
-        return globalMessageStorage.values().stream()
-                .flatMap(List::stream)
-                .filter(predicate)
-                .toList();
-    }
-
-    /**
-     * Utility method to retrieve messages for a topic or return an empty list if none exist.
-     *
-     * @param topic The topic name.
-     * @return A list of messages for the topic, or an empty list if the topic does not exist.
-     */
-    private List<FilteredMessage> getMessagesOrEmpty(String topic) {
-        LinkedList<FilteredMessage> messages = globalMessageStorage.get(topic);
-        return (messages != null) ? new LinkedList<>(messages) : Collections.emptyList();
+        return messageStore.findAcrossEntities(predicate);
     }
-}
\ No newline at end of file
+}
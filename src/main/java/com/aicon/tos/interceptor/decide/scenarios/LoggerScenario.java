@@ -4,13 +4,11 @@ import com.aicon.tos.connect.cdc.CDCAction;
 import com.aicon.tos.interceptor.CollectedMessage;
 import com.aicon.tos.interceptor.FilteredMessage;
 import com.aicon.tos.interceptor.InterceptorEntityConfig;
-import com.aicon.tos.shared.ResultEntry;
+import com.aicon.tos.interceptor.decide.FilteredMessageStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Logs all the messages as defined by {@link #isRelevantEvent(CollectedMessage)}.
@@ -43,13 +41,13 @@ public class LoggerScenario extends ScenarioBase {
 
         // here your specialized filter requirements besides the basic checks on defined filterActions and filterFields
 
-        // Note: Any message passing this call as true will be stored in the globalMessageStorage and can be referenced later on via #processMessage.
+        // Note: Any message passing this call as true will be stored in the FilteredMessageStore and can be referenced later on via #processMessage.
 
         return true;
     }
 
     @Override
-    public void processMessage(FilteredMessage newMessage, ConcurrentMap<String, LinkedList<FilteredMessage>> globalMessageStorage) {
+    public void processMessage(FilteredMessage newMessage, FilteredMessageStore messageStore) {
         if (!isRunning()) {
             LOG.warn("{} Scenario is not active (yet). Ignoring message.", scenarioName);
             return;
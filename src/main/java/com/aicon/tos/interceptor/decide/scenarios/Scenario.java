@@ -4,11 +4,13 @@ import com.aicon.tos.interceptor.CollectedMessage;
 import com.aicon.tos.interceptor.FilteredMessage;
 import com.aicon.tos.interceptor.InterceptorEntityConfig;
 import com.aicon.tos.interceptor.InterceptorValueObject;
+import com.aicon.tos.interceptor.decide.FilteredMessageStore;
 import com.avlino.common.ValueObject;
 import org.slf4j.Logger;
 
-import java.util.LinkedList;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for defining processing or correlation scenarios.
@@ -44,10 +46,37 @@ public interface Scenario {
      */
     String getEntityName();
 
+    /**
+     * Will be called once after {@link #init(String, InterceptorEntityConfig)} to register any additional index this
+     * scenario needs on the message store, see {@link FilteredMessageStore#registerIndex}.
+     * @param messageStore the shared storage passed later on to {@link #processMessage(FilteredMessage, FilteredMessageStore)}.
+     */
+    default void defineIndexes(FilteredMessageStore messageStore) {
+    }
+
+    /**
+     * Returns the other entities of which this scenario searches the stored messages while processing. The messages
+     * of these entities are decided on in the same lane as the ones of its own entity, so they are stored in order of
+     * arrival. Defaults to none.
+     * @return the names of the correlated entities.
+     */
+    default Collection<String> getCorrelatedEntities() {
+        return List.of();
+    }
+
+    /**
+     * Gets called for every stored message of the entity of this scenario, also the ones not relevant, before
+     * {@link #isRelevantEvent(CollectedMessage)}. Can be used to prepare for later processing, e.g. pre-warm a cache,
+     * so it should return fast and not wait on other systems.
+     * @param message the message just stored
+     */
+    default void observeMessage(FilteredMessage message) {
+    }
+
     /**
      * Gets called to check if this event is relevant for the scenario. Basically it verifies if it meets the
      * fieldChanges and fieldActions list, but can be super seeded with more specific validations if needed.
-     * When true this message will be stored for later reference and decide will call this method {@link #processMessage(FilteredMessage, ConcurrentMap)}.
+     * When true this message will be stored for later reference and decide will call this method {@link #processMessage(FilteredMessage, FilteredMessageStore)}.
      * @param event the event to validate
      * @return true when event is relevant to process (and stored).
      */
@@ -56,13 +85,28 @@ public interface Scenario {
     /**
      * Processes a new incoming filtered message in its own thread (arranged by the caller),
      * with access to all stored messages.
-     * Note: be careful to synchronize on <code>globalMessageStore</code> when processing is taken longer then a few ms
-     * because it will block further reading of the pipelines.
+     * Note: the store is thread-safe, prefer its indexed lookups ({@link FilteredMessageStore#findByField}) over
+     * scanning all messages of an entity.
+     *
+     * @param newMessage   The new filtered message to process.
+     * @param messageStore The shared storage containing all messages grouped by entity.
+     */
+    void processMessage(FilteredMessage newMessage, FilteredMessageStore messageStore);
+
+    /**
+     * Processes a new incoming filtered message like {@link #processMessage(FilteredMessage, FilteredMessageStore)},
+     * but returns as soon as the processing waits on other systems (e.g. a response on a kafka topic), so the
+     * calling thread is not held. The caller finishes the message meta when the returned future completes.
+     * Defaults to calling {@link #processMessage(FilteredMessage, FilteredMessageStore)} synchronously.
      *
-     * @param newMessage           The new filtered message to process.
-     * @param globalMessageStorage The shared storage containing all messages grouped by entity.
+     * @param newMessage   The new filtered message to process.
+     * @param messageStore The shared storage containing all messages grouped by entity.
+     * @return a future completing when processing has ended.
      */
-    void processMessage(FilteredMessage newMessage, ConcurrentMap<String, LinkedList<FilteredMessage>> globalMessageStorage);
+    default CompletableFuture<Void> processMessageAsync(FilteredMessage newMessage, FilteredMessageStore messageStore) {
+        processMessage(newMessage, messageStore);
+        return CompletableFuture.completedFuture(null);
+    }
 
     /**
      * Stops the scenario processing, e.g., to clean up resources.
@@ -1,9 +1,13 @@
 package com.aicon.tos.interceptor.decide.scenarios.n4;
 
 import com.aicon.model.MoveInfo;
+import com.aicon.model.MoveInfoCache;
+import com.aicon.tos.connect.cdc.CDCAction;
+import com.aicon.tos.interceptor.FilteredMessage;
 import com.aicon.tos.interceptor.InterceptorEntityConfig;
 import com.aicon.tos.interceptor.MessageMeta;
 import com.aicon.tos.interceptor.decide.AiconDeckingEngineResponse;
+import com.aicon.tos.interceptor.decide.InFlightLimiter;
 import com.aicon.tos.interceptor.decide.ResponseManager;
 import com.aicon.tos.interceptor.decide.scenarios.ScenarioBase;
 import com.aicon.tos.interceptor.decide.scenarios.n4.events.WorkInstructionEvent;
@@ -12,6 +16,7 @@ import com.aicon.tos.interceptor.newgenproducerconsumer.AiconDeckingRequestProdu
 import com.aicon.tos.interceptor.newgenproducerconsumer.AiconDeckingResponseConsumer;
 import com.aicon.tos.interceptor.newgenproducerconsumer.messages.AiconDeckingRequest;
 import com.aicon.tos.interceptor.newgenproducerconsumer.messages.AiconMessage;
+import com.aicon.tos.model.PositionCodec;
 import com.aicon.tos.model.PositionConverter;
 import com.aicon.tos.shared.ResultLevel;
 import com.aicon.tos.shared.kafka.AiconYardDeckingUpdateRequestMessageHelper;
@@ -21,25 +26,38 @@ import com.aicon.tos.shared.schema.AiconYardDeckingUpdateRequestMessage;
 import com.aicon.tos.shared.schema.Condition;
 import com.aicon.tos.shared.schema.DeckMove;
 import com.aicon.tos.shared.util.AnsiColor;
+import com.aicon.tos.shared.util.NamedThreadFactory;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.common.KafkaException;
 
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static com.aicon.tos.interceptor.newgenproducerconsumer.SchemaLoader.getKeySchemaFromRegistry;
 
 /**
  * Base class for any scenario with some common functionality.
+ * <p>
+ * The calls to the decking-engine and TOS are non-blocking: the request is sent and the response is handled when it
+ * arrives (or times out) on the {@link #responseExecutor}, so no scenario thread waits on a response when the scenario
+ * implements {@link #processMessageAsync} by returning the future of {@link #sendDeckingMessageToAiconAndTOS}. The nr of
+ * requests in flight is limited per scenario by {@link InterceptorEntityConfig#getMaxInFlightRequests()}, requests
+ * above the limit are queued. Sending a request reads Mongo and produces to Kafka, which can block, so queued requests
+ * and the request to the TOS are sent on the {@link #requestExecutor}, keeping the response threads free.
  */
 abstract public class DeckingScenarioBase extends ScenarioBase {
     public static final int AICON_RESPONSE_TIMEOUT_S        = 20;
     public static final int TOS_RESPONSE_TIMEOUT_S          = 20;
+    public static final int RESPONSE_THREADS                = 2;
+    public static final int REQUEST_THREADS                 = 4;
     // this can be SHADOW mode or some malfunction in the decking_engine; anyway, this should not progress to the TOS
     public static final boolean STOP_WHEN_SAME_POS          = true;
 
@@ -53,11 +71,53 @@ abstract public class DeckingScenarioBase extends ScenarioBase {
     protected AiconYardDeckingUpdateRequestProducer tosDeckingRequestProducer = null;
     protected ResponseManager<GenericRecord> tosDeckingResponseManager = null;
 
-    public void init(String name, InterceptorEntityConfig entityName) {
-        super.init(name, entityName);
+    // handles the responses, so the kafka polling threads of the response managers are not used for that.
+    protected ExecutorService responseExecutor = null;
+    // sends the queued requests and the TOS requests, these may block on Mongo or Kafka.
+    protected ExecutorService requestExecutor = null;
+    protected InFlightLimiter requestLimiter = null;
+
+    public void init(String name, InterceptorEntityConfig entityConfig) {
+        super.init(name, entityConfig);
+        responseExecutor = Executors.newFixedThreadPool(RESPONSE_THREADS, new NamedThreadFactory(name + "-Response"));
+        requestExecutor = Executors.newFixedThreadPool(REQUEST_THREADS, new NamedThreadFactory(name + "-Request"));
+        requestLimiter = new InFlightLimiter(entityConfig.getMaxInFlightRequests(), requestExecutor);
         initConnectors();
     }
 
+    /**
+     * Pre-warms the {@link MoveInfoCache} for the WI's returning true on {@link #isPrewarmEvent(FilteredMessage)},
+     * so the move info is available once the WI needs decking.
+     */
+    @Override
+    public void observeMessage(FilteredMessage message) {
+        if (isPrewarmEvent(message)) {
+            Long wiGkey = message.getFieldValueAsLong(WorkInstructionEvent.FLD_GKEY, null);
+            if (wiGkey != null) {
+                MoveInfoCache.getInstance().prewarm(List.of(wiGkey));
+            }
+        }
+    }
+
+    /**
+     * @return true when the move info of the WI in this message should be read in advance, defaults to newly created WI's.
+     */
+    protected boolean isPrewarmEvent(FilteredMessage message) {
+        return WorkInstructionEvent.ENTITY_NAME.equalsIgnoreCase(message.getEntityName())
+                && CDCAction.CREATED == message.getCDCAction();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (responseExecutor != null) {
+            responseExecutor.shutdown();
+        }
+        if (requestExecutor != null) {
+            requestExecutor.shutdown();
+        }
+    }
+
     /**
      * Initializes the consumers when not initialized yet.
      * @return true when all consumers are ready, else recall later to try again.
@@ -108,30 +168,34 @@ abstract public class DeckingScenarioBase extends ScenarioBase {
      * @param wiList the list of WorkInstructions
      * @param requestedBlockOnly when true, decking-engine will only deck in current block
      * @param tosConditions provides a list of conditions the TOS should use to validate the request
+     * @return a future completing when the TOS has responded or processing has ended earlier (see result in msgMeta).
      */
-    protected void sendDeckingMessageToAiconAndTOS(
+    protected CompletableFuture<Void> sendDeckingMessageToAiconAndTOS(
             MessageMeta msgMeta,
             List<WorkInstructionEvent> wiList,
             boolean requestedBlockOnly,
             List<Condition> tosConditions
     ) {
         if (!initConnectors()) {     // check if all consumers are ready, else no use to process this message (gets lost).
-            return;
+            return CompletableFuture.completedFuture(null);
         }
-        AiconDeckingEngineResponse aiconDeckingResponse = callAiconDeckingEngine(msgMeta, wiList, requestedBlockOnly);
-
-        if (aiconDeckingResponse != null) {
-            callTosDeckingUpdate(msgMeta, aiconDeckingResponse, tosConditions);
+        if (requestLimiter.getInFlight() >= requestLimiter.getMaxInFlight()) {
+            getLogger().warn("Max nr of decking requests in flight reached, request queued ({})", requestLimiter);
         }
+        return requestLimiter.submit(() -> callAiconDeckingEngine(msgMeta, wiList, requestedBlockOnly)
+                .thenComposeAsync(aiconDeckingResponse -> aiconDeckingResponse != null
+                        ? callTosDeckingUpdate(msgMeta, aiconDeckingResponse, tosConditions)
+                        : CompletableFuture.completedFuture(null), requestExecutor));
     }
 
     /**
      * Sends a aicon decking request to the request topic of
      * @param msgMeta the metadata of the CDC message
      * @param wiList the WI list to send for
-     * @return a response from the decking engine or null when something has failed (expect enough logging to be done already).
+     * @return a future with the response from the decking engine or null when something has failed (expect enough
+     * logging to be done already).
      */
-    protected AiconDeckingEngineResponse callAiconDeckingEngine(
+    protected CompletableFuture<AiconDeckingEngineResponse> callAiconDeckingEngine(
             MessageMeta msgMeta,
             List<WorkInstructionEvent> wiList,
             boolean requestedBlockOnly
@@ -139,24 +203,20 @@ abstract public class DeckingScenarioBase extends ScenarioBase {
         String uniqueKey = createUniqueId();
         String requestTopic = aiconDeckingRequestProducer.getTopicName();
         String responseTopic = aiconDeckingResponseManager.getTopicName();
-        CompletableFuture<GenericRecord> aiconDeckingFuture = aiconDeckingResponseManager.registerAndGetFuture(uniqueKey)
-                .orTimeout(aiconResponseTimeoutS, TimeUnit.SECONDS)
-                .exceptionally(ex -> {
-                    msgMeta.setResultWhenHigher(getLogger(), ResultLevel.ERROR,
-                            "Timeout({}s)/error when sending to {} for key {}, reason: {}",
-                            aiconResponseTimeoutS, requestTopic, uniqueKey, ex);
-                    return null;
-                });
 
         Schema keySchema = getKeySchemaFromRegistry(requestTopic);
 
         List<Map<String, Object>> requests = new ArrayList<>();
         Map<Long, Map<String, String>> posMap = new HashMap<>();
+        PositionCodec positionCodec = PositionConverter.getCodec();     // same conversions for all WIs of the request
+
+        // read the move info of all WI's at once (cached or 1 query)
+        Map<Long, Map<String, Object>> ctrInfos = MoveInfo.readMoveInfos(wiList.stream().map(WorkInstructionEvent::getGkey).toList(), msgMeta);
 
         int idx = 0;
         for (WorkInstructionEvent wiEvent : wiList) {
-            posMap.put(wiEvent.getGkey(), PositionConverter.convertPosPartsToAicon(PositionConverter.splitPosition(wiEvent.getPosSlot())));
-            Map<String, Object> wiCtrInfo = MoveInfo.readMoveInfo(wiEvent.getGkey(), msgMeta);
+            posMap.put(wiEvent.getGkey(), positionCodec.splitToAicon(wiEvent.getPosSlot()));
+            Map<String, Object> wiCtrInfo = ctrInfos.get(wiEvent.getGkey());
             Map<String, Object> reqElm = AiconDeckingRequest.createRequestElement(
                     wiEvent.getGkey(),
                     wiEvent.getMoveKind().getJobType(),
@@ -176,7 +236,7 @@ abstract public class DeckingScenarioBase extends ScenarioBase {
             getLogger().debug("New request for decking engine {}", AiconMessage.prettyPrintGenericRecord(aiconDeckingRequest));
         }
 
-        // Send decking request to Aicon Decking Engine and wait for the response
+        // Send decking request to Aicon Decking Engine, the response is handled when it arrives
 
         GenericRecord keyRecord = new GenericData.Record(keySchema);
         keyRecord.put("request_index", uniqueKey);
@@ -187,6 +247,10 @@ abstract public class DeckingScenarioBase extends ScenarioBase {
                 aiconDeckingRequest
         );
 
+        // register only now the request is complete (building it can fail) but before sending, the response could
+        // arrive before send returns
+        CompletableFuture<GenericRecord> aiconDeckingFuture =
+                aiconDeckingResponseManager.registerAndGetFuture(uniqueKey, aiconResponseTimeoutS, TimeUnit.SECONDS);
         try {
             // SEND TO TOPIC
             msgMeta.addTimestampWithPrefix(MessageMeta.TS_SEND_PREFIX, requestTopic, getLogger());
@@ -208,13 +272,28 @@ abstract public class DeckingScenarioBase extends ScenarioBase {
         }
 
         if (msgMeta.getResult() != null && msgMeta.getResult().getLevel() == ResultLevel.ERROR) {
-            return null;
+            aiconDeckingResponseManager.unregister(uniqueKey);
+            return CompletableFuture.completedFuture(null);
         }
 
-        try {
-            // WAIT FOR RESPONSE
-            GenericRecord matchedResponse = aiconDeckingFuture.get();
+        // HANDLE RESPONSE when it arrives, without waiting for it
+        return aiconDeckingFuture.handleAsync((matchedResponse, ex) -> {
+            if (ex != null) {
+                logResponseFailure(msgMeta, ex, aiconResponseTimeoutS, responseTopic, uniqueKey);
+                return null;
+            }
+            return handleAiconDeckingResponse(msgMeta, uniqueKey, responseTopic, matchedResponse, posMap);
+        }, responseExecutor);
+    }
 
+    private AiconDeckingEngineResponse handleAiconDeckingResponse(
+            MessageMeta msgMeta,
+            String uniqueKey,
+            String responseTopic,
+            GenericRecord matchedResponse,
+            Map<Long, Map<String, String>> posMap
+    ) {
+        try {
             AiconDeckingEngineResponse aiconResponse = null;
             if (matchedResponse != null) {
                 aiconResponse = AiconDeckingEngineResponse.fromGenericRecord(matchedResponse);
@@ -249,30 +328,38 @@ abstract public class DeckingScenarioBase extends ScenarioBase {
                         aiconResponseTimeoutS, responseTopic, uniqueKey);
             }
             return aiconResponse;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            msgMeta.setResultWhenHigher(getLogger(), ResultLevel.ERROR,
-                    "Interrupted while waiting for {} with key {}: {}",
-                    responseTopic, uniqueKey, e.getMessage());
-            return null;
-        } catch (KafkaException e) {
-            msgMeta.setResultWhenHigher(getLogger(), ResultLevel.ERROR, e.getMessage());
-            return null;
         } catch (Exception e) {
             msgMeta.setResultWhenHigher(getLogger(), ResultLevel.ERROR,
-                    "Unexpected error while waiting for {} with key {}, reason: {}",
+                    "Unexpected error while handling {} with key {}, reason: {}",
                     responseTopic, uniqueKey, e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Sets the result for a response future which completed exceptionally, being a timeout or another error.
+     */
+    private void logResponseFailure(MessageMeta msgMeta, Throwable ex, int timeoutS, String responseTopic, String uniqueKey) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof TimeoutException) {
+            msgMeta.setResultWhenHigher(getLogger(), ResultLevel.ERROR,
+                    "Timeout({}s) when waiting on {} for matching response with key: {}.",
+                    timeoutS, responseTopic, uniqueKey);
+        } else {
+            msgMeta.setResultWhenHigher(getLogger(), ResultLevel.ERROR,
+                    "Error when waiting on {} for matching response with key {}, reason: {}",
+                    responseTopic, uniqueKey, cause.getMessage());
+        }
+    }
+
     /**
      * Calls the TOS via sending a request to the TOS decking request topic and waiting for its response in the TOS
      * response topic.
      * @param msgMeta the metadata of the CDC message
      * @param aiconDeckingResponse the response form the aicon decking engine when valid to be passed to TOS.
+     * @return a future completing when the TOS has responded or failed, never completes exceptionally.
      */
-    protected void callTosDeckingUpdate(
+    protected CompletableFuture<Void> callTosDeckingUpdate(
             MessageMeta msgMeta,
             AiconDeckingEngineResponse aiconDeckingResponse,
             List<Condition> tosConditions
@@ -285,20 +372,16 @@ abstract public class DeckingScenarioBase extends ScenarioBase {
 
         // Convert response tosRequest(s) to move(s)
         List<DeckMove> deckMoves = new ArrayList<>();
+        PositionCodec positionCodec = PositionConverter.getCodec();
         int idx = 0;
         for (AiconDeckingEngineResponse.Request responseReq : aiconDeckingResponse.getRequests()) {
             DeckMove move = new DeckMove();
             move.setPositionTo(
-                    PositionConverter.mergePosition(
-                            PositionConverter.convertPosPartsToTos(
-                                    PositionConverter.collectParts(
-                                            responseReq.getBlockIndexNumber(),
-                                            responseReq.getBayIndexNumber(),
-                                            responseReq.getRowIndexNumber(),
-                                            responseReq.getTierIndexNumber()
-                                    )
-                            )
-                            , false, false
+                    positionCodec.toTosPosition(
+                            responseReq.getBlockIndexNumber(),
+                            responseReq.getBayIndexNumber(),
+                            responseReq.getRowIndexNumber(),
+                            responseReq.getTierIndexNumber()
                     )
             );
             // need to read the gkey from the response, no guarantee they arrive in the same order as the tosRequest
@@ -312,18 +395,18 @@ abstract public class DeckingScenarioBase extends ScenarioBase {
             msgMeta.setResultWhenHigher(getLogger(), ResultLevel.ERROR,
                     "No deckMove entries created for the request to {}, scenario ends!",
                     tosDeckingRequestProducer.getTopicName());
-            return;
+            return CompletableFuture.completedFuture(null);
         } else {
             tosRequest.setMoves(deckMoves);
             tosRequest.setValidations(tosConditions);
         }
 
-        // Send the actual request to TOS and wait for the response
-        sendRecvTosDeckingUpdate(msgMeta, tosRequest);
+        // Send the actual request to TOS and handle the response when it arrives
+        return sendRecvTosDeckingUpdate(msgMeta, tosRequest).thenApply(response -> null);
     }
 
 
-    private GenericRecord sendRecvTosDeckingUpdate(
+    private CompletableFuture<GenericRecord> sendRecvTosDeckingUpdate(
             MessageMeta msgMeta,
             AiconYardDeckingUpdateRequestMessage request
     ) {
@@ -332,23 +415,42 @@ abstract public class DeckingScenarioBase extends ScenarioBase {
 
         String uniqueKey = request.getRequestId().toString();
 
-        CompletableFuture<GenericRecord> tosDeckingFuture = tosDeckingResponseManager.registerAndGetFuture(uniqueKey)
-                .orTimeout(tosResponseTimeoutS, TimeUnit.SECONDS)
-                .exceptionally(ex -> {
-                    msgMeta.setResultWhenHigher(getLogger(), ResultLevel.ERROR,
-                            "Timeout({}s)/error for {} with {}, reason: {}",
-                            tosResponseTimeoutS, responseTopic, uniqueKey, ex);
-                    return null;
-                });
+        CompletableFuture<GenericRecord> tosDeckingFuture =
+                tosDeckingResponseManager.registerAndGetFuture(uniqueKey, tosResponseTimeoutS, TimeUnit.SECONDS);
 
+        // register only now the request is complete (building it can fail) but before sending, the response could
+        // arrive before send returns
+        CompletableFuture<GenericRecord> aiconDeckingFuture =
+                aiconDeckingResponseManager.registerAndGetFuture(uniqueKey, aiconResponseTimeoutS, TimeUnit.SECONDS);
         try {
             // SEND TO TOPIC
             msgMeta.addTimestampWithPrefix(MessageMeta.TS_SEND_PREFIX, requestTopic, getLogger());
             tosDeckingRequestProducer.sendTosDeckingUpdateMessage(request);
+        } catch (Exception e) {
+            tosDeckingResponseManager.unregister(uniqueKey);
+            msgMeta.setResultWhenHigher(getLogger(), ResultLevel.ERROR,
+                    "Failed to send {} for key {}, reason: {}",
+                    requestTopic, uniqueKey, e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
 
-            // WAIT FOR RESPONSE
-            GenericRecord matchedResponse = tosDeckingFuture.get();
+        // HANDLE RESPONSE when it arrives, without waiting for it
+        return tosDeckingFuture.handleAsync((matchedResponse, ex) -> {
+            if (ex != null) {
+                logResponseFailure(msgMeta, ex, tosResponseTimeoutS, responseTopic, uniqueKey);
+                return null;
+            }
+            return handleTosDeckingResponse(msgMeta, uniqueKey, responseTopic, matchedResponse);
+        }, responseExecutor);
+    }
 
+    private GenericRecord handleTosDeckingResponse(
+            MessageMeta msgMeta,
+            String uniqueKey,
+            String responseTopic,
+            GenericRecord matchedResponse
+    ) {
+        try {
             if (matchedResponse != null) {
                 TosDeckingUpdateResponse tosResponse = TosDeckingUpdateResponse.fromGenericRecord(matchedResponse);
                 msgMeta.setResultWhenHigher(getLogger(), tosResponse.getWorseResult());
@@ -360,18 +462,9 @@ abstract public class DeckingScenarioBase extends ScenarioBase {
                         tosResponseTimeoutS, responseTopic, uniqueKey);
             }
             return matchedResponse;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            msgMeta.setResultWhenHigher(getLogger(), ResultLevel.ERROR,
-                    "Interrupted while waiting for response from {} with key {}, reason: {}",
-                    responseTopic, uniqueKey, e.getMessage());
-            return null;
-        } catch (KafkaException e) {
-            msgMeta.setResultWhenHigher(getLogger(), ResultLevel.ERROR, e.getMessage());
-            return null;
         } catch (Exception e) {
             msgMeta.setResultWhenHigher(getLogger(), ResultLevel.ERROR,
-                    "Unexpected error while waiting for response from {} with key {}, reason: {}",
+                    "Unexpected error while handling response from {} with key {}, reason: {}",
                     responseTopic, uniqueKey, e.getMessage());
             return null;
         }
@@ -394,6 +487,9 @@ abstract public class DeckingScenarioBase extends ScenarioBase {
         if (tosDeckingResponseManager != null) {
             text += String.format("\n    TosDecking-Consumer  : %s, Producer: %s", tosDeckingResponseManager.getConsumer().getStatus(), tosDeckingRequestProducer.getStatus());
         }
+        if (requestLimiter != null) {
+            text += String.format("\n    Decking requests     : %s", requestLimiter);
+        }
         return text;
     }
 }
@@ -17,6 +17,7 @@ import com.aicon.tos.shared.util.AnsiColor;
 import org.apache.avro.generic.GenericRecord;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -35,6 +36,14 @@ public abstract class GateReceiveScenario extends DeckingScenarioBase {
         initConnectors();
     }
 
+    /**
+     * The WI's and truck transactions are matched with each other in the message store.
+     */
+    @Override
+    public Collection<String> getCorrelatedEntities() {
+        return List.of(ENTITY_RTT, ENTITY_WI);
+    }
+
     /**
      * Initializes the consumers when not initialized yet.
      * @return true when all consumers are ready, else recall later to try again.
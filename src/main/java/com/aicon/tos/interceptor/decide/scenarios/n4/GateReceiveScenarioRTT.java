@@ -2,6 +2,7 @@ package com.aicon.tos.interceptor.decide.scenarios.n4;
 
 import com.aicon.tos.connect.cdc.CDCAction;
 import com.aicon.tos.interceptor.FilteredMessage;
+import com.aicon.tos.interceptor.decide.FilteredMessageStore;
 import com.aicon.tos.interceptor.decide.StoredMessageSearcher;
 import com.aicon.tos.interceptor.decide.scenarios.n4.events.N4EventBase;
 import com.aicon.tos.interceptor.decide.scenarios.n4.events.RoadTruckTransactionEvent;
@@ -9,10 +10,7 @@ import com.aicon.tos.interceptor.decide.scenarios.n4.events.WorkInstructionEvent
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ConcurrentMap;
-import java.util.function.Predicate;
 
 /**
  * Gate Receive scenario for Road Truck Transaction
@@ -28,7 +26,7 @@ public class GateReceiveScenarioRTT extends GateReceiveScenario {
     }
 
     @Override
-    public void processMessage(FilteredMessage newMessage, ConcurrentMap<String, LinkedList<FilteredMessage>> globalMessageStorage) {
+    public void processMessage(FilteredMessage newMessage, FilteredMessageStore messageStore) {
         if (!isRunning()) {
             LOG.warn("{} Scenario is not active (yet). Ignoring message.", scenarioName);
             return;
@@ -37,16 +35,14 @@ public class GateReceiveScenarioRTT extends GateReceiveScenario {
         RoadTruckTransactionEvent tranEvent = N4EventBase.createInstance(newMessage);
 
         LOG.info("Processing new message from entity {}: {}", tranEvent.getEntityName(), tranEvent);
-        handleRoadTruckTransactions(tranEvent, globalMessageStorage);
+        handleRoadTruckTransactions(tranEvent, messageStore);
     }
 
-    private void handleRoadTruckTransactions(RoadTruckTransactionEvent tranEvent, ConcurrentMap<String, LinkedList<FilteredMessage>> globalMessageStorage) {
+    private void handleRoadTruckTransactions(RoadTruckTransactionEvent tranEvent, FilteredMessageStore messageStore) {
 
-        StoredMessageSearcher searcher = new StoredMessageSearcher(globalMessageStorage);
+        StoredMessageSearcher searcher = new StoredMessageSearcher(messageStore);
 
-        Predicate<FilteredMessage> gkeyPredicate = message -> message.getFields().stream()
-                .anyMatch(field -> isMatchingField(field, WorkInstructionEvent.FLD_TRAN_GKEY, tranEvent.getGkey()));
-        List<FilteredMessage> results = searcher.findMessagesByCondition(ENTITY_WI, gkeyPredicate);
+        List<FilteredMessage> results = searcher.findMessagesByFieldValue(ENTITY_WI, WorkInstructionEvent.FLD_TRAN_GKEY, tranEvent.getGkey());
 
         if (!results.isEmpty()) {
             LOG.info("Found {} matching {} with reference key: {}.", results.size(), ENTITY_WI, tranEvent.getGkey());
@@ -2,6 +2,7 @@ package com.aicon.tos.interceptor.decide.scenarios.n4;
 
 import com.aicon.tos.interceptor.CollectedMessage;
 import com.aicon.tos.interceptor.FilteredMessage;
+import com.aicon.tos.interceptor.decide.FilteredMessageStore;
 import com.aicon.tos.interceptor.decide.StoredMessageSearcher;
 import com.aicon.tos.interceptor.decide.scenarios.n4.events.N4EventBase;
 import com.aicon.tos.interceptor.decide.scenarios.n4.events.RoadTruckTransactionEvent;
@@ -10,10 +11,7 @@ import com.aicon.tos.interceptor.decide.scenarios.n4.events.WorkInstructionEvent
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ConcurrentMap;
-import java.util.function.Predicate;
 
 import static com.aicon.tos.interceptor.decide.scenarios.n4.events.WorkInstructionEvent.*;
 
@@ -53,7 +51,7 @@ public class GateReceiveScenarioWI extends GateReceiveScenario {
     }
 
     @Override
-    public void processMessage(FilteredMessage newMessage, ConcurrentMap<String, LinkedList<FilteredMessage>> globalMessageStorage) {
+    public void processMessage(FilteredMessage newMessage, FilteredMessageStore messageStore) {
 
         if (!isRunning()) {
             LOG.warn("{} Scenario is not active (yet). Ignoring message.", scenarioName);
@@ -61,25 +59,19 @@ public class GateReceiveScenarioWI extends GateReceiveScenario {
         }
 
         LOG.info("Processing new message from entity {}: {}", newMessage.getEntityName(), newMessage);
-        handleInvWi(N4EventBase.createInstance(newMessage), globalMessageStorage);
+        handleInvWi(N4EventBase.createInstance(newMessage), messageStore);
     }
 
-    private void handleInvWi(WorkInstructionEvent wiEvent, ConcurrentMap<String, LinkedList<FilteredMessage>> globalMessageStorage) {
+    private void handleInvWi(WorkInstructionEvent wiEvent, FilteredMessageStore messageStore) {
 
-        LinkedList<FilteredMessage> storedMessages = globalMessageStorage.getOrDefault(wiEvent.getEntityName(), new LinkedList<>());
-
-        LOG.info("Found {} stored messages for entity '{}'.", storedMessages.size(), wiEvent.getEntityName());
+        LOG.info("Found {} stored messages for entity '{}'.", messageStore.size(wiEvent.getEntityName()), wiEvent.getEntityName());
 
         Long tranGkey = wiEvent.getTranGkey();
         LOG.info("Handle receive logic for gkey {}. Truck Visit Ref: {}", wiEvent.getGkey(), tranGkey);
 
         if (tranGkey != null) {
-            Predicate<FilteredMessage> tranPredicate = message ->
-                    message.getFields().stream()
-                            .anyMatch(field -> isMatchingField(field, RoadTruckTransactionEvent.FLD_GKEY, tranGkey));
-
-            StoredMessageSearcher searcher = new StoredMessageSearcher(globalMessageStorage);
-            List<FilteredMessage> results = searcher.findMessagesByCondition(ENTITY_RTT, tranPredicate);
+            StoredMessageSearcher searcher = new StoredMessageSearcher(messageStore);
+            List<FilteredMessage> results = searcher.findMessagesByFieldValue(ENTITY_RTT, RoadTruckTransactionEvent.FLD_GKEY, tranGkey);
 
             if (!results.isEmpty()) {
                 sendTosDeckingUpdateMessage(wiEvent, N4EventBase.createInstance(results.get(0)));
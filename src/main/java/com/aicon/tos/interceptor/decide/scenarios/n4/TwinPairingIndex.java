@@ -0,0 +1,91 @@
+package com.aicon.tos.interceptor.decide.scenarios.n4;
+
+import com.aicon.tos.interceptor.FilteredMessage;
+import com.aicon.tos.interceptor.decide.FilteredMessageStore;
+import com.aicon.tos.interceptor.decide.scenarios.n4.events.N4EventBase;
+import com.aicon.tos.interceptor.decide.scenarios.n4.events.WorkInstructionEvent;
+import com.aicon.tos.interceptor.decide.scenarios.n4.events.WorkInstructionEvent.TwinWith;
+
+import static com.aicon.tos.interceptor.decide.scenarios.n4.events.WorkInstructionEvent.*;
+
+/**
+ * Index on inv_wi messages to find the companion WI of a twin move in O(1).
+ * <p>
+ * A WI which is part of a twin has <code>twin_with</code> NEXT or PREV, and its companion is the WI in the same work
+ * queue with the next (resp. previous) sequence having the opposite <code>twin_with</code>. The index key combines
+ * (<code>work_queue_gkey</code>, <code>sequence</code>, <code>twin_with</code>) of the after-values, WI's not being
+ * part of a twin are not indexed.
+ */
+public final class TwinPairingIndex {
+    public static final String INDEX_NAME = "twin_pairing";
+
+    private static final char SEP = ':';
+
+    private TwinPairingIndex() {
+    }
+
+    /**
+     * Registers this index for the inv_wi entity in the given store (when not registered yet).
+     * @param messageStore the store to register the index at
+     * @param entityName the entity holding the WI messages
+     */
+    public static void register(FilteredMessageStore messageStore, String entityName) {
+        messageStore.registerIndex(entityName, INDEX_NAME, TwinPairingIndex::createKey);
+    }
+
+    /**
+     * @return the index key for the message, or null when it is not part of a twin.
+     */
+    static String createKey(FilteredMessage msg) {
+        TwinWith twinWith = parseTwinWith(msg.getFieldValueAsString(FLD_TWIN_WITH));
+        if (twinWith == TwinWith.NONE) {
+            return null;
+        }
+        Long wqGkey = msg.getFieldValueAsLong(FLD_WQ_GKEY, null);
+        Long sequence = msg.getFieldValueAsLong(FLD_SEQUENCE, null);
+        if (wqGkey == null || sequence == null) {
+            return null;
+        }
+        return createKey(wqGkey, sequence, twinWith);
+    }
+
+    static String createKey(long wqGkey, long sequence, TwinWith twinWith) {
+        return new StringBuilder(32).append(wqGkey).append(SEP).append(sequence).append(SEP).append(twinWith.name()).toString();
+    }
+
+    /**
+     * Looks up the latest stored companion of the given twin WI.
+     * @param messageStore the store to search in
+     * @param wiEvent the WI to find its companion for
+     * @return the companion WI or null when the WI is not part of a twin or the companion has not been stored (yet).
+     */
+    public static WorkInstructionEvent findCompanion(FilteredMessageStore messageStore, WorkInstructionEvent wiEvent) {
+        TwinWith tw = wiEvent.getTwinWith(TwinWith.NONE);
+        if (tw == TwinWith.NONE) {
+            return null;
+        }
+        long otherSeq;
+        TwinWith otherTW;
+        if (tw == TwinWith.NEXT) {
+            otherSeq = wiEvent.getSequence() + 1;
+            otherTW = TwinWith.PREV;
+        } else {
+            otherSeq = wiEvent.getSequence() - 1;
+            otherTW = TwinWith.NEXT;
+        }
+        FilteredMessage other = messageStore.findLatestByIndex(
+                wiEvent.getEntityName(), INDEX_NAME, createKey(wiEvent.getWqGkey(), otherSeq, otherTW));
+        return other != null ? N4EventBase.createInstance(other) : null;
+    }
+
+    private static TwinWith parseTwinWith(String twValue) {
+        if (twValue == null) {
+            return TwinWith.NONE;
+        }
+        try {
+            return TwinWith.valueOf(twValue);
+        } catch (IllegalArgumentException e) {
+            return TwinWith.NONE;
+        }
+    }
+}
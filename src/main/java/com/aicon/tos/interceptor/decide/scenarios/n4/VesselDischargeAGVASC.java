@@ -4,6 +4,7 @@ import com.aicon.tos.interceptor.CollectedMessage;
 import com.aicon.tos.interceptor.FilteredMessage;
 import com.aicon.tos.interceptor.InterceptorValueObject;
 import com.aicon.tos.interceptor.MessageMeta;
+import com.aicon.tos.interceptor.decide.FilteredMessageStore;
 import com.aicon.tos.interceptor.decide.scenarios.n4.events.N4EventBase;
 import com.aicon.tos.interceptor.decide.scenarios.n4.events.WiMoveKindEnum;
 import com.aicon.tos.interceptor.decide.scenarios.n4.events.WorkInstructionEvent;
@@ -14,9 +15,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CompletableFuture;
 
 import static com.aicon.tos.interceptor.MessageMeta.TS_END_PREFIX;
 import static com.aicon.tos.interceptor.MessageMeta.TS_START_PREFIX;
@@ -42,6 +42,11 @@ public class VesselDischargeAGVASC extends DeckingScenarioBase {
         filterChanges = List.of(MF_MOVE_STAGE);
     }
 
+    @Override
+    public void defineIndexes(FilteredMessageStore messageStore) {
+        TwinPairingIndex.register(messageStore, entityName);
+    }
+
     @Override
     public boolean isRelevantEvent(CollectedMessage event) {
         if (!super.isRelevantEvent(event)) {    // basic validations on action and changed fields
@@ -82,10 +87,15 @@ public class VesselDischargeAGVASC extends DeckingScenarioBase {
     }
 
     @Override
-    public void processMessage(FilteredMessage event, ConcurrentMap<String, LinkedList<FilteredMessage>> globalMessageStorage) {
+    public void processMessage(FilteredMessage event, FilteredMessageStore messageStore) {
+        processMessageAsync(event, messageStore).join();
+    }
+
+    @Override
+    public CompletableFuture<Void> processMessageAsync(FilteredMessage event, FilteredMessageStore messageStore) {
         if (!isRunning()) {
             LOG.warn("Scenario is not active (yet). Ignoring message.");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
         event.meta().addTimestampWithPrefix(TS_START_PREFIX, scenarioName, LOG);
@@ -107,35 +117,12 @@ public class VesselDischargeAGVASC extends DeckingScenarioBase {
 
             // In Automated terminals we can trust the twin flags, because the system won't deviate from the plan
             if (tw != TwinWith.NONE) {      // so this move is part of a twin, see if we can find the other one.
-                List<FilteredMessage> list = globalMessageStorage.getOrDefault(wiEvent.getEntityName(), new LinkedList<>());
-                // walk through the list in reverse order and find the first other WI as part of this twin
-                long otherSeq;
-                TwinWith otherTW;
-                long wqGkey = wiEvent.getWqGkey();
-                if (tw == TwinWith.NEXT) {
-                    otherSeq = wiEvent.getSequence() + 1;
-                    otherTW = TwinWith.PREV;
-                } else {
-                    otherSeq = wiEvent.getSequence() - 1;
-                    otherTW = TwinWith.NEXT;
-                }
-
-                for (int i = list.size() - 1; i >= 0; i--) {
-                    FilteredMessage other = list.get(i);
-                    if (other.getFieldValueAsLong(FLD_WQ_GKEY, -1L) == wqGkey &&
-                            other.getFieldValueAsLong(FLD_SEQUENCE, -1L) == otherSeq &&
-                            wiEvent.getTwinWith(other.getFieldValueAsString(FLD_TWIN_WITH), TwinWith.NONE) == otherTW
-                    ) {
-                        // so we found the other Twin WorkInstruction
-                        otherWi = N4EventBase.createInstance(other);
-                        break;
-                    }
-                }
+                otherWi = TwinPairingIndex.findCompanion(messageStore, wiEvent);
                 if (otherWi == null) {
                     // we can skip this execution, because the other twin WI is not there yet, and this will be repeated
                     // once the other twin WI appears (and that should find this WI as its companion).
                     LOG.info("WI-companion not found yet, so skipping further processing for {} ", wiEvent);
-                    return;
+                    return CompletableFuture.completedFuture(null);
                 }
             }
         } else if (moveNumber == 2.0D) {        // now we're at the transfer-zone, re-deck in case something has changed (re-decked by Navis, occupied, etc).
@@ -145,7 +132,7 @@ public class VesselDischargeAGVASC extends DeckingScenarioBase {
             requestedBlockOnly = true;
             LOG.info("Re-decking at transfer zone for wi-gkey {}", wiEvent.getGkey());
         } else {                                // we should not get here, because it was checked in isRelevantEvent.
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
         List<WorkInstructionEvent> wiList;
@@ -157,10 +144,11 @@ public class VesselDischargeAGVASC extends DeckingScenarioBase {
             wiList = List.of(wiEvent, otherWi);
         }
         MessageMeta meta = event.meta();
-        sendDeckingMessageToAiconAndTOS(meta, wiList, requestedBlockOnly, tosConditions);
-
-        setCounters(meta.getResult());
-        meta.addTimestampWithPrefix(TS_END_PREFIX, scenarioName, LOG);
+        return sendDeckingMessageToAiconAndTOS(meta, wiList, requestedBlockOnly, tosConditions)
+                .whenComplete((result, ex) -> {
+                    setCounters(meta.getResult());
+                    meta.addTimestampWithPrefix(TS_END_PREFIX, scenarioName, LOG);
+                });
     }
 
     @Override
@@ -2,17 +2,16 @@ package com.aicon.tos.interceptor.decide.scenarios.n4;
 
 import com.aicon.tos.interceptor.CollectedMessage;
 import com.aicon.tos.interceptor.FilteredMessage;
+import com.aicon.tos.interceptor.decide.FilteredMessageStore;
 import com.aicon.tos.interceptor.decide.scenarios.n4.events.N4EventBase;
 import com.aicon.tos.interceptor.decide.scenarios.n4.events.WiMoveKindEnum;
 import com.aicon.tos.interceptor.decide.scenarios.n4.events.WorkInstructionEvent;
-import com.aicon.tos.shared.ResultLevel;
 import com.aicon.tos.shared.util.AnsiColor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CompletableFuture;
 
 import static com.aicon.tos.interceptor.MessageMeta.*;
 import static com.aicon.tos.interceptor.decide.scenarios.n4.events.WorkInstructionEvent.*;
@@ -56,38 +55,43 @@ public class VesselDischargeRTG extends DeckingScenarioBase {
     }
 
     @Override
-    public void processMessage(FilteredMessage newMessage, ConcurrentMap<String, LinkedList<FilteredMessage>> globalMessageStorage) {
+    public void processMessage(FilteredMessage newMessage, FilteredMessageStore messageStore) {
+        processMessageAsync(newMessage, messageStore).join();
+    }
+
+    @Override
+    public CompletableFuture<Void> processMessageAsync(FilteredMessage newMessage, FilteredMessageStore messageStore) {
         if (!isRunning()) {
             LOG.warn("Scenario is not active (yet). Ignoring message.");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
         LOG.info("Processing new message from entity {}: {}", newMessage.getEntityName(), newMessage);
         newMessage.meta().addTimestampWithPrefix(TS_START_PREFIX, scenarioName, LOG);
         WorkInstructionEvent wiEvent = N4EventBase.createInstance(newMessage);
 
-        LinkedList<FilteredMessage> storedMessages = globalMessageStorage.getOrDefault(wiEvent.getEntityName(), new LinkedList<>());
-
-        LOG.info("Found {} stored messages for entity '{}'.", storedMessages.size(), wiEvent.getEntityName());
+        LOG.info("Found {} stored messages for entity '{}'.", messageStore.size(wiEvent.getEntityName()), wiEvent.getEntityName());
 
         Long itvGkey = wiEvent.getItvGkey();
 
         LOG.info(AnsiColor.brightYellow("Handling vessel discharge logic for gkey {}. itvGkey: {}"),
                 wiEvent.getGkey(), itvGkey);
 
+        CompletableFuture<Void> processing = CompletableFuture.completedFuture(null);
         if (itvGkey != null) {
             WorkInstructionEvent otherWi = null;
-            List<FilteredMessage> list = globalMessageStorage.getOrDefault(wiEvent.getEntityName(), new LinkedList<>());
-            // walk through the list in reverse order and find the first other WI within given timeframe
+            long receivedMs = wiEvent.getCdCReceivedTimestamp().toEpochMilli();
+            // the itv_gkey index holds the WI's for this ITV in arrival order, walk it in reverse order
+            // and find the first other WI within given timeframe
+            List<FilteredMessage> list = messageStore.findByField(wiEvent.getEntityName(), FLD_ITV_GKEY, itvGkey);
             for (int i = list.size() - 1; i >= 0; i--) {
                 FilteredMessage other = list.get(i);
-                if (wiEvent.getMsg().compareFieldWithOther(FLD_ITV_GKEY, other)
-                        && !wiEvent.getMsg().compareFieldWithOther(WorkInstructionEvent.FLD_GKEY, other)) {
+                if (!wiEvent.getMsg().compareFieldWithOther(WorkInstructionEvent.FLD_GKEY, other)) {
                     // so we found the other WorkInstruction for the same ITV in the time window
                     otherWi = N4EventBase.createInstance(other);
                     break;
                 }
-                if (wiEvent.getCdCReceivedTimestamp().toEpochMilli() - other.meta().getTimestamp(TS_CDC_RECEIVED).toEpochMilli() > MAX_ITV_CYCLE_TIME_MS) {
+                if (receivedMs - other.meta().getTimestamp(TS_CDC_RECEIVED).toEpochMilli() > MAX_ITV_CYCLE_TIME_MS) {
                     break;
                 }
             }
@@ -102,12 +106,14 @@ public class VesselDischargeRTG extends DeckingScenarioBase {
             }
 
             if (wiList != null) {       // we have something to send, so prepare the request and send to aicon & tos
-                sendDeckingMessageToAiconAndTOS(wiEvent.getMsg().meta(), wiList, true, null);
+                processing = sendDeckingMessageToAiconAndTOS(wiEvent.getMsg().meta(), wiList, true, null);
             }
 
         }
-        setCounters(newMessage.meta().getResult());
-        newMessage.meta().addTimestampWithPrefix(TS_END_PREFIX, scenarioName, LOG);
+        return processing.whenComplete((result, ex) -> {
+            setCounters(newMessage.meta().getResult());
+            newMessage.meta().addTimestampWithPrefix(TS_END_PREFIX, scenarioName, LOG);
+        });
     }
 
     @Override
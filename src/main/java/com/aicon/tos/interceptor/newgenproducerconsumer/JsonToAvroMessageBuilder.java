@@ -1,6 +1,6 @@
 package com.aicon.tos.interceptor.newgenproducerconsumer;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.aicon.tos.shared.json.JsonUtil;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericDatumReader;
@@ -25,8 +25,7 @@ public class JsonToAvroMessageBuilder {
             LOG.info("Input JSON:\n{}", json);
             LOG.info("Using schema:\n{}", schema);
 
-            ObjectMapper objectMapper = new ObjectMapper();
-            ObjectNode inputNode = (ObjectNode) objectMapper.readTree(json);
+            ObjectNode inputNode = (ObjectNode) JsonUtil.readTree(json);
             ObjectNode enrichedNode = JsonEnricher.enrichJson(schema, inputNode);
             String enriched = enrichedNode.toString();
 
@@ -0,0 +1,241 @@
+package com.aicon.tos.interceptor.newgenproducerconsumer;
+
+import com.aicon.tos.shared.config.ConfigGroup;
+import com.aicon.tos.shared.config.ConfigSettings;
+import com.aicon.tos.shared.config.ConfigType;
+import com.aicon.tos.shared.util.NamedThreadFactory;
+import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import org.apache.avro.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Caches the parsed latest schema of each schema registry subject, so the registry is only asked once per subject
+ * instead of for every message.
+ * <p>
+ * A background thread checks the version of the cached subjects every refresh interval and replaces a schema when a
+ * new version got registered. Every fetched schema is also written to the cache directory as
+ * {@code <subject>.v<version>.avsc}; when the registry can not be reached the schema is read from there instead, a
+ * hand-made {@code <subject>.avsc} is used as well, so the cache also works offline.
+ */
+public class SchemaCache implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(SchemaCache.class);
+
+    public static final String DEFAULT_CACHE_DIR =
+            Path.of(System.getProperty("java.io.tmpdir"), "aicon-schema-cache").toString();
+    public static final int DEFAULT_REFRESH_S = 60;
+
+    private static final String FILE_EXT = ".avsc";
+    private static final int NO_VERSION = 0;
+
+    private static SchemaCache instance;
+
+    private final SchemaRegistryClient client;
+    private final Path cacheDir;
+    private final Map<String, CachedSchema> entries = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher;
+
+    /**
+     * The parsed schema of a subject.
+     *
+     * @param version the version in the registry, 0 when read from a hand-made file.
+     */
+    public record CachedSchema(String subject, int version, Schema schema) {
+    }
+
+    /**
+     * @return the cache of the schema registry as configured for Kafka, created at first use.
+     */
+    public static synchronized SchemaCache getInstance() {
+        if (instance == null) {
+            String dir = DEFAULT_CACHE_DIR;
+            int refreshS = DEFAULT_REFRESH_S;
+            ConfigGroup connections = ConfigSettings.getInstance().getMainGroup(ConfigType.Connections);
+            ConfigGroup kafkaConfig = connections != null ? connections.getChildGroup(ConfigType.Kafka) : null;
+            if (kafkaConfig != null) {
+                dir = kafkaConfig.getItemValue(ConfigSettings.CFG_KAFKA_SCHEMA_CACHE_DIR, dir);
+                refreshS = parseRefreshS(kafkaConfig.getItemValue(ConfigSettings.CFG_KAFKA_SCHEMA_REFRESH_S, null));
+            }
+            instance = new SchemaCache(SchemaLoader.client, Path.of(dir), Duration.ofSeconds(refreshS));
+        }
+        return instance;
+    }
+
+    /**
+     * @param value the configured refresh interval in seconds, can be null.
+     * @return the interval, or the default when not (validly) configured.
+     */
+    static int parseRefreshS(String value) {
+        if (value == null) {
+            return DEFAULT_REFRESH_S;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid {}={}, using {}", ConfigSettings.CFG_KAFKA_SCHEMA_REFRESH_S, value, DEFAULT_REFRESH_S);
+            return DEFAULT_REFRESH_S;
+        }
+    }
+
+    /**
+     * @param client   the schema registry to read from.
+     * @param cacheDir the directory for the file copies of the schemas.
+     * @param refresh  the interval to check for new versions, zero to never check.
+     */
+    public SchemaCache(SchemaRegistryClient client, Path cacheDir, Duration refresh) {
+        this.client = client;
+        this.cacheDir = cacheDir;
+        if (refresh.isZero() || refresh.isNegative()) {
+            refresher = null;
+        } else {
+            refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new NamedThreadFactory("SchemaCache").newThread(r);
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleWithFixedDelay(this::refresh, refresh.toMillis(), refresh.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Returns the cached schema of the subject, at first use it is read from the registry, or from the cache directory
+     * when the registry can not be reached.
+     *
+     * @param subject the subject, for example {@code <topic>-value}.
+     * @return the latest known schema of the subject.
+     * @throws RuntimeException when neither the registry nor the cache directory has the subject.
+     */
+    public CachedSchema get(String subject) {
+        CachedSchema cached = entries.get(subject);
+        return cached != null ? cached : entries.computeIfAbsent(subject, this::load);
+    }
+
+    private CachedSchema load(String subject) {
+        try {
+            return fetch(subject);
+        } catch (IOException | RestClientException e) {
+            CachedSchema stored = readFile(subject);
+            if (stored == null) {
+                throw new RuntimeException(String.format("Failed to fetch schema %s from registry, reason: %s",
+                        subject, e.getMessage()), e);
+            }
+            LOG.warn("Schema registry not available for {}, using version {} from {}, reason: {}",
+                    subject, stored.version(), cacheDir, e.getMessage());
+            return stored;
+        }
+    }
+
+    private CachedSchema fetch(String subject) throws IOException, RestClientException {
+        SchemaMetadata metadata = client.getLatestSchemaMetadata(subject);
+        if (metadata.getSchema() == null) {
+            throw new IOException("No schema registered for " + subject);
+        }
+        CachedSchema cached = create(subject, metadata.getVersion(), metadata.getSchema());
+        writeFile(cached);
+        return cached;
+    }
+
+    private static CachedSchema create(String subject, int version, String schemaString) {
+        return new CachedSchema(subject, version, new Schema.Parser().parse(schemaString));
+    }
+
+    /**
+     * Checks the version of all cached subjects and replaces those that got a new version. The versions are listed
+     * from the registry itself, the latest schema metadata of the client can be cached and would not show a new
+     * version.
+     */
+    void refresh() {
+        for (CachedSchema cached : entries.values()) {
+            try {
+                List<Integer> versions = client.getAllVersions(cached.subject());
+                int latestVersion = versions.isEmpty() ? cached.version() : Collections.max(versions);
+                if (latestVersion == cached.version()) {
+                    continue;
+                }
+                SchemaMetadata metadata = client.getSchemaMetadata(cached.subject(), latestVersion);
+                if (metadata.getSchema() != null) {
+                    CachedSchema updated = create(cached.subject(), metadata.getVersion(), metadata.getSchema());
+                    entries.put(cached.subject(), updated);
+                    writeFile(updated);
+                    LOG.info("Schema of {} updated from version {} to {}",
+                            cached.subject(), cached.version(), updated.version());
+                }
+            } catch (IOException | RestClientException | RuntimeException e) {
+                LOG.warn("Checking the version of schema {} failed, reason: {}", cached.subject(), e.getMessage());
+            }
+        }
+    }
+
+    private void writeFile(CachedSchema cached) {
+        try {
+            Files.createDirectories(cacheDir);
+            Path file = cacheDir.resolve(cached.subject() + ".v" + cached.version() + FILE_EXT);
+            Path tmp = Files.createTempFile(cacheDir, cached.subject(), ".tmp");
+            Files.writeString(tmp, cached.schema().toString(true), StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Writing schema {} to {} failed, reason: {}", cached.subject(), cacheDir, e.getMessage());
+        }
+    }
+
+    /**
+     * @return the highest version of the subject in the cache directory, or the hand-made file, null when none.
+     */
+    private CachedSchema readFile(String subject) {
+        if (!Files.isDirectory(cacheDir)) {
+            return null;
+        }
+        Pattern versioned = Pattern.compile(Pattern.quote(subject) + "\\.v(\\d+)" + Pattern.quote(FILE_EXT));
+        Path latest = null;
+        int latestVersion = NO_VERSION;
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = versioned.matcher(file.getFileName().toString());
+                if (matcher.matches() && Integer.parseInt(matcher.group(1)) > latestVersion) {
+                    latestVersion = Integer.parseInt(matcher.group(1));
+                    latest = file;
+                }
+            }
+            if (latest == null && Files.isRegularFile(cacheDir.resolve(subject + FILE_EXT))) {
+                latest = cacheDir.resolve(subject + FILE_EXT);
+            }
+            return latest != null ? create(subject, latestVersion, Files.readString(latest, StandardCharsets.UTF_8)) : null;
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Reading schema {} from {} failed, reason: {}", subject, cacheDir, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Removes all schemas from the cache, they are read again at next use.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+}
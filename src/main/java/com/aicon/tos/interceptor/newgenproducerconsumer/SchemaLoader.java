@@ -15,7 +15,8 @@ import static com.aicon.tos.shared.kafka.KafkaConfig.getSchemaRegistryUrl;
 /**
  * Utility class responsible for loading Avro schema definitions from a schema registry.
  * This class provides methods to retrieve schemas associated with specific topics or subjects
- * by interacting with the schema registry.
+ * by interacting with the schema registry. The schemas are served from the {@link SchemaCache}, so the registry is
+ * only asked once per subject.
  */
 public class SchemaLoader {
 
@@ -46,12 +47,7 @@ public class SchemaLoader {
             new CachedSchemaRegistryClient(getSchemaRegistryUrl(), 10);
 
     private static Schema getSchemaFromRegistry(String subject) {
-        try {
-            String schemaString = client.getLatestSchemaMetadata(subject).getSchema();
-            return schemaString != null ? new Schema.Parser().parse(schemaString) : null;
-        } catch (IOException | RestClientException e) {
-            throw new RuntimeException(String.format("Failed to fetch schema %s from registry, reason: %s", subject, e.getMessage()), e);
-        }
+        return SchemaCache.getInstance().get(subject).schema();
     }
 
     public static Schema getAllFromRegistry(String subjectKeyword) {
@@ -1,7 +1,6 @@
 package com.aicon.tos.interceptor.newgenproducerconsumer.messages;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
+import com.aicon.tos.shared.json.AvroJsonWriter;
 import org.apache.avro.generic.GenericRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,9 +18,7 @@ public class AiconMessage {
 
     static public String prettyPrintGenericRecord(GenericRecord record) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectWriter writer = mapper.writerWithDefaultPrettyPrinter();
-            return writer.writeValueAsString(mapper.readTree(record.toString()));
+            return AvroJsonWriter.toPrettyJson(record);
         } catch (Exception e) {
             LOG.warn("Could not prettyprint request {}, reason: e.getMessage()", record, e.getMessage());
             return String.valueOf(record);
@@ -0,0 +1,371 @@
+package com.aicon.tos.model;
+
+import com.avlino.common.KeyValue;
+import com.avlino.common.utils.StringUtils;
+import com.aicon.tos.shared.config.ConfigGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+import static com.aicon.tos.model.PositionConverter.*;
+
+/**
+ * Immutable and thread-safe codec for positions, compiled once from the position schema and the conversion config
+ * (see {@link PositionConverter}). The schema is compiled into an array of elements, and every position part gets its
+ * own compiled conversion, so parsing and formatting a position is plain index arithmetic: no regular expressions,
+ * no String.format and no searching through the schema per call.
+ * A changed configuration is applied by compiling a new codec and swapping it in, see {@link PositionConverter#reload()}.
+ */
+public final class PositionCodec {
+    private static final Logger LOG = LoggerFactory.getLogger(PositionCodec.class);
+
+    static final int BLOCK  = 0;
+    static final int ROW    = 1;
+    static final int COLUMN = 2;
+    static final int TIER   = 3;
+    private static final String[] PART_IDS = {POS_PART_BLOCK, POS_PART_ROW, POS_PART_COLUMN, POS_PART_TIER};
+    private static final char COLON_CHAR = ':';
+    private static final char DASH_CHAR = '-';
+
+    /**
+     * A position element of the schema: a part with its length, or a fixed separator when part < 0.
+     */
+    private record Element(int part, int length, String separator) {
+        boolean isSeparator() {
+            return part < 0;
+        }
+    }
+
+    /**
+     * The conversion of 1 position part, either a lookup table or a calculation.
+     */
+    private record Conversion(Map<String, String> toAicon, Map<String, String> toTos, boolean calculated, int minus, int divide) {
+    }
+
+    private final String schema;
+    private final List<KeyValue> schemaParts;
+    private final Element[] elements;
+    private final int[] partWidths = new int[PART_IDS.length];
+    private final Conversion[] conversions;
+    private final String separator;
+    private final String defaultYardId;
+
+    /**
+     * @param schema the position schema it was compiled from, only used in error messages.
+     * @param schemaParts the schema split into its parts, see {@link PositionConverter#getPositionSchema(String)}.
+     * @param conversionGrp the conversions per part, may be null when nothing needs conversion.
+     * @param separator separates the parts of a position in split format.
+     * @param defaultYardId the yard used when formatting a position with type and yard, when not given.
+     */
+    PositionCodec(String schema, List<KeyValue> schemaParts, ConfigGroup conversionGrp, String separator, String defaultYardId) {
+        this(schema, schemaParts, compileConversions(conversionGrp), separator, defaultYardId);
+    }
+
+    private PositionCodec(String schema, List<KeyValue> schemaParts, Conversion[] conversions, String separator, String defaultYardId) {
+        this.schema = schema;
+        this.schemaParts = schemaParts != null ? List.copyOf(schemaParts) : List.of();
+        this.conversions = conversions;
+        this.separator = separator;
+        this.defaultYardId = defaultYardId;
+
+        this.elements = new Element[this.schemaParts.size()];
+        for (int i = 0; i < elements.length; i++) {
+            KeyValue kv = this.schemaParts.get(i);
+            int part = partIndex(kv.key());
+            if (part < 0) {
+                elements[i] = new Element(-1, 0, kv.valueAsString());
+            } else {
+                int length = (Integer) kv.value();
+                elements[i] = new Element(part, length, null);
+                partWidths[part] = length;
+            }
+        }
+    }
+
+    PositionCodec withSchema(String schema, List<KeyValue> schemaParts) {
+        return new PositionCodec(schema, schemaParts, conversions, separator, defaultYardId);
+    }
+
+    PositionCodec withConversions(ConfigGroup conversionGrp) {
+        return new PositionCodec(schema, schemaParts, compileConversions(conversionGrp), separator, defaultYardId);
+    }
+
+    PositionCodec withSeparator(String separator) {
+        return new PositionCodec(schema, schemaParts, conversions, separator, defaultYardId);
+    }
+
+    public List<KeyValue> getSchemaParts() {
+        return schemaParts;
+    }
+
+    public String getSeparator() {
+        return separator;
+    }
+
+    /**
+     * Parses the position into its parts, see {@link PositionConverter#splitPosition(String)} for the formats accepted.
+     * @return the parts found in order of appearance (type, yard, then the schema order).
+     * @throws StringIndexOutOfBoundsException something wrong with the position (compared to the schema).
+     */
+    public LinkedHashMap<String, String> split(String position) {
+        LinkedHashMap<String, String> parsed = new LinkedHashMap<>();
+        String[] parts = parse(position, parsed);
+        for (Element element : elements) {
+            if (!element.isSeparator() && parts[element.part()] != null) {
+                parsed.put(PART_IDS[element.part()], parts[element.part()]);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Parses a TOS position and converts its parts to Aicon in 1 go.
+     * @return the converted parts in order of appearance (type, yard, then the schema order).
+     */
+    public LinkedHashMap<String, String> splitToAicon(String tosPosition) {
+        LinkedHashMap<String, String> parsed = new LinkedHashMap<>();
+        String[] parts = parse(tosPosition, parsed);
+        for (Element element : elements) {
+            int part = element.part();
+            if (part >= 0 && parts[part] != null) {
+                parsed.put(PART_IDS[part], convert(part, parts[part], false));
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Converts the Aicon position parts to TOS and merges them into a TOS position (without type and yard).
+     */
+    public String toTosPosition(String block, String row, String column, String tier) {
+        return format(null,
+                convert(BLOCK, block, true), convert(ROW, row, true), convert(COLUMN, column, true), convert(TIER, tier, true),
+                false, false);
+    }
+
+    /**
+     * Converts all parts of the map, parts without a conversion (like the type and yard) are copied as is.
+     */
+    public LinkedHashMap<String, String> convertParts(Map<String, String> fromMap, boolean toTos) {
+        int cnt = fromMap != null ? fromMap.size() : 0;
+        LinkedHashMap<String, String> toMap = new LinkedHashMap<>(cnt);
+        if (fromMap != null) {
+            for (Map.Entry<String, String> entry : fromMap.entrySet()) {
+                int part = partIndex(entry.getKey());
+                toMap.put(entry.getKey(), part < 0 ? entry.getValue() : convert(part, entry.getValue(), toTos));
+            }
+        }
+        return toMap;
+    }
+
+    /**
+     * Converts a single position part.
+     * @param part one of {@link #BLOCK}, {@link #ROW}, {@link #COLUMN} or {@link #TIER}.
+     */
+    String convert(int part, String fromPos, boolean toTos) {
+        Conversion conversion = conversions[part];
+        if (conversion == null || fromPos == null) {
+            return fromPos;
+        }
+        if (!conversion.calculated()) {
+            // just a simple lookup table
+            return String.valueOf((toTos ? conversion.toTos() : conversion.toAicon()).get(fromPos));
+        }
+        int posVal = Integer.parseInt(fromPos);
+        if (toTos) {
+            return zeroPad((posVal * conversion.divide()) - conversion.minus(), partWidths[part]);
+        }
+        return Integer.toString((int) Math.ceil((double) (posVal + conversion.minus()) / (double) conversion.divide()));
+    }
+
+    /**
+     * Merges the parts to a single position string obeying the schema, see {@link PositionConverter#mergePosition}.
+     */
+    public String format(String yardId, String block, String row, String column, String tier,
+                         boolean withTypeAndYard, boolean inSplitFormat) {
+        StringBuilder sb = new StringBuilder(32);
+        if (withTypeAndYard) {
+            if (!StringUtils.hasContent(yardId)) {
+                yardId = defaultYardId;
+            }
+            sb.append(POS_TYPE_YARD).append(separator).append(yardId != null ? yardId : UNKNOWN_YARD_ID).append(separator);
+        }
+
+        if (elements.length > 0) {
+            for (int idx = 0; idx < elements.length; idx++) {
+                Element element = elements[idx];
+                if (element.isSeparator()) {
+                    if (!inSplitFormat) {
+                        sb.append(element.separator());
+                    }
+                    continue;
+                }
+                sb.append(switch (element.part()) {
+                    case BLOCK  -> block;
+                    case ROW    -> row;
+                    case COLUMN -> column;
+                    default     -> tier;
+                });
+                // add separator when in split format && not the last part
+                if (inSplitFormat && idx < elements.length - 1) {
+                    sb.append(separator);
+                }
+            }
+        } else if (inSplitFormat) {
+            // default sequence of separated parts
+            sb.append(block).append(separator).append(row).append(separator).append(column).append(separator).append(tier);
+        } else {
+            // default sequence of parts
+            sb.append(block).append(row).append(column).append(tier);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses the position into the parts array (indexed by part), the type and yard are put in the given map.
+     */
+    private String[] parse(String position, Map<String, String> typeAndYard) {
+        if (!StringUtils.hasContent(position)) {
+            throw new StringIndexOutOfBoundsException(String.format(
+                    "Invalid position %s to split (expecting [Y-<yard>-]<hostformat> or Y-<yard>-<block>-<row|col>-<col|row>-<tier>.", position));
+        }
+        String[] tokens = tokenize(position.replace(COLON_CHAR, DASH_CHAR));     // sometimes they use Y-<yard>:<position>
+        String[] parts = new String[PART_IDS.length];
+
+        if (tokens.length >= 3) {
+            if (!POS_TYPE_YARD.equals(tokens[0])) {
+                LOG.warn("Found Yard position {} of type {}, only Y is supported", position, tokens[0]);
+            }
+            typeAndYard.put(POS_PART_TYPE, tokens[0]);
+            typeAndYard.put(POS_PART_YARD, tokens[1]);
+        }
+
+        String hostFormat;
+        if (tokens.length == 1) {
+            // position comes in most likely: <hostformat>[.tier]
+            hostFormat = tokens[0];
+        } else if (tokens.length == 3) {
+            // position comes in like: Y-<yardid>-<hostformat>[.tier]
+            hostFormat = tokens[2];
+        } else if (tokens.length > 3 && tokens.length <= 6) {
+            // already split into its parts. now we copy them into the position parts in the right order.
+            int i = 2;
+            for (Element element : elements) {
+                if (!element.isSeparator() && i < tokens.length) {
+                    parts[element.part()] = tokens[i++];
+                }
+            }
+            return parts;
+        } else {
+            throw new StringIndexOutOfBoundsException(String.format(
+                    "Invalid position %s to split (expecting [Y-<yard>-]<hostformat> or Y-<yard>-<block>-<row|col>-<col|row>-<tier>.", position));
+        }
+
+        int pointer = 0;
+        for (Element element : elements) {
+            if (element.isSeparator()) {
+                pointer += element.separator().length();
+            } else if (pointer + element.length() <= hostFormat.length()) {
+                parts[element.part()] = hostFormat.substring(pointer, pointer + element.length());
+                pointer += element.length();
+            } else if (element.part() != TIER) {       // tier is optional
+                throw new StringIndexOutOfBoundsException(String.format("Mismatch between position %s and it's schema %s, while looking for %s",
+                        hostFormat, schema, PART_IDS[element.part()]));
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Splits the position on the separator like {@link String#split(String)} would, without trailing empty tokens.
+     */
+    private String[] tokenize(String position) {
+        String[] tokens = new String[8];
+        int count = 0;
+        int start = 0;
+        int end;
+        while ((end = position.indexOf(separator, start)) >= 0) {
+            if (count == tokens.length) {
+                tokens = Arrays.copyOf(tokens, count * 2);
+            }
+            tokens[count++] = position.substring(start, end);
+            start = end + separator.length();
+        }
+        if (count == tokens.length) {
+            tokens = Arrays.copyOf(tokens, count + 1);
+        }
+        tokens[count++] = position.substring(start);
+        while (count > 0 && tokens[count - 1].isEmpty()) {
+            count--;
+        }
+        return Arrays.copyOf(tokens, count);
+    }
+
+    private static int partIndex(String partId) {
+        return switch (partId) {
+            case POS_PART_BLOCK  -> BLOCK;
+            case POS_PART_ROW    -> ROW;
+            case POS_PART_COLUMN -> COLUMN;
+            case POS_PART_TIER   -> TIER;
+            default -> -1;
+        };
+    }
+
+    /**
+     * @return the value formatted like %0[width]d, or as is when the width is unknown (0).
+     */
+    static String zeroPad(int value, int width) {
+        String digits = Integer.toString(value);
+        if (digits.length() >= width) {
+            return digits;
+        }
+        StringBuilder sb = new StringBuilder(width);
+        int start = 0;
+        if (value < 0) {
+            sb.append(DASH_CHAR);
+            start = 1;
+        }
+        for (int i = digits.length(); i < width; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits, start, digits.length()).toString();
+    }
+
+    private static Conversion[] compileConversions(ConfigGroup convGrp) {
+        Conversion[] compiled = new Conversion[PART_IDS.length];
+        if (convGrp != null) {
+            compiled[BLOCK]  = compileConversion(convGrp.getItemValue(KEY_CONV_BLOCK));
+            compiled[ROW]    = compileConversion(convGrp.getItemValue(KEY_CONV_ROW));
+            compiled[COLUMN] = compileConversion(convGrp.getItemValue(KEY_CONV_COLUMN));
+            compiled[TIER]   = compileConversion(convGrp.getItemValue(KEY_CONV_TIER));
+        }
+        return compiled;
+    }
+
+    /**
+     * @return the compiled conversion or null when nothing (valid) is configured, which means no conversion.
+     */
+    private static Conversion compileConversion(String sMap) {
+        LinkedHashMap<String, Object> toAicon = convertToMap(sMap, false);
+        if (toAicon.isEmpty()) {
+            return null;
+        }
+        if (toAicon.containsKey(KEY_CONV_MIN)) {
+            return new Conversion(null, null, true,
+                    (Integer) toAicon.get(KEY_CONV_MIN), (Integer) toAicon.getOrDefault(KEY_CONV_DIV, 1));
+        }
+        return new Conversion(toStringMap(toAicon), toStringMap(convertToMap(sMap, true)), false, 0, 1);
+    }
+
+    private static Map<String, String> toStringMap(Map<String, Object> map) {
+        Map<String, String> result = new HashMap<>(map.size() * 2);
+        map.forEach((key, value) -> result.put(key, String.valueOf(value)));
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PositionCodec: schema=%s, separator=%s, yard=%s", schema, separator, defaultYardId);
+    }
+}
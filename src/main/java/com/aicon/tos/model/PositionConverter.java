@@ -10,13 +10,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
-import static com.avlino.common.Constants.COLON;
 import static com.avlino.common.Constants.REGEX_SLASH;
 
 /**
  * Splits, merges and converts values from Aicon position names/ids to Tos names/ids and vv.
  * Although things are configured, not all need to be, a lot can be derived from the TOS-db, like the position schema.
+ * The configuration is compiled into an immutable {@link PositionCodec} which does the actual work, it can be
+ * recompiled at runtime with {@link #reload()}.
  */
 public class PositionConverter {
     private static final Logger LOG = LoggerFactory.getLogger(PositionConverter.class);
@@ -50,17 +52,60 @@ public class PositionConverter {
     static final String KEY_CONV_COLUMN = "bay.conversion";
     static final String KEY_CONV_TIER = "tier.conversion";
 
-    static List<KeyValue> _posSchemaParts = null;
-    private static String _posSchema = null;
-    private static String _posSep = POS_PART_SEP;
-
-    static ConfigGroup _conversionGrp = null;
-    static Map<String,Map<String,Object>> _posTos2Aicon = null;
-    static Map<String,Map<String,Object>> _posAicon2Tos = null;
+    private static final AtomicReference<PositionCodec> codec = new AtomicReference<>();
+    private static volatile ConfigGroup conversionGrp = null;     // overrides the SqlDb config when set
 
 
     static public void setPositionSep(String posSep) {
-        _posSep = posSep;   
+        codec.updateAndGet(current -> (current != null ? current : compile()).withSeparator(posSep));
+    }
+
+    /**
+     * Sets the conversions to use instead of the ones in the SqlDb config, or back to the SqlDb config when null.
+     */
+    static void setConversionConfig(ConfigGroup convGrp) {
+        conversionGrp = convGrp;
+        codec.updateAndGet(current -> (current != null ? current : compile()).withConversions(getConversionConfig()));
+    }
+
+    /**
+     * @return the codec compiled from the current configuration, compiled on first use.
+     */
+    public static PositionCodec getCodec() {
+        PositionCodec current = codec.get();
+        if (current == null) {
+            current = codec.updateAndGet(c -> c != null ? c : compile());
+        }
+        return current;
+    }
+
+    /**
+     * Compiles a new codec from the configuration (position schema, conversions and yard) and swaps it in atomically.
+     * Conversions already running finish with the codec they started with.
+     * @return the new codec
+     */
+    public static PositionCodec reload() {
+        PositionCodec current = codec.get();
+        PositionCodec compiled = compile(current != null ? current.getSeparator() : POS_PART_SEP);
+        codec.set(compiled);
+        LOG.info("Reloaded {}", compiled);
+        return compiled;
+    }
+
+    private static PositionCodec compile() {
+        return compile(POS_PART_SEP);
+    }
+
+    private static PositionCodec compile(String posSep) {
+        String posSchema = ConfigDomain.getGeneralItem(ConfigDomain.CFG_TOS_POSITION_SCHEMA);
+        List<KeyValue> schemaParts = List.of();
+        try {
+            schemaParts = parsePositionSchema(posSchema);
+        } catch (Exception e) {
+            LOG.error("Parsing general config item {}={} failed, reason: {}", ConfigDomain.CFG_TOS_POSITION_SCHEMA, posSchema, e);
+        }
+        return new PositionCodec(posSchema, schemaParts, getConversionConfig(), posSep,
+                ConfigDomain.getScopePart(ConfigDomain.SCOPE_ID_YARD));
     }
 
 
@@ -99,54 +144,14 @@ public class PositionConverter {
             boolean withTypeAndYard,
             boolean inSplitFormat
     ) {
-        // Build up position parts list with all individual elements incl. separators.
-        List<String> toParts = new ArrayList<>();
-
-        if (withTypeAndYard) {
-            String yardId = fromParts.get(POS_PART_YARD);
-            if (!StringUtils.hasContent(yardId)) {
-                yardId = ConfigDomain.getScopePart(ConfigDomain.SCOPE_ID_YARD);
-            }
-            toParts = new ArrayList<>(List.of(POS_TYPE_YARD, _posSep, yardId != null ? yardId : UNKNOWN_YARD_ID, _posSep));
-        }
-
-        List<KeyValue> schemaParts = getPositionSchema();
-        if (schemaParts.size() > 0) {
-            int idx = 0;
-            for (KeyValue kv : schemaParts) {
-                switch (kv.key()) {
-                    case POS_PART_BLOCK -> toParts.add(fromParts.get(POS_PART_BLOCK));
-                    case POS_PART_ROW   -> toParts.add(fromParts.get(POS_PART_ROW));
-                    case POS_PART_COLUMN-> toParts.add(fromParts.get(POS_PART_COLUMN));
-                    case POS_PART_TIER  -> toParts.add(fromParts.get(POS_PART_TIER));
-                    case POS_KEY_SEP    -> {if (!inSplitFormat) toParts.add(String.valueOf(kv.value()));}
-                }
-                // add separator when in split format && not the last part
-                if (!POS_KEY_SEP.equals(kv.key()) && inSplitFormat && idx < schemaParts.size() - 1) {
-                    toParts.add(_posSep);
-                }
-                idx++;
-            }
-        } else if (inSplitFormat) {
-            toParts = List.of(
-                    fromParts.get(POS_PART_BLOCK), _posSep,
-                    fromParts.get(POS_PART_ROW), _posSep,
-                    fromParts.get(POS_PART_COLUMN), _posSep,
-                    fromParts.get(POS_PART_TIER));                      // default sequence of separated parts
-        } else {
-            toParts = List.of(
-                    fromParts.get(POS_PART_BLOCK),
-                    fromParts.get(POS_PART_ROW),
-                    fromParts.get(POS_PART_COLUMN),
-                    fromParts.get(POS_PART_TIER));                      // default sequence of parts
-        }
-
-        StringBuilder sb = new StringBuilder();
-        for (String part: toParts) {
-            sb.append(part);
-        }
-
-        return sb.toString();
+        return getCodec().format(
+                fromParts.get(POS_PART_YARD),
+                fromParts.get(POS_PART_BLOCK),
+                fromParts.get(POS_PART_ROW),
+                fromParts.get(POS_PART_COLUMN),
+                fromParts.get(POS_PART_TIER),
+                withTypeAndYard,
+                inSplitFormat);
     }
 
     /**
@@ -160,156 +165,31 @@ public class PositionConverter {
     public static LinkedHashMap<String,String> splitPosition(
             String position
     ) throws StringIndexOutOfBoundsException {
-        if (!StringUtils.hasContent(position)) {
-            throw new StringIndexOutOfBoundsException(String.format(
-                    "Invalid position %s to split (expecting [Y-<yard>-]<hostformat> or Y-<yard>-<block>-<row|col>-<col|row>-<tier>.", position));
-        }
-        LinkedHashMap<String,String> parsed = null;
         try {
-            List<KeyValue> schemaParts = getPositionSchema();
-            String hostFormat = null;
-            position = position.replace(COLON, Constants.DASH);     // sometimes they use Y-<yard>:<position>
-            String[] posToParts = position.split(_posSep);
-
-            parsed = new LinkedHashMap<>();
-            if (posToParts.length >= 3) {
-                if (!POS_TYPE_YARD.equals(posToParts[0])) {
-                    LOG.warn("Found Yard position {} of type {}, only Y is supported", position, posToParts[0]);
-                }
-                parsed.put(POS_PART_TYPE, posToParts[0]);
-                parsed.put(POS_PART_YARD, posToParts[1]);
-            }
-
-            if (posToParts.length == 1) {
-                // position comes in most likely: <hostformat>[.tier]
-                hostFormat = posToParts[0];
-            } else if (posToParts.length == 3) {
-                // position comes in like: Y-<yardid>-<hostformat>[.tier]
-                hostFormat = posToParts[2];
-            } else if (posToParts.length >= 3 && posToParts.length <= 6) {
-                // already split into its parts. now we copy them into the position parts in the right order.
-                int i = 2;
-                for (KeyValue kv: schemaParts) {
-                    if (!POS_KEY_SEP.equals(kv.key()) && i < posToParts.length) {
-                        parsed.put(kv.key(), posToParts[i++]);
-                    }
-                }
-                return parsed;
-            } else {
-                throw new StringIndexOutOfBoundsException(String.format(
-                        "Invalid position %s to split (expecting [Y-<yard>-]<hostformat> or Y-<yard>-<block>-<row|col>-<col|row>-<tier>.", position));
-            }
-
-            if (hostFormat != null) {
-                int pointer = 0;
-                for (KeyValue kv: schemaParts) {
-                    if (POS_KEY_SEP.equals(kv.key())) {
-                        pointer += kv.valueAsString().length();
-                    } else {
-                        int len = (Integer)kv.value();
-                        if (pointer + len <= hostFormat.length()) {
-                            parsed.put(kv.key(), hostFormat.substring(pointer, pointer + len));
-                            pointer += len;
-                        } else if (!POS_PART_TIER.equals(kv.key())) {       // tier is optional
-                            throw new StringIndexOutOfBoundsException(String.format("Mismatch between position %s and it's schema %s, while looking for %s", hostFormat, _posSchema, kv.key()));
-                        }
-                    }
-                }
-            }
+            return getCodec().split(position);
         } catch (Exception e) {
             LOG.error(e.getMessage());
             throw e;
         }
-        return parsed;
     }
 
     public static Map<String,String> convertPosPartsToAicon(Map<String,String> fromMap) {
-        parsePosConversions();
-        return convertPosParts(_posTos2Aicon, fromMap, false);
+        return getCodec().convertParts(fromMap, false);
     }
 
     public static Map<String,String> convertPosPartsToTos(Map<String,String> fromMap) {
-        parsePosConversions();
-        return convertPosParts(_posAicon2Tos, fromMap, true);
-    }
-
-    static LinkedHashMap<String,String> convertPosParts(
-            Map<String,Map<String,Object>> convMap,
-            Map<String,String> fromMap,
-            boolean toTos
-    ) {
-        int cnt = fromMap != null ? fromMap.size() : 0;
-        LinkedHashMap<String,String> toMap = new LinkedHashMap<>(cnt);
-        if (fromMap != null) {
-            for (Map.Entry<String,String> entry: fromMap.entrySet()) {
-                toMap.put(entry.getKey(), convertPosPart(entry.getKey(), convMap.get(entry.getKey()), entry.getValue(), toTos));
-            }
-        }
-        return toMap;
-    }
-
-    static String convertPosPart(String posPartId, Map<String,Object> convMap, String fromPos, boolean toTos) {
-        String toPos = fromPos;
-        if (convMap != null && !convMap.isEmpty()) {
-            if (convMap.containsKey(KEY_CONV_MIN)) {
-                // calculations to be done
-                try {
-                    int posVal = Integer.parseInt(fromPos);
-                    int posMin = (Integer)convMap.get(KEY_CONV_MIN);
-                    int posDiv = (Integer)convMap.getOrDefault(KEY_CONV_DIV, 1);
-                    int idx = -1;
-                    if (toTos && posPartId != null) {
-                        for (idx = 0; idx < _posSchemaParts.size(); idx++) {
-                            KeyValue kv = _posSchemaParts.get(idx);
-                            if (posPartId.equals(kv.key())) {
-                                break;
-                            }
-                        }
-                    }
-                    String intFormat = idx >= 0 ? String.format("%%0%sd", _posSchemaParts.get(idx).value()) : "%s";
-                    if (toTos) {
-                        toPos = String.format(intFormat, ((posVal * posDiv) - posMin));
-                    } else {
-                        double calc = Math.ceil(((double)(posVal + posMin) / (double)posDiv));
-                        toPos = String.format(intFormat, (int)calc);
-                    }
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
-                }
-            } else {
-                // just a simple lookup table
-                toPos = String.valueOf(convMap.get(fromPos));
-            }
-        }
-        return toPos;
+        return getCodec().convertParts(fromMap, true);
     }
 
     static ConfigGroup getConversionConfig() {
-        if (_conversionGrp != null) {
-            return _conversionGrp;
+        ConfigGroup override = conversionGrp;
+        if (override != null) {
+            return override;
         } else {
             return SqlConfigReader.getInstance().getSubGroup(CFG_GRP_CONVERSIONS);
         }
     }
 
-    static void parsePosConversions() {
-        if (_posTos2Aicon == null) {
-            _posTos2Aicon = new HashMap<>();
-            _posAicon2Tos = new HashMap<>();
-            ConfigGroup convGrp = getConversionConfig();
-            if (convGrp != null) {
-                _posTos2Aicon.put(POS_PART_BLOCK, convertToMap(convGrp.getItemValue(KEY_CONV_BLOCK), false));
-                _posTos2Aicon.put(POS_PART_ROW, convertToMap(convGrp.getItemValue(KEY_CONV_ROW), false));
-                _posTos2Aicon.put(POS_PART_COLUMN, convertToMap(convGrp.getItemValue(KEY_CONV_COLUMN), false));
-                _posTos2Aicon.put(POS_PART_TIER, convertToMap(convGrp.getItemValue(KEY_CONV_TIER), false));
-                _posAicon2Tos.put(POS_PART_BLOCK, convertToMap(convGrp.getItemValue(KEY_CONV_BLOCK), true));
-                _posAicon2Tos.put(POS_PART_ROW, convertToMap(convGrp.getItemValue(KEY_CONV_ROW), true));
-                _posAicon2Tos.put(POS_PART_COLUMN, convertToMap(convGrp.getItemValue(KEY_CONV_COLUMN), true));
-                _posAicon2Tos.put(POS_PART_TIER, convertToMap(convGrp.getItemValue(KEY_CONV_TIER), true));
-            }
-        }
-    }
-
 
     /**
      * Splits the config string into a map of tos-id -> aicon-id or else has Integer values {@link #KEY_CONV_MIN} and
@@ -353,27 +233,24 @@ public class PositionConverter {
      * @return the position schema list or an empty list when something failed.
      */
     static List<KeyValue> getPositionSchema() {
-        if (_posSchemaParts != null) {
-            return _posSchemaParts;
-        }
-        String posSchema = ConfigDomain.getGeneralItem(ConfigDomain.CFG_TOS_POSITION_SCHEMA);
-        try {
-            getPositionSchema(posSchema);
-        } catch (Exception e) {
-            LOG.error("Parsing general config item {}={} failed, reason: {}", ConfigDomain.CFG_TOS_POSITION_SCHEMA, posSchema, e);
-        }
-        return _posSchemaParts;
+        return getCodec().getSchemaParts();
     }
 
     /**
      * Splits a position schema like B3R2C1.T1 into a list of KeyValue objects where a KeyValue can have an entry
-     * of {@link #POS_MAP} or a separator character (like the . in the example) with key {@link #POS_KEY_SEP}.
+     * of {@link #POS_MAP} or a separator character (like the . in the example) with key {@link #POS_KEY_SEP}, and
+     * makes it the schema used by the conversions.
      * Note: this method version is for ease of testing.
      * @return the position schema list or an empty list when something failed.
      */
     static List<KeyValue> getPositionSchema(String posSchema) {
-        _posSchema = posSchema;
-        _posSchemaParts = new ArrayList<>();
+        List<KeyValue> schemaParts = parsePositionSchema(posSchema);
+        return codec.updateAndGet(current -> (current != null ? current : compile()).withSchema(posSchema, schemaParts))
+                .getSchemaParts();
+    }
+
+    static List<KeyValue> parsePositionSchema(String posSchema) {
+        List<KeyValue> schemaParts = new ArrayList<>();
         if (StringUtils.hasContent(posSchema)) {
             String[] chars = posSchema.split(Constants.EMPTY);
             int idx = 0;
@@ -388,10 +265,10 @@ public class PositionConverter {
                 if (kv == null) {       // so no position char found but a separator
                     kv = new KeyValue(POS_KEY_SEP  , String.class , chars[idx]);
                 }
-                _posSchemaParts.add(kv);
+                schemaParts.add(kv);
                 idx++;
             }
         }
-        return _posSchemaParts;
+        return schemaParts;
     }
 }
@@ -51,6 +51,7 @@ public class ConfigSettings {
     public static final String CFG_HTTP_CONNECT_TIMEOUT_MS = "http.connect.timeout.ms";
     public static final String CFG_HTTP_READ_TIMEOUT_MS = "http.read.timeout.ms";
     public static final String CFG_HTTP_CONTENT_TYPE = "http.content.type";
+    public static final String CFG_HTTP_MAX_CONCURRENT_REQUESTS = "http.max.concurrent.requests";
     public static final String CFG_HTTP_SOAP_ACTION = "http.soap.action";
     public static final String CFG_HTTP_USERNAME = "http.username";
     public static final String CFG_HTTP_PASSWORD = "http.password";
@@ -58,6 +59,11 @@ public class ConfigSettings {
     public static final String CFG_KAFKA_HOST = "hostname";
     public static final String CFG_KAFKA_PORT = "hostport";
     public static final String CFG_KAFKA_SCHEMA_REGISTRY_PORT = "schema.registry.port";
+    public static final String CFG_KAFKA_SCHEMA_CACHE_DIR = "schema.cache.dir";
+    public static final String CFG_KAFKA_SCHEMA_REFRESH_S = "schema.refresh.s";
+    public static final String CFG_KAFKA_PRODUCER_LINGER_MS = "producer.linger.ms";
+    public static final String CFG_KAFKA_PRODUCER_BATCH_SIZE = "producer.batch.size";
+    public static final String CFG_KAFKA_PRODUCER_COMPRESSION_TYPE = "producer.compression.type";
     public static final String CFG_KAFKA_CONNECTION_TIMEOUT_MS = "connection.timeout.ms";
     public static final String CFG_KAFKA_POLL_TIMEOUT_MS = "poll.timeout.ms";
     public static final String CFG_KAFKA_GROUP_ID = "group.id";
@@ -0,0 +1,144 @@
+package com.aicon.tos.shared.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import org.apache.avro.Conversion;
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalType;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.specific.SpecificRecordBase;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Writes an Avro record as plain JSON, streaming the fields of the record directly to a JSON generator.
+ * <p>
+ * The output is the JSON of the Avro JSON encoding, except that unions are written as their value instead of
+ * {"type": value}. Logical types are written as their underlying Avro type (e.g. a timestamp-millis as a long).
+ */
+public final class AvroJsonWriter {
+
+    private AvroJsonWriter() {
+        // Prevent instantiation
+    }
+
+    /**
+     * @param record the record to write.
+     * @return the record as JSON.
+     */
+    public static String toJson(GenericRecord record) {
+        return toJson(record, false);
+    }
+
+    /**
+     * @param record the record to write.
+     * @return the record as indented JSON.
+     */
+    public static String toPrettyJson(GenericRecord record) {
+        return toJson(record, true);
+    }
+
+    private static String toJson(GenericRecord record, boolean pretty) {
+        StringWriter out = new StringWriter(256);
+        try (JsonGenerator generator = JsonUtil.getMapper().getFactory().createGenerator(out)) {
+            if (pretty) {
+                generator.setPrettyPrinter(new DefaultPrettyPrinter());
+            }
+            write(generator, record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write Avro record as JSON", e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the record as a JSON object to the generator.
+     *
+     * @param generator the generator to write to.
+     * @param record    the record to write, null is written as a JSON null.
+     * @throws IOException when writing failed.
+     */
+    public static void write(JsonGenerator generator, GenericRecord record) throws IOException {
+        if (record == null) {
+            generator.writeNull();
+            return;
+        }
+        GenericData model = record instanceof SpecificRecordBase specific ? specific.getSpecificData() : GenericData.get();
+        writeRecord(generator, record, record.getSchema(), model);
+    }
+
+    private static void writeRecord(JsonGenerator generator, GenericRecord record, Schema schema, GenericData model)
+            throws IOException {
+        generator.writeStartObject();
+        for (Schema.Field field : schema.getFields()) {
+            generator.writeFieldName(field.name());
+            writeValue(generator, record.get(field.pos()), field.schema(), model);
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeValue(JsonGenerator generator, Object value, Schema schema, GenericData model)
+            throws IOException {
+        if (schema.getType() == Schema.Type.UNION) {
+            schema = schema.getTypes().get(model.resolveUnion(schema, value));
+        }
+        value = toRawValue(value, schema, model);
+
+        switch (schema.getType()) {
+            case NULL -> generator.writeNull();
+            case BOOLEAN -> generator.writeBoolean((Boolean) value);
+            case INT -> generator.writeNumber(((Number) value).intValue());
+            case LONG -> generator.writeNumber(((Number) value).longValue());
+            case FLOAT -> generator.writeNumber(((Number) value).floatValue());
+            case DOUBLE -> generator.writeNumber(((Number) value).doubleValue());
+            case STRING, ENUM -> generator.writeString(value.toString());
+            // the Avro JSON encoding writes bytes as a string with one char per byte
+            case BYTES -> writeBytes(generator, ((ByteBuffer) value).duplicate());
+            case FIXED -> writeBytes(generator, ByteBuffer.wrap(((GenericFixed) value).bytes()));
+            case RECORD -> writeRecord(generator, (GenericRecord) value, schema, model);
+            case ARRAY -> {
+                generator.writeStartArray();
+                for (Object element : (Collection<?>) value) {
+                    writeValue(generator, element, schema.getElementType(), model);
+                }
+                generator.writeEndArray();
+            }
+            case MAP -> {
+                generator.writeStartObject();
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    generator.writeFieldName(entry.getKey().toString());
+                    writeValue(generator, entry.getValue(), schema.getValueType(), model);
+                }
+                generator.writeEndObject();
+            }
+            default -> throw new IOException("Unsupported Avro type " + schema.getType());
+        }
+    }
+
+    /**
+     * Converts a value of a logical type (like an Instant) to the value of its Avro type, like a DatumWriter does.
+     */
+    private static Object toRawValue(Object value, Schema schema, GenericData model) {
+        LogicalType logicalType = schema.getLogicalType();
+        if (value == null || logicalType == null) {
+            return value;
+        }
+        Conversion<?> conversion = model.getConversionByClass(value.getClass(), logicalType);
+        return conversion == null ? value : Conversions.convertToRawType(value, schema, logicalType, conversion);
+    }
+
+    private static void writeBytes(JsonGenerator generator, ByteBuffer bytes) throws IOException {
+        byte[] raw = new byte[bytes.remaining()];
+        bytes.get(raw);
+        generator.writeString(new String(raw, StandardCharsets.ISO_8859_1));
+    }
+}
@@ -0,0 +1,76 @@
+package com.aicon.tos.shared.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the one ObjectMapper of the application. Creating a mapper is expensive and every new mapper starts with
+ * cold serializer and deserializer caches, while a configured mapper and its readers and writers are thread-safe.
+ * <p>
+ * The mapper must not be reconfigured, use {@link #reader(Class)} and {@link #writer(Class)} to get an (immutable)
+ * reader or writer for a type, these are cached so the type is only introspected once.
+ */
+public final class JsonUtil {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectWriter PRETTY_WRITER = MAPPER.writerWithDefaultPrettyPrinter();
+    private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+    private JsonUtil() {
+        // Prevent instantiation
+    }
+
+    /**
+     * @return the shared mapper, for calls that have no reader or writer of their own (like readTree).
+     */
+    public static ObjectMapper getMapper() {
+        return MAPPER;
+    }
+
+    /**
+     * @param type the type to read.
+     * @return the cached reader for the type.
+     */
+    public static ObjectReader reader(Class<?> type) {
+        return READERS.computeIfAbsent(type, MAPPER::readerFor);
+    }
+
+    /**
+     * @param type the type to write.
+     * @return the cached writer for the type.
+     */
+    public static ObjectWriter writer(Class<?> type) {
+        return WRITERS.computeIfAbsent(type, MAPPER::writerFor);
+    }
+
+    /**
+     * @return the shared writer that indents its output.
+     */
+    public static ObjectWriter prettyWriter() {
+        return PRETTY_WRITER;
+    }
+
+    /**
+     * @param json the JSON to parse.
+     * @return the JSON as a tree.
+     * @throws JsonProcessingException when the JSON is invalid.
+     */
+    public static JsonNode readTree(String json) throws JsonProcessingException {
+        return MAPPER.readTree(json);
+    }
+
+    /**
+     * @param value the value to write.
+     * @return the value as JSON, written with the cached writer of its class.
+     * @throws JsonProcessingException when the value could not be serialized.
+     */
+    public static String toJson(Object value) throws JsonProcessingException {
+        return value == null ? "null" : writer(value.getClass()).writeValueAsString(value);
+    }
+}
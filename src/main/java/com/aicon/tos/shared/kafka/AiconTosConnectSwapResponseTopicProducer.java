@@ -21,6 +21,14 @@ public class AiconTosConnectSwapResponseTopicProducer extends KafkaProducerBase<
         ProducerManager.registerProducer(this);
     }
 
+    /**
+     * @return the producer shared by all sessions sending swap responses.
+     */
+    public static AiconTosConnectSwapResponseTopicProducer getShared() {
+        return ProducerManager.getSharedProducer(KafkaConfig.aicon_dispatch_itv_job_resequence_response_topic,
+                AiconTosConnectSwapResponseTopicProducer.class, AiconTosConnectSwapResponseTopicProducer::new);
+    }
+
     /**
      * Sends a connection status message to the AICON TOS Connection Status Kafka topic.
      *
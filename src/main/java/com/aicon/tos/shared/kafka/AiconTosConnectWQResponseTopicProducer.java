@@ -18,6 +18,14 @@ public class AiconTosConnectWQResponseTopicProducer extends KafkaProducerBase<St
         ProducerManager.registerProducer(this);
     }
 
+    /**
+     * @return the producer shared by all sessions sending work queue activation responses.
+     */
+    public static AiconTosConnectWQResponseTopicProducer getShared() {
+        return ProducerManager.getSharedProducer(KafkaConfig.aicon_dispatch_work_queue_activation_response_topic,
+                AiconTosConnectWQResponseTopicProducer.class, AiconTosConnectWQResponseTopicProducer::new);
+    }
+
     public void sendSwapResponseTopicMessage(String request_id) {
 
         dispatch_work_queue_activation_response_value message = new dispatch_work_queue_activation_response_value();
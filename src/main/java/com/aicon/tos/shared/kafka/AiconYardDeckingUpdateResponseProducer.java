@@ -16,6 +16,14 @@ public class AiconYardDeckingUpdateResponseProducer extends KafkaProducerBase<St
         ProducerManager.registerProducer(this);
     }
 
+    /**
+     * @return the producer shared by all sessions sending decking update responses.
+     */
+    public static AiconYardDeckingUpdateResponseProducer getShared() {
+        return ProducerManager.getSharedProducer(KafkaConfig.getFlowResponseTopic("DeckingUpdateFlow"),
+                AiconYardDeckingUpdateResponseProducer.class, AiconYardDeckingUpdateResponseProducer::new);
+    }
+
     public void sendAiconYardDeckingUpdateResponseMessage(String id) {
         AiconYardDeckingUpdateResponseMessage message = new AiconYardDeckingUpdateResponseMessage();
         try {
@@ -9,19 +9,17 @@ import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import static com.aicon.tos.shared.util.TimeUtils.waitSeconds;
+import static com.aicon.tos.shared.util.TimeUtils.waitMilliSeconds;
 
 /**
  * The BufferedKafkaConsumer is an implementation of a Kafka consumer that buffers the consumed
- * messages in a thread-safe queue for later processing. It adds the capability of handling the
- * deduplication and removal of older records from the buffer, allowing consumers to retrieve
- * and interact with buffered messages efficiently.
+ * messages for later processing. The buffer is indexed by gkey and kept in order of arrival (see
+ * {@link TimedGkeyBuffer}), so deduplication, lookup and removal of older records do not scan the buffer.
+ * Parties waiting for a gkey (see {@link #awaitDateForGKey(String, long)}) are notified as soon as it is ingested.
  * <p>
  * This class extends KafkaConsumerBase, inheriting core Kafka consumer functionalities
  * like initializing, polling, and stopping the consumer.
@@ -29,7 +27,10 @@ import static com.aicon.tos.shared.util.TimeUtils.waitSeconds;
 public class BufferedKafkaConsumer extends KafkaConsumerBase<Object, GenericRecord> {
 
     private static final Logger LOG = LoggerFactory.getLogger(BufferedKafkaConsumer.class);
-    private final BlockingQueue<MessageMetadata> buffer = new LinkedBlockingQueue<>();
+    private static final long MIN_POLL_INTERVAL_MS = 100;
+
+    private final TimedGkeyBuffer buffer = new TimedGkeyBuffer();
+    private final GkeyArrivalWaiters waiters = new GkeyArrivalWaiters();
     private final AtomicBoolean polling = new AtomicBoolean(false);
 
     public BufferedKafkaConsumer(String topic) {
@@ -48,7 +49,8 @@ public class BufferedKafkaConsumer extends KafkaConsumerBase<Object, GenericReco
      * The polling operations include:
      * - Fetching messages using the `pollMessages` method.
      * - Processing fetched messages through the `processRecords` method.
-     * - Continuing to poll and sleep in a loop until interrupted.
+     * - Continuing to poll in a loop until interrupted, the poll itself waits for new messages. Only when a poll
+     * returns empty right away (e.g. after an error) it backs off a little, to not spin.
      * <p>
      * Thread interruption during sleep is handled, allowing the thread to gracefully log the interruption
      * and continue working or terminate depending on the `running` flag.
@@ -69,8 +71,13 @@ public class BufferedKafkaConsumer extends KafkaConsumerBase<Object, GenericReco
                 LOG.info("Started polling thread for topic: {} by parent thread: {}", topic, parentThreadName);
                 try {
                     while (running) {
-                        processRecords(pollMessages());
-                        waitSeconds(2, "topic " + topic);
+                        long pollStart = System.currentTimeMillis();
+                        ConsumerRecords<Object, GenericRecord> records = pollMessages();
+                        processRecords(records);
+                        long pollTime = System.currentTimeMillis() - pollStart;
+                        if (records.isEmpty() && pollTime < MIN_POLL_INTERVAL_MS) {
+                            waitMilliSeconds(MIN_POLL_INTERVAL_MS - pollTime, "topic " + topic);
+                        }
                     }
                 } catch (Exception e) {
                     LOG.error("Error in polling thread for topic: {}", topic, e);
@@ -86,26 +93,40 @@ public class BufferedKafkaConsumer extends KafkaConsumerBase<Object, GenericReco
     }
 
 
+    /**
+     * Adds the records to the buffer, each with its own arrival timestamp, and notifies the parties waiting for them.
+     */
     @Override
     public void processRecords(ConsumerRecords<Object, GenericRecord> records) {
-        long timestamp = 0;
+        if (records.isEmpty()) {
+            return;
+        }
+        List<MessageMetadata> arrived = new ArrayList<>();
         synchronized (this) {
-            if (records.count() != 0) {
-                timestamp = Instant.now().toEpochMilli();
-                LOG.debug("Processing {} records for topic: {} at timestamp: {}", records.count(), topic, timestamp);
-            }
+            LOG.debug("Processing {} records for topic: {}", records.count(), topic);
             for (ConsumerRecord<Object, GenericRecord> singleRecord : records) {
                 try {
+                    long timestamp = Instant.now().toEpochMilli();
                     LOG.debug("Processing a record for timestamp: {} and record.ts {}, diff {}",
                             timestamp, singleRecord.timestamp(), timestamp - singleRecord.timestamp());
                     MessageMetadata metadata = extractMetadata(singleRecord, timestamp);
                     if (metadata != null) {
-                        addToBuffer(metadata);
+                        MessageMetadata added = addToBuffer(metadata);
+                        if (added != null) {
+                            arrived.add(added);
+                        }
                     }
                 } catch (Exception e) {
                     LOG.error("Error processing record: {}", singleRecord, e);
                 }
             }
+            LOG.debug("Buffer for topic {} contains {} records", topic, buffer.size());
+        }
+        // complete outside the lock, the waiters may continue on this thread
+        for (MessageMetadata metadata : arrived) {
+            for (CompletableFuture<Long> waiter : waiters.arrived(metadata.gKeyValue())) {
+                waiter.complete(metadata.timestamp());
+            }
         }
     }
 
@@ -142,22 +163,18 @@ public class BufferedKafkaConsumer extends KafkaConsumerBase<Object, GenericReco
      * Adds the given {@code MessageMetadata} object to the buffer if it is not already present.
      * The method ensures thread safety and prevents the addition of duplicate records based on the gKeyValue.
      * It logs a message indicating whether the record was added or skipped as duplicate.
-     * After adding or skipping the record, it prints the current state of the buffer.
      *
      * @param metadata the {@code MessageMetadata} object to be added to the buffer
+     * @return the metadata as added, null when skipped as duplicate.
      */
-    private synchronized void addToBuffer(MessageMetadata metadata) {
-        boolean exists = buffer.stream().anyMatch(existing -> existing.gKeyValue().equals(metadata.gKeyValue()));
-        if (!exists) {
-            if (buffer.offer(metadata)) {
-                LOG.debug("Added firsttime gkey to buffer: {}", metadata);
-            } else {
-                LOG.debug("Not added to buffer, {}", metadata);
-            }
+    private synchronized MessageMetadata addToBuffer(MessageMetadata metadata) {
+        MessageMetadata added = buffer.add(metadata);
+        if (added != null) {
+            LOG.debug("Added firsttime gkey to buffer: {}", added);
         } else {
             LOG.debug("Skipped duplicate gkey: {}", metadata);
         }
-        printBuffer();
+        return added;
     }
 
     private String getGKeyNameByTopic(String topic) {
@@ -172,11 +189,10 @@ public class BufferedKafkaConsumer extends KafkaConsumerBase<Object, GenericReco
      *                  value will be removed from the buffer
      */
     public synchronized void removeOlderGkeysFromBuffer(long timestamp) {
-        List<MessageMetadata> retainedRecords = new ArrayList<>();
-        buffer.drainTo(retainedRecords);
-        retainedRecords.removeIf(metadata -> metadata.timestamp() < timestamp);
-        buffer.addAll(retainedRecords);
-        LOG.info("Removed older records. Buffer size: {}", buffer.size());
+        int removed = buffer.removeOlderThan(timestamp);
+        if (removed > 0) {
+            LOG.info("Removed {} older records. Buffer size: {}", removed, buffer.size());
+        }
     }
 
     /**
@@ -192,12 +208,11 @@ public class BufferedKafkaConsumer extends KafkaConsumerBase<Object, GenericReco
     public synchronized Long findDateForGKey(String gKey) {
         try {
             Long gKeyValue = Long.parseLong(gKey);
-            for (MessageMetadata metadata : buffer) {
-                if (metadata.gKeyValue().equals(gKeyValue)) {
-                    LOG.debug("Found record with gKeyValue = {}. Removing older records...", gKeyValue);
-                    removeOlderGkeysFromBuffer(metadata.timestamp());
-                    return metadata.timestamp();
-                }
+            MessageMetadata metadata = buffer.get(gKeyValue);
+            if (metadata != null) {
+                LOG.debug("Found record with gKeyValue = {}. Removing older records...", gKeyValue);
+                removeOlderGkeysFromBuffer(metadata.timestamp());
+                return metadata.timestamp();
             }
             LOG.info("No record found for gKeyValue = {}", gKeyValue);
         } catch (NumberFormatException e) {
@@ -206,6 +221,49 @@ public class BufferedKafkaConsumer extends KafkaConsumerBase<Object, GenericReco
         return null;
     }
 
+    /**
+     * Waits for the given gKey to arrive, without polling the buffer. When it is in the buffer already the future is
+     * completed right away, else as soon as the record is ingested, with the timestamp it arrived. In both cases
+     * the older records are removed from the buffer, like {@link #findDateForGKey(String)} does.
+     *
+     * @param gKey      the string representation of the gKey to wait for
+     * @param timeoutMs the max time to wait in ms
+     * @return the future completing with the timestamp of the gKey, or with null when it did not arrive in time
+     * or the gKey can not be parsed.
+     */
+    public CompletableFuture<Long> awaitDateForGKey(String gKey, long timeoutMs) {
+        Long gKeyValue;
+        try {
+            gKeyValue = Long.parseLong(gKey);
+        } catch (NumberFormatException e) {
+            LOG.error("Invalid gKey format: {}", gKey, e);
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Long> waiter;
+        synchronized (this) {
+            MessageMetadata metadata = buffer.get(gKeyValue);
+            if (metadata != null) {
+                removeOlderGkeysFromBuffer(metadata.timestamp());
+                return CompletableFuture.completedFuture(metadata.timestamp());
+            }
+            // registered while holding the lock, so the gkey can not be added in between
+            waiter = waiters.register(gKeyValue, timeoutMs);
+        }
+        return waiter.thenApply(timestamp -> {
+            if (timestamp != null) {
+                removeOlderGkeysFromBuffer(timestamp);
+            }
+            return timestamp;
+        });
+    }
+
+    /**
+     * @return the nr of parties waiting for a gkey to arrive.
+     */
+    public int getWaiterCount() {
+        return waiters.size();
+    }
+
     /**
      * Finds the last instance of a message in the buffer matching the provided gKey.
      * <p>
@@ -218,13 +276,12 @@ public class BufferedKafkaConsumer extends KafkaConsumerBase<Object, GenericReco
      * @param gKey the string representation of the gKey to search for in the buffer
      * @return the {@link MessageMetadata} object with the matching gKey, or null if no match is found
      */
-    public MessageMetadata findLastGkeyInstance(String gKey) {
+    public synchronized MessageMetadata findLastGkeyInstance(String gKey) {
         try {
             Long gKeyValue = Long.parseLong(gKey);
-            for (MessageMetadata metadata : buffer) {
-                if (metadata.gKeyValue().equals(gKeyValue)) {
-                    return metadata;
-                }
+            MessageMetadata metadata = buffer.get(gKeyValue);
+            if (metadata != null) {
+                return metadata;
             }
             LOG.info("No record found for gKeyValue = {}", gKeyValue);
         } catch (NumberFormatException e) {
@@ -233,21 +290,11 @@ public class BufferedKafkaConsumer extends KafkaConsumerBase<Object, GenericReco
         return null;
     }
 
-    private void printBuffer() {
-        LOG.info("Buffer for topic {} contains {} records:", topic, buffer.size());
-
-        buffer.stream()
-                .sorted(Comparator.comparingLong(MessageMetadata::timestamp)
-                        .reversed()
-                        .thenComparingLong(MessageMetadata::gKeyValue)
-                        .reversed())
-                .limit(25)
-                .forEach(singleRecord -> LOG.info(singleRecord.toString()));
-    }
-
-
-    public BlockingQueue<MessageMetadata> getBuffer() {
-        return buffer;
+    /**
+     * @return a copy of the buffered records, oldest first.
+     */
+    public synchronized List<MessageMetadata> getBuffer() {
+        return buffer.toList();
     }
 
     public record MessageMetadata(String gKey, Long gKeyValue, Long timestamp) {
@@ -10,6 +10,7 @@ import com.avlino.common.utils.CsvParser;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,6 +19,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static com.aicon.tos.ConfigDomain.getPrefixedTopic;
@@ -28,6 +30,10 @@ import static com.aicon.tos.ConfigDomain.prefixIfNeeded;
  * It manages Kafka producers for different topics and supports sending generic Avro
  * records as messages to Kafka. Additionally, it provides utility methods for managing
  * generic Avro records and parsing data into schema-compatible formats.
+ * <p>
+ * To send many messages, the schemas of a topic are loaded once ({@link #loadSchemas}), the messages are prepared in
+ * advance ({@link #prepareMessage}) and sent without waiting for each other ({@link #sendPreparedMessage}). The loaded
+ * schemas are kept until the schema registry has a new version of them.
  */
 public class DynamicTestKafkaProducer {
 
@@ -35,6 +41,24 @@ public class DynamicTestKafkaProducer {
 
     // Map to manage Kafka producers per topic
     private final Map<String, KafkaProducerBase<GenericRecord, GenericRecord>> producerMap = new ConcurrentHashMap<>();
+    private final Map<String, TopicSchemas> topicSchemasMap = new ConcurrentHashMap<>();
+
+    /**
+     * The key and value schemas of a CDC topic, with the record schemas of the envelope and the types of their fields
+     * (nullable unions unwrapped) resolved.
+     */
+    public record TopicSchemas(String topic, Schema keySchema, Schema envelopeSchema,
+                               Schema beforeSchema, Schema afterSchema, Schema sourceSchema,
+                               List<Schema> beforeTypes, List<Schema> afterTypes) {
+    }
+
+    /**
+     * A message with its key and value records built, ready to be sent to a test topic.
+     *
+     * @param topic the (prefixed) topic the schemas are from.
+     */
+    public record PreparedMessage(String topic, GenericRecord key, GenericRecord value) {
+    }
 
     public boolean sendMessagToTestTopic(String topic, String testTopic, String[] before, String[] after) {
         topic = prefixIfNeeded(topic);
@@ -43,13 +67,85 @@ public class DynamicTestKafkaProducer {
         KafkaProducerBase<GenericRecord, GenericRecord> producer = setUpTestTopic(topic, testTopic);
 
         // TODO because of LBCT does not permit to create schemas, reuse schema of original topic
-        GenericRecord valueMessage = setUpValueGenericRecord(topic, before, after);
-        GenericRecord keyMessage = setUpKeyGenericRecord(topic, getKey(before, after));
-        sendMessage(testTopic, producer, keyMessage , valueMessage);
+        PreparedMessage message = prepareMessage(loadSchemas(topic), before, after);
+        sendMessage(testTopic, producer, message.key(), message.value());
 
         return true;
     }
 
+    /**
+     * Loads the key and value schemas of the topic from the (cached) registry, they are only resolved again when the
+     * registry has a new version.
+     *
+     * @param topic the CDC topic.
+     * @return the schemas of the topic.
+     */
+    public TopicSchemas loadSchemas(String topic) {
+        String prefixedTopic = prefixIfNeeded(topic);
+        Schema keySchema = SchemaLoader.getKeySchemaFromRegistry(prefixedTopic);
+        Schema envelopeSchema = SchemaLoader.getValueSchemaFromRegistry(prefixedTopic);
+        TopicSchemas schemas = topicSchemasMap.get(prefixedTopic);
+        if (schemas == null || schemas.keySchema() != keySchema || schemas.envelopeSchema() != envelopeSchema) {
+            Schema beforeSchema = recordOfUnion(envelopeSchema, "before");
+            Schema afterSchema = recordOfUnion(envelopeSchema, "after");
+            schemas = new TopicSchemas(prefixedTopic, keySchema, envelopeSchema, beforeSchema, afterSchema,
+                    envelopeSchema.getField("source").schema(),
+                    fieldTypes(beforeSchema), fieldTypes(afterSchema));
+            topicSchemasMap.put(prefixedTopic, schemas);
+        }
+        return schemas;
+    }
+
+    private static List<Schema> fieldTypes(Schema recordSchema) {
+        return recordSchema.getFields().stream()
+                .map(field -> SchemaFieldExtractor.unwrapNullableUnion(field.schema()))
+                .toList();
+    }
+
+    private static Schema recordOfUnion(Schema envelopeSchema, String fieldName) {
+        return envelopeSchema.getField(fieldName).schema().getTypes().stream()
+                .filter(s -> s.getType() == Schema.Type.RECORD).findFirst()
+                .orElseThrow(() -> new RuntimeException("No record type found for '" + fieldName + "' field"));
+    }
+
+    /**
+     * Builds the key and value records of a message from the columns of the before and after images.
+     *
+     * @param schemas the schemas of the topic.
+     * @param before  the columns of the before image (can be null).
+     * @param after   the columns of the after image (can be null).
+     * @return the message, the timestamps in it are set when it is sent.
+     */
+    public PreparedMessage prepareMessage(TopicSchemas schemas, String[] before, String[] after) {
+        GenericRecord valueMessage = setUpValueGenericRecord(schemas, before, after);
+        GenericRecord keyMessage = setUpKeyGenericRecord(schemas.keySchema(), getKey(before, after));
+        return new PreparedMessage(schemas.topic(), keyMessage, valueMessage);
+    }
+
+    /**
+     * Sends a prepared message to the test topic, without waiting for the broker.
+     *
+     * @param testTopic the topic to send to.
+     * @param message   the message, it is sent with the current time as ts_ms.
+     * @return a future completing when the broker acknowledged the message.
+     */
+    public CompletableFuture<RecordMetadata> sendPreparedMessage(String testTopic, PreparedMessage message) {
+        KafkaProducerBase<GenericRecord, GenericRecord> producer = setUpTestTopic(message.topic(), prefixIfNeeded(testTopic));
+        long now = System.currentTimeMillis();
+        message.value().put("ts_ms", now);
+        if (message.value().get("source") instanceof GenericRecord source) {
+            source.put("ts_ms", now);
+        }
+        return producer.sendMessageAsync(message.key(), message.value());
+    }
+
+    /**
+     * Sends the messages of all producers that are still batched.
+     */
+    public void flushAllProducers() {
+        producerMap.values().forEach(KafkaProducerBase::flush);
+    }
+
     private Long getKey(String[] before, String[] after) {
         if (before != null)
             return Long.parseLong(before[0]);
@@ -113,34 +209,19 @@ public class DynamicTestKafkaProducer {
         producerMap.clear(); // Optional: Clear the producer map after closing all producers
     }
 
-    private GenericRecord setUpKeyGenericRecord(String topic, Long key) {
-        Schema keySchema = SchemaLoader.getKeySchemaFromRegistry(topic);
-
+    private GenericRecord setUpKeyGenericRecord(Schema keySchema, Long key) {
         GenericRecord keyRecord = new GenericData.Record(keySchema);
         setField(keyRecord, "gkey", key);
 
         return keyRecord;
     }
 
-    private GenericRecord setUpValueGenericRecord(String topic, String[] before, String[] after) {
-        Schema afterSchema;
-        Schema beforeSchema;
-        Schema sourceSchema;
-        Schema envelopeSchema = SchemaLoader.getValueSchemaFromRegistry(topic);
-
-        afterSchema = envelopeSchema.getField("after").schema().getTypes().stream()
-                .filter(s -> s.getType() == Schema.Type.RECORD).findFirst()
-                .orElseThrow(() -> new RuntimeException("No record type found for 'after' field"));
-        beforeSchema = envelopeSchema.getField("before").schema().getTypes().stream()
-                .filter(s -> s.getType() == Schema.Type.RECORD).findFirst()
-                .orElseThrow(() -> new RuntimeException("No record type found for 'before' field"));
-        sourceSchema = envelopeSchema.getField("source").schema();
-
-        GenericRecord beforeRecord = populateGenericRecord(before, beforeSchema);
-        GenericRecord afterRecord = populateGenericRecord(after, afterSchema);
-        GenericRecord sourceRecord = populateSourceRecord(sourceSchema);
+    private GenericRecord setUpValueGenericRecord(TopicSchemas schemas, String[] before, String[] after) {
+        GenericRecord beforeRecord = populateGenericRecord(before, schemas.beforeSchema(), schemas.beforeTypes());
+        GenericRecord afterRecord = populateGenericRecord(after, schemas.afterSchema(), schemas.afterTypes());
+        GenericRecord sourceRecord = populateSourceRecord(schemas.sourceSchema());
 
-        GenericRecord envelopeRecord = new GenericData.Record(envelopeSchema);
+        GenericRecord envelopeRecord = new GenericData.Record(schemas.envelopeSchema());
         setField(envelopeRecord, "before", beforeRecord);
         setField(envelopeRecord, "after", afterRecord);
         setField(envelopeRecord, "source", sourceRecord);
@@ -150,33 +231,32 @@ public class DynamicTestKafkaProducer {
         return envelopeRecord;
     }
 
-    private GenericRecord populateGenericRecord(String[] data, Schema schema) {
+    private GenericRecord populateGenericRecord(String[] data, Schema schema, List<Schema> fieldTypes) {
         if (data == null) {
             return null;
         }
 
         GenericRecord genericRecord = new GenericData.Record(schema);
 
-        if (data.length != schema.getFields().size()) {
+        if (data.length != fieldTypes.size()) {
             throw new IllegalArgumentException(String.format(
                     "Invalid data size: expected %d fields but received %d.",
-                    schema.getFields().size(), data.length
+                    fieldTypes.size(), data.length
             ));
         }
 
-        for (int i = 0; i < schema.getFields().size(); i++) {
-            Schema.Field field = schema.getFields().get(i);
-            Schema fieldSchema = SchemaFieldExtractor.unwrapNullableUnion(field.schema());
+        for (int i = 0; i < fieldTypes.size(); i++) {
+            Schema fieldSchema = fieldTypes.get(i);
             Object value = parseValue(data[i], fieldSchema);
 
             try {
                 // Ensure compatibility and handle type conversions where necessary
                 value = toSchemaCompatibleValue(value, fieldSchema);
 
-                genericRecord.put(field.name(), value);
+                genericRecord.put(i, value);
             } catch (Exception e) {
                 LOG.error("Field '{}' serialization failed. Expected type: {}, Value: '{}'.",
-                        field.name(), fieldSchema.getType(), data[i], e);
+                        schema.getFields().get(i).name(), fieldSchema.getType(), data[i], e);
                 throw e;
             }
         }
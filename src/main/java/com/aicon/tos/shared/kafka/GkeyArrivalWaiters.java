@@ -0,0 +1,58 @@
+package com.aicon.tos.shared.kafka;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of parties waiting for a gkey to arrive on a topic. Each waiter gets its own future, which is completed
+ * with the arrival timestamp as soon as the gkey is ingested, or with null when its timeout expires first. Timeouts
+ * are handled by the delayer of {@link CompletableFuture}, so no thread is blocked while waiting (unless the caller
+ * chooses to join the future).
+ * <p>
+ * The owner must make sure a gkey can not arrive between checking its buffer and registering the waiter, e.g. by
+ * doing both while holding the same lock as used for adding to its buffer.
+ */
+class GkeyArrivalWaiters {
+    private final Map<Long, List<CompletableFuture<Long>>> waiters = new HashMap<>();
+
+    /**
+     * Registers a waiter for the gkey.
+     * @param gKeyValue the gkey to wait for
+     * @param timeoutMs the max time to wait in ms
+     * @return the future completing with the arrival timestamp, or null when not arrived within the timeout.
+     */
+    CompletableFuture<Long> register(Long gKeyValue, long timeoutMs) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        synchronized (this) {
+            waiters.computeIfAbsent(gKeyValue, key -> new ArrayList<>(1)).add(future);
+        }
+        future.completeOnTimeout(null, Math.max(0, timeoutMs), TimeUnit.MILLISECONDS);
+        // the waiter sees the result only after it is unregistered
+        return future.whenComplete((ts, e) -> unregister(gKeyValue, future));
+    }
+
+    /**
+     * Removes the waiters for the gkey, the caller should complete them (preferably after releasing its own locks).
+     * @return the waiters for the gkey, empty when none.
+     */
+    synchronized List<CompletableFuture<Long>> arrived(Long gKeyValue) {
+        List<CompletableFuture<Long>> waiting = waiters.remove(gKeyValue);
+        return waiting != null ? waiting : List.of();
+    }
+
+    synchronized int size() {
+        int size = 0;
+        for (List<CompletableFuture<Long>> waiting : waiters.values()) {
+            size += waiting.size();
+        }
+        return size;
+    }
+
+    private synchronized void unregister(Long gKeyValue, CompletableFuture<Long> future) {
+        List<CompletableFuture<Long>> waiting = waiters.get(gKeyValue);
+        if (waiting != null && waiting.remove(future) && waiting.isEmpty()) {
+            waiters.remove(gKeyValue);
+        }
+    }
+}
@@ -13,7 +13,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -41,9 +44,19 @@ public class KafkaConfig {
     public static final int POLL_WAIT_IN_MSEC = 2000;
     public static final int RETRY_POLL_WAIT_IN_MSEC = 5000;
     public static final String DEFAULT_AUTO_OFFSET_RESET = "latest";
+    public static final String DEFAULT_PRODUCER_LINGER_MS = "5";
+    public static final String DEFAULT_PRODUCER_BATCH_SIZE = "65536";
+    public static final String DEFAULT_PRODUCER_COMPRESSION_TYPE = "lz4";
+    static final List<String> COMPRESSION_TYPES = List.of("none", "gzip", "snappy", "lz4", "zstd");
 
     private static String schemaRegistryUrl;
 
+    // the response topics per flow id, read again when the configuration got reloaded
+    private record FlowTopics(ConfigSettings config, Map<String, String> topics) {
+    }
+
+    private static volatile FlowTopics flowResponseTopics = null;
+
     private KafkaConfig() {
         throw new IllegalStateException("Utility class");
     }
@@ -143,11 +156,49 @@ public class KafkaConfig {
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, KafkaAvroSerializer.class.getName());
         props.put(ProducerConfig.RETRIES_CONFIG, "2");
         props.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, "500");
+        // producers are shared per topic, so batch the messages of concurrent sessions
+        ConfigGroup connections = ConfigSettings.getInstance().getMainGroup(ConfigType.Connections);
+        ConfigGroup kafkaConfig = connections != null ? connections.getChildGroup(ConfigType.Kafka) : null;
+        props.put(ProducerConfig.LINGER_MS_CONFIG, getProducerSetting(kafkaConfig,
+                ConfigSettings.CFG_KAFKA_PRODUCER_LINGER_MS, DEFAULT_PRODUCER_LINGER_MS));
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, getProducerSetting(kafkaConfig,
+                ConfigSettings.CFG_KAFKA_PRODUCER_BATCH_SIZE, DEFAULT_PRODUCER_BATCH_SIZE));
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, getProducerSetting(kafkaConfig,
+                ConfigSettings.CFG_KAFKA_PRODUCER_COMPRESSION_TYPE, DEFAULT_PRODUCER_COMPRESSION_TYPE));
         props.put("auto.register.schemas", "true");
 
         return props;
     }
 
+    /**
+     * @param kafkaConfig the Kafka group of the configuration, can be null.
+     * @param key         one of the producer keys, a number or the compression type.
+     * @param defaultValue the value when not (validly) configured.
+     * @return the configured value of the producer setting.
+     */
+    static String getProducerSetting(ConfigGroup kafkaConfig, String key, String defaultValue) {
+        String value = kafkaConfig != null ? kafkaConfig.getItemValue(key, null) : null;
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        value = value.trim();
+        if (ConfigSettings.CFG_KAFKA_PRODUCER_COMPRESSION_TYPE.equals(key)) {
+            if (COMPRESSION_TYPES.contains(value)) {
+                return value;
+            }
+        } else {
+            try {
+                if (Integer.parseInt(value) >= 0) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // falls through to the warning
+            }
+        }
+        LOG.warn("Invalid {}={}, using {}", key, value, defaultValue);
+        return defaultValue;
+    }
+
     /**
      * Utility method to print Kafka configuration properties to the logger.
      */
@@ -178,8 +229,24 @@ public class KafkaConfig {
         return getFlowTopic(flowId,"topic.source");
     }
 
+    /**
+     * @return the response topic of the flow, looked up once per configuration as it is asked for every response.
+     */
     static String getFlowResponseTopic(String flowId) {
-        return getFlowTopic(flowId,"topic.response.ok");
+        ConfigSettings config = ConfigSettings.getInstance();
+        FlowTopics cached = flowResponseTopics;
+        if (cached == null || cached.config() != config) {
+            cached = new FlowTopics(config, new ConcurrentHashMap<>());
+            flowResponseTopics = cached;
+        }
+        String topic = cached.topics().get(flowId);
+        if (topic == null) {
+            topic = getFlowTopic(flowId,"topic.response.ok");
+            if (topic != null) {
+                cached.topics().put(flowId, topic);
+            }
+        }
+        return topic;
     }
 
     static String getFlowTopic(String flowId, String topicType) {
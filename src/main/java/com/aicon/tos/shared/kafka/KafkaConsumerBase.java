@@ -180,6 +180,30 @@ public abstract class KafkaConsumerBase<K, V extends GenericRecord> {
         status.setProgress(STOPPED);
     }
 
+    /**
+     * Stops fetching records from the currently assigned partitions, while polling continues (returning no records
+     * for these partitions) to keep the consumer in its group. Used as backpressure when the records can not be
+     * processed fast enough, must be called from the polling thread.
+     */
+    public void pause() {
+        synchronized (consumerLock) {
+            if (consumer != null) {
+                consumer.pause(consumer.assignment());
+            }
+        }
+    }
+
+    /**
+     * Continues fetching records from the paused partitions, must be called from the polling thread.
+     */
+    public void resume() {
+        synchronized (consumerLock) {
+            if (consumer != null) {
+                consumer.resume(consumer.paused());
+            }
+        }
+    }
+
     public void setPollingWorkerThread(Thread newThread) {
         pollingWorkerThread.set(newThread); // Safely update the polling thread
     }
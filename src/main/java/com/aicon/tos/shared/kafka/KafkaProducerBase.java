@@ -6,11 +6,15 @@ import org.apache.avro.generic.GenericRecord;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.KafkaException;
 import org.apache.kafka.common.errors.InvalidConfigurationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
 import static com.aicon.tos.shared.ResultLevel.ERROR;
 import static com.aicon.tos.shared.ResultLevel.WARN;
 import static com.aicon.tos.shared.connectors.ConnectorProgress.ConnectorState.*;
@@ -18,14 +22,17 @@ import static com.aicon.tos.shared.connectors.ConnectorProgress.ConnectorState.*
 /**
  * Abstract base class for producing messages to a Kafka topic.
  * Provides common functionality for sending Avro-based messages to Kafka.
+ * The producer is thread-safe, so one instance per topic can be shared by all sessions, see
+ * {@link ProducerManager#getSharedProducer}.
  *
  * @param <K> The type of the key for Kafka messages.
  * @param <V> The type of the value for Kafka messages, extending {@link GenericRecord}.
  */
 public abstract class KafkaProducerBase<K, V extends GenericRecord> {
     private static final Logger LOG = LoggerFactory.getLogger(KafkaProducerBase.class);
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(10);
 
-    protected KafkaProducer<K, V> producer;
+    protected volatile KafkaProducer<K, V> producer;
     protected String topic;
     protected ConnectorProgress status;
     private boolean propAllowTopicCreation;
@@ -45,27 +52,41 @@ public abstract class KafkaProducerBase<K, V extends GenericRecord> {
         createProducerWhenNull();
     }
 
-    private KafkaProducer createProducerWhenNull() {
+    /**
+     * Returns the producer, creating it when Kafka is reachable and the topic may be used. Kafka is asked outside the
+     * lock, so senders of a shared producer don't wait on each other while Kafka is not reachable.
+     */
+    private KafkaProducer<K, V> createProducerWhenNull() {
+        KafkaProducer<K, V> current = producer;
+        if (current != null) {
+            return current;
+        }
         try {
-            if (producer == null) {    // we can only answer the questions below when kafka is reachable.
-                if (kafkaAdmin.isKafkaReachable()) {
-                    status.setProgress(INITIALISING);
-                    if (allowTopicCreation || kafkaAdmin.topicExistsExactly(topic)) {
-                        producer = new KafkaProducer<>(KafkaConfig.getProducerProps());
-                        status.setProgressWhen(INITIALIZED, INITIALISING).resetResult();
-                        LOG.info("Kafka producer created for topic: {}", topic);
-                    } else {
-                        String text = String.format("Kafka topic %s not created because we are not allowed to", topic);
-                        status.setProgress(FAILED, ERROR, text);
-                        LOG.error(text);
-                    }
-                } else {
-                    status.setResult(WARN, "Kafka not reachable yet, check VPN, broker url");
-                }
-            } // else we stay IDLE until we have an answer
+            // we can only answer the questions below when kafka is reachable.
+            if (!kafkaAdmin.isKafkaReachable()) {
+                status.setResult(WARN, "Kafka not reachable yet, check VPN, broker url");
+                return null;    // we stay IDLE until we have an answer
+            }
+            status.setProgress(INITIALISING);
+            if (!allowTopicCreation && !kafkaAdmin.topicExistsExactly(topic)) {
+                String text = String.format("Kafka topic %s not created because we are not allowed to", topic);
+                status.setProgress(FAILED, ERROR, text);
+                LOG.error(text);
+                return null;
+            }
+            return createProducer();
         } catch (Exception e) {
             status.setResult(ERROR, String.format("Failed to create %s for topic: ", getName(), topic));
             LOG.error("Failed to initialize Kafka producer for topic {}, reason: {}", topic, e.getMessage());
+            return null;
+        }
+    }
+
+    private synchronized KafkaProducer<K, V> createProducer() {
+        if (producer == null) {
+            producer = new KafkaProducer<>(KafkaConfig.getProducerProps());
+            status.setProgressWhen(INITIALIZED, INITIALISING).resetResult();
+            LOG.info("Kafka producer created for topic: {}", topic);
         }
         return producer;
     }
@@ -75,33 +96,71 @@ public abstract class KafkaProducerBase<K, V extends GenericRecord> {
             K key,
             V message
     ) throws KafkaException {
-        createProducerWhenNull();
-        if (producer != null) {
-            status.setProgressWhen(CONNECTING, INITIALIZED);
-            ProducerRecord<K, V> producerRecord = new ProducerRecord<>(topic, key, message);
-            LOG.info("Sending message with key: {} to topic: {}", key, topic);
-            producer.send(producerRecord, (metadata, exception) -> {
-                if (exception == null) {
-                    status.setProgress(CONNECTED).resetResult();
-                    LOG.info("Message successfully sent to topic: {} with key: {}", topic, key);
-                } else {
-                    String msg;
-                    if (exception instanceof InvalidConfigurationException) {
-                        msg = "Configuration error";
-                    } else {
-                        msg = "VPN, kafka broker?";
-                    }
-                    msg = String.format("Failed to send message for %s (%s): %s", getName(), msg, exception.getMessage());
-                    status.setResult(ERROR, msg);
-                    LOG.error(msg);
-                }
-            });
+        KafkaProducer<K, V> kafkaProducer = createProducerWhenNull();
+        if (kafkaProducer != null) {
+            send(kafkaProducer, key, message);
             if (status.getResultLevel() == ERROR) {
                 throw new KafkaException(status.getResultMessage());
             }
         }
     }
 
+    /**
+     * Sends the message without waiting for the acknowledgement of the broker, the message is batched with other
+     * messages for the topic as configured in {@link KafkaConfig#getProducerProps()}.
+     *
+     * @param key     the key of the message.
+     * @param message the message.
+     * @return a future completing with the metadata of the sent message, or exceptionally when it could not be sent.
+     */
+    public CompletableFuture<RecordMetadata> sendMessageAsync(K key, V message) {
+        KafkaProducer<K, V> kafkaProducer = createProducerWhenNull();
+        if (kafkaProducer == null) {
+            return CompletableFuture.failedFuture(new KafkaException(
+                    String.format("%s has no producer for topic %s", getName(), topic)));
+        }
+        return send(kafkaProducer, key, message);
+    }
+
+    private CompletableFuture<RecordMetadata> send(KafkaProducer<K, V> kafkaProducer, K key, V message) {
+        CompletableFuture<RecordMetadata> result = new CompletableFuture<>();
+        status.setProgressWhen(CONNECTING, INITIALIZED);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Sending message with key: {} to topic: {}", key, topic);
+        }
+        kafkaProducer.send(new ProducerRecord<>(topic, key, message), (metadata, exception) -> {
+            if (exception == null) {
+                status.setProgress(CONNECTED).resetResult();
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Message successfully sent to topic: {} with key: {}", topic, key);
+                }
+                result.complete(metadata);
+            } else {
+                String msg;
+                if (exception instanceof InvalidConfigurationException) {
+                    msg = "Configuration error";
+                } else {
+                    msg = "VPN, kafka broker?";
+                }
+                msg = String.format("Failed to send message for %s (%s): %s", getName(), msg, exception.getMessage());
+                status.setResult(ERROR, msg);
+                LOG.error(msg);
+                result.completeExceptionally(exception);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Sends all batched messages and waits until they are acknowledged (or failed).
+     */
+    public void flush() {
+        KafkaProducer<K, V> kafkaProducer = producer;
+        if (kafkaProducer != null) {
+            kafkaProducer.flush();
+        }
+    }
+
     public ConnectorProgress getStatus() {
         return status;
     }
@@ -109,11 +168,11 @@ public abstract class KafkaProducerBase<K, V extends GenericRecord> {
     /**
      * Close the producer and release all resources.
      */
-    public void close() {
+    public synchronized void close() {
         status.setProgress(STOPPING);
         if (producer != null) {
             try {
-                producer.close();
+                producer.close(CLOSE_TIMEOUT);    // sends the batched messages first
                 producer = null;
                 status.setProgress(STOPPED);
                 LOG.info("Kafka producer for topic: {} closed.", topic);
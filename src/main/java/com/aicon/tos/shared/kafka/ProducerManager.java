@@ -5,22 +5,61 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+/**
+ * Keeps track of all producers, to close them at shutdown. Producers that are used per request (e.g. to send the
+ * responses of flow sessions) should be obtained with {@link #getSharedProducer}, so all sessions share one
+ * long-lived producer per topic instead of connecting a new producer for every message.
+ */
 public class ProducerManager {
     private static final Logger LOG = LoggerFactory.getLogger(ProducerManager.class);
 
     private static final List<KafkaProducerBase<?, ?>> producers = new ArrayList<>();
+    // by type and then by topic, all producers use the serializers of KafkaConfig#getProducerProps()
+    private static final Map<Class<?>, Map<String, KafkaProducerBase<?, ?>>> sharedProducers = new ConcurrentHashMap<>();
 
-    public static void registerProducer(KafkaProducerBase<?, ?> producer) {
+    public static synchronized void registerProducer(KafkaProducerBase<?, ?> producer) {
         LOG.info("Add producer for topic: {}",producer.getTopicName());
         producers.add(producer);
     }
 
-    public static void closeAllProducers() {
+    /**
+     * Returns the shared producer of the given type for the topic, creating it the first time. This is called for
+     * every message sent, so once created it only takes 2 map lookups.
+     *
+     * @param topic   the topic the producer sends to.
+     * @param type    the type of the producer.
+     * @param factory creates the producer when there is no shared one yet.
+     * @return the shared producer.
+     */
+    public static <P extends KafkaProducerBase<?, ?>> P getSharedProducer(String topic, Class<P> type, Supplier<P> factory) {
+        Map<String, KafkaProducerBase<?, ?>> byTopic = sharedProducers.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+        return type.cast(byTopic.computeIfAbsent(Objects.toString(topic, ""), t -> {
+            LOG.info("Create shared producer {} for topic: {}", type.getSimpleName(), topic);
+            return factory.get();
+        }));
+    }
+
+    /**
+     * Flushes the messages batched by all producers, and then closes them.
+     */
+    public static synchronized void closeAllProducers() {
+        for (KafkaProducerBase<?, ?> producer : producers) {
+            try {
+                producer.flush();
+            } catch (Exception e) {
+                LOG.warn("Flush failed for producer of topic: {}", producer.getTopicName(), e);
+            }
+        }
         for (KafkaProducerBase<?, ?> producer : producers) {
             LOG.info("Close producer for topic: {}",producer.getTopicName());
             producer.close();
         }
         producers.clear();
+        sharedProducers.clear();
     }
-}
\ No newline at end of file
+}
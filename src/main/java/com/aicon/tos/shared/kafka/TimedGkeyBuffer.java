@@ -0,0 +1,68 @@
+package com.aicon.tos.shared.kafka;
+
+import com.aicon.tos.shared.kafka.BufferedKafkaConsumer.MessageMetadata;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Buffer of {@link MessageMetadata} indexed by gkey and kept in order of arrival time, so that:
+ * <ul>
+ *     <li>adding (skipping duplicate gkeys, the first arrival is kept) and looking up a gkey are O(1);</li>
+ *     <li>removing the records older than a timestamp only touches the removed records (amortized O(1)).</li>
+ * </ul>
+ * The order of arrival is the time order as long as records are added with non-decreasing timestamps; older
+ * timestamps are raised to the newest one added, so the order can never be broken.
+ * Not thread-safe, the owner should synchronize the access.
+ */
+class TimedGkeyBuffer {
+    private final LinkedHashMap<Long, MessageMetadata> entries = new LinkedHashMap<>();
+    private long newestTimestamp = Long.MIN_VALUE;
+
+    /**
+     * Adds the metadata when its gkey is not in the buffer yet.
+     * @return the metadata as added, or null when the gkey was in the buffer already.
+     */
+    MessageMetadata add(MessageMetadata metadata) {
+        if (entries.containsKey(metadata.gKeyValue())) {
+            return null;
+        }
+        if (metadata.timestamp() < newestTimestamp) {
+            metadata = new MessageMetadata(metadata.gKey(), metadata.gKeyValue(), newestTimestamp);
+        }
+        newestTimestamp = metadata.timestamp();
+        entries.put(metadata.gKeyValue(), metadata);
+        return metadata;
+    }
+
+    MessageMetadata get(Long gKeyValue) {
+        return entries.get(gKeyValue);
+    }
+
+    /**
+     * Removes all records with a timestamp earlier than the given one.
+     * @return the nr of records removed.
+     */
+    int removeOlderThan(long timestamp) {
+        int removed = 0;
+        Iterator<MessageMetadata> it = entries.values().iterator();
+        while (it.hasNext() && it.next().timestamp() < timestamp) {
+            it.remove();
+            removed++;
+        }
+        return removed;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return a copy of the records, oldest first.
+     */
+    List<MessageMetadata> toList() {
+        return new ArrayList<>(entries.values());
+    }
+}
@@ -0,0 +1,182 @@
+package com.aicon.tos.shared.xml;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Caches a JAXBContext per class, creating a context is one of the most expensive calls of JAXB while a context is
+ * thread-safe. The (not thread-safe) marshallers and unmarshallers are pooled per class, so they are only created
+ * when more threads are (un)marshalling the same class at the same time.
+ * <p>
+ * Unmarshalling is done with a StAX stream reader of a shared input factory, which streams the document into the
+ * objects without creating a SAX parser per call.
+ */
+public final class JaxbContextCache {
+    private static final int MAX_POOLED = 16;
+    private static final Map<Class<?>, Entry> ENTRIES = new ConcurrentHashMap<>();
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private JaxbContextCache() {
+        // Prevent instantiation
+    }
+
+    private static final class Entry {
+        private final JAXBContext context;
+        private final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+        private final Queue<Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<>();
+
+        private Entry(JAXBContext context) {
+            this.context = context;
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // prevent XXE attacks
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * @param type the class to bind.
+     * @return the cached context for the class.
+     * @throws JAXBException when the context could not be created.
+     */
+    public static JAXBContext getContext(Class<?> type) throws JAXBException {
+        return getEntry(type).context;
+    }
+
+    private static Entry getEntry(Class<?> type) throws JAXBException {
+        Entry entry = ENTRIES.get(type);
+        if (entry == null) {
+            // creating it twice in a race is harmless, only one gets cached.
+            Entry created = new Entry(JAXBContext.newInstance(type));
+            entry = ENTRIES.putIfAbsent(type, created);
+            if (entry == null) {
+                entry = created;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Marshals the object to an XML string.
+     *
+     * @param object    the object to marshal.
+     * @param type      the bound class of the object.
+     * @param formatted true to indent the output.
+     * @param fragment  true to leave out the XML declaration.
+     * @return the XML string.
+     * @throws JAXBException when marshalling failed.
+     */
+    public static String marshal(Object object, Class<?> type, boolean formatted, boolean fragment) throws JAXBException {
+        Entry entry = getEntry(type);
+        Marshaller marshaller = entry.marshallers.poll();
+        if (marshaller == null) {
+            marshaller = entry.context.createMarshaller();
+        }
+        try {
+            // always set, a pooled marshaller keeps the properties of its previous use.
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formatted);
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, fragment);
+            StringWriter writer = new StringWriter();
+            marshaller.marshal(object, writer);
+            return writer.toString();
+        } finally {
+            release(entry.marshallers, marshaller);
+        }
+    }
+
+    /**
+     * Unmarshals the XML read from the reader, streaming it with StAX.
+     *
+     * @param reader the XML to read.
+     * @param type   the class to unmarshal the root element to.
+     * @return the unmarshalled object.
+     * @throws JAXBException when the XML could not be read or unmarshalled.
+     */
+    public static <T> T unmarshal(Reader reader, Class<T> type) throws JAXBException {
+        try {
+            return unmarshal(INPUT_FACTORY.createXMLStreamReader(reader), type);
+        } catch (XMLStreamException e) {
+            throw new JAXBException("Failed to read XML for " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Unmarshals the XML read from the stream, streaming it with StAX. To be preferred for large documents, as
+     * the document is never held as a whole.
+     *
+     * @param stream the XML to read, in the encoding specified in its declaration (default UTF-8).
+     * @param type   the class to unmarshal the root element to.
+     * @return the unmarshalled object.
+     * @throws JAXBException when the XML could not be read or unmarshalled.
+     */
+    public static <T> T unmarshal(InputStream stream, Class<T> type) throws JAXBException {
+        try {
+            return unmarshal(INPUT_FACTORY.createXMLStreamReader(stream), type);
+        } catch (XMLStreamException e) {
+            throw new JAXBException("Failed to read XML for " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Unmarshals the XML file.
+     *
+     * @param file the XML file.
+     * @param type the class to unmarshal the root element to.
+     * @return the unmarshalled object.
+     * @throws JAXBException when the file could not be read or unmarshalled.
+     */
+    public static <T> T unmarshal(File file, Class<T> type) throws JAXBException {
+        Entry entry = getEntry(type);
+        Unmarshaller unmarshaller = acquireUnmarshaller(entry);
+        try {
+            return type.cast(unmarshaller.unmarshal(file));
+        } finally {
+            release(entry.unmarshallers, unmarshaller);
+        }
+    }
+
+    private static <T> T unmarshal(XMLStreamReader xmlReader, Class<T> type) throws JAXBException {
+        Entry entry = getEntry(type);
+        Unmarshaller unmarshaller = acquireUnmarshaller(entry);
+        try {
+            // unmarshalled by its root element, so a document with another root element is rejected.
+            return type.cast(unmarshaller.unmarshal(xmlReader));
+        } finally {
+            release(entry.unmarshallers, unmarshaller);
+            try {
+                xmlReader.close();
+            } catch (XMLStreamException e) {
+                // nothing to release, the underlying reader is closed by the caller.
+            }
+        }
+    }
+
+    private static Unmarshaller acquireUnmarshaller(Entry entry) throws JAXBException {
+        Unmarshaller unmarshaller = entry.unmarshallers.poll();
+        return unmarshaller != null ? unmarshaller : entry.context.createUnmarshaller();
+    }
+
+    private static <T> void release(Queue<T> pool, T instance) {
+        if (pool.size() < MAX_POOLED) {
+            pool.offer(instance);
+        }
+    }
+}
@@ -3,10 +3,7 @@ package com.aicon.tos.shared.xml;
 import generated.Config;
 import generated.Connections;
 import generated.Http;
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
-import jakarta.xml.bind.Marshaller;
-import jakarta.xml.bind.Unmarshaller;
 import org.jdom2.Attribute;
 import org.jdom2.Document;
 import org.jdom2.Element;
@@ -20,7 +17,6 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.StringReader;
-import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -31,13 +27,7 @@ public class XMLHandler {
 
     public static <T> T readXML(String filePath, Class<T> clazz) {
         try {
-            JAXBContext context = JAXBContext.newInstance(clazz);
-
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-
-            @SuppressWarnings("unchecked")
-            T object = (T) unmarshaller.unmarshal(new File(filePath));
-            return object;
+            return JaxbContextCache.unmarshal(new File(filePath), clazz);
 
         } catch (JAXBException e) {
             e.printStackTrace();
@@ -112,13 +102,7 @@ public class XMLHandler {
     public static Element convertToElement(Config config) {
         try {
             // Marshal the Config object to an XML string
-            JAXBContext jaxbContext = JAXBContext.newInstance(Config.class);
-            Marshaller marshaller = jaxbContext.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, false);
-
-            StringWriter sw = new StringWriter();
-            marshaller.marshal(config, sw);
-            String xmlString = sw.toString();
+            String xmlString = JaxbContextCache.marshal(config, Config.class, false, false);
 
             // Parse the XML string into a JDOM Document
             // Use the SAXBuilder configured to prevent XXE attacks
@@ -2,9 +2,7 @@ package com.aicon.tos.shared.xml;
 
 import com.aicon.tos.shared.exceptions.DeserializationException;
 import com.aicon.tos.shared.exceptions.SerializationException;
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
-import jakarta.xml.bind.Marshaller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,28 +23,21 @@ public class XmlUtil {
     }
 
     public static <T> String serialize(Object requestObject, Class<T> fromClass) throws SerializationException {
-        StringWriter stringWriter = new StringWriter();
         try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(fromClass);
-            Marshaller marshaller = jaxbContext.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
-            marshaller.marshal(requestObject, stringWriter);
+            return JaxbContextCache.marshal(requestObject, fromClass, true, true);
         } catch (JAXBException e) {
             throw new SerializationException("Failed to serialize object of type: " + fromClass.getName(), e);
         }
-        return stringWriter.toString();
     }
 
 
     public static <T> T deserialize(Logger logger, String response, Class<T> toClass) throws DeserializationException {
-        if (logger != null) {
+        if (logger != null && logger.isInfoEnabled()) {
             logger.info("Deserialize: \n{}", prettyPrintXml(response));
         }
 
         try (StringReader stringReader = new StringReader(response)) {
-            JAXBContext context = JAXBContext.newInstance(toClass);
-            return toClass.cast(context.createUnmarshaller().unmarshal(stringReader));
+            return JaxbContextCache.unmarshal(stringReader, toClass);
         } catch (JAXBException e) {
             throw new DeserializationException("Deserialization failed for class: " + toClass.getName(), e);
         }
@@ -1,5 +1,6 @@
 package com.avlino.common.datasources;
 
+import com.aicon.tos.shared.util.NamedThreadFactory;
 import io.confluent.kafka.serializers.KafkaAvroDeserializer;
 import io.micrometer.common.util.StringUtils;
 import org.apache.avro.Schema;
@@ -10,20 +11,30 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 
 import java.net.InetAddress;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -35,7 +46,13 @@ import static org.apache.kafka.clients.consumer.ConsumerConfig.KEY_DESERIALIZER_
 import static org.apache.kafka.clients.consumer.ConsumerConfig.REQUEST_TIMEOUT_MS_CONFIG;
 import static org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG;
 
-public class KafkaAvroReader {
+/**
+ * Reads and searches the Avro records of a Kafka topic, mainly used to investigate the CDC topics.
+ * <p>
+ * {@link #searchInTimeWindow} searches all partitions of a topic in parallel, starting at the offset of the begin of
+ * the time window. The offset based searches ({@link #prepareSearch}) only read partition 0.
+ */
+public class KafkaAvroReader implements AutoCloseable {
     private static final Logger log           = Logger.getLogger(KafkaAvroReader.class.getName());
 
     public static final String CFG_KAFKA_HOST = "hostname";
@@ -53,11 +70,13 @@ public class KafkaAvroReader {
 
     private long connectionTimeoutMs = 5000L;
     private long searchTimeS = 10;
+    private long searchTimeoutMs = 10_000;  // time of a searchInTimeWindow, not used up by the offset searches
     private long pollTimeoutMs = 1000;
     private int kafkaPort =  9092;
     private int schemaRegistryPort = 8081;
     private String cdcPrefix = "tos.";
     private String kafkaGroupId = null;     //"aicon-research-app";
+    private int searchParallelism = 8;
 
     long matchesLeft;
 
@@ -66,6 +85,8 @@ public class KafkaAvroReader {
     long currentOffset = 0;
     private KafkaConsumer<GenericRecord, GenericRecord> consumer = null;
     private TopicPartition partition = null;
+    private final Map<String, Deque<KafkaConsumer<byte[], byte[]>>> idleConsumers = new HashMap<>();
+    private final List<TopicPartition> incompletePartitions = new CopyOnWriteArrayList<>();
 
 
     public static void main(String[] args) {
@@ -130,6 +151,264 @@ public class KafkaAvroReader {
     }
 
 
+    /**
+     * Searches all partitions of the topic in parallel for the records with a timestamp in the time window. Each
+     * partition is read from the offset of the begin of the window until the end of the window (or the end of the
+     * partition), using a pooled consumer. Each partition collects at most the limit of matches, the matches of all
+     * partitions are merged by timestamp and cut to the limit. When the search time is used up before a partition is
+     * read completely (see {@link #setSearchTimeoutMs}), or its search failed, the partition is reported by
+     * {@link #getIncompletePartitions()} and the result is partial: it can miss matches of those partitions.
+     * @param kafkaHost the kafka host to connect to
+     * @param topic the topic to search in
+     * @param fieldName the name to search in (when null will be the first field of the key)
+     * @param fieldValues a , separated list of values to search for, when empty all records match
+     * @param from the begin of the time window, null for the begin of the topic
+     * @param to the end of the time window (inclusive), null for the end of the topic
+     * @param limit the maximum number of records to return, null for the default 500
+     * @return the first matching records (at most the limit), ordered by timestamp
+     * @throws Exception when the partitions of the topic could not be retrieved or the search was interrupted
+     */
+    public List<ConsumerRecord<GenericRecord, GenericRecord>> searchInTimeWindow(
+            String kafkaHost,
+            String topic,
+            String fieldName,
+            String fieldValues,
+            Instant from,
+            Instant to,
+            Long limit
+    ) throws Exception {
+        log.info(String.format("SearchInTimeWindow: host=%s, topic=%s, field=%s, values=%s, from=%s, to=%s, limit=%s",
+                kafkaHost, topic, fieldName, fieldValues, from, to, limit));
+        long tStart = System.currentTimeMillis();
+        incompletePartitions.clear();
+
+        List<TopicPartition> partitions;
+        KafkaConsumer<byte[], byte[]> metaConsumer = borrowConsumer(kafkaHost);
+        try {
+            partitions = metaConsumer.partitionsFor(topic).stream()
+                    .map(info -> new TopicPartition(topic, info.partition()))
+                    .toList();
+        } catch (RuntimeException exc) {
+            closeConsumer(metaConsumer);
+            throw exc;
+        }
+        releaseConsumer(kafkaHost, metaConsumer);
+        if (partitions.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        PartitionSearch search = new PartitionSearch(kafkaHost, fieldName, fieldValues, from, to,
+                limit != null ? limit : 500, tStart + searchTimeoutMs);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(partitions.size(), searchParallelism),
+                new NamedThreadFactory("KafkaAvroReader-" + topic));
+        try {
+            List<Future<List<ConsumerRecord<GenericRecord, GenericRecord>>>> futures = new ArrayList<>();
+            for (TopicPartition topicPartition : partitions) {
+                futures.add(executor.submit(() -> searchPartition(search, topicPartition)));
+            }
+            List<ConsumerRecord<GenericRecord, GenericRecord>> result = new ArrayList<>();
+            for (Future<List<ConsumerRecord<GenericRecord, GenericRecord>>> future : futures) {
+                result.addAll(future.get());
+            }
+            result.sort(Comparator.<ConsumerRecord<GenericRecord, GenericRecord>>comparingLong(ConsumerRecord::timestamp)
+                    .thenComparingInt(ConsumerRecord::partition)
+                    .thenComparingLong(ConsumerRecord::offset));
+            if (result.size() > search.limit) {
+                result = new ArrayList<>(result.subList(0, (int) search.limit));
+            }
+            if (!incompletePartitions.isEmpty()) {
+                log.warning(String.format("Search time used up, partitions not searched completely: %s", incompletePartitions));
+            }
+            log.info(String.format("Found %s records in %s partitions in %s ms",
+                    result.size(), partitions.size(), System.currentTimeMillis() - tStart));
+            return result;
+        } finally {
+            executor.shutdownNow();
+            search.close();
+        }
+    }
+
+    /**
+     * The parameters of a search over the partitions of a topic, shared by the threads searching the partitions.
+     */
+    private final class PartitionSearch implements AutoCloseable {
+        final String kafkaHost;
+        final String fieldName;
+        final Set<String> matchSet;
+        final KafkaRecordPrefilter prefilter;
+        final Instant from;
+        final Instant to;
+        final long limit;
+        final long deadline;
+        final KafkaAvroDeserializer keyDeserializer = new KafkaAvroDeserializer();
+        final KafkaAvroDeserializer valueDeserializer = new KafkaAvroDeserializer();
+
+        PartitionSearch(String kafkaHost, String fieldName, String fieldValues, Instant from, Instant to,
+                        long limit, long deadline) {
+            this.kafkaHost = kafkaHost;
+            this.fieldName = fieldName;
+            this.matchSet = StringUtils.isEmpty(fieldValues) ? null : new HashSet<>(Arrays.asList(fieldValues.split("[,]")));
+            this.prefilter = matchSet == null ? null : new KafkaRecordPrefilter(matchSet);
+            this.from = from;
+            this.to = to;
+            this.limit = limit;
+            this.deadline = deadline;
+            Map<String, Object> props = new HashMap<>();
+            config(kafkaHost).forEach((key, value) -> props.put(String.valueOf(key), value));
+            keyDeserializer.configure(props, true);
+            valueDeserializer.configure(props, false);
+        }
+
+        boolean inWindow(long timestamp) {
+            return (from == null || timestamp >= from.toEpochMilli()) && (to == null || timestamp <= to.toEpochMilli());
+        }
+
+        @Override
+        public void close() {
+            keyDeserializer.close();
+            valueDeserializer.close();
+        }
+    }
+
+    /**
+     * Reads one partition from the begin until the end of the time window, or until the limit of matches is found;
+     * the earliest matches of the topic can be in any partition, so every partition is searched up to the limit.
+     */
+    private List<ConsumerRecord<GenericRecord, GenericRecord>> searchPartition(PartitionSearch search,
+                                                                             TopicPartition topicPartition) {
+        List<ConsumerRecord<GenericRecord, GenericRecord>> result = new ArrayList<>();
+        KafkaConsumer<byte[], byte[]> partitionConsumer = borrowConsumer(search.kafkaHost);
+        boolean failed = false;
+        try {
+            List<TopicPartition> assigned = List.of(topicPartition);
+            partitionConsumer.assign(assigned);
+            long end = partitionConsumer.endOffsets(assigned).get(topicPartition);
+            long begin = search.from == null
+                    ? partitionConsumer.beginningOffsets(assigned).get(topicPartition)
+                    : offsetForTime(partitionConsumer, topicPartition, search.from.toEpochMilli(), end);
+            if (search.to != null) {
+                end = offsetForTime(partitionConsumer, topicPartition, search.to.toEpochMilli() + 1, end);
+            }
+            partitionConsumer.seek(topicPartition, begin);
+
+            long position = begin;
+            while (position < end && result.size() < search.limit) {
+                long timeLeft = search.deadline - System.currentTimeMillis();
+                if (timeLeft <= 0) {
+                    incompletePartitions.add(topicPartition);
+                    break;
+                }
+                for (ConsumerRecord<byte[], byte[]> raw : partitionConsumer.poll(Duration.ofMillis(Math.min(pollTimeoutMs, timeLeft)))) {
+                    if (raw.offset() >= end || result.size() >= search.limit) {
+                        break;
+                    }
+                    ConsumerRecord<GenericRecord, GenericRecord> match = match(search, raw);
+                    if (match != null) {
+                        result.add(match);
+                    }
+                }
+                position = partitionConsumer.position(topicPartition);
+            }
+            log.info(String.format("Partition %s: offsets %s-%s, matched %s", topicPartition, begin, end, result.size()));
+        } catch (Exception exc) {
+            log.severe(String.format("Search in partition %s failed, reason: %s", topicPartition, exc));
+            incompletePartitions.add(topicPartition);
+            failed = true;
+        } finally {
+            if (failed) {
+                // the state of a consumer that failed is unknown, it is not reused
+                closeConsumer(partitionConsumer);
+            } else {
+                releaseConsumer(search.kafkaHost, partitionConsumer);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the offset of the first record with a timestamp at or after the given time, or the end offset when
+     * there is no such record.
+     */
+    private static long offsetForTime(KafkaConsumer<byte[], byte[]> consumer, TopicPartition topicPartition,
+                                      long timestamp, long endOffset) {
+        var offset = consumer.offsetsForTimes(Map.of(topicPartition, timestamp)).get(topicPartition);
+        return offset != null ? offset.offset() : endOffset;
+    }
+
+    /**
+     * Checks the serialized record against the search, deserializing it only when the prefilter can not rule it out.
+     * @return the deserialized record when it matches, otherwise null
+     */
+    private static ConsumerRecord<GenericRecord, GenericRecord> match(PartitionSearch search,
+                                                                    ConsumerRecord<byte[], byte[]> raw) {
+        if (!search.inWindow(raw.timestamp())) {
+            return null;
+        }
+        boolean searchKey = StringUtils.isEmpty(search.fieldName);
+        byte[] searched = searchKey ? raw.key() : raw.value();
+        if (search.prefilter != null && !search.prefilter.mayMatch(searched)) {
+            return null;
+        }
+        GenericRecord key = (GenericRecord) search.keyDeserializer.deserialize(raw.topic(), raw.key());
+        GenericRecord value = (GenericRecord) search.valueDeserializer.deserialize(raw.topic(), raw.value());
+        if (search.matchSet != null) {
+            Object fieldValue = null;
+            Schema fieldSchema = null;
+            if (searchKey) {
+                if (key != null && !key.getSchema().getFields().isEmpty()) {
+                    fieldValue = key.get(0);
+                    fieldSchema = key.getSchema().getFields().get(0).schema();
+                }
+            } else if (value != null && value.get(1) instanceof GenericRecord after && after.hasField(search.fieldName)) {
+                // when a field is given, we must look it up in the after image of the record
+                fieldValue = after.get(search.fieldName);
+                fieldSchema = after.getSchema().getField(search.fieldName).schema();
+            }
+            search.prefilter.learn(searched, fieldSchema);
+            if (!search.matchSet.contains(String.valueOf(fieldValue))) {
+                return null;
+            }
+        }
+        return new ConsumerRecord<>(raw.topic(), raw.partition(), raw.offset(), raw.timestamp(), raw.timestampType(),
+                raw.serializedKeySize(), raw.serializedValueSize(), key, value, raw.headers(), raw.leaderEpoch());
+    }
+
+    /**
+     * @return an idle consumer (reading raw bytes) for the kafka host, a new one when none is idle
+     */
+    private KafkaConsumer<byte[], byte[]> borrowConsumer(String kafkaHost) {
+        synchronized (idleConsumers) {
+            Deque<KafkaConsumer<byte[], byte[]>> idle = idleConsumers.get(kafkaHost);
+            if (idle != null && !idle.isEmpty()) {
+                return idle.pop();
+            }
+        }
+        Properties props = config(kafkaHost);
+        props.put(KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        props.put(VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        return new KafkaConsumer<>(props);
+    }
+
+    private void releaseConsumer(String kafkaHost, KafkaConsumer<byte[], byte[]> pooled) {
+        try {
+            pooled.unsubscribe();
+        } catch (RuntimeException exc) {
+            closeConsumer(pooled);
+            return;
+        }
+        synchronized (idleConsumers) {
+            idleConsumers.computeIfAbsent(kafkaHost, host -> new ArrayDeque<>()).push(pooled);
+        }
+    }
+
+    private static void closeConsumer(KafkaConsumer<byte[], byte[]> failed) {
+        try {
+            failed.close(Duration.ZERO);
+        } catch (RuntimeException exc) {
+            log.warning(String.format("Closing consumer failed, reason: %s", exc));
+        }
+    }
+
     /**
      * Prepare a new search, to be called before the actual {@link #search} can be executed.
      * @param kafkaHost the kafka host to connect to
@@ -305,13 +584,26 @@ public class KafkaAvroReader {
     }
 
 
+    /**
+     * Closes the consumer of the current search and the pooled consumers.
+     */
+    @Override
+    public void close() {
+        closeSearch();
+        synchronized (idleConsumers) {
+            idleConsumers.values().forEach(idle -> idle.forEach(KafkaConsumer::close));
+            idleConsumers.clear();
+        }
+    }
+
+
     public List<ConsumerRecord<GenericRecord, GenericRecord>> searchInTopicKey(
             String kafkaHost,
             String topic,
             String fieldName,
             String fieldValue
     ) throws Exception {
-        return searchInTopicKey(kafkaHost, topic, fieldName, fieldValue, null, null);
+        return searchInTimeWindow(kafkaHost, topic, fieldName, fieldValue, null, null, null);
     }
 
 
@@ -329,7 +621,7 @@ public class KafkaAvroReader {
             String kafkaHost,
             String topic
     ) throws Exception {
-        return searchInTopicKey(kafkaHost, topic, null, null, null, null);
+        return searchInTimeWindow(kafkaHost, topic, null, null, null, null, null);
     }
 
 
@@ -405,6 +697,18 @@ public class KafkaAvroReader {
         return this;
     }
 
+    public long getSearchTimeoutMs() {
+        return searchTimeoutMs;
+    }
+
+    /**
+     * @param timeoutMs the time {@link #searchInTimeWindow} may take to search all partitions of the topic
+     */
+    public KafkaAvroReader setSearchTimeoutMs(long timeoutMs) {
+        this.searchTimeoutMs = timeoutMs;
+        return this;
+    }
+
     public long getConnectionTimeoutMs() {
         return connectionTimeoutMs;
     }
@@ -458,6 +762,15 @@ public class KafkaAvroReader {
         return this;
     }
 
+    public int getSearchParallelism() {
+        return searchParallelism;
+    }
+
+    public KafkaAvroReader setSearchParallelism(int searchParallelism) {
+        this.searchParallelism = Math.max(1, searchParallelism);
+        return this;
+    }
+
     // Monitoring getters
 
     public long getFirstOffset() {
@@ -473,4 +786,11 @@ public class KafkaAvroReader {
     public long getRecordCount() {
         return lastOffset + 1;
     }
+
+    /**
+     * @return the partitions the last {@link #searchInTimeWindow} could not search completely
+     */
+    public List<TopicPartition> getIncompletePartitions() {
+        return List.copyOf(incompletePartitions);
+    }
 }
@@ -0,0 +1,144 @@
+package com.avlino.common.datasources;
+
+import org.apache.avro.Schema;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides on the serialized bytes of a record (in the Confluent wire format: magic byte, 4 bytes schema id, Avro
+ * binary) whether it can contain one of the searched values, so only the candidates have to be deserialized.
+ * <p>
+ * The Avro binary of a string field contains the UTF-8 bytes of the string and that of an int or long field its
+ * zig-zag varint. The type of the searched field is learned per schema id from the first record that is fully
+ * deserialized; until then, and for fields of any other type, every record is a candidate.
+ */
+final class KafkaRecordPrefilter {
+    private static final byte MAGIC_BYTE = 0x0;
+    private static final int HEADER_SIZE = 5;
+
+    private final byte[][] textPatterns;
+    private final byte[][] numberPatterns;
+    private final Map<Integer, Schema.Type> fieldTypes = new ConcurrentHashMap<>();
+
+    /**
+     * @param values the searched values, as compared with String.valueOf() of the field.
+     */
+    KafkaRecordPrefilter(Set<String> values) {
+        List<byte[]> text = new ArrayList<>();
+        List<byte[]> numbers = new ArrayList<>();
+        for (String value : values) {
+            text.add(value.getBytes(StandardCharsets.UTF_8));
+            try {
+                long number = Long.parseLong(value);
+                if (String.valueOf(number).equals(value)) {
+                    numbers.add(zigZagVarint(number));
+                }
+            } catch (NumberFormatException e) {
+                // can not be the value of a numeric field
+            }
+        }
+        textPatterns = text.toArray(new byte[0][]);
+        numberPatterns = numbers.toArray(new byte[0][]);
+    }
+
+    /**
+     * @param serialized the serialized key or value containing the searched field.
+     * @return false when the record certainly does not match, true when it has to be deserialized to decide.
+     */
+    boolean mayMatch(byte[] serialized) {
+        Schema.Type type = fieldTypes.get(schemaId(serialized));
+        if (type == null) {
+            return true;
+        }
+        return switch (type) {
+            case STRING -> containsAny(serialized, textPatterns);
+            case INT, LONG -> containsAny(serialized, numberPatterns);
+            default -> true;
+        };
+    }
+
+    /**
+     * Registers the type of the searched field for the schema of the serialized record.
+     *
+     * @param serialized  the serialized key or value.
+     * @param fieldSchema the schema of the searched field in the deserialized record, null when it has no such field.
+     */
+    void learn(byte[] serialized, Schema fieldSchema) {
+        int schemaId = schemaId(serialized);
+        if (schemaId >= 0 && !fieldTypes.containsKey(schemaId)) {
+            fieldTypes.put(schemaId, fieldSchema == null ? Schema.Type.NULL : typeOf(fieldSchema));
+        }
+    }
+
+    /**
+     * @return the type of the schema, or of the non-null type of a nullable union.
+     */
+    private static Schema.Type typeOf(Schema schema) {
+        if (schema.getType() != Schema.Type.UNION) {
+            return schema.getType();
+        }
+        Schema.Type type = null;
+        for (Schema member : schema.getTypes()) {
+            if (member.getType() != Schema.Type.NULL) {
+                if (type != null) {
+                    return Schema.Type.UNION;       // more than one type, not filtered
+                }
+                type = member.getType();
+            }
+        }
+        return type != null ? type : Schema.Type.NULL;
+    }
+
+    /**
+     * @return the schema id of the serialized record, or -1 when it is not in the Confluent wire format.
+     */
+    static int schemaId(byte[] serialized) {
+        if (serialized == null || serialized.length < HEADER_SIZE || serialized[0] != MAGIC_BYTE) {
+            return -1;
+        }
+        return ((serialized[1] & 0xff) << 24) | ((serialized[2] & 0xff) << 16)
+                | ((serialized[3] & 0xff) << 8) | (serialized[4] & 0xff);
+    }
+
+    /**
+     * @return the Avro binary encoding of an int or long.
+     */
+    static byte[] zigZagVarint(long value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(10);
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            out.write((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.write((int) zigZag);
+        return out.toByteArray();
+    }
+
+    private static boolean containsAny(byte[] serialized, byte[][] patterns) {
+        for (byte[] pattern : patterns) {
+            if (indexOf(serialized, pattern) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern) {
+        outer:
+        for (int i = HEADER_SIZE; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -17,7 +17,10 @@ import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -43,7 +46,7 @@ public class MongoReader {
     private static final String ID_GKEY = "_id.gkey";
     private static final String ID_WI_GKEY = "wi_gkey";
 
-    private static MongoReader instance = null;
+    private static volatile MongoReader instance = null;
     private boolean connected = false;
     private String errorText = null;
     private long millis2Execute = 0;
@@ -59,8 +62,11 @@ public class MongoReader {
     public static MongoReader getInstance() {
         if (instance == null) {
             synchronized (lock) {
-                instance = new MongoReader();
-                instance.connect();
+                if (instance == null) {
+                    MongoReader reader = new MongoReader();
+                    reader.connect();
+                    instance = reader;
+                }
             }
         }
         return instance;
@@ -300,6 +306,32 @@ public class MongoReader {
         return result;
     }
 
+    /**
+     * Reads all documents within given collection having one of the values for the field, using a single
+     * <code>$in</code> query.
+     * @param field the field to match on
+     * @param values the values to look for
+     * @return the found documents, empty when nothing found or the query failed (see {@link #getErrorText()}).
+     */
+    public List<Document> readDocuments(MongoCollection<Document> collection, String field, Collection<?> values) {
+        long startTime = System.currentTimeMillis();
+        List<Document> result = new ArrayList<>();
+        if (collection == null || values == null || values.isEmpty()) {
+            return result;
+        }
+        Document query = new Document(field, new Document("$in", new ArrayList<>(values)));
+        try {
+            collection.find(query).into(result);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Found {} documents for {} values of {}", result.size(), values.size(), field);
+            }
+        } catch (Exception e) {
+            logErrorText("Reading documents for query %s failed, reason: %s", query, e);
+        }
+        millis2Execute = System.currentTimeMillis() - startTime;
+        return result;
+    }
+
     /**
      * Ensures the cache when not available and returns the collection when found.
      * @param dbCollection the key to the collection (db/collection)
@@ -0,0 +1,169 @@
+package com.aicon.model;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveInfoCacheTest {
+
+    @Test
+    void testFoundDocumentsAreCached() {
+        // Arrange
+        List<Collection<Long>> queries = new ArrayList<>();
+        MoveInfoCache cache = new MoveInfoCache(100, Duration.ofMinutes(1), 10, keys -> {
+            queries.add(List.copyOf(keys));
+            return createDocuments(keys, 1L);
+        });
+
+        // Act
+        Map<Long, Document> first = cache.getAll(List.of(1L, 2L, 3L));
+        Document second = cache.get(2L);
+
+        // Assert
+        assertEquals(Set.of(2L, 3L), first.keySet(), "Odd keys other than 3 are not found by the loader");
+        assertNotNull(second);
+        assertEquals(1, queries.size(), "Second lookup should be served from cache");
+        assertEquals(3, queries.get(0).size(), "All keys should be read in 1 query");
+        assertNull(cache.get(1L));
+        assertEquals(2, queries.size(), "Not found keys are not cached");
+    }
+
+    @Test
+    void testExpiredDocumentsAreReadAgain() {
+        // Arrange
+        AtomicInteger nrQueries = new AtomicInteger();
+        MoveInfoCache cache = new MoveInfoCache(100, Duration.ZERO.minusMillis(1), 10, keys -> {
+            nrQueries.incrementAndGet();
+            return createDocuments(keys, 0L);
+        });
+
+        // Act
+        cache.get(2L);
+        cache.get(2L);
+
+        // Assert
+        assertEquals(2, nrQueries.get());
+    }
+
+    @Test
+    void testConcurrentLookupsAreCoalesced() throws Exception {
+        // Arrange
+        CountDownLatch firstQueryStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstQuery = new CountDownLatch(1);
+        List<Collection<Long>> queries = Collections.synchronizedList(new ArrayList<>());
+        MoveInfoCache cache = new MoveInfoCache(100, Duration.ofMinutes(1), 100, keys -> {
+            queries.add(List.copyOf(keys));
+            if (queries.size() == 1) {
+                firstQueryStarted.countDown();
+                try {
+                    releaseFirstQuery.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return createDocuments(keys, 0L);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+
+        // Act
+        Future<Document> leader = executor.submit(() -> cache.get(0L));
+        assertTrue(firstQueryStarted.await(5, TimeUnit.SECONDS));
+        List<Future<Document>> followers = new ArrayList<>();
+        for (long key = 2; key <= 20; key += 2) {
+            long wiGkey = key;
+            followers.add(executor.submit(() -> cache.get(wiGkey)));
+        }
+        while (cache.toString().contains("pending=0")) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(50);
+        releaseFirstQuery.countDown();
+
+        // Assert
+        assertNotNull(leader.get(5, TimeUnit.SECONDS));
+        for (Future<Document> follower : followers) {
+            assertNotNull(follower.get(5, TimeUnit.SECONDS));
+        }
+        assertTrue(queries.size() <= 3, "Lookups during a running query should be batched, got " + queries);
+        assertEquals(11, queries.stream().mapToInt(Collection::size).sum());
+        executor.shutdown();
+    }
+
+    @Test
+    void testPrewarmFillsCacheInBackground() throws Exception {
+        // Arrange
+        AtomicInteger nrQueries = new AtomicInteger();
+        MoveInfoCache cache = new MoveInfoCache(100, Duration.ofMinutes(1), 10, keys -> {
+            nrQueries.incrementAndGet();
+            return createDocuments(keys, 0L);
+        });
+
+        // Act
+        cache.prewarm(List.of(2L, 4L));
+        for (int i = 0; i < 500 && cache.size() < 2; i++) {
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(4L));
+        assertEquals(1, nrQueries.get());
+        cache.shutdown();
+    }
+
+    @Test
+    void testErrorInLoaderFailsAllWaitingLookups() throws Exception {
+        // Arrange
+        CountDownLatch firstQueryStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstQuery = new CountDownLatch(1);
+        AtomicInteger nrQueries = new AtomicInteger();
+        MoveInfoCache cache = new MoveInfoCache(100, Duration.ofMinutes(1), 100, keys -> {
+            if (nrQueries.incrementAndGet() == 1) {
+                firstQueryStarted.countDown();
+                try {
+                    releaseFirstQuery.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new AssertionError("loader broken");
+            }
+            return createDocuments(keys, 0L);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // Act
+        Future<Document> leader = executor.submit(() -> cache.get(0L));
+        assertTrue(firstQueryStarted.await(5, TimeUnit.SECONDS));
+        Future<Document> follower = executor.submit(() -> cache.get(2L));
+        while (cache.toString().contains("pending=0")) {
+            Thread.sleep(1);
+        }
+        releaseFirstQuery.countDown();
+
+        // Assert
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, leaderFailure.getCause());
+        assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertNotNull(cache.get(4L), "Lookups after the failure should be read again");
+        executor.shutdown();
+    }
+
+    /**
+     * Creates documents for the even keys (and key 3 when oddAllowed is 1).
+     */
+    private Map<Long, Document> createDocuments(Collection<Long> keys, long oddAllowed) {
+        Map<Long, Document> docs = new HashMap<>();
+        for (Long key : keys) {
+            if (key % 2 == 0 || (oddAllowed == 1L && key == 3L)) {
+                docs.put(key, new Document("wi_gkey", key).append("container_id", "CTR" + key));
+            }
+        }
+        return docs;
+    }
+}
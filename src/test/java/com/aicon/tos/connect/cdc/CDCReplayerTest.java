@@ -0,0 +1,115 @@
+package com.aicon.tos.connect.cdc;
+
+import com.aicon.tos.connect.web.callback.ProgressCallback;
+import com.aicon.tos.shared.ResultLevel;
+import com.aicon.tos.shared.kafka.DynamicTestKafkaProducer;
+import com.aicon.tos.shared.kafka.DynamicTestKafkaProducer.PreparedMessage;
+import com.aicon.tos.shared.kafka.DynamicTestKafkaProducer.TopicSchemas;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CDCReplayerTest {
+
+    private static final String TOPIC = "tos.apex.dbo.inv_wi";
+
+    private static final List<String[]> CSV = List.of(
+            new String[]{"", "#topic-name", "element", "offset", "topic-ts", "gkey"},
+            new String[]{"", TOPIC, "before", "100", "2025-10-08 14:21:51.000", "1"},
+            new String[]{"", TOPIC, "after", "100", "2025-10-08 14:21:51.000", "2"},
+            new String[]{"", TOPIC, "after", "101", "2025-10-08 14:21:51.500", "3"},
+            new String[]{"", TOPIC, "before", "102", "2025-10-08 14:21:52.000", "no data"}
+    );
+
+    @Test
+    void testAsFastAsPossibleSendsEachOffsetOnce() throws InterruptedException {
+        // Arrange
+        DynamicTestKafkaProducer producer = mock(DynamicTestKafkaProducer.class);
+        PreparedMessage message = new PreparedMessage(TOPIC, null, null);
+        when(producer.loadSchemas(TOPIC)).thenReturn(new TopicSchemas(TOPIC, null, null, null, null, null, null, null));
+        when(producer.prepareMessage(any(), any(), any())).thenReturn(message);
+        when(producer.sendPreparedMessage(anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        Callback callback = new Callback();
+        CDCReplayer replayer = new CDCReplayer(callback, producer);
+
+        // Act
+        replayer.start(CSV, 5, CDCReplayer.IntervalType.AsFastAsPossible, "_test");
+
+        // Assert
+        assertTrue(callback.done.await(5, TimeUnit.SECONDS));
+        assertEquals(ResultLevel.OK, callback.doneLevel.get());
+        assertTrue(callback.doneReport.get().startsWith("All processed! 3 sent, 0 failed"), callback.doneReport.get());
+        verify(producer, times(1)).loadSchemas(TOPIC);
+        verify(producer).prepareMessage(any(), eq(new String[]{"1"}), eq(new String[]{"2"}));
+        verify(producer).prepareMessage(any(), isNull(), eq(new String[]{"3"}));
+        verify(producer).prepareMessage(any(), isNull(), isNull());
+        verify(producer, times(3)).sendPreparedMessage(TOPIC + "_test", message);
+    }
+
+    @Test
+    void testFailedSendsAreCounted() throws InterruptedException {
+        // Arrange
+        DynamicTestKafkaProducer producer = mock(DynamicTestKafkaProducer.class);
+        when(producer.prepareMessage(any(), any(), any())).thenReturn(new PreparedMessage(TOPIC, null, null));
+        when(producer.sendPreparedMessage(anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        Callback callback = new Callback();
+        CDCReplayer replayer = new CDCReplayer(callback, producer);
+
+        // Act
+        replayer.start(CSV, 5, CDCReplayer.IntervalType.AsFastAsPossible, null);
+
+        // Assert
+        assertTrue(callback.done.await(5, TimeUnit.SECONDS));
+        assertEquals(ResultLevel.ERROR, callback.doneLevel.get());
+        assertTrue(callback.doneReport.get().startsWith("All processed! 0 sent, 3 failed"), callback.doneReport.get());
+    }
+
+    @Test
+    void testOriginalRate() {
+        // Arrange
+        List<CDCReplayer.ReplayStep> steps = List.of(
+                new CDCReplayer.ReplayStep(1, TOPIC, 100, 1_000, null, null),
+                new CDCReplayer.ReplayStep(2, TOPIC, 101, 1_500, null, null),
+                new CDCReplayer.ReplayStep(3, TOPIC, 102, 2_000, null, null));
+
+        // Act & Assert
+        assertEquals(3.0, CDCReplayer.originalRate(steps), 0.001);
+        assertEquals(0.0, CDCReplayer.originalRate(steps.subList(0, 1)), 0.001);
+    }
+
+    private static class Callback implements ProgressCallback {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicReference<ResultLevel> doneLevel = new AtomicReference<>();
+        private final AtomicReference<String> doneReport = new AtomicReference<>();
+
+        @Override
+        public String reportProgress(ResultLevel state, String report, Map<String, Object> reportMap) {
+            return report;
+        }
+
+        @Override
+        public String onDone(ResultLevel state, String report) {
+            doneLevel.set(state);
+            doneReport.set(report);
+            done.countDown();
+            return report;
+        }
+    }
+}
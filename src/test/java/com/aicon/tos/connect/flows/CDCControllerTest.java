@@ -76,7 +76,7 @@ class CDCControllerTest {
         CDCConfig mockConfig = mock(CDCConfig.class);
         when(mockConfig.topicName()).thenReturn("non_existent_topic");
 
-        Long result = cdcController.findDateForGKey(mockConfig, "testKey", 5000L, 1000L);
+        Long result = cdcController.findDateForGKey(mockConfig, "testKey", 5000L);
 
         // Expect null since no session exists
         assertNull(result, "Expected null when no active session exists.");
@@ -1,6 +1,7 @@
 package com.aicon.tos.connect.flows;
 
 import com.aicon.TestConstants;
+import com.aicon.tos.connect.cdc.CDCDataProcessor;
 import com.aicon.tos.shared.kafka.KafkaConfig;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.DeleteTopicsResult;
@@ -12,7 +13,11 @@ import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
@@ -21,7 +26,9 @@ import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -134,4 +141,34 @@ class CanaryControllerTest {
             thread.interrupt();
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRefreshConfiguration_OnlyWhenConfigFileChanged() throws IOException {
+        // Arrange
+        Path original = Path.of(TestConstants.PATH_TO_TEST_CONFIG_FILES + "conf/mediator/canarycontrollertest.xml");
+        Path copy = original.resolveSibling("canarycontrollertest-refresh.xml");
+        Files.copy(original, copy, StandardCopyOption.REPLACE_EXISTING);
+        CanaryController controller = new CanaryController(FlowManager.forTestConfig(copy.toString()));
+        try {
+            CDCDataProcessor processor = controller.getCDCDataProcessor();
+            assertEquals(12000, controller.getCanaryIntervalMs());
+
+            // Act
+            boolean unchangedRefreshed = controller.refreshConfigurationIfChanged();
+            String xml = Files.readString(copy).replace(
+                    "key=\"canary.interval.ms\" value=\"12000\"", "key=\"canary.interval.ms\" value=\"7000\"");
+            Files.writeString(copy, xml);
+            assertTrue(copy.toFile().setLastModified(copy.toFile().lastModified() + 2000));
+            boolean changedRefreshed = controller.refreshConfigurationIfChanged();
+
+            // Assert
+            assertFalse(unchangedRefreshed, "Unchanged config should not be rebuilt");
+            assertTrue(changedRefreshed, "Changed config should be rebuilt");
+            assertNotSame(processor, controller.getCDCDataProcessor());
+            assertEquals(7000, controller.getCanaryIntervalMs(), "Changed interval should be applied");
+        } finally {
+            controller.stopController();
+            Files.deleteIfExists(copy);
+        }
+    }
+}
@@ -2,6 +2,7 @@
 package com.aicon.tos.connect.flows;
 
 import com.aicon.tos.connect.cdc.CDCConfig;
+import com.aicon.tos.connect.cdc.CDCData;
 import com.aicon.tos.connect.cdc.CDCDataProcessor;
 import com.aicon.tos.connect.http.HttpConnector;
 import com.aicon.tos.connect.http.transformers.RequestResponseTransformer;
@@ -15,8 +16,12 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyList;
 import static org.mockito.Mockito.anyString;
@@ -114,4 +119,50 @@ class CanarySessionTest {
         assertEquals(ConnectionStatus.OK, msgCaptor.getValue().getConnectionStatus());
         assertEquals(Boolean.TRUE, msgCaptor.getValue().getCdcOk());
     }
+
+    @Test
+    void testCollectArrivals_waitsForSlowestTableOnly() {
+        // Arrange
+        List<CDCData> entries = List.of(
+                new CDCData("TABLE1", "1", 1000L),
+                new CDCData("TABLE2", "2", 1000L),
+                new CDCData("TABLE3", "3", 1000L));
+        CompletableFuture<Long> slow = new CompletableFuture<>();
+        List<CompletableFuture<Long>> arrivals = List.of(
+                CompletableFuture.completedFuture(1100L),
+                slow.completeOnTimeout(1300L, 50, TimeUnit.MILLISECONDS),
+                CompletableFuture.completedFuture(null));       // passed its deadline
+
+        // Act
+        long start = System.currentTimeMillis();
+        List<CDCData> result = CanarySession.collectArrivals(entries, arrivals, 10_000);
+        long took = System.currentTimeMillis() - start;
+
+        // Assert
+        assertTrue(took < 5_000, "Should not wait for the max wait time");
+        assertEquals(1100L, result.get(0).getCreationTimestamp());
+        assertEquals(1300L, result.get(1).getCreationTimestamp());
+        assertNull(result.get(2).getCreationTimestamp());
+        assertEquals("arrived=[TABLE1 lag=100ms, TABLE2 lag=300ms] missing=[TABLE3]",
+                CanarySession.reportArrivals(entries, result));
+    }
+
+    @Test
+    void testCollectArrivals_reportsPartialResultAfterMaxWait() {
+        // Arrange
+        List<CDCData> entries = List.of(
+                new CDCData("TABLE1", "1", 1000L),
+                new CDCData("TABLE2", "2", 1000L));
+        List<CompletableFuture<Long>> arrivals = List.of(
+                CompletableFuture.completedFuture(1100L),
+                new CompletableFuture<>());                     // never arrives
+
+        // Act
+        List<CDCData> result = CanarySession.collectArrivals(entries, arrivals, 20);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(1100L, result.get(0).getCreationTimestamp());
+        assertNull(result.get(1).getCreationTimestamp());
+    }
 }
@@ -0,0 +1,85 @@
+package com.aicon.tos.connect.flows;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlowSessionDispatcherTest {
+
+    @Test
+    void testSessionsForSameKeyRunInOrder() {
+        // Arrange
+        FlowSessionDispatcher dispatcher = new FlowSessionDispatcher("test", 4, 1000);
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            int sessionNr = i;
+            dispatcher.dispatch("gkey-1", () -> executed.add(sessionNr));
+        }
+        dispatcher.shutdown(5000);
+
+        // Assert
+        assertEquals(200, executed.size());
+        for (int i = 0; i < executed.size(); i++) {
+            assertEquals(i, executed.get(i), "Sessions for the same key must not overtake each other");
+        }
+        assertEquals(0, dispatcher.getPending());
+    }
+
+    @Test
+    void testSaturatedUntilHalfDrained() throws InterruptedException {
+        // Arrange
+        FlowSessionDispatcher dispatcher = new FlowSessionDispatcher("test", 2, 4);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(4);
+        Runnable blocked = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finished.countDown();
+        };
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            dispatcher.dispatch("gkey-" + i, blocked);
+        }
+        boolean saturated = dispatcher.isSaturated();
+        boolean capacity = dispatcher.hasCapacity();
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        dispatcher.shutdown(5000);
+
+        // Assert
+        assertTrue(saturated);
+        assertFalse(capacity);
+        assertFalse(dispatcher.isSaturated());
+        assertTrue(dispatcher.hasCapacity());
+    }
+
+    @Test
+    void testFailingSessionDoesNotBlockKey() {
+        // Arrange
+        FlowSessionDispatcher dispatcher = new FlowSessionDispatcher("test", 1, 10);
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+        // Act
+        dispatcher.dispatch("gkey-1", () -> {
+            throw new IllegalStateException("session failed");
+        });
+        dispatcher.dispatch("gkey-1", () -> executed.add("second"));
+        dispatcher.shutdown(5000);
+
+        // Assert
+        assertEquals(List.of("second"), executed);
+        assertEquals(0, dispatcher.getPending());
+    }
+}
@@ -1,5 +1,6 @@
 package com.aicon.tos.connect.http;
 
+import com.aicon.tos.exceptions.HttpException;
 import com.aicon.tos.shared.config.ConfigGroup;
 import com.aicon.tos.shared.config.ConfigSettings;
 import com.github.tomakehurst.wiremock.WireMockServer;
@@ -8,11 +9,18 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -97,4 +105,88 @@ class HttpConnectorTest {
             assertEquals("POST request requires a non-null and non-empty body.", e.getMessage());
         }
     }
+
+    @Test
+    void testSendHttpRequestAsyncAboveLimit() {
+        wireMockServer.stubFor(post(urlEqualTo("/async"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(50)
+                        .withBody("POST ok")));
+
+        ConfigGroup config = mock(ConfigGroup.class);
+        String fullUrl = String.format("http://localhost:%d/async", wireMockServer.port());
+        when(config.getItemValue(ConfigSettings.CFG_HTTP_METHOD, ConfigSettings.CFG_DEFAULT_METHOD)).thenReturn("POST");
+        when(config.getItemValue(ConfigSettings.CFG_HTTP_URL, "")).thenReturn(fullUrl);
+        when(config.getItemValue(ConfigSettings.CFG_HTTP_MAX_CONCURRENT_REQUESTS, null)).thenReturn("2");
+
+        HttpConnector connector = new HttpConnector();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(connector.sendHttpRequestAsync(config, "dummy" + i));
+        }
+
+        futures.forEach(future -> assertEquals("POST ok", future.join()));
+    }
+
+    @Test
+    void testMaxConcurrentRequests() {
+        ConfigGroup config = mock(ConfigGroup.class);
+        assertEquals(HttpConnector.DEFAULT_MAX_CONCURRENT_REQUESTS, HttpConnector.getMaxConcurrentRequests(config));
+
+        when(config.getItemValue(ConfigSettings.CFG_HTTP_MAX_CONCURRENT_REQUESTS, null)).thenReturn("abc");
+        assertEquals(HttpConnector.DEFAULT_MAX_CONCURRENT_REQUESTS, HttpConnector.getMaxConcurrentRequests(config));
+
+        when(config.getItemValue(ConfigSettings.CFG_HTTP_MAX_CONCURRENT_REQUESTS, null)).thenReturn("0");
+        assertEquals(1, HttpConnector.getMaxConcurrentRequests(config));
+    }
+
+    @Test
+    void testSendHttpRequestAsyncWithoutUrl() {
+        ConfigGroup config = mock(ConfigGroup.class);
+        when(config.getItemValue(ConfigSettings.CFG_HTTP_URL, "")).thenReturn("");
+
+        HttpConnector connector = new HttpConnector();
+        assertThrows(IllegalArgumentException.class, () -> connector.sendHttpRequestAsync(config, "test"));
+    }
+
+    @Test
+    void testRequestTimesOutAfterReadTimeout() {
+        wireMockServer.stubFor(post(urlEqualTo("/slow"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(2000)
+                        .withBody("too late")));
+
+        ConfigGroup config = mock(ConfigGroup.class);
+        String fullUrl = String.format("http://localhost:%d/slow", wireMockServer.port());
+        when(config.getItemValue(ConfigSettings.CFG_HTTP_METHOD, ConfigSettings.CFG_DEFAULT_METHOD)).thenReturn("POST");
+        when(config.getItemValue(ConfigSettings.CFG_HTTP_URL, "")).thenReturn(fullUrl);
+        when(config.getItemValue(ConfigSettings.CFG_HTTP_READ_TIMEOUT_MS, null)).thenReturn("100");
+
+        HttpConnector connector = new HttpConnector();
+        assertThrows(HttpException.class, () -> connector.sendHttpRequest(config, "dummy"));
+        assertEquals(0, HttpConnector.getLimiter(URI.create(fullUrl), 0).getInFlight());
+    }
+
+    @Test
+    void testReadTimeout() {
+        ConfigGroup config = mock(ConfigGroup.class);
+        assertEquals(HttpConnector.DEFAULT_READ_TIMEOUT, HttpConnector.getReadTimeout(config));
+
+        when(config.getItemValue(ConfigSettings.CFG_HTTP_READ_TIMEOUT_MS, null)).thenReturn("abc");
+        assertEquals(HttpConnector.DEFAULT_READ_TIMEOUT, HttpConnector.getReadTimeout(config));
+
+        when(config.getItemValue(ConfigSettings.CFG_HTTP_READ_TIMEOUT_MS, null)).thenReturn("2500");
+        assertEquals(Duration.ofMillis(2500), HttpConnector.getReadTimeout(config));
+    }
+
+    @Test
+    void testLimiterIsResizedFromConfig() {
+        URI endpoint = URI.create("http://resize.test:8080/path");
+
+        assertEquals(HttpConnector.DEFAULT_MAX_CONCURRENT_REQUESTS, HttpConnector.getLimiter(endpoint, 0).getMaxInFlight());
+        assertEquals(3, HttpConnector.getLimiter(endpoint, 3).getMaxInFlight());
+        assertEquals(3, HttpConnector.getLimiter(endpoint, 0).getMaxInFlight(), "0 should keep the configured limit");
+    }
 }
@@ -0,0 +1,75 @@
+package com.aicon.tos.connect.http.transformers;
+
+import com.aicon.tos.shared.exceptions.SoapResponseTransformationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoapCodecTest {
+
+    static String soapResponse(String argoResponse) {
+        String escaped = argoResponse.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\"><soapenv:Body>" +
+                "<basicInvokeResponse xmlns=\"http://www.navis.com/services/argobasicservice\">" +
+                "<basicInvokeResponse>" + escaped + "</basicInvokeResponse>" +
+                "</basicInvokeResponse></soapenv:Body></soapenv:Envelope>";
+    }
+
+    @Test
+    void testDecodeResponseExtractsCustomResponseContent() {
+        // Arrange
+        String response = soapResponse("<argo-response status=\"0\"><argo:custom-response xmlns:argo=\"http://www.navis.com/argo\">\n" +
+                "<aicon-tos-canary-response><requestId>r1</requestId><empty/></aicon-tos-canary-response>\n" +
+                "</argo:custom-response></argo-response>");
+
+        // Act
+        String fromString = SoapCodec.decodeResponse(response);
+        String fromStream = SoapCodec.decodeResponse(new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals("<aicon-tos-canary-response><requestId>r1</requestId><empty/></aicon-tos-canary-response>", fromString);
+        assertEquals(fromString, fromStream);
+    }
+
+    @Test
+    void testDecodeResponseDeclaresNamespacesFromOutsideContent() {
+        // Arrange
+        String response = soapResponse("<argo-response xmlns=\"urn:d\" xmlns:argo=\"http://www.navis.com/argo\">" +
+                "<argo:custom-response><resp><argo:y/></resp></argo:custom-response></argo-response>");
+
+        // Act
+        String content = SoapCodec.decodeResponse(response);
+
+        // Assert
+        assertEquals("<resp xmlns=\"urn:d\"><argo:y xmlns:argo=\"http://www.navis.com/argo\"/></resp>", content);
+    }
+
+    @Test
+    void testDecodeResponseWithoutCustomResponseFails() {
+        // Arrange
+        String response = soapResponse("<argo-response status=\"3\"><messages/></argo-response>");
+
+        // Act
+        SoapResponseTransformationException e = assertThrows(SoapResponseTransformationException.class,
+                () -> SoapCodec.decodeResponse(response));
+
+        // Assert
+        assertEquals("<argo:custom-response> not found in the unescaped response.", e.getCause().getMessage());
+    }
+
+    @Test
+    void testEncodeRequest() {
+        // Act
+        String envelope = SoapCodec.encodeRequestAsString("<request id=\"1\"/>", "PTM/PTM/RTM/YARD");
+        byte[] bytes = SoapCodec.encodeRequest("<request id=\"1\"/>", "PTM/PTM/RTM/YARD");
+
+        // Assert
+        assertTrue(envelope.contains("<arg:scopeCoordinateIds>PTM/PTM/RTM/YARD</arg:scopeCoordinateIds>"));
+        assertTrue(envelope.contains("type=\"extension\"><request id=\"1\"/></custom>"));
+        assertEquals(envelope, new String(bytes, StandardCharsets.UTF_8));
+    }
+}
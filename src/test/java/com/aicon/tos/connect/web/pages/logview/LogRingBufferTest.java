@@ -0,0 +1,106 @@
+package com.aicon.tos.connect.web.pages.logview;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogRingBufferTest {
+
+    @Test
+    void testCursorReturnsOnlyNewEntries() {
+        // Arrange
+        LogRingBuffer buffer = new LogRingBuffer(10);
+        add(buffer, "first");
+        add(buffer, "second");
+
+        // Act
+        LogRingBuffer.Slice slice1 = buffer.read(0, 100);
+        add(buffer, "third");
+        LogRingBuffer.Slice slice2 = buffer.read(slice1.nextCursor(), 100);
+
+        // Assert
+        assertEquals(List.of("first", "second"), messages(slice1));
+        assertEquals(List.of("third"), messages(slice2));
+        assertEquals(3, slice2.nextCursor());
+        assertTrue(buffer.read(slice2.nextCursor(), 100).entries().isEmpty());
+    }
+
+    @Test
+    void testOldestEntriesAreOverwritten() {
+        // Arrange
+        LogRingBuffer buffer = new LogRingBuffer(3);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            add(buffer, "msg" + i);
+        }
+        LogRingBuffer.Slice slice = buffer.read(0, 100);
+
+        // Assert
+        assertEquals(3, buffer.size());
+        assertEquals(List.of("msg2", "msg3", "msg4"), messages(slice));
+        assertEquals(2, slice.skipped(), "Overwritten entries should be reported as skipped");
+    }
+
+    @Test
+    void testClearHidesEntries() {
+        LogRingBuffer buffer = new LogRingBuffer(5);
+        add(buffer, "old");
+        buffer.clear();
+        add(buffer, "new");
+
+        assertEquals(List.of("new"), messages(buffer.read(0, 100)));
+        assertEquals(1, buffer.size());
+    }
+
+    @Test
+    void testMatchesKeywords() {
+        LogEntry entry = new LogEntry(0, 0, "INFO", "main", "com.aicon.Test", "Decking response matched");
+
+        assertTrue(entry.matches(new String[]{"decking", "", "matched"}, true));
+        assertFalse(entry.matches(new String[]{"decking", "timeout", ""}, true));
+        assertTrue(entry.matches(new String[]{"decking", "timeout", ""}, false));
+        assertTrue(entry.matches(new String[]{"", "", ""}, false), "No keywords should match everything");
+    }
+
+    @Test
+    void testConcurrentWritersKeepLatestEntries() throws Exception {
+        // Arrange
+        LogRingBuffer buffer = new LogRingBuffer(100);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // Act
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    add(buffer, "msg");
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        LogRingBuffer.Slice slice = buffer.read(0, 1000);
+        assertEquals(100, slice.entries().size());
+        assertEquals(40000, slice.nextCursor());
+        assertEquals(39900, slice.entries().get(0).getSeq());
+    }
+
+    private void add(LogRingBuffer buffer, String message) {
+        buffer.add(new LogEntry(buffer.claimSeq(), System.currentTimeMillis(), "INFO", "main", "test", message));
+    }
+
+    private List<String> messages(LogRingBuffer.Slice slice) {
+        return slice.entries().stream().map(LogEntry::getMessage).toList();
+    }
+}
@@ -0,0 +1,89 @@
+package com.aicon.tos.control;
+
+import com.aicon.tos.shared.schema.ConnectionStatus;
+import com.aicon.tos.shared.schema.OperatingMode;
+import com.aicon.tos.shared.schema.OperatingModeRule;
+import com.aicon.tos.shared.schema.UserOperatingMode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OperatingModeDecisionTableTest {
+
+    @Test
+    void testRuleWithEmptyFieldIsIgnored() {
+        // Arrange
+        OperatingModeRule offline = new OperatingModeRule(null, ConnectionStatus.NOK, false, false,
+                UserOperatingMode.ON, UserOperatingMode.ON, OperatingMode.OFF);
+
+        // Act
+        OperatingModeDecisionTable table = OperatingModeDecisionTable.compile(List.of(offline));
+
+        // Assert
+        assertNull(table.lookup(ConnectionStatus.OK, ConnectionStatus.NOK,
+                false, false, UserOperatingMode.ON, UserOperatingMode.ON));
+        assertNull(table.lookup(ConnectionStatus.NOK, ConnectionStatus.NOK,
+                false, false, UserOperatingMode.ON, UserOperatingMode.ON));
+        assertEquals(1, table.getConflicts().size());
+        assertEquals(256, table.getNrUncovered());
+    }
+
+    @Test
+    void testFirstRuleWinsAndConflictIsReported() {
+        // Arrange
+        OperatingModeRule on = new OperatingModeRule(ConnectionStatus.OK, ConnectionStatus.OK, true, true,
+                UserOperatingMode.ON, UserOperatingMode.ON, OperatingMode.ON);
+        OperatingModeRule shadow = new OperatingModeRule(ConnectionStatus.OK, ConnectionStatus.OK, true, true,
+                UserOperatingMode.ON, UserOperatingMode.ON, OperatingMode.SHADOW);
+        OperatingModeRule auto = new OperatingModeRule(ConnectionStatus.OK, ConnectionStatus.OK, true, true,
+                UserOperatingMode.AUTO, UserOperatingMode.ON, OperatingMode.SHADOW);
+        OperatingModeRule sameAsFirst = new OperatingModeRule(ConnectionStatus.OK, ConnectionStatus.OK, true, true,
+                UserOperatingMode.ON, UserOperatingMode.ON, OperatingMode.ON);
+
+        // Act
+        OperatingModeDecisionTable table = OperatingModeDecisionTable.compile(List.of(on, shadow, sameAsFirst, auto));
+
+        // Assert
+        assertEquals(OperatingMode.ON, table.lookup(ConnectionStatus.OK, ConnectionStatus.OK,
+                true, true, UserOperatingMode.ON, UserOperatingMode.ON));
+        assertEquals(OperatingMode.SHADOW, table.lookup(ConnectionStatus.OK, ConnectionStatus.OK,
+                true, true, UserOperatingMode.AUTO, UserOperatingMode.ON));
+        assertEquals(2, table.getNrOverlaps());
+        assertEquals(1, table.getConflicts().size());
+        assertTrue(table.getConflicts().get(0).contains("SHADOW"));
+    }
+
+    @Test
+    void testRuleWithoutOperatingModeIsIgnored() {
+        // Arrange
+        OperatingModeRule incomplete = new OperatingModeRule(ConnectionStatus.OK, ConnectionStatus.OK, true, true,
+                UserOperatingMode.ON, UserOperatingMode.ON, null);
+
+        // Act
+        OperatingModeDecisionTable table = OperatingModeDecisionTable.compile(List.of(incomplete));
+
+        // Assert
+        assertNull(table.lookup(ConnectionStatus.OK, ConnectionStatus.OK,
+                true, true, UserOperatingMode.ON, UserOperatingMode.ON));
+        assertEquals(1, table.getConflicts().size());
+        assertEquals(1, table.getRules().size());
+    }
+
+    @Test
+    void testLookupWithMissingStateFindsNoRule() {
+        // Arrange
+        OperatingModeDecisionTable table = OperatingModeDecisionTable.compile(List.of(
+                new OperatingModeRule(ConnectionStatus.OK, ConnectionStatus.OK, true, true,
+                        UserOperatingMode.ON, UserOperatingMode.ON, OperatingMode.SHADOW)));
+
+        // Act & Assert
+        assertNull(table.lookup(ConnectionStatus.OK, ConnectionStatus.OK,
+                null, true, UserOperatingMode.ON, UserOperatingMode.ON));
+        assertEquals(OperatingMode.SHADOW, table.lookup(ConnectionStatus.OK, ConnectionStatus.OK,
+                true, true, UserOperatingMode.ON, UserOperatingMode.ON));
+    }
+}
@@ -6,6 +6,7 @@ import com.aicon.TestConstants;
 import com.aicon.tos.shared.config.ConfigSettings;
 import com.aicon.tos.shared.schema.ConnectionStatus;
 import com.aicon.tos.shared.schema.OperatingMode;
+import com.aicon.tos.shared.schema.OperatingModeRule;
 import com.aicon.tos.shared.schema.UserOperatingMode;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -258,6 +259,21 @@ class OperatingModeRuleEngineTest {
     void newOperatingMode() {
     }
 
+    @Test
+    void testEditingReturnedRulesDoesNotChangeTheUsedRules() {
+        // Arrange
+        OperatingModeRuleEngine engine = OperatingModeRuleEngine.getInstance(true);
+        List<OperatingModeRule> rules = engine.getRules();
+
+        // Act
+        rules.forEach(rule -> rule.setNewOperatingMode(OperatingMode.OFF));
+
+        // Assert
+        assertEquals(OperatingMode.ON, engine.newOperatingMode(ConnectionStatus.OK, ConnectionStatus.OK,
+                true, true, UserOperatingMode.ON, UserOperatingMode.AUTO));
+        assertTrue(engine.getRules().stream().anyMatch(rule -> rule.getNewOperatingMode() != OperatingMode.OFF));
+    }
+
     /**
      * Set up mock objects before each test.
      */
@@ -0,0 +1,117 @@
+package com.aicon.tos.control.mail;
+
+import com.aicon.tos.shared.schema.OperatingMode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link EmailOutbox} class.
+ */
+class EmailOutboxTest {
+
+    @Test
+    void testSubmitDoesNotWaitForSlowMailServer() throws Exception {
+        // Arrange
+        CountDownLatch mailServer = new CountDownLatch(1);
+        try (EmailOutbox outbox = new EmailOutbox(Duration.ZERO)) {
+
+            // Act
+            long start = System.nanoTime();
+            outbox.submit(OperatingMode.OFF, () -> await(mailServer));
+            long elapsed = System.nanoTime() - start;
+
+            // Assert
+            assertTrue(elapsed < TimeUnit.SECONDS.toNanos(1), "Submit should return immediately");
+            mailServer.countDown();
+        }
+    }
+
+    @Test
+    void testNotificationsWithinIntervalAreReplacedByTheLatest() throws Exception {
+        // Arrange
+        List<OperatingMode> sent = new CopyOnWriteArrayList<>();
+        CountDownLatch firstSent = new CountDownLatch(1);
+        CountDownLatch lastSent = new CountDownLatch(1);
+        try (EmailOutbox outbox = new EmailOutbox(Duration.ofMillis(300))) {
+            outbox.submit(OperatingMode.OFF, () -> {
+                sent.add(OperatingMode.OFF);
+                firstSent.countDown();
+            });
+            assertTrue(firstSent.await(5, TimeUnit.SECONDS));
+
+            // Act
+            outbox.submit(OperatingMode.ON, () -> sent.add(OperatingMode.ON));
+            outbox.submit(OperatingMode.SHADOW, () -> {
+                sent.add(OperatingMode.SHADOW);
+                lastSent.countDown();
+            });
+
+            // Assert
+            assertTrue(lastSent.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(OperatingMode.OFF, OperatingMode.SHADOW), sent);
+        }
+    }
+
+    @Test
+    void testFailingNotificationDoesNotStopTheOutbox() throws Exception {
+        // Arrange
+        CountDownLatch sent = new CountDownLatch(1);
+        try (EmailOutbox outbox = new EmailOutbox(Duration.ZERO)) {
+            outbox.submit(OperatingMode.OFF, () -> {
+                throw new IllegalStateException("SMTP server unreachable");
+            });
+
+            // Act
+            awaitNoPending(outbox);
+            outbox.submit(OperatingMode.ON, sent::countDown);
+
+            // Assert
+            assertTrue(sent.await(5, TimeUnit.SECONDS), "Notification after a failure should be sent");
+        }
+    }
+
+    @Test
+    void testNotificationForLastSentModeIsSkipped() throws Exception {
+        // Arrange
+        List<OperatingMode> sent = new CopyOnWriteArrayList<>();
+        try (EmailOutbox outbox = new EmailOutbox(Duration.ZERO)) {
+            outbox.submit(OperatingMode.OFF, () -> sent.add(OperatingMode.OFF));
+            awaitNoPending(outbox);
+
+            // Act
+            outbox.submit(OperatingMode.OFF, () -> sent.add(OperatingMode.OFF));
+            awaitNoPending(outbox);
+            CountDownLatch done = new CountDownLatch(1);
+            outbox.submit(OperatingMode.ON, done::countDown);
+
+            // Assert
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(OperatingMode.OFF), sent);
+        }
+    }
+
+    private static void awaitNoPending(EmailOutbox outbox) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (outbox.hasPending() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // the notification is taken before it is sent, give the outbox thread time to finish it
+        Thread.sleep(50);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
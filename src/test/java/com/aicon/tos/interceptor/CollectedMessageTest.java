@@ -1,6 +1,10 @@
 package com.aicon.tos.interceptor;
 
 import com.avlino.common.MetaField;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
@@ -9,7 +13,10 @@ import java.util.Map;
 import static com.aicon.tos.connect.cdc.CDCAction.*;
 import static com.aicon.tos.interceptor.MessageMeta.TS_CDC_RECEIVED;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CollectedMessageTest {
@@ -66,4 +73,62 @@ class CollectedMessageTest {
         assertTrue(str.contains("Entity=entity"));
         assertTrue(str.contains("Key=key"));
     }
+
+    @Test
+    void testMessageFromCompiledLayout() {
+        // Arrange
+        Schema schema = SchemaBuilder.record("Value").fields()
+                .requiredLong("gkey")
+                .optionalString("move_stage")
+                .optionalLong("itv_gkey")
+                .endRecord();
+        GenericRecord before = new GenericData.Record(schema);
+        before.put("gkey", 42L);
+        before.put("move_stage", "PLANNED");
+        GenericRecord after = new GenericData.Record(schema);
+        after.put("gkey", 42L);
+        after.put("move_stage", "FETCH");
+        after.put("itv_gkey", 7L);
+        CollectedMessageLayout layout = CollectedMessageLayout.forSchema(schema);
+
+        // Act
+        CollectedMessage msg = new CollectedMessage(CHANGED, "entity", 10, 0, "42",
+                layout, layout.readValues(before), layout.readValues(after));
+
+        // Assert
+        assertSame(layout, CollectedMessageLayout.forSchema(schema));
+        assertEquals(3, msg.getFields().size());
+        assertEquals(2, msg.getChangedFieldCount());
+        assertEquals(List.of("move_stage", "itv_gkey"), msg.getChangedFields().stream().map(f -> f.field().id()).toList());
+        assertTrue(msg.hasAllChanged("move_stage", "itv_gkey"));
+        assertFalse(msg.hasAllChanged("move_stage", "gkey"));
+        assertFalse(msg.hasChanged("unknown"));
+        assertEquals("PLANNED", msg.getFieldValue("move_stage").beforeValue());
+        assertSame(msg.getFieldValue("move_stage"), msg.getFieldValue("move_stage"));
+        assertEquals(7L, msg.getLongValue("itv_gkey", -1L));
+        assertEquals(-1L, msg.getLongValue("unknown", -1L));
+        assertEquals(42.0, msg.getDoubleValue("gkey", 0.0));
+        assertNull(msg.getFieldValue("unknown"));
+    }
+
+    @Test
+    void testCreatedMessageHasAllNonNullFieldsChanged() {
+        // Arrange
+        Schema schema = SchemaBuilder.record("Created").fields()
+                .requiredLong("gkey")
+                .optionalString("move_stage")
+                .endRecord();
+        GenericRecord after = new GenericData.Record(schema);
+        after.put("gkey", 1L);
+        CollectedMessageLayout layout = CollectedMessageLayout.forSchema(schema);
+
+        // Act
+        CollectedMessage msg = new CollectedMessage(CREATED, "entity", 1, 0, "1",
+                layout, layout.readValues(null), layout.readValues(after));
+
+        // Assert
+        assertEquals(1, msg.getChangedFields().size());
+        assertTrue(msg.getFieldValue("gkey").isCreated());
+        assertEquals("1", msg.getFieldValueAsString("gkey"));
+    }
 }
@@ -0,0 +1,123 @@
+package com.aicon.tos.interceptor;
+
+import com.aicon.tos.interceptor.decide.FilteredMessageStore;
+import com.avlino.common.MetaField;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.aicon.tos.connect.cdc.CDCAction.CHANGED;
+import static com.aicon.tos.interceptor.MessageMeta.TS_CDC_RECEIVED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilteredMessageStoreTest {
+
+    private static final String ENTITY = "inv_wi";
+
+    private FilteredMessageStore store;
+
+    @BeforeEach
+    void setup() {
+        store = new FilteredMessageStore();
+        store.registerEntity(ENTITY, 3, Duration.ofMinutes(30), List.of("gkey", "work_queue_gkey"));
+    }
+
+    @Test
+    void testFindByIndexedFieldMatchesOnStringValue() {
+        store.add(createMessage(1, 100L, 10L, Instant.now()));
+        store.add(createMessage(2, 101L, 10L, Instant.now()));
+        store.add(createMessage(3, 102L, 11L, Instant.now()));
+
+        assertTrue(store.isIndexed(ENTITY, "work_queue_gkey"));
+        List<FilteredMessage> result = store.findByField(ENTITY, "work_queue_gkey", 10L);
+        assertEquals(List.of(1L, 2L), result.stream().map(FilteredMessage::getOffset).toList(),
+                "Index should return matches in arrival order");
+        assertEquals(1, store.findByField(ENTITY, "gkey", "102").size(), "Long value should match its string value");
+        assertTrue(store.findByField(ENTITY, "gkey", 999L).isEmpty());
+        assertTrue(store.findByField(ENTITY, "gkey", null).isEmpty());
+    }
+
+    @Test
+    void testFindByNotIndexedFieldScans() {
+        store.add(createMessage(1, 100L, 10L, Instant.now()));
+
+        assertFalse(store.isIndexed(ENTITY, "move_kind"));
+        assertEquals(1, store.findByField(ENTITY, "move_kind", "DSCH").size());
+    }
+
+    @Test
+    void testEvictsOldestWhenMaxNrExceeded() {
+        for (int i = 1; i <= 5; i++) {
+            store.add(createMessage(i, 100L + i, 10L, Instant.now()));
+        }
+
+        assertEquals(3, store.size(ENTITY));
+        assertEquals(3L, store.getMessages(ENTITY).get(0).getOffset());
+        assertTrue(store.findByField(ENTITY, "gkey", 101L).isEmpty(), "Evicted message should be removed from index");
+        assertEquals(3, store.findByField(ENTITY, "work_queue_gkey", 10L).size());
+    }
+
+    @Test
+    void testEvictsOldestWhenMaxTimeExceeded() {
+        Instant now = Instant.now();
+        store.add(createMessage(1, 101L, 10L, now.minus(Duration.ofMinutes(45))));
+        store.add(createMessage(2, 102L, 10L, now.minus(Duration.ofMinutes(10))));
+        store.add(createMessage(3, 103L, 10L, now));
+
+        assertEquals(2, store.size(ENTITY));
+        assertTrue(store.findByField(ENTITY, "gkey", 101L).isEmpty());
+    }
+
+    @Test
+    void testFindLatestWalksNewestFirst() {
+        store.add(createMessage(1, 101L, 10L, Instant.now()));
+        store.add(createMessage(2, 102L, 10L, Instant.now()));
+
+        FilteredMessage latest = store.findLatest(ENTITY, msg -> msg.getFieldValueAsLong("work_queue_gkey", -1L) == 10L, null);
+        assertNotNull(latest);
+        assertEquals(2L, latest.getOffset());
+        assertNull(store.findLatest("unknown", msg -> true, null));
+    }
+
+    @Test
+    void testRegisteredIndexIsBackfilledAndEvicted() {
+        store.add(createMessage(1, 101L, 10L, Instant.now()));
+        store.add(createMessage(2, 102L, 11L, Instant.now()));
+
+        assertTrue(store.registerIndex(ENTITY, "wq_even", msg -> msg.getFieldValueAsLong("work_queue_gkey", 1L) % 2 == 0 ? "even" : null));
+        assertFalse(store.registerIndex(ENTITY, "wq_even", msg -> "other"), "Index should only be registered once");
+        assertEquals(1L, store.findLatestByIndex(ENTITY, "wq_even", "even").getOffset());
+
+        store.add(createMessage(3, 103L, 12L, Instant.now()));
+        store.add(createMessage(4, 104L, 13L, Instant.now()));
+        assertEquals(List.of(3L), store.findByIndex(ENTITY, "wq_even", "even").stream().map(FilteredMessage::getOffset).toList(),
+                "Evicted message should be removed from registered index");
+        assertNull(store.findLatestByIndex(ENTITY, "unknown", "even"));
+    }
+
+    @Test
+    void testUnregisteredEntityUsesDefaults() {
+        FilteredMessage msg = new FilteredMessage(new CollectedMessage(CHANGED, "other", 1, 0, "1", null));
+        store.add(msg);
+
+        assertEquals(1, store.size("other"));
+        assertTrue(store.isIndexed("other", "gkey"));
+        store.clear();
+        assertEquals(0, store.size("other"));
+    }
+
+    private FilteredMessage createMessage(long offset, Long gkey, Long wqGkey, Instant received) {
+        Map<String, InterceptorValueObject<?>> fields = new LinkedHashMap<>();
+        fields.put("gkey", new InterceptorValueObject<>(new MetaField<>("gkey", Long.class), gkey, gkey));
+        fields.put("work_queue_gkey", new InterceptorValueObject<>(new MetaField<>("work_queue_gkey", Long.class), wqGkey, wqGkey));
+        fields.put("move_kind", new InterceptorValueObject<>(new MetaField<>("move_kind", String.class), "DSCH", "DSCH"));
+        CollectedMessage msg = new CollectedMessage(CHANGED, ENTITY, offset, 0, String.valueOf(gkey), fields);
+        msg.meta().addTimestamp(TS_CDC_RECEIVED, received, null);
+        return new FilteredMessage(msg);
+    }
+}
@@ -0,0 +1,104 @@
+package com.aicon.tos.interceptor;
+
+import com.aicon.tos.interceptor.decide.InFlightLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightLimiterTest {
+
+    @Test
+    void testRequestsAboveLimitAreQueuedWithoutBlocking() {
+        // Arrange
+        InFlightLimiter limiter = new InFlightLimiter(2, Runnable::run);
+        List<CompletableFuture<String>> responses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            responses.add(new CompletableFuture<>());
+        }
+        List<Integer> started = new ArrayList<>();
+
+        // Act
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int idx = i;
+            results.add(limiter.submit(() -> {
+                started.add(idx);
+                return responses.get(idx);
+            }));
+        }
+
+        // Assert
+        assertEquals(List.of(0, 1), started, "Only 2 requests should be started");
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1, limiter.getPending());
+
+        responses.get(1).complete("second");
+        assertEquals(List.of(0, 1, 2), started, "Queued request should start when a slot is released");
+        assertEquals("second", results.get(1).join());
+        assertEquals(0, limiter.getPending());
+
+        responses.get(0).complete("first");
+        responses.get(2).complete("third");
+        assertEquals("third", results.get(2).join());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testFailedRequestReleasesSlot() {
+        // Arrange
+        InFlightLimiter limiter = new InFlightLimiter(1, Runnable::run);
+
+        // Act
+        CompletableFuture<String> failed = limiter.submit(() -> {
+            throw new IllegalStateException("cannot build request");
+        });
+        CompletableFuture<String> timedOut = limiter.submit(() -> new CompletableFuture<String>().orTimeout(10, TimeUnit.MILLISECONDS));
+
+        // Assert
+        assertTrue(failed.isCompletedExceptionally());
+        Exception exc = assertThrows(Exception.class, timedOut::join);
+        assertInstanceOf(TimeoutException.class, exc.getCause());
+        assertEquals(0, limiter.getInFlight());
+        assertEquals("ok", limiter.submit(() -> CompletableFuture.completedFuture("ok")).join());
+    }
+
+    @Test
+    void testInvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new InFlightLimiter(0, Runnable::run));
+        assertThrows(IllegalArgumentException.class, () -> new InFlightLimiter(1, Runnable::run).setMaxInFlight(0));
+    }
+
+    @Test
+    void testChangedLimitIsApplied() {
+        // Arrange
+        InFlightLimiter limiter = new InFlightLimiter(1, Runnable::run);
+        List<CompletableFuture<String>> responses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int idx = i;
+            responses.add(new CompletableFuture<>());
+            limiter.submit(() -> responses.get(idx));
+        }
+
+        // Act & Assert
+        limiter.setMaxInFlight(3);
+        assertEquals(3, limiter.getInFlight(), "Queued requests should start when the limit is raised");
+        assertEquals(0, limiter.getPending());
+
+        limiter.setMaxInFlight(1);
+        limiter.submit(() -> CompletableFuture.completedFuture("queued"));
+        responses.get(0).complete("first");
+        assertEquals(2, limiter.getInFlight(), "No request should start above a lowered limit");
+        responses.get(1).complete("second");
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(1, limiter.getPending());
+        responses.get(2).complete("third");
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, limiter.getPending());
+    }
+}
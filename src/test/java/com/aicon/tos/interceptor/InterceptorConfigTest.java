@@ -2,6 +2,7 @@ package com.aicon.tos.interceptor;
 
 import com.aicon.TestConstants;
 import com.aicon.tos.shared.config.ConfigGroup;
+import com.aicon.tos.shared.config.ConfigItem;
 import com.aicon.tos.shared.config.ConfigSettings;
 import com.aicon.tos.shared.config.ConfigType;
 import org.junit.jupiter.api.BeforeEach;
@@ -112,6 +113,25 @@ class InterceptorConfigTest {
         assertNull(config, "Config for an unknown entity should be null");
     }
 
+    @Test
+    void testInvalidMaxInFlightRequestsFallsBackToDefault() {
+        // Arrange
+        ConfigGroup interceptors = new ConfigGroup(ConfigType.Interceptors);
+        for (String value : List.of("many", "0", "25")) {
+            ConfigGroup entity = new ConfigGroup(ConfigType.InterceptorEntity, "entity-" + value);
+            entity.addItem(new ConfigItem(InterceptorConfig.CFG_MAX_INFLIGHT_REQUESTS, value));
+            interceptors.addGroup(entity);
+        }
+
+        // Act
+        InterceptorConfig config = new InterceptorConfig(interceptors);
+
+        // Assert
+        assertEquals(InterceptorEntityConfig.DEFAULT_MAX_IN_FLIGHT_REQUESTS, config.getEntityConfig("entity-many").getMaxInFlightRequests());
+        assertEquals(InterceptorEntityConfig.DEFAULT_MAX_IN_FLIGHT_REQUESTS, config.getEntityConfig("entity-0").getMaxInFlightRequests());
+        assertEquals(25, config.getEntityConfig("entity-25").getMaxInFlightRequests());
+    }
+
     @Test
     void testGetCompareFieldsForUnknownEntity() {
         // Act
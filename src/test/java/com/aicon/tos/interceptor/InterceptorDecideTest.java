@@ -2,14 +2,21 @@ package com.aicon.tos.interceptor;
 
 import com.aicon.TestConstants;
 import com.aicon.tos.interceptor.decide.InterceptorDecide;
+import com.aicon.tos.interceptor.decide.scenarios.LoggerScenario;
+import com.aicon.tos.shared.config.ConfigGroup;
+import com.aicon.tos.shared.config.ConfigItem;
 import com.aicon.tos.shared.config.ConfigSettings;
 import com.aicon.tos.shared.config.ConfigType;
+import generated.ConfigItemKeyEnum;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 /**
  * Unit tests for the InterceptorDecide class using the real configuration.
@@ -107,4 +114,64 @@ class InterceptorDecideTest {
 
         // Assert: If no exception is thrown, the executors have shut down gracefully
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDecideLanesAreLimitedToTheNumberOfEntities() {
+        // Arrange
+        ConfigSettings config = ConfigSettings.getInstance();
+        InterceptorConfig manyLanes = new InterceptorConfig(config.getMainGroup(ConfigType.Interceptors));
+        manyLanes.setDecideLanes(8);
+        InterceptorConfig oneLane = new InterceptorConfig(config.getMainGroup(ConfigType.Interceptors));
+        oneLane.setDecideLanes(1);
+
+        // Act
+        InterceptorDecide manyLanesDecide = new InterceptorDecide(manyLanes);
+        InterceptorDecide oneLaneDecide = new InterceptorDecide(oneLane);
+
+        // Assert
+        assertEquals(InterceptorConfig.DEFAULT_DECIDE_LANES, new InterceptorConfig(config.getMainGroup(ConfigType.Interceptors)).getDecideLanes());
+        assertEquals(manyLanes.getEntities().size(), manyLanesDecide.getStartedProcessingThreads());
+        assertEquals(1, oneLaneDecide.getStartedProcessingThreads());
+
+        // Cleanup
+        manyLanesDecide.shutdown();
+        oneLaneDecide.shutdown();
+    }
+
+    @Test
+    void testCorrelatedEntitiesShareALane() {
+        // Arrange
+        ConfigGroup interceptors = new ConfigGroup(ConfigType.Interceptors);
+        for (String entityName : List.of("inv_wi", "other_a", "other_b", "road_truck_transactions")) {
+            ConfigGroup entity = new ConfigGroup(ConfigType.InterceptorEntity, entityName);
+            if ("inv_wi".equals(entityName)) {
+                ConfigGroup scenarios = new ConfigGroup(ConfigType.Scenarios);
+                ConfigGroup scenario = new ConfigGroup(ConfigType.Scenario, "Correlating");
+                scenario.addItem(new ConfigItem(ConfigItemKeyEnum.CLASS_NAME.value(), CorrelatingScenario.class.getName()));
+                scenarios.addGroup(scenario);
+                entity.addGroup(scenarios);
+            }
+            interceptors.addGroup(entity);
+        }
+        InterceptorConfig interceptorConfig = new InterceptorConfig(interceptors);
+        interceptorConfig.setDecideLanes(4);
+
+        // Act
+        InterceptorDecide interceptorDecide = new InterceptorDecide(interceptorConfig);
+
+        // Assert
+        assertEquals(3, interceptorDecide.getStartedProcessingThreads(), "1 lane per group of correlated entities");
+        assertEquals(interceptorDecide.getLaneIndex("inv_wi"), interceptorDecide.getLaneIndex("road_truck_transactions"));
+        assertNotEquals(interceptorDecide.getLaneIndex("other_a"), interceptorDecide.getLaneIndex("other_b"));
+
+        // Cleanup
+        interceptorDecide.shutdown();
+    }
+
+    public static class CorrelatingScenario extends LoggerScenario {
+        @Override
+        public Collection<String> getCorrelatedEntities() {
+            return List.of("road_truck_transactions");
+        }
+    }
+}
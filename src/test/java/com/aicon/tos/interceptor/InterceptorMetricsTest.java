@@ -0,0 +1,102 @@
+package com.aicon.tos.interceptor;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static com.aicon.tos.connect.cdc.CDCAction.CHANGED;
+import static com.aicon.tos.interceptor.InterceptorMetrics.*;
+import static com.aicon.tos.interceptor.MessageMeta.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterceptorMetricsTest {
+
+    private static final String SCENARIO = "VesselDischargeAGVASC";
+
+    @Test
+    void testStagesAreRecordedFromTimestamps() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InterceptorMetrics metrics = new InterceptorMetrics(registry);
+        Instant t0 = Instant.now();
+        MessageMeta meta = new MessageMeta(CHANGED, "inv_wi", 1, t0.toEpochMilli(), "100");
+        meta.addTimestamp(TS_CDC_RECEIVED, t0, null);
+        meta.addTimestamp(TS_FILTERED, t0.plusMillis(5), null);
+        meta.addTimestamp(TS_START_PREFIX + SCENARIO, t0.plusMillis(25), null);
+        meta.addTimestamp(TS_SEND_PREFIX + "aicon.decking.request", t0.plusMillis(40), null);
+        meta.addTimestamp(TS_RECV_PREFIX + "aicon.decking.response", t0.plusMillis(140), null);
+        meta.addTimestamp(TS_SEND_PREFIX + "tos.decking.request", t0.plusMillis(150), null);
+        meta.addTimestamp(TS_RECV_PREFIX + "tos.decking.response", t0.plusMillis(350), null);
+        meta.addTimestamp(TS_END_PREFIX + SCENARIO, t0.plusMillis(360), null);
+
+        // Act
+        metrics.recordMessage(meta, t0.plusMillis(20));
+        metrics.recordStages(meta, SCENARIO, true);
+
+        // Assert
+        assertEquals(5, totalMs(registry, STAGE_CDC_TO_FILTER, null));
+        assertEquals(15, totalMs(registry, STAGE_FILTER_TO_DECIDE, null));
+        assertEquals(15, totalMs(registry, STAGE_DECIDE_TO_ENGINE, null));
+        assertEquals(100, totalMs(registry, STAGE_ENGINE_ROUND_TRIP, "aicon.decking.request"));
+        assertEquals(200, totalMs(registry, STAGE_ENGINE_ROUND_TRIP, "tos.decking.request"));
+        assertEquals(335, totalMs(registry, STAGE_SCENARIO, null));
+        Timer scenarioTimer = registry.find(STAGE_SCENARIO).tag(TAG_RESULT, "ok").tag(TAG_ENTITY, "inv_wi").timer();
+        assertNotNull(scenarioTimer);
+    }
+
+    @Test
+    void testSharedStagesAreRecordedOncePerMessage() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InterceptorMetrics metrics = new InterceptorMetrics(registry);
+        Instant t0 = Instant.now();
+        MessageMeta meta = new MessageMeta(CHANGED, "inv_wi", 1, t0.toEpochMilli(), "100");
+        meta.addTimestamp(TS_CDC_RECEIVED, t0, null);
+        meta.addTimestamp(TS_FILTERED, t0.plusMillis(5), null);
+        meta.addTimestamp(TS_START_PREFIX + SCENARIO, t0.plusMillis(25), null);
+        meta.addTimestamp(TS_END_PREFIX + SCENARIO, t0.plusMillis(30), null);
+        meta.addTimestamp(TS_START_PREFIX + "LoggerScenario", t0.plusMillis(25), null);
+        meta.addTimestamp(TS_END_PREFIX + "LoggerScenario", t0.plusMillis(26), null);
+
+        // Act
+        metrics.recordMessage(meta, t0.plusMillis(20));
+        metrics.recordStages(meta, SCENARIO, true);
+        metrics.recordStages(meta, "LoggerScenario", true);
+        metrics.recordStages(meta, SCENARIO, true);
+
+        // Assert
+        assertEquals(1, registry.find(STAGE_CDC_TO_FILTER).timer().count());
+        assertEquals(1, registry.find(STAGE_FILTER_TO_DECIDE).timer().count());
+        assertEquals(2, registry.find(STAGE_SCENARIO).tag(TAG_SCENARIO, SCENARIO).timer().count());
+        assertEquals(1, registry.find(STAGE_SCENARIO).tag(TAG_SCENARIO, "LoggerScenario").timer().count());
+    }
+
+    @Test
+    void testMissingStagesAreSkipped() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InterceptorMetrics metrics = new InterceptorMetrics(registry);
+        MessageMeta meta = new MessageMeta(CHANGED, "inv_wi", 1, 0, "100");
+
+        // Act
+        metrics.recordMessage(meta, Instant.now());
+        metrics.recordStages(meta, SCENARIO, false);
+
+        // Assert
+        assertNull(registry.find(STAGE_CDC_TO_FILTER).timer());
+        assertNull(registry.find(STAGE_SCENARIO).timer());
+        assertEquals("", metrics.scrape(), "Only a Prometheus registry can be scraped");
+    }
+
+    private long totalMs(SimpleMeterRegistry registry, String name, String topic) {
+        Timer timer = topic == null
+                ? registry.find(name).tag(TAG_ENTITY, "inv_wi").timer()
+                : registry.find(name).tag(TAG_TOPIC, topic).timer();
+        assertNotNull(timer, name + " not recorded");
+        assertEquals(1, timer.count());
+        return Math.round(timer.totalTime(TimeUnit.MILLISECONDS));
+    }
+}
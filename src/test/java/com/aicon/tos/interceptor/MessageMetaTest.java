@@ -4,7 +4,11 @@ import com.aicon.tos.connect.cdc.CDCAction;
 import com.aicon.tos.shared.ResultLevel;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 class MessageMetaTest {
@@ -37,4 +41,18 @@ class MessageMetaTest {
         assertEquals(ResultLevel.ERROR, meta.getResult().getLevel());
         assertEquals("any other error", meta.getResult().getMessage());
     }
+
+    @Test
+    void testAllTimeStampsIsACopy() {
+        MessageMeta meta = new MessageMeta(CDCAction.CHANGED, "test-entity", 1, System.currentTimeMillis() - 1000, "key-1");
+        Instant received = Instant.now();
+        meta.addTimestamp("received", received, null);
+
+        Map<String, Instant> timestamps = meta.getAllTimeStamps();
+        meta.addTimestamp("sent", received.plusMillis(5), null);
+
+        assertFalse(timestamps.containsKey("sent"));
+        assertEquals(received, meta.getTimestamp("received"));
+        assertEquals(timestamps.size() + 1, meta.getAllTimeStamps().size());
+    }
 }
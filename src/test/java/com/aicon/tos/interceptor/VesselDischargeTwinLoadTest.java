@@ -0,0 +1,181 @@
+package com.aicon.tos.interceptor;
+
+import com.aicon.tos.connect.cdc.CDCAction;
+import com.aicon.tos.interceptor.decide.FilteredMessageStore;
+import com.aicon.tos.interceptor.decide.scenarios.n4.TwinPairingIndex;
+import com.aicon.tos.interceptor.decide.scenarios.n4.events.N4EventBase;
+import com.aicon.tos.interceptor.decide.scenarios.n4.events.WorkInstructionEvent;
+import com.aicon.tos.interceptor.decide.scenarios.n4.events.WorkInstructionEvent.TwinWith;
+import com.avlino.common.MetaField;
+import com.avlino.common.utils.CsvParser;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.aicon.tos.interceptor.MessageMeta.TS_CDC_RECEIVED;
+import static com.aicon.tos.interceptor.decide.scenarios.n4.events.WorkInstructionEvent.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replays the vessel discharge twin burst of LBCT (VSL_DSCH_INV_WI_Twin.csv) for many work queues at once and checks
+ * the {@link TwinPairingIndex} finds the same companion WI as a linear scan over all stored messages would.
+ */
+class VesselDischargeTwinLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(VesselDischargeTwinLoadTest.class);
+
+    private static final String CSV_FILE = "src/test/resources/interceptor/lbct_dev/VSL_DSCH_INV_WI_Twin.csv";
+    private static final int NR_WORK_QUEUES = 250;
+    private static final long GKEY_STEP = 1_000_000L;
+
+    private static final Map<String, Class<?>> FIELD_TYPES = new LinkedHashMap<>();
+    static {
+        FIELD_TYPES.put(FLD_GKEY, Long.class);
+        FIELD_TYPES.put(FLD_WQ_GKEY, Long.class);
+        FIELD_TYPES.put(FLD_SEQUENCE, Long.class);
+        FIELD_TYPES.put(FLD_MOVE_NUMBER, Double.class);
+        FIELD_TYPES.put(FLD_TWIN_WITH, String.class);
+        FIELD_TYPES.put(FLD_MOVE_KIND, String.class);
+        FIELD_TYPES.put(FLD_MOVE_STAGE, String.class);
+    }
+
+    @Test
+    void testTwinIndexFindsSameCompanionAsLinearScan() {
+        // Arrange
+        List<String[]> csv = CsvParser.parseToList(CSV_FILE, true, String[].class);
+        assertNotNull(csv);
+        List<FilteredMessage> burst = createBurst(csv);
+
+        FilteredMessageStore store = new FilteredMessageStore();
+        store.registerEntity(ENTITY_NAME, 10000, Duration.ofMinutes(30), InterceptorEntityConfig.DEFAULT_INDEX_FIELDS);
+        TwinPairingIndex.register(store, ENTITY_NAME);
+
+        // Act
+        int nrPaired = 0;
+        long indexNanos = 0;
+        long scanNanos = 0;
+        for (FilteredMessage msg : burst) {
+            store.add(msg);
+            if (!isTwinFetchStarted(msg)) {
+                continue;
+            }
+            WorkInstructionEvent wiEvent = N4EventBase.createInstance(msg);
+
+            long start = System.nanoTime();
+            WorkInstructionEvent companion = TwinPairingIndex.findCompanion(store, wiEvent);
+            indexNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            FilteredMessage expected = findCompanionByScan(store.getMessages(ENTITY_NAME), wiEvent);
+            scanNanos += System.nanoTime() - start;
+
+            // Assert
+            if (expected == null) {
+                assertNull(companion, "No companion expected for " + wiEvent.getGkey());
+            } else {
+                assertNotNull(companion, "Companion expected for " + wiEvent.getGkey());
+                assertSame(expected, companion.getMsg());
+                assertEquals(wiEvent.getWqGkey(), companion.getWqGkey());
+                assertEquals(1, Math.abs(wiEvent.getSequence() - companion.getSequence()));
+                nrPaired++;
+            }
+        }
+
+        assertEquals(2 * NR_WORK_QUEUES, nrPaired, "Both WI's of each twin should find their companion");
+        assertTrue(store.size(ENTITY_NAME) <= 10000, "Store should have evicted the oldest messages");
+        LOG.info("Replayed {} messages, {} twin lookups: index {} ms, linear scan {} ms",
+                burst.size(), nrPaired, indexNanos / 1_000_000, scanNanos / 1_000_000);
+    }
+
+    /**
+     * The lookup as VesselDischargeAGVASC did before the twin index existed.
+     */
+    private FilteredMessage findCompanionByScan(List<FilteredMessage> messages, WorkInstructionEvent wiEvent) {
+        TwinWith tw = wiEvent.getTwinWith(TwinWith.NONE);
+        long otherSeq = tw == TwinWith.NEXT ? wiEvent.getSequence() + 1 : wiEvent.getSequence() - 1;
+        TwinWith otherTW = tw == TwinWith.NEXT ? TwinWith.PREV : TwinWith.NEXT;
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            WorkInstructionEvent other = N4EventBase.createInstance(messages.get(i));
+            if (other.getWqGkey().equals(wiEvent.getWqGkey())
+                    && other.getSequence() == otherSeq
+                    && other.getTwinWith(TwinWith.NONE) == otherTW) {
+                return messages.get(i);
+            }
+        }
+        return null;
+    }
+
+    private boolean isTwinFetchStarted(FilteredMessage msg) {
+        InterceptorValueObject<?> stage = msg.getFieldValue(FLD_MOVE_STAGE);
+        return stage != null
+                && "PLANNED".equals(stage.beforeValue())
+                && "FETCH_UNDERWAY".equals(stage.afterValue())
+                && !"NONE".equals(msg.getFieldValueAsString(FLD_TWIN_WITH));
+    }
+
+    /**
+     * Creates the messages of the csv for {@link #NR_WORK_QUEUES} work queues, the rows of all work queues are
+     * interleaved like they would arrive during a busy discharge.
+     */
+    private List<FilteredMessage> createBurst(List<String[]> csv) {
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        String[] header = csv.get(0);
+        for (int i = 0; i < header.length; i++) {
+            columns.put(header[i], i);
+        }
+
+        Map<String, String[][]> rowsPerOffset = new LinkedHashMap<>();
+        for (String[] row : csv.subList(1, csv.size())) {
+            String[][] pair = rowsPerOffset.computeIfAbsent(row[columns.get("offset")], k -> new String[2][]);
+            pair["before".equals(row[columns.get("element")]) ? 0 : 1] = row;
+        }
+
+        List<FilteredMessage> burst = new ArrayList<>();
+        long offset = 0;
+        for (String[][] pair : rowsPerOffset.values()) {
+            for (int wq = 0; wq < NR_WORK_QUEUES; wq++) {
+                burst.add(createMessage(columns, pair[0], pair[1], wq * GKEY_STEP, offset++));
+            }
+        }
+        return burst;
+    }
+
+    private FilteredMessage createMessage(Map<String, Integer> columns, String[] before, String[] after, long gkeyShift, long offset) {
+        Map<String, InterceptorValueObject<?>> fields = new LinkedHashMap<>();
+        for (Map.Entry<String, Class<?>> field : FIELD_TYPES.entrySet()) {
+            int column = columns.get(field.getKey());
+            boolean shift = field.getKey().equals(FLD_GKEY) || field.getKey().equals(FLD_WQ_GKEY);
+            fields.put(field.getKey(), new InterceptorValueObject<>(new MetaField<>(field.getKey(), field.getValue()),
+                    parse(before, column, field.getValue(), shift ? gkeyShift : 0),
+                    parse(after, column, field.getValue(), shift ? gkeyShift : 0)));
+        }
+        Object gkey = fields.get(FLD_GKEY).afterValue();
+        CDCAction action = fields.get(FLD_GKEY).beforeValue() == null ? CDCAction.CREATED : CDCAction.CHANGED;
+        CollectedMessage msg = new CollectedMessage(action, ENTITY_NAME, offset, 0, String.valueOf(gkey), fields);
+        msg.meta().addTimestamp(TS_CDC_RECEIVED, Instant.now(), null);
+        return new FilteredMessage(msg);
+    }
+
+    private Object parse(String[] row, int column, Class<?> type, long shift) {
+        if (row == null || column >= row.length) {
+            return null;
+        }
+        String value = row[column];
+        if (value == null || value.isEmpty() || "null".equals(value) || "no data".equals(value)) {
+            return null;
+        }
+        if (type == Long.class) {
+            return Long.parseLong(value) + shift;
+        }
+        if (type == Double.class) {
+            return Double.parseDouble(value);
+        }
+        return value;
+    }
+}
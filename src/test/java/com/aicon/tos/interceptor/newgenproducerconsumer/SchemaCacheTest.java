@@ -0,0 +1,138 @@
+package com.aicon.tos.interceptor.newgenproducerconsumer;
+
+import com.aicon.tos.interceptor.newgenproducerconsumer.SchemaCache.CachedSchema;
+import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import org.apache.avro.Schema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SchemaCacheTest {
+
+    private static final String SUBJECT = "tos.apex.dbo.inv_wi-value";
+    private static final String SCHEMA_V1 = """
+            {"type": "record", "name": "inv_wi", "fields": [
+                {"name": "gkey", "type": "long"},
+                {"name": "pos_slot", "type": ["null", "string"], "default": null}
+            ]}
+            """;
+    private static final String SCHEMA_V2 = """
+            {"type": "record", "name": "inv_wi", "fields": [
+                {"name": "gkey", "type": "long"},
+                {"name": "pos_slot", "type": ["null", "string"], "default": null},
+                {"name": "move_number", "type": ["null", "double"], "default": null}
+            ]}
+            """;
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void testSchemaIsFetchedOnce() throws Exception {
+        // Arrange
+        SchemaRegistryClient client = mock(SchemaRegistryClient.class);
+        when(client.getLatestSchemaMetadata(SUBJECT)).thenReturn(new SchemaMetadata(11, 1, SCHEMA_V1));
+
+        try (SchemaCache cache = new SchemaCache(client, cacheDir, Duration.ZERO)) {
+            // Act
+            CachedSchema first = cache.get(SUBJECT);
+            CachedSchema second = cache.get(SUBJECT);
+
+            // Assert
+            assertSame(first, second);
+            verify(client, times(1)).getLatestSchemaMetadata(SUBJECT);
+            assertEquals(1, first.version());
+            assertEquals(new Schema.Parser().parse(SCHEMA_V1), first.schema());
+            assertTrue(Files.exists(cacheDir.resolve(SUBJECT + ".v1.avsc")));
+        }
+    }
+
+    @Test
+    void testRefreshReplacesSchemaWhenNewVersionIsRegistered() throws Exception {
+        // Arrange
+        SchemaRegistryClient client = mock(SchemaRegistryClient.class);
+        when(client.getLatestSchemaMetadata(SUBJECT)).thenReturn(new SchemaMetadata(11, 1, SCHEMA_V1));
+        when(client.getAllVersions(SUBJECT)).thenReturn(List.of(1)).thenReturn(List.of(1, 2));
+        when(client.getSchemaMetadata(SUBJECT, 2)).thenReturn(new SchemaMetadata(12, 2, SCHEMA_V2));
+
+        try (SchemaCache cache = new SchemaCache(client, cacheDir, Duration.ZERO)) {
+            CachedSchema original = cache.get(SUBJECT);
+
+            // Act
+            cache.refresh();
+            CachedSchema unchanged = cache.get(SUBJECT);
+            cache.refresh();
+            CachedSchema updated = cache.get(SUBJECT);
+
+            // Assert
+            assertSame(original, unchanged);
+            assertEquals(2, updated.version());
+            assertEquals(3, updated.schema().getFields().size());
+        }
+    }
+
+    @Test
+    void testSchemaIsReadFromCacheDirWhenRegistryIsNotAvailable() throws Exception {
+        // Arrange
+        SchemaRegistryClient online = mock(SchemaRegistryClient.class);
+        when(online.getLatestSchemaMetadata(SUBJECT)).thenReturn(new SchemaMetadata(11, 1, SCHEMA_V1));
+        when(online.getAllVersions(SUBJECT)).thenReturn(List.of(1, 2));
+        when(online.getSchemaMetadata(SUBJECT, 2)).thenReturn(new SchemaMetadata(12, 2, SCHEMA_V2));
+        try (SchemaCache cache = new SchemaCache(online, cacheDir, Duration.ZERO)) {
+            cache.get(SUBJECT);
+            cache.refresh();
+        }
+        SchemaRegistryClient offline = mock(SchemaRegistryClient.class);
+        when(offline.getLatestSchemaMetadata(SUBJECT)).thenThrow(new IOException("Connection refused"));
+
+        try (SchemaCache cache = new SchemaCache(offline, cacheDir, Duration.ZERO)) {
+            // Act
+            CachedSchema cached = cache.get(SUBJECT);
+
+            // Assert
+            assertEquals(2, cached.version());
+            assertEquals(new Schema.Parser().parse(SCHEMA_V2), cached.schema());
+        }
+    }
+
+    @Test
+    void testHandMadeSchemaFileIsUsedOffline() throws Exception {
+        // Arrange
+        Files.writeString(cacheDir.resolve(SUBJECT + ".avsc"), SCHEMA_V1);
+        SchemaRegistryClient offline = mock(SchemaRegistryClient.class);
+        when(offline.getLatestSchemaMetadata(SUBJECT)).thenThrow(new IOException("Connection refused"));
+
+        try (SchemaCache cache = new SchemaCache(offline, cacheDir, Duration.ZERO)) {
+            // Act
+            CachedSchema cached = cache.get(SUBJECT);
+
+            // Assert
+            assertEquals(0, cached.version());
+            assertEquals(2, cached.schema().getFields().size());
+            assertThrows(RuntimeException.class, () -> cache.get("unknown-value"));
+        }
+    }
+
+    @Test
+    void testInvalidRefreshIntervalFallsBackToDefault() {
+        // Act & Assert
+        assertEquals(SchemaCache.DEFAULT_REFRESH_S, SchemaCache.parseRefreshS(null));
+        assertEquals(SchemaCache.DEFAULT_REFRESH_S, SchemaCache.parseRefreshS("1 minute"));
+        assertEquals(30, SchemaCache.parseRefreshS(" 30 "));
+    }
+}
@@ -28,8 +28,6 @@ import static com.aicon.tos.model.PositionConverter.POS_PART_TIER;
 import static com.aicon.tos.model.PositionConverter.POS_PART_TYPE;
 import static com.aicon.tos.model.PositionConverter.POS_PART_YARD;
 import static com.aicon.tos.model.PositionConverter.UNKNOWN_YARD_ID;
-import static com.aicon.tos.model.PositionConverter._conversionGrp;
-import static com.aicon.tos.model.PositionConverter._posTos2Aicon;
 import static com.aicon.tos.model.PositionConverter.collectParts;
 import static com.aicon.tos.model.PositionConverter.convertPosPartsToAicon;
 import static com.aicon.tos.model.PositionConverter.convertPosPartsToTos;
@@ -201,8 +199,7 @@ public class PositionConverterTest {
     @Test
     public void testConversions() {
         // Next convert a TOS pos when nothing is configured (expect pos parts to be passed as is).
-        _conversionGrp = null;      // reset previous configuration, it will try to look up the SqlDb config which is not there.
-        _posTos2Aicon = null;       // and make sure it will reprocess the conversion mappings (which are not there this time)
+        PositionConverter.setConversionConfig(null);    // reset previous configuration, it will try to look up the SqlDb config which is not there.
 
         PositionConverter.getPositionSchema("B3R2C1.T1");
         ConfigGroup convGrp = new ConfigGroup(ConfigType.ConfigGroup, CFG_GRP_CONVERSIONS);
@@ -210,7 +207,7 @@ public class PositionConverterTest {
         convGrp.addItem(new ConfigItem(KEY_CONV_ROW, "-1/2"));
         convGrp.addItem(new ConfigItem(KEY_CONV_COLUMN, "A->0,B->1,C->2,D->3,E->4,F->5,G->6,H->7,J->8,K->9,L->10,M->11"));
         convGrp.addItem(new ConfigItem(KEY_CONV_TIER, "-1"));
-        _conversionGrp = convGrp;
+        PositionConverter.setConversionConfig(convGrp);
 
         // First convert a TOS pos to its aicon equivalents
         String tosPos = "01C05D.2";
@@ -236,8 +233,7 @@ public class PositionConverterTest {
         assertEquals(tosPos, tosPos2);
 
         // Next convert a TOS pos when nothing is configured (expect pos parts to be passed as is).
-        _conversionGrp = null;      // reset previous configuration, it will try to look up the SqlDb config which is not there.
-        _posTos2Aicon = null;       // and make sure it will reprocess the conversion mappings (which are not there this time)
+        PositionConverter.setConversionConfig(null);    // reset previous configuration, it will try to look up the SqlDb config which is not there.
 
         tosMap = splitPosition(tosPos);
         aiconMap = convertPosPartsToAicon(tosMap);
@@ -266,8 +262,7 @@ public class PositionConverterTest {
     @Test
     public void testConversionsLBCT() {
         // Next convert a TOS pos when nothing is configured (expect pos parts to be passed as is).
-        _conversionGrp = null;      // reset previous configuration, it will try to look up the SqlDb config which is not there.
-        _posTos2Aicon = null;       // and make sure it will reprocess the conversion mappings (which are not there this time)
+        PositionConverter.setConversionConfig(null);    // reset previous configuration, it will try to look up the SqlDb config which is not there.
 
         PositionConverter.getPositionSchema("B3R2C2.T1");
         ConfigGroup convGrp = new ConfigGroup(ConfigType.ConfigGroup, CFG_GRP_CONVERSIONS);
@@ -275,7 +270,7 @@ public class PositionConverterTest {
         convGrp.addItem(new ConfigItem(KEY_CONV_ROW, "-1/2"));
         convGrp.addItem(new ConfigItem(KEY_CONV_COLUMN, "-1"));
         convGrp.addItem(new ConfigItem(KEY_CONV_TIER, "-1"));
-        _conversionGrp = convGrp;
+        PositionConverter.setConversionConfig(convGrp);
 
         // First convert a TOS pos to its aicon equivalents
         String tosPos = "A024908.2";
@@ -300,4 +295,37 @@ public class PositionConverterTest {
         // verify that position after conversion to Aicon and back to TOS results in same starting position.
         assertEquals(tosPos, tosPos2);
     }
+
+    @Test
+    public void testCodec() {
+        // Arrange
+        PositionConverter.getPositionSchema("B3R2C1.T1");
+        ConfigGroup convGrp = new ConfigGroup(ConfigType.ConfigGroup, CFG_GRP_CONVERSIONS);
+        convGrp.addItem(new ConfigItem(KEY_CONV_BLOCK, "01A -> 1101, 01B -> 1102, 01C -> 1103"));
+        convGrp.addItem(new ConfigItem(KEY_CONV_ROW, "-1/2"));
+        convGrp.addItem(new ConfigItem(KEY_CONV_TIER, "-1"));
+        PositionConverter.setConversionConfig(convGrp);
+        PositionCodec codec = PositionConverter.getCodec();
+
+        // Act
+        Map<String, String> aiconMap = codec.splitToAicon("Y-RON-01C05D.2");
+        String tosPos = codec.toTosPosition("1103", "2", "D", "1");
+        PositionConverter.getPositionSchema("B3R3C1.T1");       // swaps in a new codec
+
+        // Assert
+        assertEquals(codec.convertParts(codec.split("Y-RON-01C05D.2"), false), aiconMap);
+        assertEquals("RON", aiconMap.get(POS_PART_YARD));
+        assertEquals("1103", aiconMap.get(POS_PART_BLOCK));
+        assertEquals("2", aiconMap.get(POS_PART_ROW));
+        assertEquals("D", aiconMap.get(POS_PART_COLUMN));
+        assertEquals("1", aiconMap.get(POS_PART_TIER));
+        assertEquals("01C05D.2", tosPos);
+        assertEquals("01C05D.2", codec.toTosPosition("1103", "2", "D", "1"), "Held codec is not affected by the swap");
+        assertEquals("01C005D.2", PositionConverter.getCodec().toTosPosition("1103", "2", "D", "1"));
+        assertEquals("-01", PositionCodec.zeroPad(-1, 3));
+        assertEquals("007", PositionCodec.zeroPad(7, 3));
+        assertEquals("1234", PositionCodec.zeroPad(1234, 2));
+
+        PositionConverter.setConversionConfig(null);       // to make other tests repeatable
+    }
 }
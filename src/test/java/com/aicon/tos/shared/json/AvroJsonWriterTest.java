@@ -0,0 +1,90 @@
+package com.aicon.tos.shared.json;
+
+import com.avlino.aicon.ITVJobResequenceResponse.itv_job_resequence_response_value;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvroJsonWriterTest {
+
+    private static final Schema SCHEMA = new Schema.Parser().parse("""
+            {
+              "type": "record", "name": "Move", "fields": [
+                {"name": "gkey", "type": "long"},
+                {"name": "position", "type": ["null", "string"], "default": null},
+                {"name": "kind", "type": {"type": "enum", "name": "Kind", "symbols": ["LOAD", "DSCH"]}},
+                {"name": "holds", "type": {"type": "array", "items": "int"}},
+                {"name": "props", "type": {"type": "map", "values": ["null", "double"]}}
+              ]
+            }
+            """);
+
+    @Test
+    void testWriteGenericRecordWithUnionsUnwrapped() throws Exception {
+        // Arrange
+        GenericRecord move = new GenericData.Record(SCHEMA);
+        move.put("gkey", 12345L);
+        move.put("position", "Y-PTM-01C005D.2");
+        move.put("kind", new GenericData.EnumSymbol(SCHEMA.getField("kind").schema(), "DSCH"));
+        move.put("holds", List.of(1, 2));
+        move.put("props", Map.of("weight", 21.5));
+
+        // Act
+        String json = AvroJsonWriter.toJson(move);
+
+        // Assert
+        assertEquals("{\"gkey\":12345,\"position\":\"Y-PTM-01C005D.2\",\"kind\":\"DSCH\",\"holds\":[1,2],\"props\":{\"weight\":21.5}}", json);
+    }
+
+    @Test
+    void testWriteSpecificRecordWithLogicalTypeAndNull() throws Exception {
+        // Arrange
+        itv_job_resequence_response_value value = new itv_job_resequence_response_value();
+        value.setAPIIdentifier(null);
+        value.setRequestIdx("REQ-12345");
+        value.setTimestamp(Instant.ofEpochMilli(1730279632849L));
+        value.setErrCode(0);
+        value.setErrMsg("Operation completed successfully");
+
+        // Act
+        JsonNode json = JsonUtil.readTree(AvroJsonWriter.toJson(value));
+
+        // Assert
+        assertTrue(json.get("APIIdentifier").isNull());
+        assertEquals("REQ-12345", json.get("requestIdx").asText());
+        assertEquals(1730279632849L, json.get("timestamp").asLong());
+        assertEquals(0, json.get("errCode").asInt());
+    }
+
+    @Test
+    void testPrettyJsonIsIndented() {
+        // Arrange
+        GenericRecord move = new GenericData.Record(SCHEMA);
+        move.put("gkey", 1L);
+        move.put("kind", new GenericData.EnumSymbol(SCHEMA.getField("kind").schema(), "LOAD"));
+        move.put("holds", List.of());
+        move.put("props", Map.of());
+
+        // Act
+        String json = AvroJsonWriter.toPrettyJson(move);
+
+        // Assert
+        assertTrue(json.contains("\n"));
+        assertTrue(json.contains("\"position\" : null"));
+    }
+
+    @Test
+    void testCachedWriterPerType() {
+        // Act & Assert
+        assertSame(JsonUtil.writer(Map.class), JsonUtil.writer(Map.class));
+        assertSame(JsonUtil.reader(Map.class), JsonUtil.reader(Map.class));
+    }
+}
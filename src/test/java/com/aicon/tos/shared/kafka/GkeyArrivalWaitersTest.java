@@ -0,0 +1,46 @@
+package com.aicon.tos.shared.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GkeyArrivalWaitersTest {
+
+    @Test
+    void testAllWaitersForGkeyAreCompletedOnArrival() {
+        // Arrange
+        GkeyArrivalWaiters waiters = new GkeyArrivalWaiters();
+        CompletableFuture<Long> first = waiters.register(1L, 10_000);
+        CompletableFuture<Long> second = waiters.register(1L, 10_000);
+        CompletableFuture<Long> other = waiters.register(2L, 10_000);
+
+        // Act
+        List<CompletableFuture<Long>> arrived = waiters.arrived(1L);
+        arrived.forEach(waiter -> waiter.complete(1234L));
+
+        // Assert
+        assertEquals(2, arrived.size());
+        assertEquals(1234L, first.join());
+        assertEquals(1234L, second.join());
+        assertFalse(other.isDone());
+        assertEquals(1, waiters.size());
+        assertTrue(waiters.arrived(1L).isEmpty(), "Waiters are only notified once");
+    }
+
+    @Test
+    void testWaiterTimesOutWithNull() {
+        // Arrange
+        GkeyArrivalWaiters waiters = new GkeyArrivalWaiters();
+
+        // Act
+        CompletableFuture<Long> waiter = waiters.register(1L, 10);
+
+        // Assert
+        assertNull(waiter.join());
+        assertEquals(0, waiters.size(), "Timed out waiters are unregistered");
+        assertTrue(waiters.arrived(1L).isEmpty());
+    }
+}
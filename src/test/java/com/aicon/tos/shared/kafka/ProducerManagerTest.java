@@ -0,0 +1,84 @@
+package com.aicon.tos.shared.kafka;
+
+import com.aicon.tos.shared.config.ConfigGroup;
+import com.aicon.tos.shared.config.ConfigItem;
+import com.aicon.tos.shared.config.ConfigSettings;
+import com.aicon.tos.shared.config.ConfigType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ProducerManagerTest {
+
+    @AfterEach
+    void tearDown() {
+        ProducerManager.closeAllProducers();
+    }
+
+    @Test
+    void testSharedProducerIsCreatedOncePerTypeAndTopic() {
+        // Arrange
+        AtomicInteger created = new AtomicInteger();
+
+        // Act
+        AiconYardDeckingUpdateResponseProducer first = ProducerManager.getSharedProducer("topic-a",
+                AiconYardDeckingUpdateResponseProducer.class, () -> newProducer(AiconYardDeckingUpdateResponseProducer.class, created));
+        AiconYardDeckingUpdateResponseProducer second = ProducerManager.getSharedProducer("topic-a",
+                AiconYardDeckingUpdateResponseProducer.class, () -> newProducer(AiconYardDeckingUpdateResponseProducer.class, created));
+        AiconYardDeckingUpdateResponseProducer otherTopic = ProducerManager.getSharedProducer("topic-b",
+                AiconYardDeckingUpdateResponseProducer.class, () -> newProducer(AiconYardDeckingUpdateResponseProducer.class, created));
+        AiconTosConnectWQResponseTopicProducer otherType = ProducerManager.getSharedProducer("topic-a",
+                AiconTosConnectWQResponseTopicProducer.class, () -> newProducer(AiconTosConnectWQResponseTopicProducer.class, created));
+
+        // Assert
+        assertSame(first, second);
+        assertNotSame(first, otherTopic);
+        assertNotNull(otherType);
+        assertEquals(3, created.get());
+    }
+
+    @Test
+    void testSharedProducersAreCreatedAgainAfterClosingAll() {
+        // Arrange
+        AtomicInteger created = new AtomicInteger();
+        AiconYardDeckingUpdateResponseProducer before = ProducerManager.getSharedProducer("topic-a",
+                AiconYardDeckingUpdateResponseProducer.class, () -> newProducer(AiconYardDeckingUpdateResponseProducer.class, created));
+
+        // Act
+        ProducerManager.closeAllProducers();
+        AiconYardDeckingUpdateResponseProducer after = ProducerManager.getSharedProducer("topic-a",
+                AiconYardDeckingUpdateResponseProducer.class, () -> newProducer(AiconYardDeckingUpdateResponseProducer.class, created));
+
+        // Assert
+        assertNotSame(before, after);
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void testProducerSettingsAreReadFromConfig() {
+        // Arrange
+        ConfigGroup kafkaConfig = new ConfigGroup(ConfigType.Kafka);
+        kafkaConfig.addItem(new ConfigItem(ConfigSettings.CFG_KAFKA_PRODUCER_LINGER_MS, "20"));
+        kafkaConfig.addItem(new ConfigItem(ConfigSettings.CFG_KAFKA_PRODUCER_BATCH_SIZE, "64 KB"));
+        kafkaConfig.addItem(new ConfigItem(ConfigSettings.CFG_KAFKA_PRODUCER_COMPRESSION_TYPE, "zstd"));
+
+        // Act & Assert
+        assertEquals("20", KafkaConfig.getProducerSetting(kafkaConfig,
+                ConfigSettings.CFG_KAFKA_PRODUCER_LINGER_MS, KafkaConfig.DEFAULT_PRODUCER_LINGER_MS));
+        assertEquals(KafkaConfig.DEFAULT_PRODUCER_BATCH_SIZE, KafkaConfig.getProducerSetting(kafkaConfig,
+                ConfigSettings.CFG_KAFKA_PRODUCER_BATCH_SIZE, KafkaConfig.DEFAULT_PRODUCER_BATCH_SIZE));
+        assertEquals("zstd", KafkaConfig.getProducerSetting(kafkaConfig,
+                ConfigSettings.CFG_KAFKA_PRODUCER_COMPRESSION_TYPE, KafkaConfig.DEFAULT_PRODUCER_COMPRESSION_TYPE));
+        assertEquals(KafkaConfig.DEFAULT_PRODUCER_LINGER_MS, KafkaConfig.getProducerSetting(null,
+                ConfigSettings.CFG_KAFKA_PRODUCER_LINGER_MS, KafkaConfig.DEFAULT_PRODUCER_LINGER_MS));
+    }
+
+    private static <P extends KafkaProducerBase<?, ?>> P newProducer(Class<P> type, AtomicInteger created) {
+        created.incrementAndGet();
+        return mock(type);
+    }
+}
@@ -0,0 +1,66 @@
+package com.aicon.tos.shared.kafka;
+
+import com.aicon.tos.shared.kafka.BufferedKafkaConsumer.MessageMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedGkeyBufferTest {
+
+    @Test
+    void testDuplicateGkeyKeepsFirstArrival() {
+        // Arrange
+        TimedGkeyBuffer buffer = new TimedGkeyBuffer();
+
+        // Act
+        MessageMetadata first = buffer.add(metadata(1L, 100L));
+        MessageMetadata duplicate = buffer.add(metadata(1L, 200L));
+
+        // Assert
+        assertNotNull(first);
+        assertNull(duplicate);
+        assertEquals(1, buffer.size());
+        assertEquals(100L, buffer.get(1L).timestamp());
+        assertNull(buffer.get(2L));
+    }
+
+    @Test
+    void testRemoveOlderThanStopsAtFirstNewerRecord() {
+        // Arrange
+        TimedGkeyBuffer buffer = new TimedGkeyBuffer();
+        buffer.add(metadata(1L, 100L));
+        buffer.add(metadata(2L, 100L));
+        buffer.add(metadata(3L, 200L));
+        buffer.add(metadata(4L, 300L));
+
+        // Act
+        int removed = buffer.removeOlderThan(200L);
+
+        // Assert
+        assertEquals(2, removed);
+        assertEquals(List.of(3L, 4L), buffer.toList().stream().map(MessageMetadata::gKeyValue).toList());
+        assertNull(buffer.get(1L));
+        assertEquals(0, buffer.removeOlderThan(200L));
+    }
+
+    @Test
+    void testOlderTimestampIsRaisedToKeepTimeOrder() {
+        // Arrange
+        TimedGkeyBuffer buffer = new TimedGkeyBuffer();
+        buffer.add(metadata(1L, 200L));
+
+        // Act
+        MessageMetadata added = buffer.add(metadata(2L, 150L));
+
+        // Assert
+        assertEquals(200L, added.timestamp());
+        assertEquals(0, buffer.removeOlderThan(200L));
+        assertEquals(2, buffer.removeOlderThan(201L));
+    }
+
+    private MessageMetadata metadata(Long gkey, long timestamp) {
+        return new MessageMetadata(gkey.toString(), gkey, timestamp);
+    }
+}
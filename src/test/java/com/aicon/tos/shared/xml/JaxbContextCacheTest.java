@@ -0,0 +1,75 @@
+package com.aicon.tos.shared.xml;
+
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JaxbContextCacheTest {
+
+    @XmlRootElement(name = "move")
+    public static class Move {
+        public String gkey;
+        public String position;
+    }
+
+    @Test
+    void testContextIsCachedPerClass() throws JAXBException {
+        // Act & Assert
+        assertSame(JaxbContextCache.getContext(Move.class), JaxbContextCache.getContext(Move.class));
+    }
+
+    @Test
+    void testMarshalUnmarshalRoundTrip() throws JAXBException {
+        // Arrange
+        Move move = new Move();
+        move.gkey = "12345";
+        move.position = "Y-PTM-01C005D.2";
+
+        // Act
+        String xml = JaxbContextCache.marshal(move, Move.class, false, true);
+        Move fromReader = JaxbContextCache.unmarshal(new StringReader(xml), Move.class);
+        Move fromStream = JaxbContextCache.unmarshal(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), Move.class);
+
+        // Assert
+        assertFalse(xml.startsWith("<?xml"), "A fragment has no XML declaration");
+        assertEquals("12345", fromReader.gkey);
+        assertEquals("Y-PTM-01C005D.2", fromReader.position);
+        assertEquals("12345", fromStream.gkey);
+        assertEquals("Y-PTM-01C005D.2", fromStream.position);
+    }
+
+    @Test
+    void testPooledMarshallerDoesNotKeepProperties() throws JAXBException {
+        // Arrange
+        Move move = new Move();
+        move.gkey = "1";
+
+        // Act
+        String fragment = JaxbContextCache.marshal(move, Move.class, true, true);
+        String document = JaxbContextCache.marshal(move, Move.class, false, false);
+
+        // Assert
+        assertFalse(fragment.startsWith("<?xml"));
+        assertTrue(document.startsWith("<?xml"));
+    }
+
+    @Test
+    void testInvalidXmlFails() {
+        // Act & Assert
+        assertThrows(JAXBException.class, () -> JaxbContextCache.unmarshal(new StringReader("<move><gkey>"), Move.class));
+    }
+
+    @Test
+    void testUnexpectedRootElementFails() {
+        // Act & Assert
+        assertThrows(JAXBException.class, () -> JaxbContextCache.unmarshal(
+                new StringReader("<unit><gkey>1</gkey></unit>"), Move.class));
+    }
+}
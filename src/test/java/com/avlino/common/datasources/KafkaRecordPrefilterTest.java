@@ -0,0 +1,93 @@
+package com.avlino.common.datasources;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KafkaRecordPrefilterTest {
+
+    private static final Schema SCHEMA = new Schema.Parser().parse("""
+            {
+              "type": "record", "name": "inv_wi", "fields": [
+                {"name": "gkey", "type": "long"},
+                {"name": "pos_slot", "type": ["null", "string"], "default": null},
+                {"name": "weight", "type": "double"}
+              ]
+            }
+            """);
+
+    @Test
+    void testRecordsAreCandidatesUntilTheSchemaIsLearned() throws IOException {
+        // Arrange
+        KafkaRecordPrefilter prefilter = new KafkaRecordPrefilter(Set.of("2463570"));
+        byte[] other = serialize(7, 1234L, "01C005D.2", 21.5);
+
+        // Act & Assert
+        assertTrue(prefilter.mayMatch(other));
+        prefilter.learn(other, SCHEMA.getField("gkey").schema());
+        assertFalse(prefilter.mayMatch(other));
+        assertTrue(prefilter.mayMatch(serialize(7, 2463570L, "01C005D.2", 21.5)));
+    }
+
+    @Test
+    void testStringFieldIsMatchedOnItsUtf8Bytes() throws IOException {
+        // Arrange
+        KafkaRecordPrefilter prefilter = new KafkaRecordPrefilter(Set.of("01C005D.2", "02A001"));
+        byte[] learned = serialize(3, 1L, "anything", 0.0);
+        prefilter.learn(learned, SCHEMA.getField("pos_slot").schema());
+
+        // Act & Assert
+        assertTrue(prefilter.mayMatch(serialize(3, 5L, "01C005D.2", 1.0)));
+        assertFalse(prefilter.mayMatch(serialize(3, 5L, "01C005D.3", 1.0)));
+    }
+
+    @Test
+    void testFieldsOfOtherTypesAndUnknownSchemasAreNotFiltered() throws IOException {
+        // Arrange
+        KafkaRecordPrefilter prefilter = new KafkaRecordPrefilter(Set.of("21.5"));
+        prefilter.learn(serialize(9, 1L, null, 0.0), SCHEMA.getField("weight").schema());
+
+        // Act & Assert
+        assertTrue(prefilter.mayMatch(serialize(9, 1L, null, 21.5)));
+        assertTrue(prefilter.mayMatch(serialize(10, 1L, null, 3.0)));
+        assertTrue(prefilter.mayMatch(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    void testZigZagVarintAndSchemaId() {
+        // Act & Assert
+        assertArrayEquals(new byte[]{0x00}, KafkaRecordPrefilter.zigZagVarint(0));
+        assertArrayEquals(new byte[]{0x01}, KafkaRecordPrefilter.zigZagVarint(-1));
+        assertArrayEquals(new byte[]{(byte) 0x80, 0x01}, KafkaRecordPrefilter.zigZagVarint(64));
+        assertEquals(258, KafkaRecordPrefilter.schemaId(new byte[]{0, 0, 0, 1, 2, 99}));
+        assertEquals(-1, KafkaRecordPrefilter.schemaId(new byte[]{1, 0, 0, 1, 2}));
+    }
+
+    private static byte[] serialize(int schemaId, long gkey, String posSlot, double weight) throws IOException {
+        GenericRecord record = new GenericData.Record(SCHEMA);
+        record.put("gkey", gkey);
+        record.put("pos_slot", posSlot);
+        record.put("weight", weight);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0);
+        out.write(new byte[]{(byte) (schemaId >> 24), (byte) (schemaId >> 16), (byte) (schemaId >> 8), (byte) schemaId});
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+        new GenericDatumWriter<GenericRecord>(SCHEMA).write(record, encoder);
+        encoder.flush();
+        return out.toByteArray();
+    }
+}